@@ -0,0 +1,234 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.mixedreality;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the SXRf objects that mirror the trackables of an AR platform and
+ * diffs the trackables reported for each frame against the previous one.
+ * <p>
+ * After {@link #update(Collection, boolean)} the table holds the trackables
+ * that were {@linkplain #getAdded() added}, whose tracking state
+ * {@linkplain #getChanged() changed} and that were
+ * {@linkplain #getRemoved() removed}. The entries live in parallel arrays
+ * and the result lists are reused, so an update does not allocate unless a
+ * trackable is added. New trackables are only added once they are
+ * tracking.
+ * <p>
+ * The platform is only reached through an {@link Adapter}, so the table can
+ * be driven by recorded trackables as well.
+ *
+ * @param <T> platform trackable, which must implement equals and hashCode
+ * @param <V> SXRf object mirroring the trackable
+ */
+public final class TrackableTable<T, V> {
+    /**
+     * Access to the platform trackables.
+     */
+    public interface Adapter<T, V> {
+        /**
+         * @return the current tracking state of the trackable
+         */
+        SXRTrackingState getTrackingState(T trackable);
+
+        /**
+         * Create the SXRf object for a trackable seen for the first time.
+         */
+        V create(T trackable);
+    }
+
+    private final Adapter<T, V> mAdapter;
+    private final Map<T, Integer> mIndex = new HashMap<>();
+    private Object[] mTrackables = new Object[16];
+    private Object[] mValues = new Object[16];
+    private SXRTrackingState[] mStates = new SXRTrackingState[16];
+    private int[] mSeenFrame = new int[16];
+    private int mSize;
+    private int mFrame;
+
+    private final ArrayList<V> mAdded = new ArrayList<>();
+    private final ArrayList<V> mChanged = new ArrayList<>();
+    private final ArrayList<SXRTrackingState> mChangedStates = new ArrayList<>();
+    private final ArrayList<V> mRemoved = new ArrayList<>();
+
+    public TrackableTable(Adapter<T, V> adapter) {
+        mAdapter = adapter;
+    }
+
+    /**
+     * Diff the trackables of a new frame against the table.
+     *
+     * @param trackables trackables reported for the frame
+     * @param complete   true if {@code trackables} holds every trackable
+     *                   the platform knows of, in which case the entries
+     *                   missing from it are removed; false if it only holds
+     *                   the trackables updated in the frame
+     */
+    public void update(Collection<T> trackables, boolean complete) {
+        mAdded.clear();
+        mChanged.clear();
+        mChangedStates.clear();
+        mRemoved.clear();
+        ++mFrame;
+
+        for (T trackable : trackables) {
+            final SXRTrackingState state = mAdapter.getTrackingState(trackable);
+            final Integer index = mIndex.get(trackable);
+
+            if (index == null) {
+                if (state == SXRTrackingState.TRACKING) {
+                    mAdded.add(add(trackable, state));
+                }
+                continue;
+            }
+
+            final int i = index;
+            mSeenFrame[i] = mFrame;
+            if (mStates[i] != state) {
+                mStates[i] = state;
+                mChanged.add(getValue(i));
+                mChangedStates.add(state);
+            }
+        }
+
+        if (complete) {
+            for (int i = mSize - 1; i >= 0; --i) {
+                if (mSeenFrame[i] != mFrame) {
+                    mRemoved.add(getValue(i));
+                    remove(i);
+                }
+            }
+        }
+    }
+
+    private V add(T trackable, SXRTrackingState state) {
+        if (mSize == mTrackables.length) {
+            final int capacity = mSize * 2;
+            mTrackables = Arrays.copyOf(mTrackables, capacity);
+            mValues = Arrays.copyOf(mValues, capacity);
+            mStates = Arrays.copyOf(mStates, capacity);
+            mSeenFrame = Arrays.copyOf(mSeenFrame, capacity);
+        }
+        final V value = mAdapter.create(trackable);
+        final int i = mSize++;
+        mTrackables[i] = trackable;
+        mValues[i] = value;
+        mStates[i] = state;
+        mSeenFrame[i] = mFrame;
+        mIndex.put(trackable, i);
+        return value;
+    }
+
+    /*
+     * Move the last entry into the hole, iterating backwards keeps this
+     * safe during update().
+     */
+    private void remove(int i) {
+        final int last = --mSize;
+        mIndex.remove(mTrackables[i]);
+        if (i != last) {
+            mTrackables[i] = mTrackables[last];
+            mValues[i] = mValues[last];
+            mStates[i] = mStates[last];
+            mSeenFrame[i] = mSeenFrame[last];
+            mIndex.put(getTrackable(i), i);
+        }
+        mTrackables[last] = null;
+        mValues[last] = null;
+    }
+
+    /**
+     * @return number of entries
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * @return the platform trackable of an entry
+     */
+    @SuppressWarnings("unchecked")
+    public T getTrackable(int i) {
+        return (T) mTrackables[i];
+    }
+
+    /**
+     * @return the SXRf object of an entry
+     */
+    @SuppressWarnings("unchecked")
+    public V getValue(int i) {
+        return (V) mValues[i];
+    }
+
+    /**
+     * @return the tracking state of an entry as of the last update
+     */
+    public SXRTrackingState getState(int i) {
+        return mStates[i];
+    }
+
+    /**
+     * @return the SXRf object of a trackable, or null if it is not in the table
+     */
+    public V get(T trackable) {
+        final Integer index = mIndex.get(trackable);
+        return index != null ? getValue(index) : null;
+    }
+
+    /**
+     * @return the entries added by the last update
+     */
+    public List<V> getAdded() {
+        return mAdded;
+    }
+
+    /**
+     * @return the entries whose tracking state changed in the last update
+     */
+    public List<V> getChanged() {
+        return mChanged;
+    }
+
+    /**
+     * @return the new tracking state of the i-th entry of {@link #getChanged()}
+     */
+    public SXRTrackingState getChangedState(int i) {
+        return mChangedStates.get(i);
+    }
+
+    /**
+     * @return the entries removed by the last update
+     */
+    public List<V> getRemoved() {
+        return mRemoved;
+    }
+
+    /**
+     * Copy the SXRf objects into a list.
+     */
+    public <L extends List<? super V>> L getValues(L values) {
+        for (int i = 0; i < mSize; ++i) {
+            values.add(getValue(i));
+        }
+        return values;
+    }
+}
@@ -38,19 +38,18 @@ import com.samsungxr.mixedreality.IAnchorEvents;
 import com.samsungxr.mixedreality.IMarkerEvents;
 import com.samsungxr.mixedreality.IMixedReality;
 import com.samsungxr.mixedreality.IPlaneEvents;
+import com.samsungxr.mixedreality.TrackableTable;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class ARCoreHelper
 {
     private SXRContext mGvrContext;
     private IMixedReality mMixedReality;
-    private Map<Plane, ARCorePlane> mArPlanes;
-    private Map<AugmentedImage, ARCoreMarker> mArAugmentedImages;
+    private TrackableTable<Plane, ARCorePlane> mArPlanes;
+    private TrackableTable<AugmentedImage, ARCoreMarker> mArAugmentedImages;
     private List<ARCoreAnchor> mArAnchors;
 
     private Camera mCamera;// ARCore camera
@@ -58,8 +57,28 @@ public class ARCoreHelper
     public ARCoreHelper(SXRContext gvrContext, IMixedReality mr) {
         mGvrContext = gvrContext;
         mMixedReality = mr;
-        mArPlanes = new HashMap<>();
-        mArAugmentedImages = new HashMap<>();
+        mArPlanes = new TrackableTable<>(new TrackableTable.Adapter<Plane, ARCorePlane>() {
+            @Override
+            public SXRTrackingState getTrackingState(Plane plane) {
+                return convertTrackingState(plane.getTrackingState());
+            }
+
+            @Override
+            public ARCorePlane create(Plane plane) {
+                return createPlane(plane);
+            }
+        });
+        mArAugmentedImages = new TrackableTable<>(new TrackableTable.Adapter<AugmentedImage, ARCoreMarker>() {
+            @Override
+            public SXRTrackingState getTrackingState(AugmentedImage augmentedImage) {
+                return convertTrackingState(augmentedImage.getTrackingState());
+            }
+
+            @Override
+            public ARCoreMarker create(AugmentedImage augmentedImage) {
+                return createMarker(augmentedImage);
+            }
+        });
         mArAnchors = new ArrayList<>();
     }
 
@@ -72,106 +91,105 @@ public class ARCoreHelper
         return mCamera;
     }
 
-    public void updatePlanes(Collection<Plane> allPlanes, float scale) {
-
-        // Don't update planes (or notify) when the plane listener is empty, i.e., there is
-        // no listener registered.
-        ARCorePlane arCorePlane;
+    static SXRTrackingState convertTrackingState(TrackingState state) {
+        switch (state) {
+            case TRACKING:
+                return SXRTrackingState.TRACKING;
+            case PAUSED:
+                return SXRTrackingState.PAUSED;
+            default:
+                return SXRTrackingState.STOPPED;
+        }
+    }
 
-        for (Plane plane: allPlanes) {
-            if (plane.getTrackingState() != TrackingState.TRACKING
-                    || mArPlanes.containsKey(plane)) {
-                continue;
-            }
+    /**
+     * Diff the planes known to ARCore against the previous frame and notify
+     * the listeners of the differences.
+     *
+     * @param allPlanes every plane of the session
+     * @param scale     scale from AR to SXRf world
+     */
+    public void updatePlanes(Collection<Plane> allPlanes, float scale) {
+        mArPlanes.update(allPlanes, true);
 
-            arCorePlane = createPlane(plane);
+        final List<ARCorePlane> added = mArPlanes.getAdded();
+        for (int i = 0; i < added.size(); ++i) {
+            final ARCorePlane arCorePlane = added.get(i);
             // FIXME: New planes are updated two times
             arCorePlane.update(scale);
             notifyPlaneDetectionListeners(arCorePlane);
+            arCorePlane.setTrackingState(SXRTrackingState.TRACKING);
+            notifyPlaneStateChangeListeners(arCorePlane, SXRTrackingState.TRACKING);
         }
 
-        for (Plane plane: mArPlanes.keySet()) {
-            arCorePlane = mArPlanes.get(plane);
+        final List<ARCorePlane> changed = mArPlanes.getChanged();
+        for (int i = 0; i < changed.size(); ++i) {
+            final ARCorePlane arCorePlane = changed.get(i);
+            final SXRTrackingState state = mArPlanes.getChangedState(i);
+            arCorePlane.setTrackingState(state);
+            notifyPlaneStateChangeListeners(arCorePlane, state);
+        }
 
-            if (plane.getTrackingState() == TrackingState.TRACKING &&
-                    arCorePlane.getTrackingState() != SXRTrackingState.TRACKING) {
-                arCorePlane.setTrackingState(SXRTrackingState.TRACKING);
-                notifyPlaneStateChangeListeners(arCorePlane, SXRTrackingState.TRACKING);
-            }
-            else if (plane.getTrackingState() == TrackingState.PAUSED &&
-                    arCorePlane.getTrackingState() != SXRTrackingState.PAUSED) {
-                arCorePlane.setTrackingState(SXRTrackingState.PAUSED);
-                notifyPlaneStateChangeListeners(arCorePlane, SXRTrackingState.PAUSED);
-            }
-            else if (plane.getTrackingState() == TrackingState.STOPPED &&
-                    arCorePlane.getTrackingState() != SXRTrackingState.STOPPED) {
+        // planes ARCore forgot about are reported as stopped
+        final List<ARCorePlane> removed = mArPlanes.getRemoved();
+        for (int i = 0; i < removed.size(); ++i) {
+            final ARCorePlane arCorePlane = removed.get(i);
+            if (arCorePlane.getTrackingState() != SXRTrackingState.STOPPED) {
                 arCorePlane.setTrackingState(SXRTrackingState.STOPPED);
                 notifyPlaneStateChangeListeners(arCorePlane, SXRTrackingState.STOPPED);
             }
+        }
 
-            if (plane.getSubsumedBy() != null && arCorePlane.getParentPlane() == null) {
-                arCorePlane.setParentPlane(mArPlanes.get(plane.getSubsumedBy()));
-                notifyMergedPlane(arCorePlane, arCorePlane.getParentPlane());
+        for (int i = 0; i < mArPlanes.size(); ++i) {
+            final Plane plane = mArPlanes.getTrackable(i);
+            final ARCorePlane arCorePlane = mArPlanes.getValue(i);
+
+            if (arCorePlane.getParentPlane() == null) {
+                final Plane parent = plane.getSubsumedBy();
+                if (parent != null) {
+                    arCorePlane.setParentPlane(mArPlanes.get(parent));
+                    notifyMergedPlane(arCorePlane, arCorePlane.getParentPlane());
+                }
             }
 
             arCorePlane.update(scale);
         }
     }
 
+    /**
+     * Diff the augmented images updated in this frame against the previous
+     * states and notify the listeners of the differences.
+     *
+     * @param allAugmentedImages augmented images updated in this frame
+     */
     public void updateAugmentedImages(Collection<AugmentedImage> allAugmentedImages){
-        ARCoreMarker arCoreMarker;
-
-        for (AugmentedImage augmentedImage: allAugmentedImages) {
-            if (augmentedImage.getTrackingState() != TrackingState.TRACKING
-                || mArAugmentedImages.containsKey(augmentedImage)) {
-                continue;
-            }
+        mArAugmentedImages.update(allAugmentedImages, false);
 
-            arCoreMarker = createMarker(augmentedImage);
+        final List<ARCoreMarker> added = mArAugmentedImages.getAdded();
+        for (int i = 0; i < added.size(); ++i) {
+            final ARCoreMarker arCoreMarker = added.get(i);
             notifyMarkerDetectionListeners(arCoreMarker);
-
-            mArAugmentedImages.put(augmentedImage, arCoreMarker);
+            arCoreMarker.setTrackingState(SXRTrackingState.TRACKING);
+            notifyMarkerStateChangeListeners(arCoreMarker, SXRTrackingState.TRACKING);
         }
 
-        for (AugmentedImage augmentedImage: mArAugmentedImages.keySet()) {
-            arCoreMarker = mArAugmentedImages.get(augmentedImage);
-
-            if (augmentedImage.getTrackingState() == TrackingState.TRACKING &&
-                    arCoreMarker.getTrackingState() != SXRTrackingState.TRACKING) {
-                arCoreMarker.setTrackingState(SXRTrackingState.TRACKING);
-                notifyMarkerStateChangeListeners(arCoreMarker, SXRTrackingState.TRACKING);
-            }
-            else if (augmentedImage.getTrackingState() == TrackingState.PAUSED &&
-                    arCoreMarker.getTrackingState() != SXRTrackingState.PAUSED) {
-                arCoreMarker.setTrackingState(SXRTrackingState.PAUSED);
-                notifyMarkerStateChangeListeners(arCoreMarker, SXRTrackingState.PAUSED);
-            }
-            else if (augmentedImage.getTrackingState() == TrackingState.STOPPED &&
-                    arCoreMarker.getTrackingState() != SXRTrackingState.STOPPED) {
-                arCoreMarker.setTrackingState(SXRTrackingState.STOPPED);
-                notifyMarkerStateChangeListeners(arCoreMarker, SXRTrackingState.STOPPED);
-            }
+        final List<ARCoreMarker> changed = mArAugmentedImages.getChanged();
+        for (int i = 0; i < changed.size(); ++i) {
+            final ARCoreMarker arCoreMarker = changed.get(i);
+            final SXRTrackingState state = mArAugmentedImages.getChangedState(i);
+            arCoreMarker.setTrackingState(state);
+            notifyMarkerStateChangeListeners(arCoreMarker, state);
         }
     }
 
     public void updateAnchors(float scale) {
-        for (ARCoreAnchor anchor: mArAnchors) {
-            Anchor arAnchor = anchor.getAnchorAR();
+        for (int i = 0; i < mArAnchors.size(); ++i) {
+            final ARCoreAnchor anchor = mArAnchors.get(i);
+            final SXRTrackingState state = convertTrackingState(anchor.getAnchorAR().getTrackingState());
 
-            if (arAnchor.getTrackingState() == TrackingState.TRACKING &&
-                    anchor.getTrackingState() != SXRTrackingState.TRACKING) {
-                anchor.setTrackingState(SXRTrackingState.TRACKING);
-                notifyAnchorStateChangeListeners(anchor, SXRTrackingState.TRACKING);
-            }
-            else if (arAnchor.getTrackingState() == TrackingState.PAUSED &&
-                    anchor.getTrackingState() != SXRTrackingState.PAUSED) {
-                anchor.setTrackingState(SXRTrackingState.PAUSED);
-                notifyAnchorStateChangeListeners(anchor, SXRTrackingState.PAUSED);
-            }
-            else if (arAnchor.getTrackingState() == TrackingState.STOPPED &&
-                    anchor.getTrackingState() != SXRTrackingState.STOPPED) {
-                anchor.setTrackingState(SXRTrackingState.STOPPED);
-                notifyAnchorStateChangeListeners(anchor, SXRTrackingState.STOPPED);
+            if (anchor.getTrackingState() != state) {
+                anchor.setTrackingState(state);
+                notifyAnchorStateChangeListeners(anchor, state);
             }
 
             anchor.update(scale);
@@ -179,29 +197,15 @@ public class ARCoreHelper
     }
 
     public ArrayList<SXRPlane> getAllPlanes() {
-        ArrayList<SXRPlane> allPlanes = new ArrayList<>();
-
-        for (Plane plane: mArPlanes.keySet()) {
-            allPlanes.add(mArPlanes.get(plane));
-        }
-
-        return allPlanes;
+        return mArPlanes.getValues(new ArrayList<SXRPlane>(mArPlanes.size()));
     }
 
     public ArrayList<SXRMarker> getAllMarkers() {
-        ArrayList<SXRMarker> allAugmentedImages = new ArrayList<>();
-
-        for (AugmentedImage augmentedImage: mArAugmentedImages.keySet()) {
-            allAugmentedImages.add(mArAugmentedImages.get(augmentedImage));
-        }
-
-        return allAugmentedImages;
+        return mArAugmentedImages.getValues(new ArrayList<SXRMarker>(mArAugmentedImages.size()));
     }
 
     public ARCorePlane createPlane(Plane plane) {
-        ARCorePlane arCorePlane = new ARCorePlane(mGvrContext, plane);
-        mArPlanes.put(plane, arCorePlane);
-        return arCorePlane;
+        return new ARCorePlane(mGvrContext, plane);
     }
 
     public ARCoreMarker createMarker(AugmentedImage augmentedImage) {
@@ -249,7 +253,7 @@ public class ARCoreHelper
                 gvrHitResult.setPose(hitPose);
                 // TODO: this distance is using ARCore values, change it to use SXRf instead
                 gvrHitResult.setDistance(hit.getDistance());
-                gvrHitResult.setPlane(mArPlanes.get(trackable));
+                gvrHitResult.setPlane(mArPlanes.get((Plane) trackable));
 
                 return gvrHitResult;
             }
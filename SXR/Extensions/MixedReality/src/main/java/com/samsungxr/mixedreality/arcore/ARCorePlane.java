@@ -19,7 +19,6 @@ import org.joml.Matrix4f;
 import android.support.annotation.NonNull;
 
 import com.google.ar.core.Plane;
-import com.google.ar.core.Pose;
 
 import com.samsungxr.SXRContext;
 import com.samsungxr.SXRNode;
@@ -32,6 +31,14 @@ import java.nio.FloatBuffer;
 class ARCorePlane extends SXRPlane {
     private Plane mARPlane;
     private ARCorePose mPose;
+    private final Matrix4f mModelMatrix = new Matrix4f();
+
+    // polygon of the last update, for hit tests
+    private final float[] mCenterPose = new float[16];
+    private float[] mPolygon = new float[64];
+    private int mPolygonSize;
+    private boolean mPolygonValid;
+    private float mScale = 1.0f;
 
     protected ARCorePlane(SXRContext gvrContext, Plane plane) {
         super(gvrContext);
@@ -100,19 +107,61 @@ class ARCorePlane extends SXRPlane {
         return mParentPlane;
     }
 
+    /**
+     * Check if the given pose is in the plane's polygon, projecting it on
+     * the plane. The polygon is read from ARCore at most once per update,
+     * and the test itself does not allocate.
+     *
+     * @param pose the pose matrix to check, in SXRf world space
+     * @return whether the pose is in the plane's polygon or not.
+     */
     @Override
     public boolean isPoseInPolygon(float[] pose) {
+        if (!mPolygonValid) {
+            readPolygon();
+        }
+
+        // position relative to the plane center, in ARCore units
+        final float[] center = mCenterPose;
+        final float dx = pose[12] / mScale - center[12];
+        final float dy = pose[13] / mScale - center[13];
+        final float dz = pose[14] / mScale - center[14];
 
-        float[] translation = new float[3];
-        float[] rotation = new float[4];
-        float[] arPose;
+        // into the plane space, the inverse of a rotation is its transpose
+        final float x = center[0] * dx + center[1] * dy + center[2] * dz;
+        final float z = center[8] * dx + center[9] * dy + center[10] * dz;
 
-        arPose = pose.clone();
+        return isInPolygon(mPolygon, mPolygonSize, x, z);
+    }
 
-        ARCoreSession.gvr2ar(arPose);
-        ARCoreSession.convertMatrixPoseToVector(arPose, translation, rotation);
+    private void readPolygon() {
+        mARPlane.getCenterPose().toMatrix(mCenterPose, 0);
 
-        return mARPlane.isPoseInPolygon(new Pose(translation, rotation));
+        final FloatBuffer polygon = mARPlane.getPolygon();
+        polygon.rewind();
+        mPolygonSize = polygon.remaining();
+        if (mPolygon.length < mPolygonSize) {
+            mPolygon = new float[mPolygonSize * 2];
+        }
+        polygon.get(mPolygon, 0, mPolygonSize);
+        mPolygonValid = true;
+    }
+
+    /*
+     * Even-odd test of (x, z) against the polygon in xz pairs.
+     */
+    static boolean isInPolygon(float[] polygon, int size, float x, float z) {
+        boolean inside = false;
+
+        for (int i = 0, j = size - 2; i < size; j = i, i += 2) {
+            final float xi = polygon[i], zi = polygon[i + 1];
+            final float xj = polygon[j], zj = polygon[j + 1];
+
+            if ((zi > z) != (zj > z) && x < (xj - xi) * (z - zi) / (zj - zi) + xi) {
+                inside = !inside;
+            }
+        }
+        return inside;
     }
 
     /**
@@ -121,13 +170,16 @@ class ARCorePlane extends SXRPlane {
      * @param scale
      */
     protected void update(float scale) {
+        mScale = scale;
+        mPolygonValid = false;
+
         SXRNode owner = getOwnerObject();
         if (isEnabled() && (owner != null) && owner.isEnabled())
         {
             float w = getWidth();
             float h = getHeight();
             mPose.update(mARPlane.getCenterPose(), scale);
-            Matrix4f m = new Matrix4f();
+            Matrix4f m = mModelMatrix;
             m.set(mPose.getPoseMatrix());
             m.scaleLocal(w * 0.95f, h * 0.95f, 1.0f);
             owner.getTransform().setModelMatrix(m);
@@ -0,0 +1,168 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.mixedreality.tests;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import com.samsungxr.mixedreality.SXRTrackingState;
+import com.samsungxr.mixedreality.TrackableTable;
+import com.samsungxr.utility.Log;
+
+/**
+ * Drives a {@link TrackableTable} with random frames of recorded trackables, complete
+ * and partial, and checks the added, changed and removed entries of every frame against
+ * a straightforward model of the platform. Needs no AR platform.
+ */
+public class TrackableTableTester {
+
+    static final String TAG = TrackableTableTester.class.getSimpleName();
+
+    static final int MAX_ID = 64;
+    static final int TEST_ITERATIONS = 1000;
+    static final SXRTrackingState[] STATES = SXRTrackingState.values();
+
+    public void test() {
+        Log.d(TAG, "test starting");
+
+        for (int i = 0; i < TEST_ITERATIONS; i++) {
+            step();
+        }
+
+        Log.d(TAG, "test finished");
+    }
+
+    /*
+     * The platform changes a few trackables, then reports a frame.
+     */
+    private void step() {
+        final int changes = rand(8);
+        for (int i = 0; i < changes; ++i) {
+            final int id = rand(MAX_ID);
+            if (rand(4) == 0) {
+                mPlatform.remove(id);
+            } else {
+                mPlatform.put(id, STATES[rand(STATES.length)]);
+            }
+            mUpdated.add(id);
+        }
+
+        final boolean complete = rand(2) == 0;
+        final List<Integer> frame = new ArrayList<Integer>(complete ? mPlatform.keySet() : mUpdated);
+        frame.retainAll(mPlatform.keySet());
+        mUpdated.clear();
+
+        mTable.update(frame, complete);
+        check(frame, complete);
+    }
+
+    /*
+     * Work out what the frame should have done to the model and compare it
+     * with what the table reported.
+     */
+    private void check(List<Integer> frame, boolean complete) {
+        final Set<String> added = new HashSet<String>();
+        final Map<String, SXRTrackingState> changed = new HashMap<String, SXRTrackingState>();
+        final Set<String> removed = new HashSet<String>();
+
+        for (Integer id : frame) {
+            final SXRTrackingState state = mPlatform.get(id);
+            final String value = mModel.get(id);
+            if (value == null) {
+                if (state == SXRTrackingState.TRACKING) {
+                    added.add(name(id));
+                    mModel.put(id, name(id));
+                    mModelStates.put(id, state);
+                }
+            } else if (mModelStates.get(id) != state) {
+                changed.put(value, state);
+                mModelStates.put(id, state);
+            }
+        }
+        if (complete) {
+            for (Integer id : new ArrayList<Integer>(mModel.keySet())) {
+                if (!frame.contains(id)) {
+                    removed.add(mModel.remove(id));
+                    mModelStates.remove(id);
+                }
+            }
+        }
+
+        compare("added", added, mTable.getAdded());
+        compare("removed", removed, mTable.getRemoved());
+        compare("changed", changed.keySet(), mTable.getChanged());
+        for (int i = 0; i < mTable.getChanged().size(); ++i) {
+            final String value = mTable.getChanged().get(i);
+            if (mTable.getChangedState(i) != changed.get(value)) {
+                fail(value + " changed to " + mTable.getChangedState(i) + ", expected " + changed.get(value));
+            }
+        }
+
+        if (mTable.size() != mModel.size()) {
+            fail("table has " + mTable.size() + " entries, expected " + mModel.size());
+        }
+        for (int i = 0; i < mTable.size(); ++i) {
+            final Integer id = mTable.getTrackable(i);
+            if (!mTable.getValue(i).equals(mModel.get(id)) || mTable.get(id) != mTable.getValue(i)
+                    || mTable.getState(i) != mModelStates.get(id)) {
+                fail("entry " + i + " for trackable " + id + " does not match the model");
+            }
+        }
+    }
+
+    private static void compare(String what, Set<String> expected, List<String> actual) {
+        if (actual.size() != expected.size() || !expected.containsAll(actual)) {
+            fail(what + " " + actual + ", expected " + expected);
+        }
+    }
+
+    private static void fail(String message) {
+        throw new RuntimeException("test failed: " + message);
+    }
+
+    private static String name(int id) {
+        return "trackable" + id;
+    }
+
+    private int rand(int max) {
+        return mRandom.nextInt(max);
+    }
+
+    private final Map<Integer, SXRTrackingState> mPlatform = new HashMap<Integer, SXRTrackingState>();
+    private final Set<Integer> mUpdated = new HashSet<Integer>();
+    private final Map<Integer, String> mModel = new HashMap<Integer, String>();
+    private final Map<Integer, SXRTrackingState> mModelStates = new HashMap<Integer, SXRTrackingState>();
+    private final Random mRandom = new Random(1645);
+
+    private final TrackableTable<Integer, String> mTable = new TrackableTable<Integer, String>(
+            new TrackableTable.Adapter<Integer, String>() {
+                @Override
+                public SXRTrackingState getTrackingState(Integer trackable) {
+                    return mPlatform.get(trackable);
+                }
+
+                @Override
+                public String create(Integer trackable) {
+                    // a new string each time, so a stale entry does not compare equal by reference
+                    return new String(name(trackable));
+                }
+            });
+}
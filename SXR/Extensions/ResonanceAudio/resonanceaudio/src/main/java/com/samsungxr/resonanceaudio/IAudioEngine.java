@@ -0,0 +1,70 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.resonanceaudio;
+
+/**
+ * The spatial audio engine used by {@link SXRAudioManager}
+ * and its {@link SXRAudioSource} objects.
+ * The manager normally uses {@link ResonanceAudioEngine};
+ * another implementation can be supplied to run the audio
+ * scheduling without audio hardware, for instance to test it.
+ * Sound object IDs are returned by {@link #createSoundObject(String)}.
+ */
+public interface IAudioEngine
+{
+    /**
+     * Sound object ID which does not refer to any sound.
+     */
+    int INVALID_ID = -1;
+
+    boolean preloadSoundFile(String soundFile);
+
+    void unloadSoundFile(String soundFile);
+
+    /**
+     * Creates a sound object for a preloaded sound file.
+     * @return ID of the sound object, {@link #INVALID_ID} on failure
+     */
+    int createSoundObject(String soundFile);
+
+    boolean isSoundPlaying(int sourceId);
+
+    void playSound(int sourceId, boolean looped);
+
+    void pauseSound(int sourceId);
+
+    void resumeSound(int sourceId);
+
+    void stopSound(int sourceId);
+
+    void setSoundVolume(int sourceId, float volume);
+
+    void setSoundObjectPosition(int sourceId, float x, float y, float z);
+
+    void setHeadPosition(float x, float y, float z);
+
+    void setHeadRotation(float x, float y, float z, float w);
+
+    /**
+     * Applies the changes made since the last update.
+     * Called once per frame by the audio manager.
+     */
+    void update();
+
+    void pause();
+
+    void resume();
+}
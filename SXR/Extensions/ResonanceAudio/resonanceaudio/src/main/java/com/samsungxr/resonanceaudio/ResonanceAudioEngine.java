@@ -0,0 +1,140 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.resonanceaudio;
+
+import android.content.Context;
+
+import com.google.vr.sdk.audio.GvrAudioEngine;
+
+/**
+ * {@link IAudioEngine} which plays sound with the
+ * Resonance Audio {@link GvrAudioEngine}.
+ */
+public class ResonanceAudioEngine implements IAudioEngine
+{
+    private final GvrAudioEngine mEngine;
+
+    /**
+     * Creates an audio engine with binaural high quality rendering.
+     * The engine starts paused.
+     * @param context Android context
+     */
+    public ResonanceAudioEngine(Context context)
+    {
+        mEngine = new GvrAudioEngine(context, GvrAudioEngine.RenderingMode.BINAURAL_HIGH_QUALITY);
+        mEngine.pause();
+    }
+
+    /**
+     * Gets the underlying GvrAudioEngine
+     * @return GvrAudioEngine which plays the sound
+     */
+    public GvrAudioEngine getGvrAudioEngine()
+    {
+        return mEngine;
+    }
+
+    @Override
+    public boolean preloadSoundFile(String soundFile)
+    {
+        return mEngine.preloadSoundFile(soundFile);
+    }
+
+    @Override
+    public void unloadSoundFile(String soundFile)
+    {
+        mEngine.unloadSoundFile(soundFile);
+    }
+
+    @Override
+    public int createSoundObject(String soundFile)
+    {
+        int sourceId = mEngine.createSoundObject(soundFile);
+        return (sourceId == GvrAudioEngine.INVALID_ID) ? INVALID_ID : sourceId;
+    }
+
+    @Override
+    public boolean isSoundPlaying(int sourceId)
+    {
+        return mEngine.isSoundPlaying(sourceId);
+    }
+
+    @Override
+    public void playSound(int sourceId, boolean looped)
+    {
+        mEngine.playSound(sourceId, looped);
+    }
+
+    @Override
+    public void pauseSound(int sourceId)
+    {
+        mEngine.pauseSound(sourceId);
+    }
+
+    @Override
+    public void resumeSound(int sourceId)
+    {
+        mEngine.resumeSound(sourceId);
+    }
+
+    @Override
+    public void stopSound(int sourceId)
+    {
+        mEngine.stopSound(sourceId);
+    }
+
+    @Override
+    public void setSoundVolume(int sourceId, float volume)
+    {
+        mEngine.setSoundVolume(sourceId, volume);
+    }
+
+    @Override
+    public void setSoundObjectPosition(int sourceId, float x, float y, float z)
+    {
+        mEngine.setSoundObjectPosition(sourceId, x, y, z);
+    }
+
+    @Override
+    public void setHeadPosition(float x, float y, float z)
+    {
+        mEngine.setHeadPosition(x, y, z);
+    }
+
+    @Override
+    public void setHeadRotation(float x, float y, float z, float w)
+    {
+        mEngine.setHeadRotation(x, y, z, w);
+    }
+
+    @Override
+    public void update()
+    {
+        mEngine.update();
+    }
+
+    @Override
+    public void pause()
+    {
+        mEngine.pause();
+    }
+
+    @Override
+    public void resume()
+    {
+        mEngine.resume();
+    }
+}
@@ -17,16 +17,19 @@ package com.samsungxr.resonanceaudio;
 
 import android.app.Activity;
 
-import com.google.vr.sdk.audio.GvrAudioEngine;
-
 import com.samsungxr.SXRCameraRig;
 import com.samsungxr.SXRContext;
 import com.samsungxr.SXRDrawFrameListener;
 import com.samsungxr.SXREventListeners;
 import com.samsungxr.SXRTransform;
+import com.samsungxr.SXRTransformSnapshot;
 import org.joml.Quaternionf;
+import org.joml.Vector3f;
 
+import java.nio.FloatBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -38,6 +41,13 @@ import java.util.List;
  * the audio source is attached to. The audio manager also
  * tracks the head transform so the sound will be spatially
  * correct.
+ * <p>
+ * By default the position of every source is sent to the audio
+ * engine every frame. With {@link #setUpdateOnMotion(boolean)}
+ * the world transforms of all the sources are read back at once
+ * and only the sources which moved are updated. A voice budget
+ * set with {@link #setMaxVoices(int)} limits how many sources
+ * the engine plays at once.
  */
 public class SXRAudioManager extends SXREventListeners.ActivityEvents
         implements SXRDrawFrameListener
@@ -46,20 +56,57 @@ public class SXRAudioManager extends SXREventListeners.ActivityEvents
 
     private final List<SXRAudioSource> mAudioSources;
 
-    private final GvrAudioEngine mAudioEngine;
+    private final IAudioEngine mAudioEngine;
 
     private final SXRContext mContext;
 
     private boolean mEnabled = false;
 
+    private final Vector3f mHeadPosition = new Vector3f();
+    private final Quaternionf mHeadRotation = new Quaternionf();
+    private final Quaternionf mTempRotation = new Quaternionf();
+
+    private boolean mUpdateOnMotion = false;
+    private final SXRTransformSnapshot mSnapshot = new SXRTransformSnapshot(16);
+    private boolean mSourcesChanged = true;
+    private int mMaxVoices = 0;
+    private SXRAudioSource[] mCandidates = new SXRAudioSource[16];
+    private int mPositionUpdates = 0;
+    private int mVirtualCount = 0;
+
+    /*
+     * Higher priority first, then louder at the listener.
+     */
+    private static final Comparator<SXRAudioSource> sVoiceOrder = new Comparator<SXRAudioSource>()
+    {
+        @Override
+        public int compare(SXRAudioSource a, SXRAudioSource b)
+        {
+            if (a.getPriority() != b.getPriority())
+            {
+                return (a.getPriority() > b.getPriority()) ? -1 : 1;
+            }
+            return Float.compare(b.mAudibility, a.mAudibility);
+        }
+    };
+
 
     public SXRAudioManager(SXRContext context)
+    {
+        this(context, new ResonanceAudioEngine(context.getActivity()));
+    }
+
+    /**
+     * Creates an audio manager which plays sound with
+     * a specific audio engine.
+     * @param context    SXR context
+     * @param engine     audio engine, it should start paused
+     */
+    public SXRAudioManager(SXRContext context, IAudioEngine engine)
     {
         mContext = context;
         mAudioSources = new ArrayList<>();
-        mAudioEngine = new GvrAudioEngine(context.getActivity(),
-                                          GvrAudioEngine.RenderingMode.BINAURAL_HIGH_QUALITY);
-        mAudioEngine.pause();
+        mAudioEngine = engine;
     }
 
     /**
@@ -113,6 +160,7 @@ public class SXRAudioManager extends SXREventListeners.ActivityEvents
             {
                 audioSource.setListener(this);
                 mAudioSources.add(audioSource);
+                mSourcesChanged = true;
             }
         }
     }
@@ -127,6 +175,7 @@ public class SXRAudioManager extends SXREventListeners.ActivityEvents
         {
             audioSource.setListener(null);
             mAudioSources.remove(audioSource);
+            mSourcesChanged = true;
         }
     }
 
@@ -159,18 +208,98 @@ public class SXRAudioManager extends SXREventListeners.ActivityEvents
                 source.setListener(null);
             }
             mAudioSources.clear();
+            mSourcesChanged = true;
         }
     }
 
     /**
-     * Gets the underlying GvrAudioEngine
-     * @return GvrAudioEngine for this audio manager
+     * Only sends the positions of the sources which moved
+     * to the audio engine.
+     * The world transforms of all the sources are read back
+     * with a single call each frame and compared with the
+     * positions sent the frame before.
+     * @param flag true to skip the sources which did not move,
+     *             false to update every source every frame
+     */
+    public void setUpdateOnMotion(boolean flag)
+    {
+        mUpdateOnMotion = flag;
+    }
+
+    /**
+     * Determine if only the sources which moved are updated.
+     * @return true if sources which did not move are skipped
+     * @see #setUpdateOnMotion(boolean)
+     */
+    public boolean isUpdateOnMotion()
+    {
+        return mUpdateOnMotion;
+    }
+
+    /**
+     * Sets the voice budget: the maximum number of sources
+     * the audio engine plays at once.
+     * When more sources are playing, the ones with the highest
+     * priority, and then the ones which are loudest at the
+     * listener, keep playing and the others are virtualized
+     * until a voice is available.
+     * @param maxVoices maximum number of voices, 0 for no limit
+     * @see SXRAudioSource#setPriority(int)
      */
-    GvrAudioEngine getAudioEngine()
+    public void setMaxVoices(int maxVoices)
+    {
+        mMaxVoices = Math.max(maxVoices, 0);
+    }
+
+    /**
+     * Gets the voice budget.
+     * @return maximum number of voices, 0 if there is no limit
+     */
+    public int getMaxVoices()
+    {
+        return mMaxVoices;
+    }
+
+    /**
+     * Gets the number of source positions sent to the
+     * audio engine in the last frame.
+     * @return number of position updates
+     */
+    public int getPositionUpdateCount()
+    {
+        return mPositionUpdates;
+    }
+
+    /**
+     * Gets the number of sources virtualized by the
+     * voice budget in the last frame.
+     * @return number of virtualized sources
+     */
+    public int getVirtualSourceCount()
+    {
+        return mVirtualCount;
+    }
+
+    /**
+     * Gets the audio engine
+     * @return IAudioEngine for this audio manager
+     */
+    IAudioEngine getAudioEngine()
     {
         return mAudioEngine;
     }
 
+    /*
+     * Called when a source is attached to another node.
+     */
+    void onSourcesChanged()
+    {
+        synchronized (mAudioSources)
+        {
+            mSourcesChanged = true;
+        }
+    }
+
     private void pause()
     {
         mAudioEngine.pause();
@@ -185,16 +314,14 @@ public class SXRAudioManager extends SXREventListeners.ActivityEvents
     {
         SXRCameraRig rig = mContext.getMainScene().getMainCameraRig();
         SXRTransform owner = rig.getOwnerObject().getTransform();
-        Quaternionf rotation = new Quaternionf(owner.getRotationX(),
-                                               owner.getRotationY(), owner.getRotationZ(),
-                                               owner.getRotationW());
+        Quaternionf rotation = mHeadRotation;
+        Vector3f position = mHeadPosition;
 
-        SXRTransform head = rig.getHeadTransform();
-        rotation.mul(head.getRotationX(),
-                     head.getRotationY(), head.getRotationZ(), head.getRotationW());
+        owner.get(position, rotation, null);
+        rig.getHeadTransform().getRotation(mTempRotation);
+        rotation.mul(mTempRotation);
 
-        mAudioEngine.setHeadPosition(owner.getPositionX(),
-                                     owner.getPositionY(), owner.getPositionZ());
+        mAudioEngine.setHeadPosition(position.x, position.y, position.z);
         mAudioEngine.setHeadRotation(rotation.x, rotation.y, rotation.z, rotation.w);
     }
 
@@ -205,9 +332,25 @@ public class SXRAudioManager extends SXREventListeners.ActivityEvents
             updateHeadTransform();
             synchronized (mAudioSources)
             {
-                for (SXRAudioSource audioSource : mAudioSources)
+                if (mUpdateOnMotion)
+                {
+                    updateMovedSources();
+                }
+                else
+                {
+                    for (SXRAudioSource audioSource : mAudioSources)
+                    {
+                        audioSource.updatePosition(mAudioEngine);
+                    }
+                    mPositionUpdates = mAudioSources.size();
+                }
+                if (mMaxVoices > 0)
                 {
-                    audioSource.updatePosition(mAudioEngine);
+                    scheduleVoices();
+                }
+                else if (mVirtualCount > 0)
+                {
+                    resumeVirtualSources();
                 }
             }
             // TODO: maybe the following method should not be called from rendering thread
@@ -215,6 +358,103 @@ public class SXRAudioManager extends SXREventListeners.ActivityEvents
         }
     }
 
+    /*
+     * Reads back the transforms of all the sources with one call
+     * and sends the positions which changed to the audio engine.
+     */
+    private void updateMovedSources()
+    {
+        if (mSourcesChanged)
+        {
+            mSnapshot.clear();
+            for (SXRAudioSource audioSource : mAudioSources)
+            {
+                SXRTransform t = audioSource.getTransform();
+                audioSource.mSnapshotIndex = (t != null) ? mSnapshot.add(t) : -1;
+            }
+            mSourcesChanged = false;
+        }
+        mSnapshot.capture();
+
+        final FloatBuffer records = mSnapshot.getRecords();
+        int updates = 0;
+        for (SXRAudioSource audioSource : mAudioSources)
+        {
+            int i = audioSource.mSnapshotIndex;
+            if (i >= 0)
+            {
+                // translation of the model matrix
+                int base = i * SXRTransform.READBACK_SIZE + SXRTransform.TRS_SIZE + 12;
+                if (audioSource.updatePosition(mAudioEngine, records.get(base),
+                                               records.get(base + 1), records.get(base + 2)))
+                {
+                    ++updates;
+                }
+            }
+        }
+        mPositionUpdates = updates;
+    }
+
+    /*
+     * Ranks the active sources and keeps the first mMaxVoices
+     * playing in the audio engine, virtualizing the others.
+     */
+    private void scheduleVoices()
+    {
+        final Vector3f head = mHeadPosition;
+        int count = 0;
+
+        for (SXRAudioSource audioSource : mAudioSources)
+        {
+            if (!audioSource.isActive())
+            {
+                continue;
+            }
+            if (!audioSource.isVirtual() && !audioSource.isLooping() &&
+                !mAudioEngine.isSoundPlaying(audioSource.getSourceId()))
+            {
+                audioSource.onEnded();
+                continue;
+            }
+            audioSource.mAudibility = audioSource.getVolume() /
+                (1.0f + audioSource.getDistanceSquared(head.x, head.y, head.z));
+            if (count == mCandidates.length)
+            {
+                mCandidates = Arrays.copyOf(mCandidates, count * 2);
+            }
+            mCandidates[count++] = audioSource;
+        }
+        if (count > mMaxVoices)
+        {
+            Arrays.sort(mCandidates, 0, count, sVoiceOrder);
+        }
+        // free the voices first so the resumed sources can use them
+        int virtualCount = 0;
+        for (int i = mMaxVoices; i < count; ++i)
+        {
+            mCandidates[i].virtualize(mAudioEngine);
+            ++virtualCount;
+        }
+        for (int i = 0; i < Math.min(count, mMaxVoices); ++i)
+        {
+            mCandidates[i].devirtualize(mAudioEngine);
+        }
+        Arrays.fill(mCandidates, 0, count, null);
+        mVirtualCount = virtualCount;
+    }
+
+    /*
+     * Resumes all the virtualized sources when the voice budget is lifted.
+     */
+    private void resumeVirtualSources()
+    {
+        for (SXRAudioSource audioSource : mAudioSources)
+        {
+            audioSource.devirtualize(mAudioEngine);
+        }
+        mVirtualCount = 0;
+    }
+
     @Override
     public void onDrawFrame(float v)
     {
@@ -15,8 +15,6 @@
 
 package com.samsungxr.resonanceaudio;
 
-import com.google.vr.sdk.audio.GvrAudioEngine;
-
 import com.samsungxr.SXRBehavior;
 import com.samsungxr.SXRContext;
 import com.samsungxr.SXRNode;
@@ -29,6 +27,14 @@ import com.samsungxr.utility.Log;
  * its position from the transform of the scene objects.
  * An audio source must be added to the {@link SXRAudioManager}
  * in order to play it.
+ * <p>
+ * When the audio manager has a voice budget, a playing source
+ * may be virtualized: it is paused in the audio engine while
+ * sources with a higher priority, or which are louder at the
+ * listener, use the available voices, and it resumes when a
+ * voice is free again. A virtualized source is still playing
+ * as far as the application is concerned.
+ * @see SXRAudioManager#setMaxVoices(int)
  */
 public class SXRAudioSource extends SXRBehavior
 {
@@ -39,6 +45,16 @@ public class SXRAudioSource extends SXRBehavior
     private SXRAudioManager mAudioListener;
     private float mVolume;
     private boolean mLoop = false;
+    private int mPriority = 0;
+    private boolean mPlaying = false;
+    private boolean mVirtual = false;
+    private boolean mPositionValid = false;
+    private float mPositionX;
+    private float mPositionY;
+    private float mPositionZ;
+    private final float[] mMatrix = new float[16];
+    int mSnapshotIndex = -1;
+    float mAudibility;
 
     /**
      * Constructs a new sound source.
@@ -52,7 +68,7 @@ public class SXRAudioSource extends SXRBehavior
         mType = getComponentType();
         mAudioListener = null;
         mSoundFile = null;
-        mSourceId = GvrAudioEngine.INVALID_ID;
+        mSourceId = IAudioEngine.INVALID_ID;
         mVolume = 1f;
     }
 
@@ -107,7 +123,7 @@ public class SXRAudioSource extends SXRBehavior
             mAudioListener.getAudioEngine().unloadSoundFile(getSoundFile());
         }
         mSoundFile = null;
-        mSourceId = GvrAudioEngine.INVALID_ID;
+        mSourceId = IAudioEngine.INVALID_ID;
     }
 
     /**
@@ -126,6 +142,52 @@ public class SXRAudioSource extends SXRBehavior
         mSourceId = sourceId;
     }
 
+    /**
+     * Sets the priority of this source for the voice budget of
+     * the audio manager. When there are more playing sources than
+     * voices, sources with a higher priority keep playing and the
+     * others are virtualized. Sources with the same priority are
+     * ranked by how loud they are at the listener.
+     * @param priority priority of the source, 0 by default
+     * @see SXRAudioManager#setMaxVoices(int)
+     */
+    public void setPriority(int priority)
+    {
+        mPriority = priority;
+    }
+
+    /**
+     * Gets the priority of this source for the voice budget.
+     * @return priority of the source
+     * @see #setPriority(int)
+     */
+    public int getPriority()
+    {
+        return mPriority;
+    }
+
+    /**
+     * Determines if this source is virtualized: playing as far
+     * as the application is concerned, but paused in the audio
+     * engine because it did not fit the voice budget.
+     * @return true if virtualized
+     */
+    public boolean isVirtual()
+    {
+        return mVirtual;
+    }
+
+    @Override
+    public void onAttach(SXRNode owner)
+    {
+        super.onAttach(owner);
+        mPositionValid = false;
+        if (mAudioListener != null)
+        {
+            mAudioListener.onSourcesChanged();
+        }
+    }
+
     @Override
     public void onDetach(SXRNode owner)
     {
@@ -146,8 +208,12 @@ public class SXRAudioSource extends SXRBehavior
 
     public boolean isPlaying()
     {
+        if (mVirtual)
+        {
+            return true;
+        }
         if ((mAudioListener != null) &&
-            (getSourceId() != GvrAudioEngine.INVALID_ID))
+            (getSourceId() != IAudioEngine.INVALID_ID))
         {
             return mAudioListener.getAudioEngine().isSoundPlaying(getSourceId());
         }
@@ -193,29 +259,118 @@ public class SXRAudioSource extends SXRBehavior
         {
             return;
         }
-        GvrAudioEngine audioEngine = mAudioListener.getAudioEngine();
+        IAudioEngine audioEngine = mAudioListener.getAudioEngine();
         int sourceId = getSourceId();
-        if (sourceId == GvrAudioEngine.INVALID_ID)
+        if (sourceId == IAudioEngine.INVALID_ID)
         {
             sourceId = audioEngine.createSoundObject(fileName);
         }
-        if (sourceId != GvrAudioEngine.INVALID_ID)
+        if (sourceId != IAudioEngine.INVALID_ID)
         {
             setSourceId(sourceId);
             audioEngine.setSoundVolume(sourceId, getVolume());
             updatePosition(audioEngine);
             audioEngine.playSound(sourceId, mLoop);
+            mPlaying = true;
+            mVirtual = false;
             Log.d("SOUND", "playing audio source %d %s", sourceId, fileName);
         }
     }
 
-    void updatePosition(GvrAudioEngine audioEngine)
+    /*
+     * Sends the world position of the source to the audio engine.
+     */
+    void updatePosition(IAudioEngine audioEngine)
+    {
+        SXRTransform t = getTransform();
+        if (t != null)
+        {
+            float[] m = t.getModelMatrix(mMatrix);
+            mPositionValid = false;
+            updatePosition(audioEngine, m[12], m[13], m[14]);
+        }
+    }
+
+    /*
+     * Sends a world position to the audio engine if it is not
+     * the last one sent.
+     * @return true if the position was sent
+     */
+    boolean updatePosition(IAudioEngine audioEngine, float x, float y, float z)
     {
+        if (mPositionValid && (x == mPositionX) && (y == mPositionY) && (z == mPositionZ))
+        {
+            return false;
+        }
         int sourceId = getSourceId();
-        if (sourceId != GvrAudioEngine.INVALID_ID)
+        mPositionX = x;
+        mPositionY = y;
+        mPositionZ = z;
+        if (sourceId == IAudioEngine.INVALID_ID)
         {
-            SXRTransform t = getTransform();
-            audioEngine.setSoundObjectPosition(sourceId, t.getPositionX(), t.getPositionY(), t.getPositionZ());
+            return false;
+        }
+        audioEngine.setSoundObjectPosition(sourceId, x, y, z);
+        mPositionValid = true;
+        return true;
+    }
+
+    /*
+     * Squared distance between the last position sent and a point.
+     */
+    float getDistanceSquared(float x, float y, float z)
+    {
+        float dx = mPositionX - x;
+        float dy = mPositionY - y;
+        float dz = mPositionZ - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /*
+     * True if the source is playing, or virtualized,
+     * and competes for a voice.
+     */
+    boolean isActive()
+    {
+        return mPlaying && (getSourceId() != IAudioEngine.INVALID_ID);
+    }
+
+    boolean isLooping()
+    {
+        return mLoop;
+    }
+
+    /*
+     * Called when a non-looping sound is found to have ended.
+     */
+    void onEnded()
+    {
+        mPlaying = false;
+        mVirtual = false;
+    }
+
+    /*
+     * Pauses the sound in the engine to free its voice.
+     */
+    void virtualize(IAudioEngine audioEngine)
+    {
+        if (!mVirtual)
+        {
+            audioEngine.pauseSound(getSourceId());
+            mVirtual = true;
+        }
+    }
+
+    /*
+     * Resumes a virtualized sound in the engine.
+     */
+    void devirtualize(IAudioEngine audioEngine)
+    {
+        if (mVirtual)
+        {
+            mVirtual = false;
+            updatePosition(audioEngine);
+            audioEngine.resumeSound(getSourceId());
         }
     }
 
@@ -227,11 +382,13 @@ public class SXRAudioSource extends SXRBehavior
         if (mAudioListener != null)
         {
             int sourceId = getSourceId();
-            if (sourceId != GvrAudioEngine.INVALID_ID)
+            if (sourceId != IAudioEngine.INVALID_ID)
             {
                 mAudioListener.getAudioEngine().pauseSound(sourceId);
             }
         }
+        mPlaying = false;
+        mVirtual = false;
     }
 
     /**
@@ -247,13 +404,15 @@ public class SXRAudioSource extends SXRBehavior
 
     protected void onResume()
     {
-        GvrAudioEngine audioEngine = mAudioListener.getAudioEngine();
+        IAudioEngine audioEngine = mAudioListener.getAudioEngine();
         int sourceId = getSourceId();
-        if (sourceId != GvrAudioEngine.INVALID_ID)
+        if (sourceId != IAudioEngine.INVALID_ID)
         {
             audioEngine.setSoundVolume(sourceId, mVolume);
             updatePosition(audioEngine);
             audioEngine.resumeSound(sourceId);
+            mPlaying = true;
+            mVirtual = false;
         }
     }
 
@@ -267,6 +426,8 @@ public class SXRAudioSource extends SXRBehavior
             Log.d("SOUND", "stopping audio source %d %s", getSourceId(), getSoundFile());
             mAudioListener.getAudioEngine().stopSound(getSourceId());
         }
+        mPlaying = false;
+        mVirtual = false;
     }
 
     /**
@@ -277,7 +438,7 @@ public class SXRAudioSource extends SXRBehavior
     {
         // Save this in case this audio source is not being played yet
         mVolume = volume;
-        if (isPlaying() && (getSourceId() != GvrAudioEngine.INVALID_ID))
+        if (isPlaying() && (getSourceId() != IAudioEngine.INVALID_ID))
         {
             // This will actually work only if the sound file is being played
             mAudioListener.getAudioEngine().setSoundVolume(getSourceId(), getVolume());
@@ -0,0 +1,354 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.resonanceaudio.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.samsungxr.SXRContext;
+import com.samsungxr.SXRNode;
+import com.samsungxr.resonanceaudio.IAudioEngine;
+import com.samsungxr.resonanceaudio.SXRAudioManager;
+import com.samsungxr.resonanceaudio.SXRAudioSource;
+import com.samsungxr.utility.Log;
+
+/**
+ * Runs an {@link SXRAudioManager} against a fake {@link IAudioEngine} and
+ * checks the voice budget and the motion-aware position updates: which
+ * sources the engine plays, which are virtualized, and which positions are
+ * sent to the engine. No audio hardware is needed.
+ * <p>
+ * Has to be run on the GL thread after the context has been initialized.
+ * It drives the frames of the audio manager itself.
+ */
+public class AudioSchedulingTester
+{
+    static final String TAG = AudioSchedulingTester.class.getSimpleName();
+
+    static final int SOURCES = 16;
+    static final int VOICES = 4;
+
+    public AudioSchedulingTester(SXRContext context)
+    {
+        mContext = context;
+    }
+
+    public void test()
+    {
+        Log.d(TAG, "test starting");
+
+        final SXRAudioManager manager = new SXRAudioManager(mContext, mEngine);
+        final SXRNode parent = new SXRNode(mContext);
+        manager.setEnable(true);
+        try
+        {
+            for (int i = 0; i < SOURCES; ++i)
+            {
+                final SXRNode node = new SXRNode(mContext);
+                final SXRAudioSource source = new SXRAudioSource(mContext);
+
+                node.getTransform().setPosition(0, 0, -2);
+                node.attachComponent(source);
+                parent.addChildObject(node);
+                manager.addSource(source);
+                source.load("sound" + i);
+                // the later sources are louder
+                source.setVolume((i + 1) / (float) SOURCES);
+                source.play(true);
+                mSources.add(source);
+            }
+            voiceBudget(manager);
+            motionSkip(manager, parent);
+        }
+        finally
+        {
+            manager.clearSources();
+            manager.setEnable(false);
+        }
+
+        Log.d(TAG, "test finished");
+    }
+
+    /*
+     * The loudest sources, or the ones with a higher priority, get the voices.
+     */
+    private void voiceBudget(SXRAudioManager manager)
+    {
+        manager.setMaxVoices(VOICES);
+        manager.onDrawFrame(0);
+        checkVoices(manager, SOURCES - VOICES);
+
+        // the quietest source outranks all the others
+        final SXRAudioSource quiet = mSources.get(0);
+        quiet.setPriority(1);
+        manager.onDrawFrame(0);
+        checkVoices(manager, 0, SOURCES - VOICES + 1);
+        quiet.setPriority(0);
+
+        // a stopped source frees its voice for a virtualized one
+        final SXRAudioSource loudest = mSources.get(SOURCES - 1);
+        loudest.stop();
+        manager.onDrawFrame(0);
+        checkVoices(manager, SOURCES - VOICES - 1);
+        check(!loudest.isPlaying(), "stopped source is playing");
+        loudest.play(true);
+
+        // lifting the budget resumes every source
+        manager.setMaxVoices(0);
+        manager.onDrawFrame(0);
+        check(manager.getVirtualSourceCount() == 0, manager.getVirtualSourceCount() + " sources virtualized");
+        check(mEngine.getVoiceCount() == SOURCES, "engine plays " + mEngine.getVoiceCount() + " voices");
+        for (SXRAudioSource source : mSources)
+        {
+            check(!source.isVirtual(), "source virtualized without a budget");
+        }
+    }
+
+    /*
+     * Only the sources which moved, directly or with their parent, are sent.
+     */
+    private void motionSkip(SXRAudioManager manager, SXRNode parent)
+    {
+        manager.setUpdateOnMotion(true);
+        manager.onDrawFrame(0);
+        manager.onDrawFrame(0);
+        check(manager.getPositionUpdateCount() == 0,
+              manager.getPositionUpdateCount() + " positions sent without motion");
+
+        final int[] moved = { 1, 5, 9 };
+        for (int i : moved)
+        {
+            mSources.get(i).getOwnerObject().getTransform().setPosition(i, 1, -2);
+        }
+        mEngine.clearPositions();
+        manager.onDrawFrame(0);
+        check(manager.getPositionUpdateCount() == moved.length,
+              manager.getPositionUpdateCount() + " positions sent, expected " + moved.length);
+        check(mEngine.getPositionCount() == moved.length,
+              "engine received " + mEngine.getPositionCount() + " positions");
+        for (int i : moved)
+        {
+            final float[] position = mEngine.getPosition(mSources.get(i));
+            check((position != null) && (position[0] == i) && (position[1] == 1) && (position[2] == -2),
+                  "source " + i + " not sent where it moved");
+        }
+
+        // the world position of every source changes with its parent
+        parent.getTransform().setPosition(0, 0, -1);
+        manager.onDrawFrame(0);
+        check(manager.getPositionUpdateCount() == SOURCES,
+              manager.getPositionUpdateCount() + " positions sent after moving the parent");
+        final float[] position = mEngine.getPosition(mSources.get(0));
+        check(position[2] == -3, "source sent at z " + position[2] + " after moving the parent");
+
+        manager.onDrawFrame(0);
+        check(manager.getPositionUpdateCount() == 0,
+              manager.getPositionUpdateCount() + " positions sent after the motion stopped");
+
+        manager.setUpdateOnMotion(false);
+        manager.onDrawFrame(0);
+        check(manager.getPositionUpdateCount() == SOURCES,
+              manager.getPositionUpdateCount() + " positions sent without motion updates");
+    }
+
+    /*
+     * The sources from the first not playing are the ones virtualized,
+     * except the one given, which outranks them all.
+     */
+    private void checkVoices(SXRAudioManager manager, int promoted, int firstPlaying)
+    {
+        int virtualCount = 0;
+        for (int i = 0; i < mSources.size(); ++i)
+        {
+            final SXRAudioSource source = mSources.get(i);
+            if (!source.isPlaying())
+            {
+                continue;
+            }
+            final boolean voiced = (i == promoted) || (i >= firstPlaying);
+            check(source.isVirtual() != voiced, "source " + i + (voiced ? " virtualized" : " has a voice"));
+            check(mEngine.isSoundPlaying(mEngine.getId(source)) == voiced,
+                  "engine " + (voiced ? "does not play" : "plays") + " source " + i);
+            if (!voiced)
+            {
+                ++virtualCount;
+            }
+        }
+        check(manager.getVirtualSourceCount() == virtualCount,
+              manager.getVirtualSourceCount() + " sources virtualized, expected " + virtualCount);
+        check(mEngine.getVoiceCount() == VOICES, "engine plays " + mEngine.getVoiceCount() + " voices");
+    }
+
+    private void checkVoices(SXRAudioManager manager, int firstPlaying)
+    {
+        checkVoices(manager, -1, firstPlaying);
+    }
+
+    private static void check(boolean condition, String message)
+    {
+        if (!condition)
+        {
+            throw new RuntimeException("test failed: " + message);
+        }
+    }
+
+    /*
+     * Keeps the state of each sound and the positions it is sent.
+     * A paused sound is not playing, as in the Resonance Audio engine.
+     */
+    private static final class FakeAudioEngine implements IAudioEngine
+    {
+        private final List<String> mFiles = new ArrayList<String>();
+        private final List<boolean[]> mStates = new ArrayList<boolean[]>();
+        private final List<float[]> mPositions = new ArrayList<float[]>();
+        private int mPositionCount;
+
+        int getId(SXRAudioSource source)
+        {
+            return mFiles.indexOf(source.getSoundFile());
+        }
+
+        int getVoiceCount()
+        {
+            int count = 0;
+            for (int id = 0; id < mStates.size(); ++id)
+            {
+                if (isSoundPlaying(id))
+                {
+                    ++count;
+                }
+            }
+            return count;
+        }
+
+        float[] getPosition(SXRAudioSource source)
+        {
+            final int id = getId(source);
+            return (id >= 0) ? mPositions.get(id) : null;
+        }
+
+        int getPositionCount()
+        {
+            return mPositionCount;
+        }
+
+        void clearPositions()
+        {
+            mPositionCount = 0;
+        }
+
+        @Override
+        public boolean preloadSoundFile(String soundFile)
+        {
+            return true;
+        }
+
+        @Override
+        public void unloadSoundFile(String soundFile)
+        {
+        }
+
+        @Override
+        public int createSoundObject(String soundFile)
+        {
+            mFiles.add(soundFile);
+            // playing, paused
+            mStates.add(new boolean[2]);
+            mPositions.add(null);
+            return mFiles.size() - 1;
+        }
+
+        @Override
+        public boolean isSoundPlaying(int sourceId)
+        {
+            if ((sourceId < 0) || (sourceId >= mStates.size()))
+            {
+                return false;
+            }
+            final boolean[] state = mStates.get(sourceId);
+            return state[0] && !state[1];
+        }
+
+        @Override
+        public void playSound(int sourceId, boolean looped)
+        {
+            mStates.get(sourceId)[0] = true;
+            mStates.get(sourceId)[1] = false;
+        }
+
+        @Override
+        public void pauseSound(int sourceId)
+        {
+            mStates.get(sourceId)[1] = true;
+        }
+
+        @Override
+        public void resumeSound(int sourceId)
+        {
+            mStates.get(sourceId)[1] = false;
+        }
+
+        @Override
+        public void stopSound(int sourceId)
+        {
+            if ((sourceId >= 0) && (sourceId < mStates.size()))
+            {
+                mStates.get(sourceId)[0] = false;
+            }
+        }
+
+        @Override
+        public void setSoundVolume(int sourceId, float volume)
+        {
+        }
+
+        @Override
+        public void setSoundObjectPosition(int sourceId, float x, float y, float z)
+        {
+            mPositions.set(sourceId, new float[] { x, y, z });
+            ++mPositionCount;
+        }
+
+        @Override
+        public void setHeadPosition(float x, float y, float z)
+        {
+        }
+
+        @Override
+        public void setHeadRotation(float x, float y, float z, float w)
+        {
+        }
+
+        @Override
+        public void update()
+        {
+        }
+
+        @Override
+        public void pause()
+        {
+        }
+
+        @Override
+        public void resume()
+        {
+        }
+    }
+
+    private final SXRContext mContext;
+    private final FakeAudioEngine mEngine = new FakeAudioEngine();
+    private final List<SXRAudioSource> mSources = new ArrayList<SXRAudioSource>();
+}
@@ -0,0 +1,277 @@
+package com.samsungxr.utlis.sceneserializer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary form of {@link SceneData}.
+ * <p>
+ * All values are little endian. The file is laid out as
+ * <pre>
+ * header   magic, version, flags (short), string count, node count,
+ *          string table offset, node table offset,
+ *          environment source (string index), environment scale (float)
+ * strings  file offset of every string, then each string as its UTF-8
+ *          length followed by the bytes
+ * nodes    one fixed size record per node: source and name (string
+ *          indices) and the model matrix (16 floats)
+ * </pre>
+ * A string index of -1 stands for null. Strings come before the nodes and
+ * node records have a fixed size, so a {@link Reader} can hand out nodes
+ * one at a time, in order or at random, straight from a memory mapped file.
+ */
+final class SceneBinaryFormat {
+    static final int MAGIC = 0x53525853; // "SXRS"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int NODE_RECORD_SIZE = 8 + 16 * 4;
+    static final int NO_STRING = -1;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final float[] IDENTITY = {
+            1, 0, 0, 0,
+            0, 1, 0, 0,
+            0, 0, 1, 0,
+            0, 0, 0, 1 };
+
+    private SceneBinaryFormat() {
+    }
+
+    /**
+     * Check whether a file starts with the binary scene signature.
+     */
+    static boolean isBinaryScene(File file) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            byte[] magic = new byte[4];
+            if (in.read(magic) != magic.length) {
+                return false;
+            }
+            return ByteBuffer.wrap(magic).order(ByteOrder.LITTLE_ENDIAN).getInt() == MAGIC;
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Map a binary scene file for reading.
+     */
+    static Reader read(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            // the mapping stays valid after the channel is closed
+            return new Reader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            raf.close();
+        }
+    }
+
+    static void write(SceneData sceneData, File file) throws IOException {
+        ByteBuffer buffer = encode(sceneData);
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            FileChannel channel = out.getChannel();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    static ByteBuffer encode(SceneData sceneData) {
+        List<NodeData> nodes = sceneData.getNodeDataList();
+        EnvironmentData environment = sceneData.getEnvironmentData();
+        int nodeCount = (nodes != null) ? nodes.size() : 0;
+        Map<String, Integer> stringIndex = new HashMap<String, Integer>();
+        List<byte[]> strings = new ArrayList<byte[]>();
+
+        int envSrc = addString(environment != null ? environment.getSrc() : null, stringIndex, strings);
+        int[] nodeStrings = new int[nodeCount * 2];
+        for (int i = 0; i < nodeCount; ++i) {
+            NodeData node = nodes.get(i);
+            nodeStrings[i * 2] = addString(node.getSrc(), stringIndex, strings);
+            nodeStrings[i * 2 + 1] = addString(node.getName(), stringIndex, strings);
+        }
+
+        int stringsOffset = HEADER_SIZE;
+        int stringsSize = strings.size() * 4;
+        for (byte[] s : strings) {
+            stringsSize += 4 + s.length;
+        }
+        int nodesOffset = align(stringsOffset + stringsSize);
+        ByteBuffer buffer = ByteBuffer.allocate(nodesOffset + nodeCount * NODE_RECORD_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.putInt(MAGIC);
+        buffer.putShort((short) VERSION);
+        buffer.putShort((short) 0);
+        buffer.putInt(strings.size());
+        buffer.putInt(nodeCount);
+        buffer.putInt(stringsOffset);
+        buffer.putInt(nodesOffset);
+        buffer.putInt(envSrc);
+        buffer.putFloat(environment != null ? environment.getScale() : 0);
+
+        int offset = stringsOffset + strings.size() * 4;
+        for (byte[] s : strings) {
+            buffer.putInt(offset);
+            offset += 4 + s.length;
+        }
+        for (byte[] s : strings) {
+            buffer.putInt(s.length);
+            buffer.put(s);
+        }
+
+        buffer.position(nodesOffset);
+        for (int i = 0; i < nodeCount; ++i) {
+            float[] matrix = nodes.get(i).getModelMatrix();
+            if (matrix == null || matrix.length < 16) {
+                matrix = IDENTITY;
+            }
+            buffer.putInt(nodeStrings[i * 2]);
+            buffer.putInt(nodeStrings[i * 2 + 1]);
+            for (int j = 0; j < 16; ++j) {
+                buffer.putFloat(matrix[j]);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static int addString(String s, Map<String, Integer> stringIndex, List<byte[]> strings) {
+        if (s == null) {
+            return NO_STRING;
+        }
+        Integer index = stringIndex.get(s);
+        if (index == null) {
+            index = strings.size();
+            stringIndex.put(s, index);
+            strings.add(s.getBytes(UTF8));
+        }
+        return index;
+    }
+
+    private static int align(int offset) {
+        return (offset + 3) & ~3;
+    }
+
+    /**
+     * Reads a binary scene from a buffer. Strings are decoded the first time
+     * they are used and nodes are only created when asked for.
+     */
+    static final class Reader {
+        private final ByteBuffer buffer;
+        private final int stringCount;
+        private final int nodeCount;
+        private final int stringsOffset;
+        private final int nodesOffset;
+        private final String[] strings;
+        private byte[] scratch = new byte[64];
+
+        Reader(ByteBuffer buffer) throws IOException {
+            this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a binary scene");
+            }
+            int version = buffer.getShort(4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary scene version " + version);
+            }
+            stringCount = buffer.getInt(8);
+            nodeCount = buffer.getInt(12);
+            stringsOffset = buffer.getInt(16);
+            nodesOffset = buffer.getInt(20);
+            if (stringCount < 0 || nodeCount < 0 || stringsOffset < HEADER_SIZE
+                    || (long) stringsOffset + stringCount * 4L > buffer.limit()
+                    || nodesOffset < stringsOffset
+                    || (long) nodesOffset + (long) nodeCount * NODE_RECORD_SIZE > buffer.limit()) {
+                throw new IOException("Corrupt binary scene");
+            }
+            strings = new String[stringCount];
+        }
+
+        int getNodeCount() {
+            return nodeCount;
+        }
+
+        EnvironmentData getEnvironmentData() throws IOException {
+            String src = getString(buffer.getInt(24));
+            if (src == null) {
+                return null;
+            }
+            return new EnvironmentData(src, buffer.getFloat(28));
+        }
+
+        NodeData getNode(int index) throws IOException {
+            if (index < 0 || index >= nodeCount) {
+                throw new IndexOutOfBoundsException("Node " + index + " of " + nodeCount);
+            }
+            int record = nodesOffset + index * NODE_RECORD_SIZE;
+            NodeData node = new NodeData();
+            float[] matrix = new float[16];
+
+            node.setSrc(getString(buffer.getInt(record)));
+            node.setName(getString(buffer.getInt(record + 4)));
+            for (int i = 0; i < 16; ++i) {
+                matrix[i] = buffer.getFloat(record + 8 + i * 4);
+            }
+            node.setModelMatrix(matrix);
+            return node;
+        }
+
+        String getString(int index) throws IOException {
+            if (index == NO_STRING) {
+                return null;
+            }
+            if (index < 0 || index >= stringCount) {
+                throw new IOException("Corrupt binary scene: string " + index + " of " + stringCount);
+            }
+            String s = strings[index];
+            if (s == null) {
+                int offset = buffer.getInt(stringsOffset + index * 4);
+                int length = (offset >= stringsOffset && offset <= buffer.limit() - 4)
+                        ? buffer.getInt(offset) : -1;
+                if (length < 0 || length > buffer.limit() - offset - 4) {
+                    throw new IOException("Corrupt binary scene: string " + index);
+                }
+                if (scratch.length < length) {
+                    scratch = new byte[Math.max(length, scratch.length * 2)];
+                }
+                ByteBuffer view = buffer.duplicate();
+                view.position(offset + 4);
+                view.get(scratch, 0, length);
+                s = new String(scratch, 0, length, UTF8);
+                strings[index] = s;
+            }
+            return s;
+        }
+
+        /**
+         * Create the complete {@link SceneData}, for conversion.
+         */
+        SceneData toSceneData() throws IOException {
+            SceneData sceneData = new SceneData();
+            List<NodeData> nodes = new ArrayList<NodeData>(nodeCount);
+
+            for (int i = 0; i < nodeCount; ++i) {
+                nodes.add(getNode(i));
+            }
+            sceneData.setEnvironmentData(getEnvironmentData());
+            sceneData.setNodeDataList(nodes);
+            return sceneData;
+        }
+    }
+}
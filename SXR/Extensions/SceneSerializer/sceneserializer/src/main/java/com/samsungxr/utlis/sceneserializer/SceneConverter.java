@@ -0,0 +1,50 @@
+package com.samsungxr.utlis.sceneserializer;
+
+import com.google.gson.Gson;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+
+/**
+ * Converts scene files between the JSON format and the binary format
+ * written by {@link SceneSerializer#exportBinaryScene(File)}.
+ */
+public final class SceneConverter {
+    private SceneConverter() {
+    }
+
+    public static void jsonToBinary(File json, File binary) throws IOException {
+        SceneData sceneData = readJson(new Gson(), json);
+        if (sceneData == null) {
+            sceneData = new SceneData();
+        }
+        SceneBinaryFormat.write(sceneData, binary);
+    }
+
+    public static void binaryToJson(File binary, File json) throws IOException {
+        SceneData sceneData = SceneBinaryFormat.read(binary).toSceneData();
+        writeJson(new Gson(), sceneData, json);
+    }
+
+    static SceneData readJson(Gson gson, File location) throws IOException {
+        BufferedReader reader = new BufferedReader(new FileReader(location));
+        try {
+            return gson.fromJson(reader, SceneData.class);
+        } finally {
+            reader.close();
+        }
+    }
+
+    static void writeJson(Gson gson, SceneData sceneData, File location) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new FileWriter(location));
+        try {
+            gson.toJson(sceneData, writer);
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -3,9 +3,6 @@ package com.samsungxr.utlis.sceneserializer;
 import android.os.Environment;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 
 import com.samsungxr.SXRAndroidResource;
 import com.samsungxr.SXRContext;
@@ -19,13 +16,10 @@ import com.samsungxr.nodes.SXRCubeNode;
 import com.samsungxr.nodes.SXRSphereNode;
 import com.samsungxr.utility.Log;
 
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Future;
@@ -33,6 +27,7 @@ import java.util.concurrent.Future;
 public class SceneSerializer {
     private static final String TAG = SceneSerializer.class.getSimpleName();
     private static final String DEFAULT_SCENE_NAME = "scene.json";
+    private static final String DEFAULT_BINARY_SCENE_NAME = "scene.sxrs";
     private transient static final String CUBEMAP_EXTENSION = ".zip";
     private transient static final float DEFAULT_ENVIRONMENT_SCALE = 200.0f;
     private Gson gson;
@@ -55,19 +50,37 @@ public class SceneSerializer {
         importScene(gvrContext,gvrScene,location,sceneLoaderListener);
     }
 
+    /**
+     * Load a scene saved by {@link #exportScene(File)} or
+     * {@link #exportBinaryScene(File)}; the format is detected from the file.
+     * Nodes of a binary scene are read from the file one at a time, as the
+     * previous model finishes loading.
+     */
     public void importScene(SXRContext gvrContext, SXRScene gvrScene, File location,
                             SceneLoaderListener sceneLoaderListener) {
         this.sceneLoaderListener = sceneLoaderListener;
-        JsonParser parser = new JsonParser();
-        JsonElement jsonElement = null;
+        Iterator<NodeData> nodes = null;
         try {
-            jsonElement = parser.parse(new FileReader(location));
-            sceneData = gson.fromJson(jsonElement,SceneData.class);
+            if (SceneBinaryFormat.isBinaryScene(location)) {
+                SceneBinaryFormat.Reader reader = SceneBinaryFormat.read(location);
+                SceneData data = new SceneData();
+                data.setEnvironmentData(reader.getEnvironmentData());
+                data.setNodeDataList(new ArrayList<NodeData>(reader.getNodeCount()));
+                sceneData = data;
+                nodes = new BinaryNodeIterator(reader, data.getNodeDataList());
+            } else {
+                sceneData = SceneConverter.readJson(gson, location);
+                if (sceneData != null && sceneData.getNodeDataList() != null) {
+                    nodes = sceneData.getNodeDataList().iterator();
+                }
+            }
         } catch (FileNotFoundException e) {
             Log.d(TAG,"Could not load scene from file");
+        } catch (IOException e) {
+            Log.e(TAG, "Could not load scene from file:%s", e.getMessage());
         }
         loadEnvironment(gvrContext, gvrScene);
-        loadNodes(gvrContext, gvrScene);
+        loadNodes(gvrContext, gvrScene, nodes);
     }
 
     public void exportScene() throws IOException {
@@ -81,12 +94,26 @@ public class SceneSerializer {
             return;
         }
         sceneData.prepareForExport();
-        String scene = gson.toJson(sceneData);
+        SceneConverter.writeJson(gson, sceneData, location);
+    }
 
-        FileWriter fw = new FileWriter(location);
-        BufferedWriter bw = new BufferedWriter(fw);
-        bw.write(scene);
-        bw.close();
+    public void exportBinaryScene() throws IOException {
+        File location = new File(Environment.getExternalStorageDirectory().getAbsolutePath() +
+                File.separator + DEFAULT_BINARY_SCENE_NAME);
+        exportBinaryScene(location);
+    }
+
+    /**
+     * Save the scene in the binary format, which loads faster and is
+     * smaller than JSON. {@link #importScene(SXRContext, SXRScene, File, SceneLoaderListener)}
+     * reads either format; {@link SceneConverter} converts between them.
+     */
+    public void exportBinaryScene(File location) throws IOException {
+        if(sceneData == null) {
+            return;
+        }
+        sceneData.prepareForExport();
+        SceneBinaryFormat.write(sceneData, location);
     }
 
     public void setEnvironmentData(String fullPath) {
@@ -171,35 +198,70 @@ public class SceneSerializer {
         }
     }
 
-    private void loadNodes(SXRContext gvrContext, SXRScene gvrScene) {
-        if(sceneData == null) {
+    private void loadNodes(SXRContext gvrContext, SXRScene gvrScene, Iterator<NodeData> nodes) {
+        if(nodes == null) {
             return;
         }
-        List<NodeData> sceneObjectDataList = sceneData.getNodeDataList();
-        if(sceneObjectDataList == null) {
-            return;
-        }
-        AssetObserver assetObserver = new AssetObserver(sceneObjectDataList, gvrContext, gvrScene);
+        AssetObserver assetObserver = new AssetObserver(nodes, gvrContext, gvrScene);
         gvrContext.getEventReceiver().addListener(assetObserver);
         assetObserver.startLoading();
     }
 
+    /**
+     * Reads the nodes of a binary scene as they are needed, adding each one
+     * to the scene data; removing a node takes it out of the scene data.
+     */
+    private static class BinaryNodeIterator implements Iterator<NodeData> {
+        final SceneBinaryFormat.Reader reader;
+        final List<NodeData> loaded;
+        int next = 0;
+        NodeData last;
+
+        BinaryNodeIterator(SceneBinaryFormat.Reader reader, List<NodeData> loaded) {
+            this.reader = reader;
+            this.loaded = loaded;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < reader.getNodeCount();
+        }
+
+        @Override
+        public NodeData next() {
+            try {
+                last = reader.getNode(next++);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            loaded.add(last);
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            loaded.remove(last);
+            last = null;
+        }
+    }
+
     private class AssetObserver implements IAssetEvents {
-        Collection<NodeData> sceneObjectDatas;
         SXRContext context;
         SXRScene scene;
         Iterator<NodeData> iterator;
         NodeData currentSod;
 
-        AssetObserver(Collection<NodeData> sceneObjectDatas, SXRContext context, SXRScene
+        AssetObserver(Iterator<NodeData> iterator, SXRContext context, SXRScene
                 scene) {
-            this.sceneObjectDatas = sceneObjectDatas;
+            this.iterator = iterator;
             this.scene = scene;
             this.context = context;
         }
 
         void startLoading() {
-            iterator = sceneObjectDatas.iterator();
             loadNextAsset();
         }
 
@@ -0,0 +1,133 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.physics;
+
+import com.samsungxr.utility.Log;
+
+/**
+ * Feeds hand made engine contacts to a {@link SXRContactBuffer} and checks
+ * the {@link SXRContactBuffer#ENTER}, {@link SXRContactBuffer#PERSIST} and
+ * {@link SXRContactBuffer#EXIT} events it reports. Does not need a physics
+ * engine, so it sits next to the buffer to reach the engine side entry point.
+ */
+public class ContactBufferTester
+{
+    private static final String TAG = ContactBufferTester.class.getSimpleName();
+
+    private static final long BODY_A = 0x1000;
+    private static final long BODY_B = 0x2000;
+    private static final long BODY_C = 0x3000;
+
+    private final SXRContactBuffer mBuffer = new SXRContactBuffer();
+
+    public void test()
+    {
+        Log.d(TAG, "test starting");
+
+        compoundPairEntersOnce();
+        compoundPairKeepsDeepestPoint();
+        compoundPairPersistsAndExitsOnce();
+        separatePairsAreKept();
+
+        Log.d(TAG, "test finished");
+    }
+
+    /*
+     * A compound body touching another one with three of its children
+     * produces three manifolds for the same pair.
+     */
+    private void compoundPairEntersOnce()
+    {
+        mBuffer.clear();
+        step(new long[] { BODY_A, BODY_B, BODY_A, BODY_B, BODY_A, BODY_B },
+             new float[] { -0.1f, -0.3f, -0.2f }, new float[] { 1, 2, 3 });
+
+        check(mBuffer.getCount() == 1, "compound pair reported " + mBuffer.getCount() + " times");
+        check(mBuffer.getEnterCount() == 1, "compound pair entered " + mBuffer.getEnterCount() + " times");
+        check(mBuffer.getState(0) == SXRContactBuffer.ENTER, "compound pair not entering");
+    }
+
+    private void compoundPairKeepsDeepestPoint()
+    {
+        mBuffer.clear();
+        step(new long[] { BODY_A, BODY_B, BODY_A, BODY_B, BODY_A, BODY_B },
+             new float[] { -0.1f, -0.3f, -0.2f }, new float[] { 1, 2, 3 });
+
+        float[] point = new float[3];
+        mBuffer.getPoint(0, point);
+        check(mBuffer.getDistance(0) == -0.3f, "deepest distance lost: " + mBuffer.getDistance(0));
+        check(point[0] == 1, "point not taken from the deepest manifold: " + point[0]);
+        check(mBuffer.getImpulse(0) == 6, "impulse not summed: " + mBuffer.getImpulse(0));
+    }
+
+    private void compoundPairPersistsAndExitsOnce()
+    {
+        mBuffer.clear();
+        step(new long[] { BODY_A, BODY_B, BODY_A, BODY_B },
+             new float[] { -0.1f, -0.2f }, new float[] { 1, 1 });
+
+        // the pair touches with a different number of manifolds
+        step(new long[] { BODY_A, BODY_B, BODY_A, BODY_B, BODY_A, BODY_B },
+             new float[] { -0.1f, -0.2f, -0.1f }, new float[] { 1, 1, 1 });
+        check(mBuffer.getCount() == 1, "persisting pair reported " + mBuffer.getCount() + " times");
+        check(mBuffer.getEnterCount() == 0 && mBuffer.getExitCount() == 0, "persisting pair entered or exited");
+        check(mBuffer.getState(0) == SXRContactBuffer.PERSIST, "pair not persisting");
+
+        step(new long[0], new float[0], new float[0]);
+        check(mBuffer.getCount() == 1, "exiting pair reported " + mBuffer.getCount() + " times");
+        check(mBuffer.getExitCount() == 1, "pair exited " + mBuffer.getExitCount() + " times");
+    }
+
+    private void separatePairsAreKept()
+    {
+        mBuffer.clear();
+        step(new long[] { BODY_B, BODY_C, BODY_A, BODY_B, BODY_A, BODY_C, BODY_A, BODY_B },
+             new float[] { -0.1f, -0.1f, -0.1f, -0.1f }, new float[] { 1, 1, 1, 1 });
+
+        check(mBuffer.getEnterCount() == 3, "three pairs entered " + mBuffer.getEnterCount() + " times");
+        check(mBuffer.getBodyA(0) == BODY_A && mBuffer.getBodyB(0) == BODY_B, "pairs not sorted");
+        check(mBuffer.getBodyA(1) == BODY_A && mBuffer.getBodyB(1) == BODY_C, "pairs not sorted");
+        check(mBuffer.getBodyA(2) == BODY_B && mBuffer.getBodyB(2) == BODY_C, "pairs not sorted");
+    }
+
+    /*
+     * The x coordinate of each point is its index, so the chosen manifold
+     * can be told apart.
+     */
+    private void step(long[] bodies, float[] distances, float[] impulses)
+    {
+        int count = distances.length;
+        float[] data = new float[count * SXRContactBuffer.STRIDE];
+
+        for (int i = 0; i < count; ++i)
+        {
+            int d = i * SXRContactBuffer.STRIDE;
+            data[d + SXRContactBuffer.POINT] = i;
+            data[d + SXRContactBuffer.NORMAL + 1] = 1;
+            data[d + SXRContactBuffer.DISTANCE] = distances[i];
+            data[d + SXRContactBuffer.IMPULSE] = impulses[i];
+        }
+        mBuffer.update(bodies, data, count);
+    }
+
+    private static void check(boolean condition, String message)
+    {
+        if (!condition)
+        {
+            throw new RuntimeException("test failed: " + message);
+        }
+    }
+}
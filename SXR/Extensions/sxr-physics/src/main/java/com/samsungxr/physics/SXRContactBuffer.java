@@ -0,0 +1,417 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.physics;
+
+/**
+ * Contacts between rigid bodies found by one step of a {@link SXRWorld}.
+ * <p>
+ * The physics engine writes the contacts straight into primitive arrays
+ * which are reused from step to step. Each contact is compared against the
+ * previous step and classified as {@link #ENTER}, {@link #PERSIST} or
+ * {@link #EXIT}. Exit contacts keep the data of the last step in which the
+ * bodies touched.
+ * <p>
+ * The buffer is only valid during
+ * {@link SXRWorld.IContactListener#onContacts(SXRWorld, SXRContactBuffer)};
+ * copy out anything needed later.
+ */
+public final class SXRContactBuffer
+{
+    /** The bodies started touching in this step. */
+    public static final int ENTER = 0;
+    /** The bodies were already touching in the previous step. */
+    public static final int PERSIST = 1;
+    /** The bodies stopped touching in this step. */
+    public static final int EXIT = 2;
+
+    // must match ContactData in physics_world.h
+    static final int POINT = 0;
+    static final int NORMAL = 3;
+    static final int DISTANCE = 6;
+    static final int IMPULSE = 7;
+    static final int STRIDE = 8;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int INSERTION_SORT_SIZE = 12;
+
+    /**
+     * Contacts of one step, sorted by body pair.
+     */
+    private static final class Contacts
+    {
+        long[] bodies;
+        float[] data;
+        int[] order;
+        int count;
+
+        Contacts(int capacity)
+        {
+            allocate(capacity);
+        }
+
+        void allocate(int capacity)
+        {
+            bodies = new long[capacity * 2];
+            data = new float[capacity * STRIDE];
+            order = new int[capacity];
+        }
+
+        int capacity()
+        {
+            return order.length;
+        }
+
+        int compare(int i, Contacts other, int j)
+        {
+            long a = bodies[i * 2];
+            long b = other.bodies[j * 2];
+            if (a != b)
+            {
+                return (a < b) ? -1 : 1;
+            }
+            a = bodies[i * 2 + 1];
+            b = other.bodies[j * 2 + 1];
+            if (a != b)
+            {
+                return (a < b) ? -1 : 1;
+            }
+            return 0;
+        }
+
+        void sort()
+        {
+            for (int i = 0; i < count; ++i)
+            {
+                order[i] = i;
+            }
+            sort(0, count - 1);
+        }
+
+        /**
+         * Merge the contacts of the same pair of bodies, which are next to
+         * each other once sorted. The engine reports one contact per
+         * manifold and a pair may have several of them, one per child of
+         * a compound shape. The deepest point is kept and the impulses
+         * are summed.
+         */
+        void merge()
+        {
+            if (count == 0)
+            {
+                return;
+            }
+            int kept = 0;
+            for (int i = 1; i < count; ++i)
+            {
+                int k = order[kept];
+                int m = order[i];
+                if (compare(k, this, m) != 0)
+                {
+                    order[++kept] = m;
+                    continue;
+                }
+                int dk = k * STRIDE;
+                int dm = m * STRIDE;
+                float impulse = data[dk + IMPULSE] + data[dm + IMPULSE];
+                if (data[dm + DISTANCE] < data[dk + DISTANCE])
+                {
+                    System.arraycopy(data, dm, data, dk, STRIDE);
+                }
+                data[dk + IMPULSE] = impulse;
+            }
+            count = kept + 1;
+        }
+
+        private void sort(int lo, int hi)
+        {
+            while (hi - lo > INSERTION_SORT_SIZE)
+            {
+                int pivot = order[(lo + hi) >>> 1];
+                int i = lo;
+                int j = hi;
+
+                while (i <= j)
+                {
+                    while (compare(order[i], this, pivot) < 0)
+                    {
+                        ++i;
+                    }
+                    while (compare(order[j], this, pivot) > 0)
+                    {
+                        --j;
+                    }
+                    if (i <= j)
+                    {
+                        int t = order[i];
+                        order[i++] = order[j];
+                        order[j--] = t;
+                    }
+                }
+                // recurse into the smaller half to bound the stack depth
+                if (j - lo < hi - i)
+                {
+                    sort(lo, j);
+                    lo = i;
+                }
+                else
+                {
+                    sort(i, hi);
+                    hi = j;
+                }
+            }
+            for (int i = lo + 1; i <= hi; ++i)
+            {
+                int v = order[i];
+                int j = i - 1;
+                while ((j >= lo) && (compare(order[j], this, v) > 0))
+                {
+                    order[j + 1] = order[j];
+                    --j;
+                }
+                order[j + 1] = v;
+            }
+        }
+    }
+
+    private Contacts mCurrent = new Contacts(INITIAL_CAPACITY);
+    private Contacts mPrevious = new Contacts(INITIAL_CAPACITY);
+    private int[] mEventState = new int[INITIAL_CAPACITY * 2];
+    private int[] mEventIndex = new int[INITIAL_CAPACITY * 2];
+    private int mEventCount = 0;
+    private int mEnterCount = 0;
+    private int mExitCount = 0;
+
+    SXRContactBuffer() { }
+
+    /**
+     * Fetch the contacts of the last step from the physics engine and
+     * compare them with the previous step. Called on the physics thread.
+     */
+    void update(long nativeWorld)
+    {
+        Contacts swap = mPrevious;
+        mPrevious = mCurrent;
+        mCurrent = swap;
+
+        Contacts cur = mCurrent;
+        int count = NativePhysics3DWorld.getContacts(nativeWorld, cur.bodies, cur.data, cur.capacity());
+        if (count > cur.capacity())
+        {
+            cur.allocate(Math.max(count, cur.capacity() * 2));
+            count = NativePhysics3DWorld.getContacts(nativeWorld, cur.bodies, cur.data, cur.capacity());
+        }
+        cur.count = count;
+        cur.sort();
+        cur.merge();
+        diff();
+    }
+
+    /**
+     * Replace the engine contacts of one step with the given ones, in the
+     * layout written by the engine. Lets the step to step classification
+     * be checked without a physics engine.
+     * @param bodies two body handles per contact, in ascending order
+     * @param data   {@link #STRIDE} floats per contact
+     * @param count  number of contacts
+     */
+    void update(long[] bodies, float[] data, int count)
+    {
+        Contacts swap = mPrevious;
+        mPrevious = mCurrent;
+        mCurrent = swap;
+
+        Contacts cur = mCurrent;
+        if (count > cur.capacity())
+        {
+            cur.allocate(Math.max(count, cur.capacity() * 2));
+        }
+        System.arraycopy(bodies, 0, cur.bodies, 0, count * 2);
+        System.arraycopy(data, 0, cur.data, 0, count * STRIDE);
+        cur.count = count;
+        cur.sort();
+        cur.merge();
+        diff();
+    }
+
+    /**
+     * Forget all contacts, so the next step reports every contact as new.
+     */
+    void clear()
+    {
+        mCurrent.count = 0;
+        mPrevious.count = 0;
+        mEventCount = 0;
+        mEnterCount = 0;
+        mExitCount = 0;
+    }
+
+    private void diff()
+    {
+        Contacts cur = mCurrent;
+        Contacts prev = mPrevious;
+        int maxEvents = cur.count + prev.count;
+        int i = 0;
+        int j = 0;
+
+        if (mEventState.length < maxEvents)
+        {
+            mEventState = new int[maxEvents * 2];
+            mEventIndex = new int[maxEvents * 2];
+        }
+        mEventCount = 0;
+        mEnterCount = 0;
+        mExitCount = 0;
+        while ((i < cur.count) || (j < prev.count))
+        {
+            int c;
+
+            if (i >= cur.count)
+            {
+                c = 1;
+            }
+            else if (j >= prev.count)
+            {
+                c = -1;
+            }
+            else
+            {
+                c = cur.compare(cur.order[i], prev, prev.order[j]);
+            }
+            if (c < 0)
+            {
+                addEvent(ENTER, cur.order[i++]);
+                ++mEnterCount;
+            }
+            else if (c > 0)
+            {
+                // previous contacts are stored as negative indices
+                addEvent(EXIT, -1 - prev.order[j++]);
+                ++mExitCount;
+            }
+            else
+            {
+                addEvent(PERSIST, cur.order[i++]);
+                ++j;
+            }
+        }
+    }
+
+    private void addEvent(int state, int index)
+    {
+        mEventState[mEventCount] = state;
+        mEventIndex[mEventCount] = index;
+        ++mEventCount;
+    }
+
+    private Contacts contactsOf(int event)
+    {
+        return (mEventIndex[event] < 0) ? mPrevious : mCurrent;
+    }
+
+    private int indexOf(int event)
+    {
+        int index = mEventIndex[event];
+        return (index < 0) ? (-1 - index) : index;
+    }
+
+    /**
+     * @return number of contacts in this step, including the ones which ended.
+     */
+    public int getCount()
+    {
+        return mEventCount;
+    }
+
+    /**
+     * @return number of contacts which started in this step.
+     */
+    public int getEnterCount()
+    {
+        return mEnterCount;
+    }
+
+    /**
+     * @return number of contacts which ended in this step.
+     */
+    public int getExitCount()
+    {
+        return mExitCount;
+    }
+
+    /**
+     * @param i contact index between 0 and {@link #getCount()} - 1
+     * @return {@link #ENTER}, {@link #PERSIST} or {@link #EXIT}
+     */
+    public int getState(int i)
+    {
+        return mEventState[i];
+    }
+
+    /**
+     * Get the native handle of the first body of a contact. It matches
+     * {@link SXRRigidBody#getNative()}; use {@link SXRWorld#findBody(long)}
+     * to look up the body.
+     */
+    public long getBodyA(int i)
+    {
+        return contactsOf(i).bodies[indexOf(i) * 2];
+    }
+
+    /**
+     * Get the native handle of the second body of a contact.
+     * @see #getBodyA(int)
+     */
+    public long getBodyB(int i)
+    {
+        return contactsOf(i).bodies[indexOf(i) * 2 + 1];
+    }
+
+    /**
+     * Copy the deepest contact point, in world coordinates.
+     * @param i contact index
+     * @param point array receiving x, y, z
+     */
+    public void getPoint(int i, float[] point)
+    {
+        System.arraycopy(contactsOf(i).data, indexOf(i) * STRIDE + POINT, point, 0, 3);
+    }
+
+    /**
+     * Copy the contact normal, in world coordinates, pointing towards body A.
+     * @param i contact index
+     * @param normal array receiving x, y, z
+     */
+    public void getNormal(int i, float[] normal)
+    {
+        System.arraycopy(contactsOf(i).data, indexOf(i) * STRIDE + NORMAL, normal, 0, 3);
+    }
+
+    /**
+     * @return distance between the bodies at the deepest point (negative when penetrating)
+     */
+    public float getDistance(int i)
+    {
+        return contactsOf(i).data[indexOf(i) * STRIDE + DISTANCE];
+    }
+
+    /**
+     * @return impulse applied by the solver, summed over all points of the contact
+     */
+    public float getImpulse(int i)
+    {
+        return contactsOf(i).data[indexOf(i) * STRIDE + IMPULSE];
+    }
+}
@@ -488,6 +488,31 @@ public class SXRRigidBody extends SXRPhysicsWorldObject {
         Native3DRigidBody.setContactProcessingThreshold(getNative(), n);
     }
 
+    /**
+     * Returns whether the contacts of this {@linkplain SXRRigidBody rigid body}
+     * are reported by the physics world.
+     *
+     * @return true if contacts are reported (the default)
+     * @see #setContactReporting(boolean)
+     */
+    public boolean getContactReporting() {
+        return Native3DRigidBody.getContactReporting(getNative());
+    }
+
+    /**
+     * Enable or disable contact reporting for this {@linkplain SXRRigidBody rigid body}.
+     * <p>
+     * A contact between two bodies is reported to {@link ICollisionEvents} and
+     * {@link SXRWorld.IContactListener} listeners if either body reports contacts.
+     * Bodies nobody listens to can be switched off so their contacts are not
+     * even copied out of the physics engine.
+     *
+     * @param enable false to stop reporting contacts of this body
+     */
+    public void setContactReporting(boolean enable) {
+        Native3DRigidBody.setContactReporting(getNative(), enable);
+    }
+
     /**
      * Returns the collision group of this {@linkplain SXRRigidBody rigid body}.
      *
@@ -569,6 +594,10 @@ class Native3DRigidBody {
 
     static native void setIgnoreCollisionCheck(long jrigid_body, long jcollision_object, boolean ignore);
 
+    static native void setContactReporting(long jrigid_body, boolean enable);
+
+    static native boolean getContactReporting(long jrigid_body);
+
     static native float[] getGravity(long jrigid_body);
 
     static native float[] getLinearVelocity(long jrigid_body);
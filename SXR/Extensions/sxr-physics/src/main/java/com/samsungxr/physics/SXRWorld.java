@@ -21,6 +21,7 @@ import android.util.LongSparseArray;
 import com.samsungxr.SXRComponent;
 import com.samsungxr.SXRComponentGroup;
 import com.samsungxr.SXRContext;
+import com.samsungxr.SXRDrawFrameListener;
 import com.samsungxr.SXREventReceiver;
 import com.samsungxr.SXRNode;
 import com.samsungxr.SXRNode.ComponentVisitor;
@@ -28,6 +29,7 @@ import com.samsungxr.SXRTransform;
 import com.samsungxr.IEventReceiver;
 import com.samsungxr.IEvents;
 import com.samsungxr.INodeEvents;
+import com.samsungxr.debug.SXRLatencyHistogram;
 import org.joml.Quaternionf;
 import org.joml.Vector3f;
 
@@ -43,6 +45,7 @@ public class SXRWorld extends SXRComponent implements IEventReceiver
     private final SXRPhysicsContext mPhysicsContext;
     private SXRWorldTask mWorldTask;
     private static final long DEFAULT_INTERVAL = 15;
+    private static final int DEFAULT_MAX_SUBSTEPS = 4;
     private SXREventReceiver mListeners;
 
     private long mNativeLoader;
@@ -57,6 +60,20 @@ public class SXRWorld extends SXRComponent implements IEventReceiver
     private final PhysicsDragger mPhysicsDragger;
     private SXRRigidBody mRigidBodyDragMe = null;
 
+    private final SXRContactBuffer mContacts = new SXRContactBuffer();
+    private final Object mContactListenerLock = new Object();
+    private volatile IContactListener[] mContactListeners = new IContactListener[0];
+    private volatile boolean mSendCollisionEvents = true;
+
+    private volatile long mFixedStepNanos = 0;
+    private volatile int mMaxSubSteps = DEFAULT_MAX_SUBSTEPS;
+    private volatile boolean mInterpolate = false;
+    private volatile boolean mInterpolating = false;
+    private volatile long mSimulatedNanos;
+    private volatile long mStepCount = 0;
+    private volatile long mSkippedStepCount = 0;
+    private final SXRLatencyHistogram mStepTime = new SXRLatencyHistogram("physics step");
+
     /**
      * Events generated during physics simulation.
      * These are called from the physics thread.
@@ -84,6 +101,22 @@ public class SXRWorld extends SXRComponent implements IEventReceiver
         public void onStepPhysics(SXRWorld world);
     }
 
+    /**
+     * Receives all the contacts of a simulation step in one call.
+     * Called from the physics thread after each step.
+     */
+    public interface IContactListener
+    {
+        /**
+         * Called once per step with the contacts of all rigid bodies which
+         * report contacts.
+         * @param world    physics world being simulated
+         * @param contacts contacts of this step; only valid during the call.
+         * @see SXRRigidBody#setContactReporting(boolean)
+         */
+        public void onContacts(SXRWorld world, SXRContactBuffer contacts);
+    }
+
     /**
      * Constructs new instance to simulate the Physics World of the Scene.
      *
@@ -137,6 +170,155 @@ public class SXRWorld extends SXRComponent implements IEventReceiver
 
     public SXREventReceiver getEventReceiver() { return mListeners; }
 
+    /**
+     * Add a listener which receives the contacts of each step as one batch.
+     *
+     * @param listener listener to add.
+     */
+    public void addContactListener(IContactListener listener) {
+        synchronized (mContactListenerLock) {
+            for (IContactListener l : mContactListeners) {
+                if (l == listener) {
+                    return;
+                }
+            }
+            IContactListener[] listeners = new IContactListener[mContactListeners.length + 1];
+            System.arraycopy(mContactListeners, 0, listeners, 0, mContactListeners.length);
+            listeners[mContactListeners.length] = listener;
+            mContactListeners = listeners;
+        }
+    }
+
+    /**
+     * Remove a listener previously added with {@link #addContactListener(IContactListener)}.
+     *
+     * @param listener listener to remove.
+     */
+    public void removeContactListener(IContactListener listener) {
+        synchronized (mContactListenerLock) {
+            int n = mContactListeners.length;
+            for (int i = 0; i < n; ++i) {
+                if (mContactListeners[i] == listener) {
+                    IContactListener[] listeners = new IContactListener[n - 1];
+                    System.arraycopy(mContactListeners, 0, listeners, 0, i);
+                    System.arraycopy(mContactListeners, i + 1, listeners, i, n - i - 1);
+                    mContactListeners = listeners;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Enable or disable the {@link ICollisionEvents} sent to the nodes of
+     * colliding bodies. Each of these events is dispatched by reflection, so
+     * applications which only use {@link IContactListener} can turn them off.
+     *
+     * @param send true to send collision events (the default).
+     */
+    public void setSendCollisionEvents(boolean send) {
+        mSendCollisionEvents = send;
+    }
+
+    /**
+     * Advance the simulation in steps of a fixed length instead of by the
+     * time elapsed between updates. Elapsed time is accumulated and consumed
+     * in whole steps, so the simulation runs at the same rate regardless of
+     * the update interval or the frame rate. If more than
+     * {@code maxSubSteps} steps are due at once the rest are dropped and
+     * counted in {@link #getSkippedStepCount()}, which keeps a slow device
+     * from falling further and further behind.
+     * <p>
+     * {@link IPhysicsEvents#onStepPhysics(SXRWorld)} and collision events are
+     * only sent after updates which took at least one step.
+     *
+     * @param seconds     length of one step, or 0 to go back to variable steps (the default).
+     * @param maxSubSteps maximum number of steps taken in one update.
+     */
+    public void setFixedTimeStep(final float seconds, final int maxSubSteps) {
+        if (seconds < 0 || maxSubSteps < 1) {
+            throw new IllegalArgumentException("Invalid fixed time step " + seconds + "s, " + maxSubSteps + " substeps");
+        }
+        mPhysicsContext.runOnPhysicsThread(new Runnable() {
+            @Override
+            public void run() {
+                mFixedStepNanos = (long) (seconds * 1e9);
+                mMaxSubSteps = maxSubSteps;
+                mWorldTask.resetClock();
+                updateInterpolation();
+            }
+        });
+    }
+
+    /**
+     * Get the length of a fixed step.
+     *
+     * @return step length in seconds, 0 if the simulation uses variable steps.
+     * @see #setFixedTimeStep(float, int)
+     */
+    public float getFixedTimeStep() {
+        return mFixedStepNanos / 1e9f;
+    }
+
+    /**
+     * Enable interpolation of rigid body transforms. Only used with a
+     * {@linkplain #setFixedTimeStep(float, int) fixed time step}.
+     * <p>
+     * The poses of the last two steps are kept and the node transforms
+     * are set to a blend of them on the GL thread, once per frame, rather
+     * than from the physics thread. Motion is smooth even when steps and
+     * frames do not line up, at the cost of showing the bodies up to one
+     * step behind the simulation.
+     *
+     * @param enable true to interpolate, false to set transforms after each step (the default).
+     */
+    public void setInterpolation(final boolean enable) {
+        mPhysicsContext.runOnPhysicsThread(new Runnable() {
+            @Override
+            public void run() {
+                mInterpolate = enable;
+                updateInterpolation();
+            }
+        });
+    }
+
+    /**
+     * Get the time taken by each update of the simulation.
+     * The histogram may be reset by the application.
+     *
+     * @return histogram of update times in nanoseconds.
+     */
+    public SXRLatencyHistogram getStepTime() {
+        return mStepTime;
+    }
+
+    /**
+     * @return number of simulation steps taken with a fixed time step.
+     */
+    public long getStepCount() {
+        return mStepCount;
+    }
+
+    /**
+     * @return number of fixed steps dropped because more than the maximum
+     * number of substeps were due in one update.
+     */
+    public long getSkippedStepCount() {
+        return mSkippedStepCount;
+    }
+
+    /**
+     * Look up a rigid body of this world by its native handle, as reported
+     * by {@link SXRContactBuffer}. Call from the physics thread.
+     *
+     * @param nativeHandle value of {@link SXRRigidBody#getNative()}
+     * @return the rigid body, or null if it is not in this world.
+     */
+    public SXRRigidBody findBody(long nativeHandle) {
+        SXRPhysicsWorldObject body = mPhysicsObject.get(nativeHandle);
+        return (body instanceof SXRRigidBody) ? (SXRRigidBody) body : null;
+    }
+
     /**
      * Add a {@link SXRConstraint} to this physics world.
      *
@@ -297,33 +479,81 @@ public class SXRWorld extends SXRComponent implements IEventReceiver
         mWorldTask.stop();
     }
 
-    private void generateCollisionEvents() {
-        SXRCollisionInfo collisionInfos[] = NativePhysics3DWorld.listCollisions(getNative());
-
-        String onEnter = "onEnter";
-        String onExit = "onExit";
-
-        for (SXRCollisionInfo info : collisionInfos) {
-            if (info.isHit) {
-                sendCollisionEvent(info, onEnter);
-            } else if (mPhysicsObject.get(info.bodyA) != null
-                    && mPhysicsObject.get(info.bodyB) != null) {
-                // If both bodies are in the scene.
-                sendCollisionEvent(info, onExit);
+    /*
+     * Called on the physics thread when the time step, the interpolation
+     * flag or the running state change.
+     */
+    private void updateInterpolation() {
+        boolean interpolate = mInterpolate && (mFixedStepNanos > 0) && mWorldTask.isRunning();
+
+        if (interpolate == mInterpolating) {
+            return;
+        }
+        mInterpolating = interpolate;
+        NativePhysics3DWorld.setInterpolation(getNative(), interpolate);
+        if (interpolate) {
+            getSXRContext().registerDrawFrameListener(mInterpolator);
+        } else {
+            getSXRContext().unregisterDrawFrameListener(mInterpolator);
+        }
+    }
+
+    private final SXRDrawFrameListener mInterpolator = new SXRDrawFrameListener() {
+        @Override
+        public void onDrawFrame(float frameTime) {
+            long step = mFixedStepNanos;
+
+            if (!mInterpolating || step <= 0) {
+                return;
             }
+            // The latest step is shown one step late so there is always a pose to blend towards.
+            float alpha = (float) (System.nanoTime() - mSimulatedNanos) / step;
+            NativePhysics3DWorld.interpolate(getNative(), Math.min(Math.max(alpha, 0.0f), 1.0f));
+        }
+    };
+
+    private void generateCollisionEvents() {
+        final IContactListener[] listeners = mContactListeners;
+        final boolean sendEvents = mSendCollisionEvents;
+
+        if ((listeners.length == 0) && !sendEvents) {
+            mContacts.clear();
+            return;
+        }
+        mContacts.update(getNative());
+        for (IContactListener listener : listeners) {
+            listener.onContacts(this, mContacts);
         }
+        if (!sendEvents
+            || (mContacts.getEnterCount() == 0 && mContacts.getExitCount() == 0)) {
+            return;
+        }
+        for (int i = 0; i < mContacts.getCount(); ++i) {
+            int state = mContacts.getState(i);
+            if (state == SXRContactBuffer.PERSIST) {
+                continue;
+            }
+            SXRPhysicsWorldObject bodyA = mPhysicsObject.get(mContacts.getBodyA(i));
+            SXRPhysicsWorldObject bodyB = mPhysicsObject.get(mContacts.getBodyB(i));
 
+            // Exit events are only sent if both bodies are still in the scene.
+            if ((bodyA != null) && (bodyB != null)) {
+                sendCollisionEvent(bodyA.getOwnerObject(), bodyB.getOwnerObject(), i,
+                        (state == SXRContactBuffer.ENTER) ? "onEnter" : "onExit");
+            }
+        }
     }
 
-    private void sendCollisionEvent(SXRCollisionInfo info, String eventName) {
-        SXRNode bodyA = mPhysicsObject.get(info.bodyA).getOwnerObject();
-        SXRNode bodyB = mPhysicsObject.get(info.bodyB).getOwnerObject();
+    private void sendCollisionEvent(SXRNode bodyA, SXRNode bodyB, int contact, String eventName) {
+        float[] normal = new float[3];
+        float distance = mContacts.getDistance(contact);
 
+        mContacts.getNormal(contact, normal);
         getSXRContext().getEventManager().sendEvent(bodyA, ICollisionEvents.class, eventName,
-                bodyA, bodyB, info.normal, info.distance);
+                bodyA, bodyB, normal, distance);
 
         getSXRContext().getEventManager().sendEvent(bodyB, ICollisionEvents.class, eventName,
-                bodyB, bodyA, info.normal, info.distance);
+                bodyB, bodyA, normal, distance);
     }
 
     private void doPhysicsAttach(SXRNode rootNode) {
@@ -404,6 +634,8 @@ public class SXRWorld extends SXRComponent implements IEventReceiver
         private int maxSubSteps;
         private long simulationTime;
         private long lastSimulTime;
+        private long lastNanos;
+        private long accumulatedNanos;
 
 
         public SXRWorldTask(long milliseconds) {
@@ -416,6 +648,10 @@ public class SXRWorld extends SXRComponent implements IEventReceiver
                 return;
             }
 
+            if (mFixedStepNanos > 0) {
+                runFixed();
+                return;
+            }
 
             simulationTime = SystemClock.uptimeMillis();
 
@@ -427,7 +663,9 @@ public class SXRWorld extends SXRComponent implements IEventReceiver
             timeStep  = simulationTime - lastSimulTime;
             maxSubSteps = (int) (timeStep * 60) / 1000 + 1;
 
+            long start = System.nanoTime();
             NativePhysics3DWorld.step(getNative(), timeStep, maxSubSteps);
+            mStepTime.record(System.nanoTime() - start);
 
             generateCollisionEvents();
             getSXRContext().getEventManager().sendEvent(SXRWorld.this, IPhysicsEvents.class, "onStepPhysics", SXRWorld.this);
@@ -446,6 +684,50 @@ public class SXRWorld extends SXRComponent implements IEventReceiver
 
         }
 
+        /*
+         * Consumes the elapsed time in whole fixed steps and schedules the
+         * next update for when the next step is due.
+         */
+        private void runFixed() {
+            final long step = mFixedStepNanos;
+            final long now = System.nanoTime();
+            long due;
+            int steps;
+
+            accumulatedNanos += now - lastNanos;
+            lastNanos = now;
+            due = accumulatedNanos / step;
+            steps = (int) Math.min(due, mMaxSubSteps);
+            // Steps which can not be taken are dropped instead of carried over.
+            accumulatedNanos -= due * step;
+            mSkippedStepCount += due - steps;
+
+            if (steps > 0) {
+                long start = System.nanoTime();
+
+                NativePhysics3DWorld.stepFixed(getNative(), step / 1e9f, steps);
+                mStepTime.record(System.nanoTime() - start);
+                mStepCount += steps;
+                mSimulatedNanos = now - accumulatedNanos;
+
+                generateCollisionEvents();
+                getSXRContext().getEventManager().sendEvent(SXRWorld.this, IPhysicsEvents.class, "onStepPhysics", SXRWorld.this);
+            }
+
+            long delayMillis = (step - accumulatedNanos + 999999) / 1000000;
+            mPhysicsContext.runAtTimeOnPhysicsThread(this, SystemClock.uptimeMillis() + delayMillis);
+        }
+
+        void resetClock() {
+            lastNanos = System.nanoTime();
+            accumulatedNanos = 0;
+            mSimulatedNanos = lastNanos;
+        }
+
+        boolean isRunning() {
+            return running;
+        }
+
         public void start() {
             // To avoid concurrency
             mPhysicsContext.runOnPhysicsThread(new Runnable() {
@@ -454,6 +736,8 @@ public class SXRWorld extends SXRComponent implements IEventReceiver
                     if (!running) {
                         running = true;
                         lastSimulTime = SystemClock.uptimeMillis();
+                        resetClock();
+                        updateInterpolation();
                         mPhysicsContext.runDelayedOnPhysicsThread(SXRWorldTask.this,
                                 intervalMillis);
                     }
@@ -469,6 +753,7 @@ public class SXRWorld extends SXRComponent implements IEventReceiver
                     if (running) {
                         running = false;
                         mPhysicsContext.removeTask(SXRWorldTask.this);
+                        updateInterpolation();
                     }
                 }
             });
@@ -568,9 +853,15 @@ class NativePhysics3DWorld {
 
     static native void step(long jphysics_world, float jtime_step, int maxSubSteps);
 
+    static native void stepFixed(long jphysics_world, float fixed_step, int numSteps);
+
+    static native void setInterpolation(long jphysics_world, boolean enable);
+
+    static native void interpolate(long jphysics_world, float alpha);
+
     static native void getGravity(long jworld, float[] array);
 
     static native void setGravity(long jworld, float x, float y, float z);
 
-    static native SXRCollisionInfo[] listCollisions(long jphysics_world);
+    static native int getContacts(long jphysics_world, long[] bodies, float[] data, int capacity);
 }
@@ -187,6 +187,12 @@ void BulletRigidBody::getWorldTransform(btTransform &centerOfMassWorldTrans) con
 }
 
 void BulletRigidBody::setWorldTransform(const btTransform &centerOfMassWorldTrans) {
+    if (mInterpolated) {
+        // published by the world after the step, see publishPose()
+        mPendingPose = centerOfMassWorldTrans * m_centerOfMassOffset;
+        mHasPendingPose = true;
+        return;
+    }
     Transform* trans = owner_object()->transform();
     btTransform aux; getWorldTransform(aux);
 
@@ -207,6 +213,63 @@ void BulletRigidBody::setWorldTransform(const btTransform &centerOfMassWorldTran
     //convertBtTransform2Transform(centerOfMassWorldTrans * m_centerOfMassOffset, trans);
 }
 
+void BulletRigidBody::setInterpolated(bool interpolated) {
+    mInterpolated = interpolated;
+    mHasPendingPose = false;
+    mHasPose = false;
+    mHasWrittenPose = false;
+    mTeleport = false;
+}
+
+void BulletRigidBody::publishPose() {
+    if (!mHasPendingPose) {
+        return;
+    }
+    mPrevPose = mHasPose ? mCurrPose : mPendingPose;
+    mCurrPose = mPendingPose;
+    mHasPose = true;
+}
+
+void BulletRigidBody::interpolatePose(float alpha) {
+    if (!mHasPose || mTeleport) {
+        return;
+    }
+    Transform* trans = owner_object()->transform();
+
+    if (mHasWrittenPose) {
+        btTransform nodePose = convertTransform2btTransform(trans);
+        btVector3 moved = nodePose.getOrigin() - mWrittenPose.getOrigin();
+
+        if (std::abs(moved.getX()) >= 0.1f ||
+            std::abs(moved.getY()) >= 0.1f ||
+            std::abs(moved.getZ()) >= 0.1f)
+        {
+            // moved by the application, the body follows on the next step
+            mTeleportPose = nodePose;
+            mTeleport = true;
+            return;
+        }
+    }
+    btTransform pose;
+    pose.setOrigin(mPrevPose.getOrigin().lerp(mCurrPose.getOrigin(), alpha));
+    pose.setRotation(mPrevPose.getRotation().slerp(mCurrPose.getRotation(), alpha));
+    convertBtTransform2Transform(pose, trans);
+    mWrittenPose = pose;
+    mHasWrittenPose = true;
+}
+
+void BulletRigidBody::applyTeleport() {
+    if (!mTeleport) {
+        return;
+    }
+    btTransform centerOfMass = mTeleportPose * m_centerOfMassOffset.inverse();
+
+    mRigidBody->setWorldTransform(centerOfMass);
+    mRigidBody->setInterpolationWorldTransform(centerOfMass);
+    mPendingPose = mPrevPose = mCurrPose = mWrittenPose = mTeleportPose;
+    mTeleport = false;
+}
+
 void BulletRigidBody::applyCentralForce(float x, float y, float z) {
     mRigidBody->applyCentralForce(btVector3(x, y, z));
     if (!mRigidBody->isActive()) {
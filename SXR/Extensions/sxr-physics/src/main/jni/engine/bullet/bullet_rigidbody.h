@@ -150,6 +150,20 @@ class BulletRigidBody : public PhysicsRigidBody,
 
     void updateConstructionInfo();
 
+    /*
+     * Poses for interpolating between fixed physics steps. When enabled the
+     * motion state no longer writes the node transform from the physics
+     * thread; BulletWorld publishes each step's pose and the render thread
+     * writes a blend of the last two. Called with the world's pose lock held.
+     */
+    void setInterpolated(bool interpolated);
+
+    void publishPose();
+
+    void interpolatePose(float alpha);
+
+    void applyTeleport();
+
 private:
 
     void finalize();
@@ -164,6 +178,17 @@ private:
     btTransform prevPos;
     btVector3 mScale;
     SimulationType mSimType;
+
+    bool mInterpolated = false;
+    bool mHasPendingPose = false;
+    bool mHasPose = false;
+    bool mHasWrittenPose = false;
+    bool mTeleport = false;
+    btTransform mPendingPose;   // physics thread only
+    btTransform mPrevPose;
+    btTransform mCurrPose;
+    btTransform mWrittenPose;
+    btTransform mTeleportPose;
 };
 
 }
@@ -54,6 +54,7 @@ void BulletWorld::initialize() {
     mPhysicsWorld->setGravity(btVector3(0, -10, 0));
 
     mDraggingConstraint = nullptr;
+    mInterpolate = false;
 }
 
 void BulletWorld::finalize() {
@@ -120,92 +121,156 @@ void BulletWorld::stopDrag() {
 }
 
 void BulletWorld::addRigidBody(PhysicsRigidBody *body) {
-    btRigidBody *b = (static_cast<BulletRigidBody *>(body))->getRigidBody();
+    BulletRigidBody *rb = static_cast<BulletRigidBody *>(body);
+    std::lock_guard<std::mutex> lock(mPoseLock);
+
     body->updateConstructionInfo();
-    mPhysicsWorld->addRigidBody(b);
+    rb->setInterpolated(mInterpolate);
+    mPhysicsWorld->addRigidBody(rb->getRigidBody());
 }
 
 void BulletWorld::addRigidBody(PhysicsRigidBody *body, int collisiontype, int collidesWith) {
+    BulletRigidBody *rb = static_cast<BulletRigidBody *>(body);
+    std::lock_guard<std::mutex> lock(mPoseLock);
+
     body->updateConstructionInfo();
-    mPhysicsWorld->addRigidBody((static_cast<BulletRigidBody *>(body))->getRigidBody(),
-                                collidesWith, collisiontype);
+    rb->setInterpolated(mInterpolate);
+    mPhysicsWorld->addRigidBody(rb->getRigidBody(), collidesWith, collisiontype);
 }
 
 void BulletWorld::removeRigidBody(PhysicsRigidBody *body) {
-    mPhysicsWorld->removeRigidBody((static_cast<BulletRigidBody *>(body))->getRigidBody());
+    BulletRigidBody *rb = static_cast<BulletRigidBody *>(body);
+    std::lock_guard<std::mutex> lock(mPoseLock);
+
+    mPhysicsWorld->removeRigidBody(rb->getRigidBody());
+    rb->setInterpolated(false);
 }
 
-void BulletWorld::step(float timeStep, int maxSubSteps) {
+template <typename F> void BulletWorld::forAllBodies(F func) {
+    btCollisionObjectArray& objects = mPhysicsWorld->getCollisionObjectArray();
+
+    for (int i = 0; i < objects.size(); ++i) {
+        btRigidBody* rb = btRigidBody::upcast(objects[i]);
+
+        if ((rb != nullptr) && (rb->getUserPointer() != nullptr)) {
+            func(static_cast<BulletRigidBody*>(rb->getUserPointer()));
+        }
+    }
+}
+
+void BulletWorld::updateDragPivot() {
     if (mDraggingConstraint != nullptr)
     {
         auto matrixB = mPivotObject->transform()->getModelMatrix(true);
         mDraggingConstraint->setPivotB(btVector3(matrixB[3][0], matrixB[3][1], matrixB[3][2]));
     }
+}
 
+void BulletWorld::step(float timeStep, int maxSubSteps) {
+    updateDragPivot();
     mPhysicsWorld->stepSimulation(timeStep, maxSubSteps);
 }
 
-/**
- * Returns by reference the list of new and ceased collisions
- *  that will be the objects of ONENTER and ONEXIT events.
+/*
+ * Each step is taken separately so the poses of every step are published
+ * and the render thread always blends the last two.
  */
-void BulletWorld::listCollisions(std::list <ContactPoint> &contactPoints) {
+void BulletWorld::stepFixed(float fixedStep, int numSteps) {
+    if (mInterpolate) {
+        std::lock_guard<std::mutex> lock(mPoseLock);
+        forAllBodies([](BulletRigidBody* body) { body->applyTeleport(); });
+    }
+    updateDragPivot();
+    for (int i = 0; i < numSteps; ++i) {
+        mPhysicsWorld->stepSimulation(fixedStep, 1, fixedStep);
+        if (mInterpolate) {
+            std::lock_guard<std::mutex> lock(mPoseLock);
+            forAllBodies([](BulletRigidBody* body) { body->publishPose(); });
+        }
+    }
+}
 
-/*
- * Creates a list of all the current collisions on the World
- * */
-    std::map<std::pair<long,long>, ContactPoint> currCollisions;
-    int numManifolds = mPhysicsWorld->getDispatcher()->getNumManifolds();
-    btPersistentManifold *contactManifold;
+void BulletWorld::setInterpolation(bool enable) {
+    std::lock_guard<std::mutex> lock(mPoseLock);
 
-    for (int i = 0; i < numManifolds; i++) {
-        ContactPoint contactPt;
-
-        contactManifold = mPhysicsWorld->getDispatcher()->
-                getManifoldByIndexInternal(i);
-
-        contactPt.body0 = (BulletRigidBody *) (contactManifold->getBody0()->getUserPointer());
-        contactPt.body1 = (BulletRigidBody *) (contactManifold->getBody1()->getUserPointer());
-        contactPt.normal[0] = contactManifold->getContactPoint(0).m_normalWorldOnB.getX();
-        contactPt.normal[1] = contactManifold->getContactPoint(0).m_normalWorldOnB.getY();
-        contactPt.normal[2] = contactManifold->getContactPoint(0).m_normalWorldOnB.getZ();
-        contactPt.distance = contactManifold->getContactPoint(0).getDistance();
-        contactPt.isHit = true;
-
-        std::pair<long, long> collisionPair((long)contactPt.body0, (long)contactPt.body1);
-        std::pair<std::pair<long, long>, ContactPoint> newPair(collisionPair, contactPt);
-        currCollisions.insert(newPair);
-
-        /*
-         * If one of these current collisions is not on the list with all the previous
-         * collision, then it should be on the return list, because it is an onEnter event
-         * */
-        auto it = prevCollisions.find(collisionPair);
-        if ( it == prevCollisions.end()) {
-            contactPoints.push_front(contactPt);
-        } 
-        contactManifold = 0;
-    }
+    mInterpolate = enable;
+    forAllBodies([enable](BulletRigidBody* body) { body->setInterpolated(enable); });
+}
 
-    /*
-     * After going through all the current list, go through all the previous collisions list,
-     * if one of its collisions is not on the current collision list, then it should be
-     * on the return list, because it is an onExit event
-     * */
-    for (auto it = prevCollisions.begin(); it != prevCollisions.end(); ++it) {
-        if (currCollisions.find(it->first) == currCollisions.end()) {
-            ContactPoint cp = it->second;
-            cp.isHit = false;
-            contactPoints.push_front(cp);
-        }
+void BulletWorld::interpolate(float alpha) {
+    std::lock_guard<std::mutex> lock(mPoseLock);
+
+    if (mInterpolate) {
+        forAllBodies([alpha](BulletRigidBody* body) { body->interpolatePose(alpha); });
     }
+}
 
 /*
- * Save all the current collisions on the previous collisions list for the next iteration
- * */
-    prevCollisions.clear();
-    prevCollisions.swap(currCollisions);
+ * Writes one contact per manifold: the deepest point, its normal and
+ * distance, and the impulse summed over all points. A pair of bodies has
+ * several manifolds when one of them is a compound shape; SXRContactBuffer
+ * merges them into one contact per pair after sorting.
+ * Pairs where neither body reports contacts are skipped.
+ */
+int BulletWorld::getContacts(int64_t* bodies, float* data, int capacity) {
+    btDispatcher* dispatcher = mPhysicsWorld->getDispatcher();
+    int numManifolds = dispatcher->getNumManifolds();
+    int count = 0;
+
+    for (int i = 0; i < numManifolds; i++) {
+        btPersistentManifold* manifold = dispatcher->getManifoldByIndexInternal(i);
+        int numPoints = manifold->getNumContacts();
+
+        if (numPoints == 0) {
+            continue;
+        }
+        PhysicsRigidBody* body0 = (BulletRigidBody*) manifold->getBody0()->getUserPointer();
+        PhysicsRigidBody* body1 = (BulletRigidBody*) manifold->getBody1()->getUserPointer();
 
+        if ((body0 == nullptr) || (body1 == nullptr) ||
+            !(body0->getContactReporting() || body1->getContactReporting())) {
+            continue;
+        }
+        if (count < capacity) {
+            int deepest = 0;
+            float impulse = 0.0f;
+
+            for (int p = 0; p < numPoints; ++p) {
+                const btManifoldPoint& pt = manifold->getContactPoint(p);
+                impulse += pt.getAppliedImpulse();
+                if (pt.getDistance() < manifold->getContactPoint(deepest).getDistance()) {
+                    deepest = p;
+                }
+            }
+            const btManifoldPoint& pt = manifold->getContactPoint(deepest);
+            int64_t id0 = reinterpret_cast<int64_t>(body0);
+            int64_t id1 = reinterpret_cast<int64_t>(body1);
+            btVector3 point = pt.getPositionWorldOnB();
+            btVector3 normal = pt.m_normalWorldOnB;
+
+            // keep pairs in a canonical order so they can be matched across steps
+            if (id0 > id1) {
+                std::swap(id0, id1);
+                point = pt.getPositionWorldOnA();
+                normal = -normal;
+            }
+            int64_t* b = bodies + count * 2;
+            float* d = data + count * CONTACT_STRIDE;
+
+            b[0] = id0;
+            b[1] = id1;
+            d[CONTACT_POINT] = point.getX();
+            d[CONTACT_POINT + 1] = point.getY();
+            d[CONTACT_POINT + 2] = point.getZ();
+            d[CONTACT_NORMAL] = normal.getX();
+            d[CONTACT_NORMAL + 1] = normal.getY();
+            d[CONTACT_NORMAL + 2] = normal.getZ();
+            d[CONTACT_DISTANCE] = pt.getDistance();
+            d[CONTACT_IMPULSE] = impulse;
+        }
+        ++count;
+    }
+    return count;
 }
 
 
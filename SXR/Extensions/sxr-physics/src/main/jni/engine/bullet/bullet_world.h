@@ -23,8 +23,8 @@
 #include "../physics_common.h"
 #include "../physics_world.h"
 
-#include <utility>
-#include <map>
+#include <mutex>
+
 #include <BulletDynamics/ConstraintSolver/btPoint2PointConstraint.h>
 
 class btDynamicsWorld;
@@ -61,7 +61,13 @@ class BulletWorld : public PhysicsWorld {
 
     void step(float timeStep, int maxSubSteps);
 
-    void listCollisions(std::list <ContactPoint> &contactPoints);
+    void stepFixed(float fixedStep, int numSteps);
+
+    void setInterpolation(bool enable);
+
+    void interpolate(float alpha);
+
+    int getContacts(int64_t* bodies, float* data, int capacity);
 
     void setGravity(float x, float y, float z);
 
@@ -74,8 +80,13 @@ class BulletWorld : public PhysicsWorld {
 
     void finalize();
 
+    void updateDragPivot();
+
+    template <typename F> void forAllBodies(F func);
+
  private:
-    std::map<std::pair <long,long>, ContactPoint> prevCollisions;
+    std::mutex mPoseLock;
+    bool mInterpolate;
     btDynamicsWorld *mPhysicsWorld;
     btCollisionConfiguration *mCollisionConfiguration;
     btCollisionDispatcher *mDispatcher;
@@ -88,6 +88,12 @@ class PhysicsRigidBody : public Component {
 	virtual const float getCcdSweptSphereRadius() const = 0;
 	virtual const float getContactProcessingThreshold() const = 0;
 	virtual void updateConstructionInfo() = 0;
+
+	void setContactReporting(bool enable) { mReportContacts = enable; }
+	bool getContactReporting() const { return mReportContacts; }
+
+ protected:
+	bool mReportContacts = true;
 };
 
 }
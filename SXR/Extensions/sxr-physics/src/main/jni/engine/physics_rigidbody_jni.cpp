@@ -150,6 +150,14 @@ extern "C" {
     JNIEXPORT jfloat   JNICALL
     Java_com_samsungxr_physics_Native3DRigidBody_getContactProcessingThreshold(JNIEnv * env, jobject obj,
             jlong jrigid_body) ;
+
+    JNIEXPORT void   JNICALL
+    Java_com_samsungxr_physics_Native3DRigidBody_setContactReporting(JNIEnv * env, jobject obj,
+            jlong jrigid_body, jboolean enable);
+
+    JNIEXPORT jboolean   JNICALL
+    Java_com_samsungxr_physics_Native3DRigidBody_getContactReporting(JNIEnv * env, jobject obj,
+            jlong jrigid_body);
 }
 
 JNIEXPORT jlong JNICALL
@@ -462,4 +470,20 @@ Java_com_samsungxr_physics_Native3DRigidBody_getContactProcessingThreshold(JNIEn
 
     return rigid_body->getContactProcessingThreshold();
 }
+
+JNIEXPORT void   JNICALL
+Java_com_samsungxr_physics_Native3DRigidBody_setContactReporting(JNIEnv * env, jobject obj,
+        jlong jrigid_body, jboolean enable) {
+    PhysicsRigidBody* rigid_body = reinterpret_cast<PhysicsRigidBody*>(jrigid_body);
+
+    rigid_body->setContactReporting(enable);
+}
+
+JNIEXPORT jboolean   JNICALL
+Java_com_samsungxr_physics_Native3DRigidBody_getContactReporting(JNIEnv * env, jobject obj,
+        jlong jrigid_body) {
+    PhysicsRigidBody* rigid_body = reinterpret_cast<PhysicsRigidBody*>(jrigid_body);
+
+    return rigid_body->getContactReporting();
+}
 }
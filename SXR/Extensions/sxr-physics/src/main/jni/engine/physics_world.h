@@ -24,16 +24,20 @@
 #include "physics_rigidbody.h"
 #include "physics_constraint.h"
 #include "../objects/node.h"
-#include <list>
+#include <cstdint>
 
 namespace sxr {
 
-struct ContactPoint {
-	PhysicsRigidBody* body0 = 0;
-	PhysicsRigidBody* body1 = 0;
-	float normal[3] = {0.0f, 0.0f, 0.0f};
-	float distance = 0.0f;
-	bool isHit = true;
+/*
+ * Layout of the floats written for each contact by PhysicsWorld::getContacts.
+ * Must match SXRContactBuffer on the Java side.
+ */
+enum ContactData {
+    CONTACT_POINT = 0,      // x, y, z in world coordinates
+    CONTACT_NORMAL = 3,     // x, y, z in world coordinates, pointing towards the first body
+    CONTACT_DISTANCE = 6,
+    CONTACT_IMPULSE = 7,
+    CONTACT_STRIDE = 8
 };
 
 class PhysicsWorld : public Component {
@@ -63,7 +67,26 @@ public:
 
     virtual void step(float timeStep, int maxSubSteps) = 0;
 
-    virtual void listCollisions(std::list<ContactPoint>& contactPoints) = 0;
+    /*
+     * Advances the simulation by exactly numSteps steps of fixedStep seconds.
+     */
+    virtual void stepFixed(float fixedStep, int numSteps) = 0;
+
+    /*
+     * When enabled, rigid body node transforms are only written by
+     * interpolate(), which blends the poses of the last two steps.
+     */
+    virtual void setInterpolation(bool enable) = 0;
+
+    virtual void interpolate(float alpha) = 0;
+
+    /*
+     * Writes the contacts of the last step for every pair of bodies where at
+     * least one body reports contacts. Each contact takes two body pointers
+     * in bodies (the lower pointer first) and CONTACT_STRIDE floats in data.
+     * At most capacity contacts are written; the total number is returned.
+     */
+    virtual int getContacts(int64_t* bodies, float* data, int capacity) = 0;
 
     virtual void setGravity(float gx, float gy, float gz) = 0;
 
@@ -71,9 +71,21 @@ extern "C" {
     Java_com_samsungxr_physics_NativePhysics3DWorld_step(JNIEnv * env, jobject obj,
             jlong jworld, jfloat jtime_step, int maxSubSteps);
 
-    JNIEXPORT jobjectArray JNICALL
-    Java_com_samsungxr_physics_NativePhysics3DWorld_listCollisions(JNIEnv * env, jobject obj,
-                                                                    jlong jworld);
+    JNIEXPORT void JNICALL
+    Java_com_samsungxr_physics_NativePhysics3DWorld_stepFixed(JNIEnv * env, jobject obj,
+            jlong jworld, jfloat jfixed_step, jint numSteps);
+
+    JNIEXPORT void JNICALL
+    Java_com_samsungxr_physics_NativePhysics3DWorld_setInterpolation(JNIEnv * env, jobject obj,
+            jlong jworld, jboolean enable);
+
+    JNIEXPORT void JNICALL
+    Java_com_samsungxr_physics_NativePhysics3DWorld_interpolate(JNIEnv * env, jobject obj,
+            jlong jworld, jfloat alpha);
+
+    JNIEXPORT jint JNICALL
+    Java_com_samsungxr_physics_NativePhysics3DWorld_getContacts(JNIEnv * env, jobject obj,
+            jlong jworld, jlongArray jbodies, jfloatArray jdata, jint capacity);
 
     JNIEXPORT void JNICALL
     Java_com_samsungxr_physics_NativePhysics3DWorld_setGravity(JNIEnv* env, jobject obj,
@@ -166,39 +178,42 @@ Java_com_samsungxr_physics_NativePhysics3DWorld_step(JNIEnv * env, jobject obj,
     world->step((float)jtime_step, maxSubSteps);
 }
 
-JNIEXPORT jobjectArray JNICALL
-Java_com_samsungxr_physics_NativePhysics3DWorld_listCollisions(JNIEnv * env, jobject obj, jlong jworld) {
-
-    jclass collisionInfoClass = env->FindClass("com/samsungxr/physics/SXRCollisionInfo");
-    jmethodID collisionInfoConstructor = env->GetMethodID(collisionInfoClass, "<init>", "(JJ[FFZ)V");
+JNIEXPORT void JNICALL
+Java_com_samsungxr_physics_NativePhysics3DWorld_stepFixed(JNIEnv * env, jobject obj,
+        jlong jworld, jfloat jfixed_step, jint numSteps) {
+    PhysicsWorld *world = reinterpret_cast<PhysicsWorld*>(jworld);
 
-    PhysicsWorld *world = reinterpret_cast <PhysicsWorld*> (jworld);
-    std::list <ContactPoint> contactPoints;
+    world->stepFixed((float)jfixed_step, numSteps);
+}
 
-    world->listCollisions(contactPoints);
+JNIEXPORT void JNICALL
+Java_com_samsungxr_physics_NativePhysics3DWorld_setInterpolation(JNIEnv * env, jobject obj,
+        jlong jworld, jboolean enable) {
+    PhysicsWorld *world = reinterpret_cast<PhysicsWorld*>(jworld);
 
-    int size = contactPoints.size();
-    jobjectArray jNewList = env->NewObjectArray(size, collisionInfoClass, NULL);
+    world->setInterpolation(enable);
+}
 
-    int i = 0;
-    for (auto it = contactPoints.begin(); it != contactPoints.end(); ++it) {
-        const ContactPoint& data = *it;
+JNIEXPORT void JNICALL
+Java_com_samsungxr_physics_NativePhysics3DWorld_interpolate(JNIEnv * env, jobject obj,
+        jlong jworld, jfloat alpha) {
+    PhysicsWorld *world = reinterpret_cast<PhysicsWorld*>(jworld);
 
-        jfloatArray normal = env->NewFloatArray(3);
-        env->SetFloatArrayRegion(normal, 0, 3, data.normal);
+    world->interpolate((float)alpha);
+}
 
-        jobject contactObject = env->NewObject(collisionInfoClass, collisionInfoConstructor,
-                                               (jlong)data.body0, (jlong)data.body1,
-                                               (jfloatArray)normal, (jfloat)data.distance,
-                                               (jboolean)data.isHit);
+JNIEXPORT jint JNICALL
+Java_com_samsungxr_physics_NativePhysics3DWorld_getContacts(JNIEnv * env, jobject obj,
+        jlong jworld, jlongArray jbodies, jfloatArray jdata, jint capacity) {
+    PhysicsWorld *world = reinterpret_cast <PhysicsWorld*> (jworld);
+    jlong* bodies = static_cast<jlong*>(env->GetPrimitiveArrayCritical(jbodies, 0));
+    jfloat* data = static_cast<jfloat*>(env->GetPrimitiveArrayCritical(jdata, 0));
 
-        env->SetObjectArrayElement(jNewList, i++, contactObject);
-        env->DeleteLocalRef(contactObject);
-        env->DeleteLocalRef(normal);
-    }
+    int count = world->getContacts(reinterpret_cast<int64_t*>(bodies), data, capacity);
 
-    env->DeleteLocalRef(collisionInfoClass);
-    return jNewList;
+    env->ReleasePrimitiveArrayCritical(jdata, data, 0);
+    env->ReleasePrimitiveArrayCritical(jbodies, bodies, 0);
+    return count;
 }
 
 JNIEXPORT void JNICALL
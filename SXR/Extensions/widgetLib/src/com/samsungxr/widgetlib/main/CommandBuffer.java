@@ -2,7 +2,6 @@ package com.samsungxr.widgetlib.main;
 
 import android.support.annotation.NonNull;
 
-import com.samsungxr.widgetlib.thread.ConcurrentListPool;
 import com.samsungxr.widgetlib.thread.ConcurrentObjectPool;
 import com.samsungxr.widgetlib.thread.MainThread;
 import com.samsungxr.widgetlib.widget.Widget;
@@ -10,7 +9,7 @@ import com.samsungxr.widgetlib.widget.Widget;
 import com.samsungxr.SXRContext;
 import com.samsungxr.utility.Log;
 
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * A utility class for buffering {@link Runnable} "commands" for batch execution on the {@linkplain
@@ -46,6 +45,27 @@ import java.util.List;
  * <pre>
  *     MyCommand.buffer(aFoo, aBar);
  * </pre>
+ * {@link Command} still allocates an array for the parameters of each command and boxes the
+ * primitive ones. Commands that are buffered often should be {@linkplain #record(Decoder)
+ * recorded} instead: their parameters are written into arrays that the buffer reuses from frame to
+ * frame, and read back by a {@link Decoder} on the GL thread, without allocation:
+ * <pre>
+ *     static final class MyCommand {
+ *         static void buffer(Foo foo, float bar) {
+ *             CommandBuffer.record(sDecoder).putObject(foo).putFloat(bar).end();
+ *         }
+ *
+ *         private static final Decoder sDecoder = new Decoder() {
+ *             public void exec(Reader args) {
+ *                 // Read the parameters in the order they were written
+ *                 final Foo foo = args.getObject();
+ *                 final float bar = args.getFloat();
+ *
+ *                 foo.qux(bar);
+ *             }
+ *         }
+ *     }
+ * </pre>
  */
 public class CommandBuffer {
 
@@ -117,6 +137,157 @@ public class CommandBuffer {
         };
     }
 
+    /**
+     * The GL thread side of a {@linkplain #record(Decoder) recorded} command.
+     */
+    public interface Decoder {
+        /**
+         * Execute the command. Like {@link Command.Executor#exec(Object...)}, this must not rely
+         * on any mutable state, as it is executed on the GL thread.
+         *
+         * @param args The parameters of the command, to be read in the order they were written
+         *             by its {@link Encoder}.
+         */
+        void exec(Reader args);
+    }
+
+    /**
+     * Writes the parameters of a command being {@linkplain #record(Decoder) recorded}. Each thread
+     * has its own encoder, which is reused for every command it records.
+     */
+    public static final class Encoder {
+        public Encoder putObject(Object value) {
+            if (mObjectCount == mObjects.length) {
+                mObjects = Arrays.copyOf(mObjects, mObjectCount * 2);
+            }
+            mObjects[mObjectCount++] = value;
+            return this;
+        }
+
+        public Encoder putInt(int value) {
+            if (mIntCount == mInts.length) {
+                mInts = Arrays.copyOf(mInts, mIntCount * 2);
+            }
+            mInts[mIntCount++] = value;
+            return this;
+        }
+
+        public Encoder putBoolean(boolean value) {
+            return putInt(value ? 1 : 0);
+        }
+
+        public Encoder putFloat(float value) {
+            if (mFloatCount == mFloats.length) {
+                mFloats = Arrays.copyOf(mFloats, mFloatCount * 2);
+            }
+            mFloats[mFloatCount++] = value;
+            return this;
+        }
+
+        /**
+         * Finish the command and add it to the current buffer. If no buffer has been {@linkplain
+         * #start() started}, the command is posted directly to the GL thread.
+         */
+        public void end() {
+            final Decoder decoder = mDecoder;
+            if (decoder == null) {
+                throw new IllegalStateException("No command being recorded!");
+            }
+            // The parameters are copied out and the encoder reset before the command can run:
+            // on the GL thread a posted buffer is executed right away, and its commands may
+            // record new ones with this encoder
+            mDecoder = null;
+            final RecordBuffer posted = mOwner.add(this, decoder);
+            Arrays.fill(mObjects, 0, mObjectCount, null);
+            mObjectCount = 0;
+            mIntCount = 0;
+            mFloatCount = 0;
+            if (posted != null) {
+                mOwner.post(posted);
+            }
+        }
+
+        private Encoder(CommandBuffer owner) {
+            mOwner = owner;
+        }
+
+        private void begin(Decoder decoder) {
+            if (mDecoder != null) {
+                // Evaluating the parameters of the previous command threw before it ended; drop
+                // it rather than leave the encoder of this thread unusable
+                Log.w(TAG, "begin(): discarding unfinished command of %s", mDecoder);
+                Arrays.fill(mObjects, 0, mObjectCount, null);
+            }
+            mDecoder = decoder;
+            mObjectCount = 0;
+            mIntCount = 0;
+            mFloatCount = 0;
+        }
+
+        private final CommandBuffer mOwner;
+        private Decoder mDecoder;
+        private Object[] mObjects = new Object[8];
+        private int[] mInts = new int[8];
+        private float[] mFloats = new float[8];
+        private int mObjectCount;
+        private int mIntCount;
+        private int mFloatCount;
+    }
+
+    /**
+     * Reads the parameters of a recorded command, on the GL thread.
+     */
+    public static final class Reader {
+        @SuppressWarnings("unchecked")
+        public <T> T getObject() {
+            return (T) mRecords.mObjects[mObjectIndex++];
+        }
+
+        public int getInt() {
+            return mRecords.mInts[mIntIndex++];
+        }
+
+        public boolean getBoolean() {
+            return mRecords.mInts[mIntIndex++] != 0;
+        }
+
+        public float getFloat() {
+            return mRecords.mFloats[mFloatIndex++];
+        }
+
+        private Reader() {
+        }
+
+        private RecordBuffer mRecords;
+        private int mObjectIndex;
+        private int mIntIndex;
+        private int mFloatIndex;
+    }
+
+    /**
+     * Begin recording a command on the {@linkplain WidgetLib#getCommandBuffer() current command
+     * buffer}. Write the parameters of the command with the returned {@link Encoder}, then call
+     * {@link Encoder#end()}. A command which is not ended, for instance because computing one of
+     * its parameters threw, is discarded when the thread records the next one.
+     *
+     * @param decoder Executes the command on the GL thread.
+     * @return The encoder of the calling thread.
+     */
+    public static Encoder record(Decoder decoder) {
+        return WidgetLib.getCommandBuffer().begin(decoder);
+    }
+
+    /**
+     * Begin recording a command on this buffer.
+     *
+     * @see #record(Decoder)
+     */
+    public Encoder begin(Decoder decoder) {
+        Encoder encoder = mEncoders.get();
+        encoder.begin(decoder);
+        return encoder;
+    }
+
     /**
      * Start a new buffer.  Calls to {@code start()} can be nested, so if there is already an
      * active buffer, that buffer will continue to be used.  Calls to {@code start()} must have a
@@ -149,6 +320,23 @@ public class CommandBuffer {
         }
     }
 
+    /*
+     * Copy the command of the encoder into the current buffer, or into a new buffer which the
+     * caller has to post if no buffer has been started.
+     */
+    private RecordBuffer add(Encoder encoder, Decoder decoder) {
+        synchronized (mBufferLock) {
+            if (mCurrentBuffer == null) {
+                final RecordBuffer buffer = mBuffers.acquire();
+                buffer.add(encoder, decoder);
+                return buffer;
+            } else {
+                mCurrentBuffer.add(encoder, decoder);
+                return null;
+            }
+        }
+    }
+
     /**
      * {@linkplain SXRContext#runOnGlThread(Runnable) Post} the current buffer to the GL thread for
      * execution.  The number of calls to {@code flush()} must match the number of calls to {@link
@@ -157,18 +345,27 @@ public class CommandBuffer {
      * @throws IllegalStateException if called when there is no active buffer.
      */
     public void flush() {
+        final RecordBuffer buffer;
         synchronized (mBufferLock) {
             if (mCurrentBuffer == null) {
                 throw new IllegalStateException("No buffer to flush!");
             }
             --mBufferDepth;
-            if (mBufferDepth == 0) {
-                final GLRunnable r = mRunnablePool.acquire();
-                r.set(mCurrentBuffer);
-                mCurrentBuffer = null;
-                mContext.runOnGlThread(r);
+            if (mBufferDepth != 0) {
+                return;
             }
+            buffer = mCurrentBuffer;
+            mCurrentBuffer = null;
         }
+        // Posted outside the lock and after the buffer is detached: on the GL thread it is
+        // executed right away, and its commands may record into a new buffer
+        post(buffer);
+    }
+
+    private void post(RecordBuffer buffer) {
+        final GLRunnable r = mRunnablePool.acquire();
+        r.set(buffer);
+        mContext.runOnGlThread(r);
     }
 
     /* package */
@@ -176,29 +373,136 @@ public class CommandBuffer {
         mContext = context;
     }
 
+    /**
+     * The commands of one buffer, in order. Each command is a {@link Decoder} and the start of
+     * its parameters in the object, int and float arrays; {@link Runnable Runnables} are recorded
+     * as a command with a single object parameter. The arrays only grow, and are reused when the
+     * buffer goes back to the pool after its commands are executed.
+     */
+    private static final class RecordBuffer {
+        void add(Runnable runnable) {
+            ensureCommand();
+            ensureObjects(1);
+            mObjects[mObjectCount] = runnable;
+            addCommand(sRunnableDecoder);
+            ++mObjectCount;
+        }
+
+        void add(Encoder encoder, Decoder decoder) {
+            ensureCommand();
+            ensureObjects(encoder.mObjectCount);
+            if (mIntCount + encoder.mIntCount > mInts.length) {
+                mInts = Arrays.copyOf(mInts, Math.max(mInts.length * 2, mIntCount + encoder.mIntCount));
+            }
+            if (mFloatCount + encoder.mFloatCount > mFloats.length) {
+                mFloats = Arrays.copyOf(mFloats, Math.max(mFloats.length * 2, mFloatCount + encoder.mFloatCount));
+            }
+            addCommand(decoder);
+            System.arraycopy(encoder.mObjects, 0, mObjects, mObjectCount, encoder.mObjectCount);
+            System.arraycopy(encoder.mInts, 0, mInts, mIntCount, encoder.mIntCount);
+            System.arraycopy(encoder.mFloats, 0, mFloats, mFloatCount, encoder.mFloatCount);
+            mObjectCount += encoder.mObjectCount;
+            mIntCount += encoder.mIntCount;
+            mFloatCount += encoder.mFloatCount;
+        }
+
+        /**
+         * Execute the commands in order and empty the buffer. Commands which record other
+         * commands may execute another buffer before this one is done, so each execution needs
+         * its own {@link Reader}.
+         */
+        void exec(Reader reader) {
+            reader.mRecords = this;
+            for (int i = 0; i < mCommandCount; ++i) {
+                final int start = i * 3;
+                reader.mObjectIndex = mStarts[start];
+                reader.mIntIndex = mStarts[start + 1];
+                reader.mFloatIndex = mStarts[start + 2];
+                mDecoders[i].exec(reader);
+            }
+            reader.mRecords = null;
+            Arrays.fill(mObjects, 0, mObjectCount, null);
+            mCommandCount = 0;
+            mObjectCount = 0;
+            mIntCount = 0;
+            mFloatCount = 0;
+        }
+
+        private void ensureCommand() {
+            if (mCommandCount == mDecoders.length) {
+                mDecoders = Arrays.copyOf(mDecoders, mCommandCount * 2);
+                mStarts = Arrays.copyOf(mStarts, mCommandCount * 2 * 3);
+            }
+        }
+
+        private void ensureObjects(int count) {
+            if (mObjectCount + count > mObjects.length) {
+                mObjects = Arrays.copyOf(mObjects, Math.max(mObjects.length * 2, mObjectCount + count));
+            }
+        }
+
+        private void addCommand(Decoder decoder) {
+            final int start = mCommandCount * 3;
+            mDecoders[mCommandCount++] = decoder;
+            mStarts[start] = mObjectCount;
+            mStarts[start + 1] = mIntCount;
+            mStarts[start + 2] = mFloatCount;
+        }
+
+        private Decoder[] mDecoders = new Decoder[64];
+        private int[] mStarts = new int[64 * 3];
+        private Object[] mObjects = new Object[128];
+        private int[] mInts = new int[64];
+        private float[] mFloats = new float[64];
+        private int mCommandCount;
+        private int mObjectCount;
+        private int mIntCount;
+        private int mFloatCount;
+
+        private static final Decoder sRunnableDecoder = new Decoder() {
+            @Override
+            public void exec(Reader args) {
+                final Runnable runnable = args.getObject();
+                runnable.run();
+            }
+        };
+    }
+
     private final class GLRunnable implements Runnable {
         @Override
         public void run() {
-            for (Runnable c : mBuffer) {
-                c.run();
-            }
-            mBuffers.release(mBuffer);
+            final RecordBuffer buffer = mBuffer;
             mBuffer = null;
+            buffer.exec(mReader);
+            mBuffers.release(buffer);
             mRunnablePool.release(this);
         }
 
-        public void set(List<Runnable> buffer) {
+        public void set(RecordBuffer buffer) {
             mBuffer = buffer;
         }
 
-        private List<Runnable> mBuffer;
+        private RecordBuffer mBuffer;
+        // Each runnable in the pool is executing at most one buffer at a time
+        private final Reader mReader = new Reader();
     }
 
     private final SXRContext mContext;
-    private final ConcurrentListPool<Runnable> mBuffers = new ConcurrentListPool<>(TAG) ;
+    private final ConcurrentObjectPool<RecordBuffer> mBuffers = new ConcurrentObjectPool<RecordBuffer>(TAG) {
+        @Override
+        protected RecordBuffer create() {
+            return new RecordBuffer();
+        }
+    };
     private int mBufferDepth;
     private final Object[] mBufferLock = new Object[0];
-    private List<Runnable> mCurrentBuffer;
+    private RecordBuffer mCurrentBuffer;
+    private final ThreadLocal<Encoder> mEncoders = new ThreadLocal<Encoder>() {
+        @Override
+        protected Encoder initialValue() {
+            return new Encoder(CommandBuffer.this);
+        }
+    };
     private final ConcurrentObjectPool<GLRunnable> mRunnablePool = new ConcurrentObjectPool<GLRunnable>("GLRunnable Pool") {
         @Override
         protected GLRunnable create() {
@@ -9,6 +9,7 @@ import com.samsungxr.widgetlib.widget.Widget;
 import com.samsungxr.widgetlib.widget.Widget.ChildInfo;
 import com.samsungxr.widgetlib.widget.Widget.Visibility;
 
+import com.samsungxr.widgetlib.widget.layout.LayoutStats;
 import com.samsungxr.widgetlib.widget.layout.basic.AbsoluteLayout;
 
 import com.samsungxr.SXRCameraRig;
@@ -654,22 +655,30 @@ public class MainScene {
                 Log.v(Log.SUBSYSTEM.LAYOUT, TAG, "requestLayout(): running layout from MainScene");
 
                 mInLayout = true;
+                LayoutStats.beginPass();
                 layout();
+                LayoutStats.endPass();
                 mInLayout = false;
 
-                Log.v(Log.SUBSYSTEM.LAYOUT, TAG, "requestLayout(): MainScene layout DONE");
-
-                WidgetLib.getMainThread().runOnMainThread(new Runnable() {
-                    @Override
-                    public void run() {
-                        runOnGlThread(new Runnable() {
-                            @Override
-                            public void run() {
-                                checkInnerLayoutRequest();
-                            }
-                        });
-                    }
-                });
+                Log.v(Log.SUBSYSTEM.LAYOUT, TAG, "requestLayout(): MainScene layout DONE " +
+                        "(%d measured, %d laid out)", LayoutStats.getLastMeasureCount(),
+                        LayoutStats.getLastLayoutCount());
+
+                WidgetLib.getMainThread().runOnMainThread(mPostInnerLayoutRequests);
+            }
+        };
+
+        private final Runnable mCheckInnerLayoutRequests = new Runnable() {
+            @Override
+            public void run() {
+                checkInnerLayoutRequest();
+            }
+        };
+
+        private final Runnable mPostInnerLayoutRequests = new Runnable() {
+            @Override
+            public void run() {
+                runOnGlThread(mCheckInnerLayoutRequests);
             }
         };
 
@@ -0,0 +1,137 @@
+package com.samsungxr.widgetlib.tests;
+
+import android.os.SystemClock;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.samsungxr.widgetlib.log.Log;
+import com.samsungxr.widgetlib.main.CommandBuffer;
+import com.samsungxr.widgetlib.main.CommandBuffer.Command;
+import com.samsungxr.widgetlib.main.WidgetLib;
+
+/**
+ * Buffers a number of small commands through {@link Command#buffer} and through
+ * {@link CommandBuffer#record}, and reports the average time per command for each, to buffer the
+ * commands and to execute them on the GL thread. The commands take an object, an int and a float,
+ * like most of the widget render data commands, and do nothing else when they are executed.
+ * <p>
+ * Has to be run on the main thread, after the widget library has been initialized. It waits for
+ * the GL thread to execute each batch.
+ */
+public class CommandBufferBenchmark {
+
+    static final String TAG = CommandBufferBenchmark.class.getSimpleName();
+
+    public static final int DEFAULT_COUNT = 10000;
+
+    public CommandBufferBenchmark() {
+        this(DEFAULT_COUNT);
+    }
+
+    /**
+     * @param count number of commands to buffer each way
+     */
+    public CommandBufferBenchmark(int count) {
+        mCount = count;
+    }
+
+    /**
+     * Buffer the commands and wait for them to be executed
+     * @return average time per command in nanoseconds, to buffer with {@link Command#buffer} and
+     * with {@link CommandBuffer#record}, then to execute the buffered and the recorded commands
+     */
+    public float[] run() throws InterruptedException {
+        // Warm up the pools and the record arrays
+        bufferCommands(mCount);
+        awaitExecution();
+        recordCommands(mCount);
+        awaitExecution();
+
+        final float executorTime = bufferCommands(mCount);
+        final float executorExecTime = awaitExecution();
+        final float recordTime = recordCommands(mCount);
+        final float recordExecTime = awaitExecution();
+        Log.d(TAG, "test finished: %d commands, %.1f ns per command buffered, %.1f ns per command recorded, "
+                        + "%.1f ns per buffered command executed, %.1f ns per recorded command executed",
+                mCount, executorTime, recordTime, executorExecTime, recordExecTime);
+        return new float[] { executorTime, recordTime, executorExecTime, recordExecTime };
+    }
+
+    private float bufferCommands(int count) {
+        final CommandBuffer buffer = WidgetLib.getCommandBuffer();
+        mExecuted = new CountDownLatch(1);
+        final long start = SystemClock.elapsedRealtimeNanos();
+        buffer.start();
+        for (int i = 0; i < count; ++i) {
+            Command.buffer(sExecutor, this, i, (float) i);
+        }
+        buffer.flush();
+        return (SystemClock.elapsedRealtimeNanos() - start) / (float) Math.max(count, 1);
+    }
+
+    private float recordCommands(int count) {
+        final CommandBuffer buffer = WidgetLib.getCommandBuffer();
+        mExecuted = new CountDownLatch(1);
+        final long start = SystemClock.elapsedRealtimeNanos();
+        buffer.start();
+        for (int i = 0; i < count; ++i) {
+            CommandBuffer.record(sDecoder).putObject(this).putInt(i).putFloat(i).end();
+        }
+        buffer.flush();
+        return (SystemClock.elapsedRealtimeNanos() - start) / (float) Math.max(count, 1);
+    }
+
+    /*
+     * Wait for the GL thread to run the last command of the batch and return the time it took
+     * to run the batch, per command.
+     */
+    private float awaitExecution() throws InterruptedException {
+        if (!mExecuted.await(EXECUTION_TIMEOUT, TimeUnit.SECONDS)) {
+            throw new RuntimeException("test failed: commands not executed");
+        }
+        return (mExecEnd - mExecStart) / (float) Math.max(mCount - 1, 1);
+    }
+
+    // Runs on the GL thread
+    private void exec(int index, float value) {
+        if (index == 0) {
+            mExecStart = SystemClock.elapsedRealtimeNanos();
+        }
+        mSink += index + value;
+        if (index == mCount - 1) {
+            mExecEnd = SystemClock.elapsedRealtimeNanos();
+            mExecuted.countDown();
+        }
+    }
+
+    private static final Command.Executor sExecutor = new Command.Executor() {
+        @Override
+        public void exec(Object... params) {
+            final CommandBufferBenchmark benchmark = (CommandBufferBenchmark) params[0];
+            final int index = (int) params[1];
+            final float value = (float) params[2];
+            benchmark.exec(index, value);
+        }
+    };
+
+    private static final CommandBuffer.Decoder sDecoder = new CommandBuffer.Decoder() {
+        @Override
+        public void exec(CommandBuffer.Reader args) {
+            final CommandBufferBenchmark benchmark = args.getObject();
+            final int index = args.getInt();
+            final float value = args.getFloat();
+            benchmark.exec(index, value);
+        }
+    };
+
+    private static final long EXECUTION_TIMEOUT = 10;
+
+    private final int mCount;
+    private volatile CountDownLatch mExecuted;
+    // Written on the GL thread; read after the latch is released
+    private long mExecStart;
+    private long mExecEnd;
+    // Written on the GL thread so the commands are not optimized away
+    private float mSink;
+}
@@ -0,0 +1,121 @@
+package com.samsungxr.widgetlib.tests;
+
+import android.os.SystemClock;
+
+import com.samsungxr.widgetlib.log.Log;
+import com.samsungxr.widgetlib.main.WidgetLib;
+import com.samsungxr.widgetlib.widget.ListWidget;
+import com.samsungxr.widgetlib.widget.layout.LayoutScroller;
+
+/**
+ * Scrolls a {@link ListWidget} page by page and reports how many item views and host widgets
+ * have been created per second. With view recycling working, the counts drop to zero once the
+ * list has gone through the first pages.
+ * <p>
+ * The list has to be set up with its adapter and layout and be part of the scene.
+ */
+public class ListScrollBenchmark {
+
+    static final String TAG = ListScrollBenchmark.class.getSimpleName();
+
+    /**
+     * Callback invoked when the benchmark is finished
+     */
+    public interface OnFinishedListener {
+        /**
+         * @param viewsPerSecond item views created by the adapter per second
+         * @param hostsPerSecond host widgets created by the list per second
+         */
+        void onFinished(float viewsPerSecond, float hostsPerSecond);
+    }
+
+    /**
+     * @param list list to scroll
+     * @param step number of items to scroll at once
+     * @param durationMillis how long to scroll
+     */
+    public ListScrollBenchmark(ListWidget list, int step, long durationMillis) {
+        mList = list;
+        mStep = step;
+        mDuration = durationMillis;
+    }
+
+    /**
+     * Start scrolling
+     * @param listener callback for the results, can be null
+     */
+    public void start(OnFinishedListener listener) {
+        mListener = listener;
+        mStartViews = mList.getCreatedViewCount();
+        mStartHosts = mList.getCreatedHostCount();
+        mStartTime = SystemClock.uptimeMillis();
+        mPosition = mList.getCurrentPosition();
+        Log.d(TAG, "test starting: %d items, step %d", mList.getScrollingItemsCount(), mStep);
+        scrollNext();
+    }
+
+    private void scrollNext() {
+        final long elapsed = SystemClock.uptimeMillis() - mStartTime;
+        if (elapsed >= mDuration) {
+            finish(elapsed);
+            return;
+        }
+
+        final int count = mList.getScrollingItemsCount();
+        if (count == 0) {
+            finish(elapsed);
+            return;
+        }
+        // go back and forth over the whole list
+        int next = mPosition + mStep * mDirection;
+        if (next < 0 || next >= count) {
+            mDirection = -mDirection;
+            next = Math.max(0, Math.min(count - 1, mPosition + mStep * mDirection));
+        }
+        mPosition = next;
+        if (!mList.scrollToPosition(next, mScrollListener)) {
+            // another scroll is in progress, try again later
+            WidgetLib.getMainThread().runOnMainThreadDelayed(mScrollNext, RETRY_DELAY);
+        }
+    }
+
+    private void finish(long elapsed) {
+        final float seconds = Math.max(elapsed, 1) / 1000f;
+        final float views = (mList.getCreatedViewCount() - mStartViews) / seconds;
+        final float hosts = (mList.getCreatedHostCount() - mStartHosts) / seconds;
+        Log.d(TAG, "test finished: %.1f views/s, %.1f hosts/s over %d ms", views, hosts, elapsed);
+        if (mListener != null) {
+            mListener.onFinished(views, hosts);
+        }
+    }
+
+    private final LayoutScroller.OnScrollListener mScrollListener = new LayoutScroller.OnScrollListener() {
+        @Override
+        public void onScrollStarted(int startPosition) {
+        }
+
+        @Override
+        public void onScrollFinished(int finalPosition) {
+            scrollNext();
+        }
+    };
+
+    private final Runnable mScrollNext = new Runnable() {
+        @Override
+        public void run() {
+            scrollNext();
+        }
+    };
+
+    private static final long RETRY_DELAY = 100;
+
+    private final ListWidget mList;
+    private final int mStep;
+    private final long mDuration;
+    private OnFinishedListener mListener;
+    private long mStartTime;
+    private int mStartViews;
+    private int mStartHosts;
+    private int mPosition;
+    private int mDirection = 1;
+}
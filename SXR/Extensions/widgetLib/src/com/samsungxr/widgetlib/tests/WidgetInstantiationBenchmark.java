@@ -0,0 +1,72 @@
+package com.samsungxr.widgetlib.tests;
+
+import android.os.SystemClock;
+
+import com.samsungxr.SXRContext;
+import com.samsungxr.widgetlib.log.Log;
+import com.samsungxr.widgetlib.widget.GroupWidget;
+import com.samsungxr.widgetlib.widget.Widget;
+
+import org.json.JSONObject;
+
+import static com.samsungxr.widgetlib.widget.properties.JSONHelpers.put;
+
+/**
+ * Instantiates a number of widgets and reports the average time per widget. Every widget gets a
+ * couple of constructor properties, so the per-instance property merge is part of the
+ * measurement. The widgets are not attached to the scene.
+ * <p>
+ * Has to be run on the GL thread, after the widget library has been initialized.
+ */
+public class WidgetInstantiationBenchmark {
+
+    static final String TAG = WidgetInstantiationBenchmark.class.getSimpleName();
+
+    public static final int DEFAULT_COUNT = 5000;
+
+    /**
+     * @param context context to create the widgets in
+     */
+    public WidgetInstantiationBenchmark(SXRContext context) {
+        this(context, DEFAULT_COUNT);
+    }
+
+    /**
+     * @param context context to create the widgets in
+     * @param count number of widgets to create
+     */
+    public WidgetInstantiationBenchmark(SXRContext context, int count) {
+        mContext = context;
+        mCount = count;
+    }
+
+    /**
+     * Create the widgets
+     * @return average time per widget in microseconds
+     */
+    public float run() {
+        // The first instance compiles the class schemas; keep it out of the measurement
+        createWidget(-1);
+
+        final long start = SystemClock.elapsedRealtimeNanos();
+        for (int i = 0; i < mCount; ++i) {
+            createWidget(i);
+        }
+        final long elapsed = SystemClock.elapsedRealtimeNanos() - start;
+        final float perWidget = elapsed / 1000f / Math.max(mCount, 1);
+        Log.d(TAG, "test finished: %d widgets in %.1f ms, %.1f us per widget",
+                mCount, elapsed / 1000000f, perWidget);
+        return perWidget;
+    }
+
+    private Widget createWidget(int index) {
+        final JSONObject properties = new JSONObject();
+        put(properties, Widget.Properties.name, "benchmark." + index);
+        put(properties, Widget.Properties.touchable, false);
+        put(properties, Widget.Properties.focusenabled, false);
+        return new GroupWidget(mContext, properties);
+    }
+
+    private final SXRContext mContext;
+    private final int mCount;
+}
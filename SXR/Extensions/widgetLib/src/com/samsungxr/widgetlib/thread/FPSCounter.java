@@ -59,6 +59,15 @@ public class FPSCounter {
         Log.d(Log.SUBSYSTEM.TRACING, "FPSCounter" , "[%d] startCheck %s",  startCheckTime, extra);
     }
 
+    /**
+     * Checks if {@link #timeCheck(String)} logs anything, so callers can skip building
+     * the message
+     * @return true if a check has been started and tracing is enabled
+     */
+    public static boolean isTimeCheckEnabled() {
+        return startCheckTime > 0 && Log.isEnabled(Log.SUBSYSTEM.TRACING);
+    }
+
     /**
      * Computes execution time
      * @param extra
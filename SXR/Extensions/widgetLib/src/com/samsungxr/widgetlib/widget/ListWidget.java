@@ -31,6 +31,7 @@ import static com.samsungxr.widgetlib.widget.properties.JSONHelpers.optJSONObjec
 
 
 import com.samsungxr.SXRContext;
+import com.samsungxr.SXRDrawFrameListener;
 import org.json.JSONObject;
 
 import java.util.ArrayList;
@@ -385,22 +386,20 @@ public class ListWidget extends GroupWidget implements ScrollableList {
      * {@code ListWidget}, {@code null} if it is not.
      */
     public Widget getView(int dataIndex) {
-        Widget view = null;
-        for (Widget child: mContent.getChildren()) {
-            ListItemHostWidget host = ((ListItemHostWidget) child);
-            if (host.getDataIndex() == dataIndex) {
-                view = host.getGuest();
-                break;
-            }
-        }
-        return view;
+        ListItemHostWidget host = findHost(dataIndex);
+        return host == null ? null : host.getGuest();
     }
 
     /**
-     * Clear all views from the list
+     * Clear all views from the list. The item views are kept in the
+     * {@linkplain #getRecycledViewPool() pool} for reuse.
      */
     public void clear() {
         clearSelection(false);
+        recyclePrefetched(false);
+        for (int i = mContent.getChildrenCount() - 1; i >= 0; --i) {
+            recycle((ListItemHostWidget) mContent.getChildAt(i));
+        }
         mContent.clear();
     }
 
@@ -588,6 +587,61 @@ public class ListWidget extends GroupWidget implements ScrollableList {
         return new HashSet<>(mSelectedItemsList);
     }
 
+    /**
+     * Set the pool keeping item views detached from this list for reuse. Lists showing the same
+     * kind of views (e.g. the pages of a {@link com.samsungxr.widgetlib.widget.custom.MultiPageWidget
+     * MultiPageWidget}) can share one pool. A shared pool is not cleared when the adapter of
+     * the list is changed, so its owner has to clear it if the view types change.
+     * @param pool pool to use, or {@code null} to give the list its own pool
+     */
+    public void setRecycledViewPool(RecycledViewPool pool) {
+        mOwnViewPool = pool == null;
+        mViewPool = mOwnViewPool ? new RecycledViewPool() : pool;
+    }
+
+    /**
+     * @return pool keeping item views detached from this list
+     */
+    public RecycledViewPool getRecycledViewPool() {
+        return mViewPool;
+    }
+
+    /**
+     * Set how many items next to the visible ones are created ahead of time. The items are
+     * prefetched in the direction of the last scroll, one per frame, and only if the previous
+     * frame has been rendered in time.
+     * @param count number of items to prefetch, 0 disables prefetching
+     */
+    public void setPrefetchCount(int count) {
+        mPrefetchCount = Math.max(0, count);
+        if (mPrefetchCount == 0) {
+            recyclePrefetched(false);
+        }
+        schedulePrefetch();
+    }
+
+    /**
+     * @return number of items next to the visible ones created ahead of time
+     */
+    public int getPrefetchCount() {
+        return mPrefetchCount;
+    }
+
+    /**
+     * @return number of item views created by the adapter since the list has been created.
+     * Views rebound from the {@linkplain #getRecycledViewPool() pool} are not counted.
+     */
+    public int getCreatedViewCount() {
+        return mCreatedViewCount;
+    }
+
+    /**
+     * @return number of host widgets created by the list since it has been created
+     */
+    public int getCreatedHostCount() {
+        return mCreatedHostCount;
+    }
+
     //  =================== Scrolling <start> =========================
 
     @Override
@@ -740,6 +794,7 @@ public class ListWidget extends GroupWidget implements ScrollableList {
                 }
             }
             if (direction != Direction.NONE) {
+                mScrollDirection = direction;
                 offset = layout.preMeasureNext(measuredChildren, axis, direction);
                 // reached the end of list, just move to some amount
                 if (Float.isNaN(offset)) {
@@ -933,7 +988,7 @@ public class ListWidget extends GroupWidget implements ScrollableList {
         host.setSelected(selected);
         host.requestLayout();
 
-        if (mContent.getChildren().contains(host)) {
+        if (host.getParent() == mContent) {
             Log.d(Log.SUBSYSTEM.LAYOUT, TAG, "setupItem(%s): added item(%s) at dataIndex [%d]",
                     getName(), view.getName(), dataIndex);
         } else {
@@ -949,7 +1004,20 @@ public class ListWidget extends GroupWidget implements ScrollableList {
      * @return view displays the data at the specified position
      */
     protected Widget getViewFromAdapter(final int index, ListItemHostWidget host) {
-        return mAdapter == null ? null : mAdapter.getView(index, host.getGuest(), host);
+        if (mAdapter == null) {
+            return null;
+        }
+        final int viewType = mAdapter.getItemViewType(index);
+        Widget convertView = host.getGuest();
+        if (convertView == null) {
+            convertView = mViewPool.get(viewType);
+        }
+        Widget view = mAdapter.getView(index, convertView, host);
+        if (view != null && view != convertView) {
+            ++mCreatedViewCount;
+        }
+        host.mViewType = viewType;
+        return view;
     }
 
     /**
@@ -1031,6 +1099,7 @@ public class ListWidget extends GroupWidget implements ScrollableList {
      */
     protected ListItemHostWidget makeHost(SXRContext sxrContext) {
         ListItemHostWidget host = new ListItemHostWidget(sxrContext);
+        ++mCreatedHostCount;
         return host;
     }
 
@@ -1173,6 +1242,7 @@ public class ListWidget extends GroupWidget implements ScrollableList {
         private float hostWidth, hostHeight, hostDepth;
         private Widget mGuestWidget;
         private int mDataIndex = -1;
+        private int mViewType = android.widget.Adapter.IGNORE_ITEM_VIEW_TYPE;
     }
     private boolean isScrolling() {
         return mScroller == null ? false : mScroller.doScrolling();
@@ -1226,8 +1296,9 @@ public class ListWidget extends GroupWidget implements ScrollableList {
      * save resources on creating new widgets.
      */
     protected void recycleChildren() {
-        for (ListItemHostWidget host: getAllHosts()) {
-            recycle(host);
+        recyclePrefetched(false);
+        for (int i = mContent.getChildrenCount() - 1; i >= 0; --i) {
+            recycle((ListItemHostWidget) mContent.getChildAt(i));
         }
         mContent.onTransformChanged();
         mContent.requestLayout();
@@ -1242,21 +1313,149 @@ public class ListWidget extends GroupWidget implements ScrollableList {
     }
 
     private void recycle(ListItemHostWidget host) {
-        mContent.removeChild(host, true);
+        if (host.getParent() == mContent) {
+            mContent.removeChild(host, true);
+            if (!host.isRecycled()) {
+                mContent.invalidateAllLayouts(host);
+            }
+        }
 
         if (!host.isRecycled()) {
             Widget view = host.getGuest();
             onRecycle(view, host.getDataIndex());
 
-            mContent.invalidateAllLayouts(host);
-
+            final int viewType = host.mViewType;
             host.recycle();
+            mViewPool.put(viewType, view);
             if (!mRecycledViews.contains(host)) {
                 mRecycledViews.add(host);
             }
         }
     }
 
+    /**
+     * Drop recycled hosts not needed to replace the current views and the prefetched ones
+     */
+    private void trimRecycledViews() {
+        final int max = mContent.getChildrenCount() + mPrefetchCount;
+        Log.d(Log.SUBSYSTEM.LAYOUT, TAG, "Trim %d items ", Math.max(0, mRecycledViews.size() - max));
+        for (int i = mRecycledViews.size() - 1; i >= max; --i) {
+            mRecycledViews.remove(i);
+        }
+    }
+
+    /**
+     * Recycle the prefetched items
+     * @param outsideOnly true to only recycle the items not next to the visible range
+     */
+    private void recyclePrefetched(boolean outsideOnly) {
+        for (int i = mPrefetchedViews.size() - 1; i >= 0; --i) {
+            ListItemHostWidget host = mPrefetchedViews.get(i);
+            final int dataIndex = host.getDataIndex();
+            if (!outsideOnly || dataIndex < mFirstVisible - mPrefetchCount
+                    || dataIndex > mLastVisible + mPrefetchCount) {
+                mPrefetchedViews.remove(i);
+                recycle(host);
+            }
+        }
+    }
+
+    /**
+     * Remember the visible range after the layout and start prefetching the items next to it
+     */
+    private void updatePrefetchRange() {
+        int first = Integer.MAX_VALUE;
+        int last = -1;
+        for (int i = mContent.getChildrenCount() - 1; i >= 0; --i) {
+            final int dataIndex = ((ListItemHostWidget) mContent.getChildAt(i)).getDataIndex();
+            if (dataIndex >= 0) {
+                first = Math.min(first, dataIndex);
+                last = Math.max(last, dataIndex);
+            }
+        }
+        mFirstVisible = last < 0 ? -1 : first;
+        mLastVisible = last;
+        recyclePrefetched(true);
+        schedulePrefetch();
+    }
+
+    private void schedulePrefetch() {
+        boolean needed = mPrefetchCount > 0 && mLastVisible >= 0 && nextPrefetchIndex() >= 0;
+        if (needed != mPrefetchScheduled) {
+            mPrefetchScheduled = needed;
+            if (needed) {
+                getSXRContext().registerDrawFrameListener(mPrefetchListener);
+            } else {
+                getSXRContext().unregisterDrawFrameListener(mPrefetchListener);
+            }
+        }
+    }
+
+    /**
+     * @return data index of the next item predicted to scroll into view, or -1 if all of them
+     * are already there
+     */
+    private int nextPrefetchIndex() {
+        final int count = getDataCount();
+        for (int i = 1; i <= mPrefetchCount; ++i) {
+            if (mScrollDirection != Direction.BACKWARD) {
+                int next = mLastVisible + i;
+                if (next < count && !isPrefetched(next)) {
+                    return next;
+                }
+            }
+            if (mScrollDirection != Direction.FORWARD) {
+                int prev = mFirstVisible - i;
+                if (prev >= 0 && !isPrefetched(prev)) {
+                    return prev;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private boolean isPrefetched(int dataIndex) {
+        for (int i = 0; i < mPrefetchedViews.size(); ++i) {
+            if (mPrefetchedViews.get(i).getDataIndex() == dataIndex) {
+                return true;
+            }
+        }
+        return findHost(dataIndex) != null;
+    }
+
+    private void prefetch(int dataIndex) {
+        ListItemHostWidget host = mRecycledViews.isEmpty() ?
+                makeHost(getSXRContext()) : mRecycledViews.remove(mRecycledViews.size() - 1);
+        Widget view = null;
+        try {
+            view = getViewFromAdapter(dataIndex, host);
+        } catch (Exception e) {
+            Log.e(TAG, e, "prefetch(%s): exception at %d: %s", getName(), dataIndex, e.getMessage());
+        }
+        if (view != null) {
+            setupHost(host, view, dataIndex);
+            mPrefetchedViews.add(host);
+            Log.d(Log.SUBSYSTEM.LAYOUT, TAG, "prefetch(%s): item at dataIndex [%d]", getName(), dataIndex);
+        } else {
+            mRecycledViews.add(host);
+        }
+    }
+
+    private final SXRDrawFrameListener mPrefetchListener = new SXRDrawFrameListener() {
+        @Override
+        public void onDrawFrame(float frameTime) {
+            if (frameTime > PREFETCH_MAX_FRAME_TIME) {
+                // the last frame was late, try again on the next one
+                return;
+            }
+            int next = mAdapter == null ? -1 : nextPrefetchIndex();
+            if (next >= 0) {
+                prefetch(next);
+            }
+            schedulePrefetch();
+        }
+    };
+
     /**
      * This method is called if the data set has been changed. Subclasses might want to override
      * this method to add some extra logic.
@@ -1340,10 +1539,12 @@ public class ListWidget extends GroupWidget implements ScrollableList {
             }
 
             if (mTrimRequest) {
-                Log.d(Log.SUBSYSTEM.LAYOUT, TAG, "Trim %d items ", mRecycledViews.size());
-                mRecycledViews.clear();
+                trimRecycledViews();
                 mTrimRequest = false;
             }
+            if (!isScrolling()) {
+                updatePrefetchRange();
+            }
 
             notifyOnInvalidated();
             notifyOnChanged();
@@ -1410,6 +1611,9 @@ public class ListWidget extends GroupWidget implements ScrollableList {
                             Log.w(TAG, "onChanged(%s): internal observer not registered on adapter!", getName());
                         }
                         clear();
+                        if (mOwnViewPool) {
+                            mViewPool.clear();
+                        }
                         notifyOnInvalidated();
                     }
                     mAdapter = adapter;
@@ -1430,19 +1634,21 @@ public class ListWidget extends GroupWidget implements ScrollableList {
     }
 
     protected ListItemHostWidget getHostView(int dataIndex, boolean enforceNew) {
-        ListItemHostWidget host = null;
-
-        for (Widget child: mContent.getChildren()) {
-            ListItemHostWidget next  = (ListItemHostWidget)child;
-            if (next.getDataIndex() == dataIndex) {
-                host = next;
-                break;
+        ListItemHostWidget host = findHost(dataIndex);
+
+        if (host == null && enforceNew) {
+            for (int i = 0; i < mPrefetchedViews.size(); ++i) {
+                if (mPrefetchedViews.get(i).getDataIndex() == dataIndex) {
+                    host = mPrefetchedViews.remove(i);
+                    Log.d(Log.SUBSYSTEM.LAYOUT, TAG, "use prefetched view: %s", host);
+                    break;
+                }
             }
         }
 
         if (host == null  && enforceNew) {
             if (!mRecycledViews.isEmpty()) {
-                host = mRecycledViews.remove(0);
+                host = mRecycledViews.remove(mRecycledViews.size() - 1);
                 Log.d(Log.SUBSYSTEM.LAYOUT, TAG, "reuse recycled view: %s", host);
 
             } else {
@@ -1453,8 +1659,18 @@ public class ListWidget extends GroupWidget implements ScrollableList {
         return host;
     }
 
+    private ListItemHostWidget findHost(int dataIndex) {
+        for (int i = mContent.getChildrenCount() - 1; i >= 0; --i) {
+            ListItemHostWidget host = (ListItemHostWidget) mContent.getChildAt(i);
+            if (host.getDataIndex() == dataIndex) {
+                return host;
+            }
+        }
+        return null;
+    }
+
     protected int getViewCount() {
-        return mContent.getChildren().size();
+        return mContent.getChildrenCount();
     }
 
 
@@ -1623,6 +1839,19 @@ public class ListWidget extends GroupWidget implements ScrollableList {
 
     private List<ListItemHostWidget> mRecycledViews = new ArrayList<>();
     private boolean mTrimRequest;
+    private RecycledViewPool mViewPool = new RecycledViewPool();
+    private boolean mOwnViewPool = true;
+    private int mCreatedViewCount;
+    private int mCreatedHostCount;
+
+    private static final float PREFETCH_MAX_FRAME_TIME = 1.5f / 60f; // seconds, a frame dropped at 60 fps
+    private static final int DEFAULT_PREFETCH_COUNT = 2;
+    private final List<ListItemHostWidget> mPrefetchedViews = new ArrayList<>();
+    private int mPrefetchCount = DEFAULT_PREFETCH_COUNT;
+    private boolean mPrefetchScheduled;
+    private int mFirstVisible = -1;
+    private int mLastVisible = -1;
+    private Direction mScrollDirection = Direction.NONE;
 
     private boolean mMultiSelectionSupported;
     private boolean mSelectOnTouchEnabled;
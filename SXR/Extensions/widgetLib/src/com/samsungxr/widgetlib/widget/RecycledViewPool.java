@@ -0,0 +1,106 @@
+package com.samsungxr.widgetlib.widget;
+
+import android.util.SparseArray;
+
+import com.samsungxr.widgetlib.adapter.Adapter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Item views detached from a {@link ListWidget}, grouped by
+ * {@linkplain Adapter#getItemViewType(int) view type}. A view taken from the pool is passed to
+ * {@link Adapter#getView(int, Widget, GroupWidget)} as {@code convertView}, so the adapter can
+ * bind new data to it instead of creating a new {@link Widget} subtree.
+ * <p>
+ * The pool keeps at most {@link #DEFAULT_MAX_VIEWS} views per type unless
+ * {@linkplain #setMaxRecycledViews(int, int) configured} otherwise. It can be shared by lists
+ * using the same kind of adapter, e.g. the pages of a
+ * {@link com.samsungxr.widgetlib.widget.custom.MultiPageWidget MultiPageWidget}. The pool is
+ * not thread safe; it is used on the GL thread only.
+ */
+public class RecycledViewPool {
+    /**
+     * Default maximum number of views kept per view type
+     */
+    public static final int DEFAULT_MAX_VIEWS = 8;
+
+    /**
+     * Take a view of the specified type out of the pool
+     * @param viewType view type as reported by the adapter
+     * @return detached view or null if the pool has no views of that type
+     */
+    public Widget get(int viewType) {
+        Scrap scrap = mScraps.get(viewType);
+        if (scrap == null || scrap.views.isEmpty()) {
+            return null;
+        }
+        return scrap.views.remove(scrap.views.size() - 1);
+    }
+
+    /**
+     * Put a detached view in the pool
+     * @param viewType view type as reported by the adapter
+     * @param view view to keep for reuse
+     * @return true if the view has been added, false if the pool for that type is full or the
+     * type cannot be recycled
+     */
+    public boolean put(int viewType, Widget view) {
+        if (view == null || viewType == android.widget.Adapter.IGNORE_ITEM_VIEW_TYPE) {
+            return false;
+        }
+        Scrap scrap = getScrap(viewType);
+        if (scrap.views.size() >= scrap.maxViews || scrap.views.contains(view)) {
+            return false;
+        }
+        scrap.views.add(view);
+        return true;
+    }
+
+    /**
+     * Set the maximum number of views kept for the view type. Extra views are dropped.
+     * @param viewType view type as reported by the adapter
+     * @param max maximum number of views
+     */
+    public void setMaxRecycledViews(int viewType, int max) {
+        Scrap scrap = getScrap(viewType);
+        scrap.maxViews = max;
+        while (scrap.views.size() > max) {
+            scrap.views.remove(scrap.views.size() - 1);
+        }
+    }
+
+    /**
+     * @param viewType view type as reported by the adapter
+     * @return number of views of the type available in the pool
+     */
+    public int getRecycledViewCount(int viewType) {
+        Scrap scrap = mScraps.get(viewType);
+        return scrap == null ? 0 : scrap.views.size();
+    }
+
+    /**
+     * Drop all views
+     */
+    public void clear() {
+        for (int i = 0; i < mScraps.size(); ++i) {
+            mScraps.valueAt(i).views.clear();
+        }
+    }
+
+    private Scrap getScrap(int viewType) {
+        Scrap scrap = mScraps.get(viewType);
+        if (scrap == null) {
+            scrap = new Scrap();
+            mScraps.put(viewType, scrap);
+        }
+        return scrap;
+    }
+
+    private static class Scrap {
+        final List<Widget> views = new ArrayList<>();
+        int maxViews = DEFAULT_MAX_VIEWS;
+    }
+
+    private final SparseArray<Scrap> mScraps = new SparseArray<>();
+}
@@ -1,7 +1,6 @@
 package com.samsungxr.widgetlib.widget;
 
 import com.samsungxr.widgetlib.main.CommandBuffer;
-import com.samsungxr.widgetlib.main.CommandBuffer.Command;
 
 import com.samsungxr.SXRMaterial;
 import com.samsungxr.SXRMesh;
@@ -165,14 +164,14 @@ class RenderDataCache {
 
     private static final class SET_MESH {
         static void buffer(SXRRenderData renderData, SXRMesh mesh) {
-            CommandBuffer.Command.buffer(sExecutor, renderData, mesh);
+            CommandBuffer.record(sDecoder).putObject(renderData).putObject(mesh).end();
         }
 
-        private static final Command.Executor sExecutor = new Command.Executor() {
+        private static final CommandBuffer.Decoder sDecoder = new CommandBuffer.Decoder() {
             @Override
-            public void exec(Object... params) {
-                final SXRRenderData renderData = (SXRRenderData) params[0];
-                final SXRMesh mesh = (SXRMesh) params[1];
+            public void exec(CommandBuffer.Reader args) {
+                final SXRRenderData renderData = args.getObject();
+                final SXRMesh mesh = args.getObject();
                 renderData.setMesh(mesh);
             }
         };
@@ -180,14 +179,14 @@ class RenderDataCache {
 
     private static final class SET_OFFSET {
         static void buffer(SXRRenderData renderData, boolean offset) {
-            CommandBuffer.Command.buffer(sExecutor, renderData, offset);
+            CommandBuffer.record(sDecoder).putObject(renderData).putBoolean(offset).end();
         }
 
-        private static final Command.Executor sExecutor = new Command.Executor() {
+        private static final CommandBuffer.Decoder sDecoder = new CommandBuffer.Decoder() {
             @Override
-            public void exec(Object... params) {
-                final SXRRenderData renderData = (SXRRenderData) params[0];
-                final boolean offset = (boolean) params[1];
+            public void exec(CommandBuffer.Reader args) {
+                final SXRRenderData renderData = args.getObject();
+                final boolean offset = args.getBoolean();
                 renderData.setOffset(offset);
             }
         };
@@ -195,14 +194,14 @@ class RenderDataCache {
 
     private static final class SET_OFFSET_FACTOR {
         static void buffer(SXRRenderData renderData, float offsetFactor) {
-            CommandBuffer.Command.buffer(sExecutor, renderData, offsetFactor);
+            CommandBuffer.record(sDecoder).putObject(renderData).putFloat(offsetFactor).end();
         }
 
-        private static final Command.Executor sExecutor = new Command.Executor() {
+        private static final CommandBuffer.Decoder sDecoder = new CommandBuffer.Decoder() {
             @Override
-            public void exec(Object... params) {
-                final SXRRenderData renderData = (SXRRenderData) params[0];
-                final float offsetFactor = (float) params[1];
+            public void exec(CommandBuffer.Reader args) {
+                final SXRRenderData renderData = args.getObject();
+                final float offsetFactor = args.getFloat();
                 renderData.setOffsetFactor(offsetFactor);
             }
         };
@@ -210,14 +209,14 @@ class RenderDataCache {
 
     private static final class SET_RENDERING_ORDER {
         static void buffer(SXRRenderData renderData, int renderingOrder) {
-            CommandBuffer.Command.buffer(sExecutor, renderData, renderingOrder);
+            CommandBuffer.record(sDecoder).putObject(renderData).putInt(renderingOrder).end();
         }
 
-        private static final Command.Executor sExecutor = new Command.Executor() {
+        private static final CommandBuffer.Decoder sDecoder = new CommandBuffer.Decoder() {
             @Override
-            public void exec(Object... params) {
-                final SXRRenderData renderData = (SXRRenderData) params[0];
-                final int renderingOrder = (int) params[1];
+            public void exec(CommandBuffer.Reader args) {
+                final SXRRenderData renderData = args.getObject();
+                final int renderingOrder = args.getInt();
                 renderData.setRenderingOrder(renderingOrder);
             }
         };
@@ -225,14 +224,14 @@ class RenderDataCache {
 
     private static final class SET_CULL_FACE {
         static void buffer(SXRRenderData renderData, SXRRenderPass.SXRCullFaceEnum cullFace) {
-            CommandBuffer.Command.buffer(sExecutor, renderData, cullFace);
+            CommandBuffer.record(sDecoder).putObject(renderData).putObject(cullFace).end();
         }
 
-        private static final Command.Executor sExecutor = new Command.Executor() {
+        private static final CommandBuffer.Decoder sDecoder = new CommandBuffer.Decoder() {
             @Override
-            public void exec(Object... params) {
-                final SXRRenderData renderData = (SXRRenderData) params[0];
-                final SXRRenderPass.SXRCullFaceEnum cullFace = (SXRRenderPass.SXRCullFaceEnum)params[1];
+            public void exec(CommandBuffer.Reader args) {
+                final SXRRenderData renderData = args.getObject();
+                final SXRRenderPass.SXRCullFaceEnum cullFace = args.getObject();
                 renderData.setCullFace(cullFace);
             }
         };
@@ -240,14 +239,14 @@ class RenderDataCache {
 
     private static final class SET_OFFSET_UNITS {
         static void buffer(SXRRenderData renderData, float offsetUnits) {
-            CommandBuffer.Command.buffer(sExecutor, renderData, offsetUnits);
+            CommandBuffer.record(sDecoder).putObject(renderData).putFloat(offsetUnits).end();
         }
 
-        private static final Command.Executor sExecutor = new Command.Executor() {
+        private static final CommandBuffer.Decoder sDecoder = new CommandBuffer.Decoder() {
             @Override
-            public void exec(Object... params) {
-                final SXRRenderData renderData = (SXRRenderData) params[0];
-                final float offsetUnits = (float) params[1];
+            public void exec(CommandBuffer.Reader args) {
+                final SXRRenderData renderData = args.getObject();
+                final float offsetUnits = args.getFloat();
                 renderData.setOffsetUnits(offsetUnits);
             }
         };
@@ -255,14 +254,14 @@ class RenderDataCache {
 
     private static final class SET_DEPTH_TEST {
         static void buffer(SXRRenderData renderData, boolean depthTest) {
-            CommandBuffer.Command.buffer(sExecutor, renderData, depthTest);
+            CommandBuffer.record(sDecoder).putObject(renderData).putBoolean(depthTest).end();
         }
 
-        private static final Command.Executor sExecutor = new Command.Executor() {
+        private static final CommandBuffer.Decoder sDecoder = new CommandBuffer.Decoder() {
             @Override
-            public void exec(Object... params) {
-                final SXRRenderData renderData = (SXRRenderData) params[0];
-                final boolean depthTest = (boolean) params[1];
+            public void exec(CommandBuffer.Reader args) {
+                final SXRRenderData renderData = args.getObject();
+                final boolean depthTest = args.getBoolean();
                 renderData.setDepthTest(depthTest);
             }
         };
@@ -270,14 +269,14 @@ class RenderDataCache {
 
     private static final class SET_STENCIL_TEST {
         static void buffer(SXRRenderData renderData) {
-            CommandBuffer.Command.buffer(sExecutor, renderData, true);
+            CommandBuffer.record(sDecoder).putObject(renderData).putBoolean(true).end();
         }
 
-        private static final Command.Executor sExecutor = new Command.Executor() {
+        private static final CommandBuffer.Decoder sDecoder = new CommandBuffer.Decoder() {
             @Override
-            public void exec(Object... params) {
-                final SXRRenderData renderData = (SXRRenderData) params[0];
-                final boolean flag = (boolean) params[1];
+            public void exec(CommandBuffer.Reader args) {
+                final SXRRenderData renderData = args.getObject();
+                final boolean flag = args.getBoolean();
                 renderData.setStencilTest(flag);
             }
         };
@@ -285,16 +284,16 @@ class RenderDataCache {
 
     private static final class SET_STENCIL_FUNC {
         static void buffer(SXRRenderData renderData, int func) {
-            CommandBuffer.Command.buffer(sExecutor, renderData, func, 1, 0xFF);
+            CommandBuffer.record(sDecoder).putObject(renderData).putInt(func).putInt(1).putInt(0xFF).end();
         }
 
-        private static final Command.Executor sExecutor = new Command.Executor() {
+        private static final CommandBuffer.Decoder sDecoder = new CommandBuffer.Decoder() {
             @Override
-            public void exec(Object... params) {
-                final SXRRenderData renderData = (SXRRenderData) params[0];
-                final int func = (int) params[1];
-                final int ref = (int) params[2];
-                final int mask = (int) params[3];
+            public void exec(CommandBuffer.Reader args) {
+                final SXRRenderData renderData = args.getObject();
+                final int func = args.getInt();
+                final int ref = args.getInt();
+                final int mask = args.getInt();
                 renderData.setStencilFunc(func, ref, mask);
             }
         };
@@ -302,14 +301,14 @@ class RenderDataCache {
 
     private static final class SET_STENCIL_MASK {
         static void buffer(SXRRenderData renderData) {
-            CommandBuffer.Command.buffer(sExecutor, renderData, 0x00);
+            CommandBuffer.record(sDecoder).putObject(renderData).putInt(0x00).end();
         }
 
-        private static final Command.Executor sExecutor = new Command.Executor() {
+        private static final CommandBuffer.Decoder sDecoder = new CommandBuffer.Decoder() {
             @Override
-            public void exec(Object... params) {
-                final SXRRenderData renderData = (SXRRenderData) params[0];
-                final int mask = (int) params[1];
+            public void exec(CommandBuffer.Reader args) {
+                final SXRRenderData renderData = args.getObject();
+                final int mask = args.getInt();
                 renderData.setStencilMask(mask);
             }
         };
@@ -317,14 +316,14 @@ class RenderDataCache {
 
     private static final class SET_MATERIAL {
         public static void buffer(SXRRenderData renderData, SXRMaterial material) {
-            CommandBuffer.Command.buffer(sExecutor, renderData, material);
+            CommandBuffer.record(sDecoder).putObject(renderData).putObject(material).end();
         }
 
-        private static final Command.Executor sExecutor = new Command.Executor() {
+        private static final CommandBuffer.Decoder sDecoder = new CommandBuffer.Decoder() {
             @Override
-            public void exec(Object... params) {
-                SXRRenderData renderData = (SXRRenderData) params[0];
-                SXRMaterial material = (SXRMaterial) params[1];
+            public void exec(CommandBuffer.Reader args) {
+                SXRRenderData renderData = args.getObject();
+                SXRMaterial material = args.getObject();
                 renderData.setMaterial(material);
             }
         };
@@ -418,14 +417,14 @@ class RenderDataCache {
 
         private static final class SET_COLOR {
             public static void buffer(SXRMaterial material, int color) {
-                CommandBuffer.Command.buffer(sExecutor, material, color);
+                CommandBuffer.record(sDecoder).putObject(material).putInt(color).end();
             }
 
-            private static final Command.Executor sExecutor = new Command.Executor() {
+            private static final CommandBuffer.Decoder sDecoder = new CommandBuffer.Decoder() {
                 @Override
-                public void exec(Object... params) {
-                    final SXRMaterial material = (SXRMaterial) params[0];
-                    final int color = (int) params[1];
+                public void exec(CommandBuffer.Reader args) {
+                    final SXRMaterial material = args.getObject();
+                    final int color = args.getInt();
                     material.setColor(color);
                 }
             };
@@ -433,16 +432,16 @@ class RenderDataCache {
 
         private static final class SET_COLOR_RGB {
             public static void buffer(SXRMaterial material, float r, float g, float b) {
-                CommandBuffer.Command.buffer(sExecutor, material, r, g, b);
+                CommandBuffer.record(sDecoder).putObject(material).putFloat(r).putFloat(g).putFloat(b).end();
             }
 
-            private static final Command.Executor sExecutor = new Command.Executor() {
+            private static final CommandBuffer.Decoder sDecoder = new CommandBuffer.Decoder() {
                 @Override
-                public void exec(Object... params) {
-                    final SXRMaterial material = (SXRMaterial) params[0];
-                    final float r = (float) params[1];
-                    final float g = (float) params[2];
-                    final float b = (float) params[3];
+                public void exec(CommandBuffer.Reader args) {
+                    final SXRMaterial material = args.getObject();
+                    final float r = args.getFloat();
+                    final float g = args.getFloat();
+                    final float b = args.getFloat();
                     material.setColor(r, g, b);
                 }
             };
@@ -450,14 +449,14 @@ class RenderDataCache {
 
         private static final class SET_OPACITY {
             public static void buffer(SXRMaterial material, float opacity) {
-                CommandBuffer.Command.buffer(sExecutor, material, opacity);
+                CommandBuffer.record(sDecoder).putObject(material).putFloat(opacity).end();
             }
 
-            private static final Command.Executor sExecutor = new Command.Executor() {
+            private static final CommandBuffer.Decoder sDecoder = new CommandBuffer.Decoder() {
                 @Override
-                public void exec(Object... params) {
-                    final SXRMaterial material = (SXRMaterial) params[0];
-                    final float opacity = (float) params[1];
+                public void exec(CommandBuffer.Reader args) {
+                    final SXRMaterial material = args.getObject();
+                    final float opacity = args.getFloat();
                     material.setOpacity(opacity);
                 }
             };
@@ -465,14 +464,14 @@ class RenderDataCache {
 
         private static final class SET_TEXTURE {
             public static void buffer(SXRMaterial material, SXRTexture texture) {
-                CommandBuffer.Command.buffer(sExecutor, material, texture);
+                CommandBuffer.record(sDecoder).putObject(material).putObject(texture).end();
             }
 
-            private static Command.Executor sExecutor = new Command.Executor() {
+            private static CommandBuffer.Decoder sDecoder = new CommandBuffer.Decoder() {
                 @Override
-                public void exec(Object... params) {
-                    final SXRMaterial material = (SXRMaterial) params[0];
-                    final SXRTexture texture = (SXRTexture) params[1];
+                public void exec(CommandBuffer.Reader args) {
+                    final SXRMaterial material = args.getObject();
+                    final SXRTexture texture = args.getObject();
                     material.setMainTexture(texture);
                     material.setTexture(MATERIAL_DIFFUSE_TEXTURE, texture);
                 }
@@ -481,15 +480,15 @@ class RenderDataCache {
 
         private static final class SET_NAMED_TEXTURE {
             public static void buffer(SXRMaterial material, String key, SXRTexture texture) {
-                CommandBuffer.Command.buffer(sExecutor, material, key, texture);
+                CommandBuffer.record(sDecoder).putObject(material).putObject(key).putObject(texture).end();
             }
 
-            private static final Command.Executor sExecutor = new Command.Executor() {
+            private static final CommandBuffer.Decoder sDecoder = new CommandBuffer.Decoder() {
                 @Override
-                public void exec(Object... params) {
-                    final SXRMaterial material = (SXRMaterial) params[0];
-                    final String name = (String) params[1];
-                    final SXRTexture texture = (SXRTexture) params[2];
+                public void exec(CommandBuffer.Reader args) {
+                    final SXRMaterial material = args.getObject();
+                    final String name = args.getObject();
+                    final SXRTexture texture = args.getObject();
                     material.setTexture(name, texture);
                 }
             };
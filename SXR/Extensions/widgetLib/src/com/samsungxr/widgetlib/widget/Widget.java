@@ -10,7 +10,7 @@ import android.view.MotionEvent;
 
 import com.samsungxr.SXRRenderPass;
 import com.samsungxr.widgetlib.log.Log;
-import com.samsungxr.widgetlib.main.CommandBuffer.Command;
+import com.samsungxr.widgetlib.main.CommandBuffer;
 import com.samsungxr.widgetlib.main.SXRBitmapTexture;
 import com.samsungxr.widgetlib.main.WidgetLib;
 
@@ -19,10 +19,11 @@ import com.samsungxr.widgetlib.thread.FPSCounter;
 import com.samsungxr.widgetlib.widget.animation.AnimationFactory;
 
 import com.samsungxr.widgetlib.widget.layout.Layout;
+import com.samsungxr.widgetlib.widget.layout.LayoutStats;
 import com.samsungxr.widgetlib.widget.layout.basic.AbsoluteLayout;
 
 import com.samsungxr.widgetlib.widget.properties.JSONHelpers;
-import com.samsungxr.widgetlib.widget.properties.UnmodifiableJSONObject;
+import com.samsungxr.widgetlib.widget.properties.PropertySet;
 import com.samsungxr.widgetlib.R;
 
 import static com.samsungxr.widgetlib.main.Utility.equal;
@@ -990,14 +991,60 @@ public class Widget implements Layout.WidgetContainer {
      * @return dimension
      */
     public float getLayoutSize(final Layout.Axis axis) {
+        // The size is cached per axis together with the view port size it was measured with and
+        // stays valid across layout passes until the widget or its subtree gets dirty: transform,
+        // mesh or layout changes and layout requests drop the cache. It is only read and written
+        // on the thread running the layout pass.
+        final boolean inPass = LayoutStats.isInPass();
+        final int i = axis.ordinal();
+        final float constraint = mViewPort.get(axis);
+        if (inPass && (mLayoutSizeValid & (1 << i)) != 0
+                && mLayoutSizeConstraint[i] == constraint) {
+            return mLayoutSizeCache[i];
+        }
+
         float size = 0;
         for (Layout layout : mLayouts) {
             size = Math.max(size, layout.getSize(axis));
         }
-        Log.d(Log.SUBSYSTEM.LAYOUT, TAG, "getLayoutSize [%s] axis [%s] size [%f]", getName(), axis, size);
+        if (Log.isEnabled(Log.SUBSYSTEM.LAYOUT)) {
+            Log.d(Log.SUBSYSTEM.LAYOUT, TAG, "getLayoutSize [%s] axis [%s] size [%f]", getName(), axis, size);
+        }
+
+        if (inPass) {
+            mLayoutSizeCache[i] = size;
+            mLayoutSizeConstraint[i] = constraint;
+            mLayoutSizeValid |= 1 << i;
+        }
         return size;
     }
 
+    /**
+     * Drop the cached layout size of this widget and its ancestors: their bounds include ours.
+     */
+    private void invalidateLayoutSize() {
+        for (Widget widget = this; widget != null; widget = widget.mParent) {
+            widget.mLayoutSizeValid = 0;
+        }
+    }
+
+    /**
+     * Remember the layout size after the widget has been laid out.
+     * @return true if the size differs from the one of the previous layout
+     */
+    private boolean updateLastLayoutSize() {
+        boolean changed = false;
+        for (Layout.Axis axis : LAYOUT_AXES) {
+            final float size = getLayoutSize(axis);
+            final int i = axis.ordinal();
+            if (!equal(mLastLayoutSize[i], size)) {
+                mLastLayoutSize[i] = size;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
     /**
      * Gets Widget layout width
      * @return width
@@ -1842,6 +1889,7 @@ public class Widget implements Layout.WidgetContainer {
      */
     public void requestLayout() {
         mLayoutRequested = true;
+        invalidateLayoutSize();
 
         Log.v(Log.SUBSYSTEM.LAYOUT, TAG,
                 "requestLayout(%s): mParent: '%s', mParent.isLayoutRequested: %b",
@@ -2068,6 +2116,7 @@ public class Widget implements Layout.WidgetContainer {
     public boolean removeLayout(final Layout layout) {
         boolean removed = mLayouts.remove(layout);
         if (layout != null && removed) {
+            invalidateLayoutSize();
             layout.onLayoutApplied(null, new Vector3Axis());
         }
         return removed;
@@ -2078,12 +2127,12 @@ public class Widget implements Layout.WidgetContainer {
      */
     @Override
     public Widget get(final int dataIndex) {
-        return dataIndex >= size() ? null : getChildren().get(dataIndex);
+        return dataIndex >= size() ? null : mChildren.get(dataIndex);
     }
 
     @Override
     public int size() {
-        return getChildren().size();
+        return mChildren.size();
     }
 
     @Override
@@ -2128,16 +2177,18 @@ public class Widget implements Layout.WidgetContainer {
         setName(optString(properties, Properties.name, getName()));
 
         Log.v(Log.SUBSYSTEM.WIDGET, TAG, "initMetadata(%s): properties: %s", getName(), properties);
-        UnmodifiableJSONObject objectMetadata = WidgetLib.getPropertyManager().getWidgetProperties(this);
-        Log.v(Log.SUBSYSTEM.WIDGET, TAG, "initMetadata(%s): objectMetadata: %s", getName(), objectMetadata);
+        PropertySet objectProperties = WidgetLib.getPropertyManager().getWidgetPropertySet(this);
+        Log.v(Log.SUBSYSTEM.WIDGET, TAG, "initMetadata(%s): objectMetadata: %s", getName(), objectProperties);
         final boolean preApplyAttribs = optBoolean(properties, Properties.preapply_attribs);
         Log.v(Log.SUBSYSTEM.WIDGET, TAG, "initMetadata(%s): preApplyAttribs: %b", getName(), preApplyAttribs);
+        // Only the keys in properties are merged; everything else is shared with the class schema
         if (preApplyAttribs) {
             // Allow JSON metadata to overwrite metadata from the model
-            mMetadata = merge(objectMetadata, properties);
+            mProperties = objectProperties.underlay(properties);
         } else {
-            mMetadata = merge(properties, objectMetadata);
+            mProperties = objectProperties.override(properties);
         }
+        mMetadata = mProperties.toJSON();
 
         // We do this a second time because the properties received by initMetadata() may have been
         // overwritten if they were pre-applied
@@ -2851,6 +2902,16 @@ public class Widget implements Layout.WidgetContainer {
         return new ArrayList<>(mChildren);
     }
 
+    /* package */
+    int getChildrenCount() {
+        return mChildren.size();
+    }
+
+    /* package */
+    Widget getChildAt(final int index) {
+        return mChildren.get(index);
+    }
+
     /* package */
     boolean hasChild(final Widget child) {
         return mChildren.contains(child);
@@ -3152,6 +3213,10 @@ public class Widget implements Layout.WidgetContainer {
         Log.v(Log.SUBSYSTEM.WIDGET, TAG, "onTransformChanged(): %s mPreventTransformChanged = %b",
                 getName(), mPreventTransformChanged);
 
+        // Our bounds changed even if the layout moved us, so the cached layout
+        // sizes up the hierarchy are stale either way.
+        invalidateLayoutSize();
+
         // Even if the calling code that altered the transform doesn't request a
         // layout, we'll do a layout the next time a layout is requested on our
         // part of the scene graph.
@@ -3322,12 +3387,21 @@ public class Widget implements Layout.WidgetContainer {
      */
     protected void setMesh(final SXRMesh mesh) {
         mRenderDataCache.setMesh(mesh);
+        invalidateLayoutSize();
     }
 
     protected JSONObject getObjectMetadata() {
         return mMetadata;
     }
 
+    /**
+     * @return the metadata of this widget as a {@link PropertySet}, for reading properties by
+     * {@linkplain com.samsungxr.widgetlib.widget.properties.PropertySchema#getSlot(String) slot}
+     */
+    protected PropertySet getPropertySet() {
+        return mProperties;
+    }
+
     /**
      * A hook method called after the {@code Widget} instance has been
      * {@linkplain GroupWidget#addChild(Widget) added} to another {@link Widget}
@@ -3412,15 +3486,22 @@ public class Widget implements Layout.WidgetContainer {
         boolean runLayout = false;
         Log.d(Log.SUBSYSTEM.LAYOUT, TAG, "onLayout() called (%s) mChanged = %b ", getName(), changed);
 
-        FPSCounter.timeCheck("onLayout <START>: " + this + "<" + getName() + "> changed = " + changed);
+        if (FPSCounter.isTimeCheckEnabled()) {
+            FPSCounter.timeCheck("onLayout <START>: " + this + "<" + getName() + "> changed = " + changed);
+        }
 
         float oldWidth = getLayoutWidth();
         float oldHeight = getLayoutHeight();
         float oldDepth = getLayoutDepth();
 
-        for (Widget child : getChildren()) {
+        for (int i = 0; i < mChildren.size(); ++i) {
+            Widget child = mChildren.get(i);
             if (child.layout()) {
-                invalidateAllLayouts();
+                // The child has to be put in place again, but it only needs to be
+                // measured again if its size has changed.
+                if (child.mLayoutSizeChanged) {
+                    invalidateAllLayouts();
+                }
                 runLayout = true;
             }
         }
@@ -3451,7 +3532,9 @@ public class Widget implements Layout.WidgetContainer {
             Log.d(Log.SUBSYSTEM.LAYOUT, TAG, "onLayout: layout is not changed %s!", getName());
         }
 
-        FPSCounter.timeCheck("onLayout <END>: " + this + "<" + getName() + "> changed = " + changed);
+        if (FPSCounter.isTimeCheckEnabled()) {
+            FPSCounter.timeCheck("onLayout <END>: " + this + "<" + getName() + "> changed = " + changed);
+        }
         return changed;
     }
 
@@ -3504,9 +3587,15 @@ public class Widget implements Layout.WidgetContainer {
         Log.v(Log.SUBSYSTEM.LAYOUT, TAG, "layout(%s): changed: %b, requested: %b", getName(),
                 isChanged(), mLayoutRequested);
 
+        mLayoutSizeChanged = false;
         if (isChanged() || mLayoutRequested) {
             Log.v(Log.SUBSYSTEM.LAYOUT, TAG, "layout(%s): calling onLayout", getName());
+            LayoutStats.countLayout();
             relaidout = onLayout();
+            if (relaidout) {
+                invalidateLayoutSize();
+            }
+            mLayoutSizeChanged = relaidout && updateLastLayoutSize();
         }
 
         mLayoutRequested = false;
@@ -3535,9 +3624,13 @@ public class Widget implements Layout.WidgetContainer {
     protected final void runOnGlThread(final Runnable r) {
         getSXRContext().runOnGlThread(new Runnable() {
             public void run() {
-                FPSCounter.timeCheck("runOnGlThread <START>: " + r);
+                if (FPSCounter.isTimeCheckEnabled()) {
+                    FPSCounter.timeCheck("runOnGlThread <START>: " + r);
+                }
                 r.run();
-                FPSCounter.timeCheck("runOnGlThread <END>: " + r);
+                if (FPSCounter.isTimeCheckEnabled()) {
+                    FPSCounter.timeCheck("runOnGlThread <END>: " + r);
+                }
             }
         });
     }
@@ -3570,6 +3663,7 @@ public class Widget implements Layout.WidgetContainer {
                 if (dataIndex != -1) {
                     if (mLayouts.contains(layout)) {
                         layout.invalidate(dataIndex);
+                        invalidateLayoutSize();
                         //onTransformChanged();
                         //requestLayout();
                     }
@@ -3826,6 +3920,7 @@ public class Widget implements Layout.WidgetContainer {
     private List<WidgetState> mLevelInfo = new ArrayList<>();
 
     private JSONObject mMetadata;
+    private PropertySet mProperties;
     private final List<Widget> mChildren = new ArrayList<>();
     private final List<SXRNode> mMeshChildren = new ArrayList<>();
     private Widget mParent;
@@ -3838,6 +3933,12 @@ public class Widget implements Layout.WidgetContainer {
 
     private boolean mLayoutRequested;
     private boolean mChanged = true;
+    private boolean mLayoutSizeChanged;
+    private static final Layout.Axis[] LAYOUT_AXES = Layout.Axis.values();
+    private final float[] mLastLayoutSize = { Float.NaN, Float.NaN, Float.NaN };
+    private final float[] mLayoutSizeCache = new float[3];
+    private final float[] mLayoutSizeConstraint = new float[3];
+    private int mLayoutSizeValid;
     private boolean mIsCreated;
     private Layout mDefaultLayout = new AbsoluteLayout();
     protected final Set<Layout> mLayouts = new LinkedHashSet<>();
@@ -3933,21 +4034,23 @@ public class Widget implements Layout.WidgetContainer {
     private static class UPDATE_VISIBILITY {
         static void buffer(Widget widget, Visibility currentVisibility, Visibility newVisibility,
                            ViewPortVisibility viewPortVisibility) {
-            Command.buffer(sExecutor, widget.getNode(),
-                    widget.getParent().getNode(),
-                    currentVisibility,
-                    newVisibility,
-                    viewPortVisibility);
+            CommandBuffer.record(sDecoder)
+                    .putObject(widget.getNode())
+                    .putObject(widget.getParent().getNode())
+                    .putObject(currentVisibility)
+                    .putObject(newVisibility)
+                    .putObject(viewPortVisibility)
+                    .end();
         }
 
-        private static final Command.Executor sExecutor = new Command.Executor() {
+        private static final CommandBuffer.Decoder sDecoder = new CommandBuffer.Decoder() {
             @Override
-            public void exec(Object... params) {
-                final SXRNode mNode = (SXRNode) params[0];
-                final SXRNode parentNode = (SXRNode) params[1];
-                final Visibility currentVisibility = (Visibility) params[2];
-                final Visibility newVisibility = (Visibility) params[3];
-                final ViewPortVisibility viewPortVisibility = (ViewPortVisibility) params[4];
+            public void exec(CommandBuffer.Reader args) {
+                final SXRNode mNode = args.getObject();
+                final SXRNode parentNode = args.getObject();
+                final Visibility currentVisibility = args.getObject();
+                final Visibility newVisibility = args.getObject();
+                final ViewPortVisibility viewPortVisibility = args.getObject();
 
                 SXRContext sxrContext = mNode.getSXRContext();
                 SXRNode sceneObjectParent = mNode.getParent();
@@ -6,6 +6,7 @@ import com.samsungxr.widgetlib.adapter.Adapter;
 import com.samsungxr.widgetlib.log.Log;
 import com.samsungxr.widgetlib.widget.GroupWidget;
 import com.samsungxr.widgetlib.widget.ListWidget;
+import com.samsungxr.widgetlib.widget.RecycledViewPool;
 import com.samsungxr.widgetlib.widget.Widget;
 import com.samsungxr.widgetlib.widget.layout.Layout;
 import com.samsungxr.widgetlib.widget.layout.LayoutScroller;
@@ -495,6 +496,8 @@ public class MultiPageWidget extends ListWidget {
 
         super.setupView(view, dataIndex);
         ListWidget page = (ListWidget)view;
+        // all pages show views from the same item adapter
+        page.setRecycledViewPool(mItemViewPool);
         for (Layout layout: mItemLayouts) {
             if (!page.hasLayout(layout)) {
                 page.applyLayout(layout.clone());
@@ -612,6 +615,7 @@ public class MultiPageWidget extends ListWidget {
                             Log.w(TAG, "onItemChanged(%s): internal observer not registered on adapter!", getName());
                         }
                         clear();
+                        mItemViewPool.clear();
                         mOnItemInvalidated = true;
                         notifyOnInvalidated();
                     }
@@ -921,6 +925,7 @@ public class MultiPageWidget extends ListWidget {
      * Adapter associated with the items in the pages
      */
     protected Adapter mItemAdapter;
+    private final RecycledViewPool mItemViewPool = new RecycledViewPool();
 
 
     // use the separate flag for the item selection because the pages are not selectable
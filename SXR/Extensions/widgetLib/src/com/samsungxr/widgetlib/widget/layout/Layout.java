@@ -15,11 +15,8 @@ import com.samsungxr.utility.RuntimeAssertion;
 
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * Base Layout strategy class for applying various organization/setup on layout
@@ -118,10 +115,8 @@ abstract public class Layout {
      * Invalidate layout setup.
      */
     public void invalidate() {
-        synchronized (mMeasuredChildren) {
-            Log.d(Log.SUBSYSTEM.LAYOUT, TAG, "invalidate all [%d]", mMeasuredChildren.size());
-            mMeasuredChildren.clear();
-        }
+        Log.d(Log.SUBSYSTEM.LAYOUT, TAG, "invalidate all [%d]", mMeasuredChildren.size());
+        mMeasuredChildren.clear();
     }
 
     /**
@@ -129,10 +124,8 @@ abstract public class Layout {
      * @param dataIndex data index
      */
     public void invalidate(final int dataIndex) {
-        synchronized (mMeasuredChildren) {
-            Log.d(Log.SUBSYSTEM.LAYOUT, TAG, "invalidate [%d]", dataIndex);
-            mMeasuredChildren.remove(dataIndex);
-        }
+        Log.d(Log.SUBSYSTEM.LAYOUT, TAG, "invalidate [%d]", dataIndex);
+        mMeasuredChildren.remove(dataIndex);
     }
 
     /**
@@ -244,14 +237,15 @@ abstract public class Layout {
      * @param dataIndex of child in Container
      * @return true item fits the container, false - otherwise
      */
-    public synchronized Widget measureChild(final int dataIndex, boolean calculateOffset) {
-        Log.d(Log.SUBSYSTEM.LAYOUT, TAG, "measureChild dataIndex = %d", dataIndex);
+    public Widget measureChild(final int dataIndex, boolean calculateOffset) {
+        if (Log.isEnabled(Log.SUBSYSTEM.LAYOUT)) {
+            Log.d(Log.SUBSYSTEM.LAYOUT, TAG, "measureChild dataIndex = %d", dataIndex);
+        }
 
         Widget widget = mContainer.get(dataIndex);
         if (widget != null) {
-            synchronized (mMeasuredChildren) {
-                mMeasuredChildren.add(dataIndex);
-            }
+            mMeasuredChildren.add(dataIndex);
+            LayoutStats.countMeasure();
         }
         return widget;
     }
@@ -262,7 +256,7 @@ abstract public class Layout {
      * @param dataIndex of child in Container
      * @return true item fits the container, false - otherwise
      */
-    public synchronized Widget measureChild(final int dataIndex) {
+    public Widget measureChild(final int dataIndex) {
         return measureChild(dataIndex, true);
     }
 
@@ -336,13 +330,8 @@ abstract public class Layout {
      * @param dataIndex
      * @return
      */
-    synchronized public boolean isChildMeasured(final int dataIndex) {
-        boolean ret;
-        synchronized (mMeasuredChildren) {
-            ret = mMeasuredChildren.contains(dataIndex);
-        }
-
-        return ret;
+    public boolean isChildMeasured(final int dataIndex) {
+        return mMeasuredChildren.contains(dataIndex);
     }
 
     /**
@@ -420,14 +409,22 @@ abstract public class Layout {
      * Layout children inside the layout container
      */
     public void layoutChildren() {
+        // the snapshot is reused between passes; a nested call gets its own array
+        int[] snapshot = mLayoutSnapshot;
+        mLayoutSnapshot = null;
 
-        Set<Integer> copySet;
+        final int count;
         synchronized (mMeasuredChildren) {
-            Log.d(Log.SUBSYSTEM.LAYOUT, TAG, "layoutChildren [%d] layout = %s",
-                    mMeasuredChildren.size(), this);
-            copySet = new HashSet<>(mMeasuredChildren);
+            if (snapshot == null || snapshot.length < mMeasuredChildren.size()) {
+                snapshot = new int[Math.max(16, mMeasuredChildren.size() * 2)];
+            }
+            count = mMeasuredChildren.copyTo(snapshot);
         }
-        for (int nextMeasured: copySet) {
+        if (Log.isEnabled(Log.SUBSYSTEM.LAYOUT)) {
+            Log.d(Log.SUBSYSTEM.LAYOUT, TAG, "layoutChildren [%d] layout = %s", count, this);
+        }
+        for (int i = 0; i < count; ++i) {
+            final int nextMeasured = snapshot[i];
             Widget child = mContainer.get(nextMeasured);
             if (child != null) {
                 child.preventTransformChanged(true);
@@ -437,6 +434,7 @@ abstract public class Layout {
             }
 
         }
+        mLayoutSnapshot = snapshot;
     }
 
     /**
@@ -704,7 +702,82 @@ abstract public class Layout {
     protected Vector3Axis mDividerPadding = new Vector3Axis();
     protected Vector3Axis mOffset = new Vector3Axis();
     protected WidgetContainer mContainer;
-    protected Set<Integer> mMeasuredChildren = new LinkedHashSet<>();
+    protected final MeasuredSet mMeasuredChildren = new MeasuredSet();
+    private int[] mLayoutSnapshot;
+
+    /**
+     * Set of measured data indices kept in insertion order. Indices are stored in plain int
+     * arrays, so adding, removing and checking children does not allocate once the arrays
+     * have grown to the size of the container.
+     */
+    protected static final class MeasuredSet {
+        private int[] mOrder = new int[16];
+        // position in mOrder + 1 for each data index, 0 if the index is not in the set
+        private int[] mPosition = new int[16];
+        private int mSize;
+
+        public synchronized int size() {
+            return mSize;
+        }
+
+        public synchronized boolean contains(final int dataIndex) {
+            return dataIndex >= 0 && dataIndex < mPosition.length && mPosition[dataIndex] != 0;
+        }
+
+        public synchronized boolean add(final int dataIndex) {
+            if (dataIndex < 0) {
+                return false;
+            }
+            if (dataIndex >= mPosition.length) {
+                int[] position = new int[Math.max(dataIndex + 1, mPosition.length * 2)];
+                System.arraycopy(mPosition, 0, position, 0, mPosition.length);
+                mPosition = position;
+            }
+            if (mPosition[dataIndex] != 0) {
+                return false;
+            }
+            if (mSize == mOrder.length) {
+                int[] order = new int[mSize * 2];
+                System.arraycopy(mOrder, 0, order, 0, mSize);
+                mOrder = order;
+            }
+            mOrder[mSize++] = dataIndex;
+            mPosition[dataIndex] = mSize;
+            return true;
+        }
+
+        public synchronized boolean remove(final int dataIndex) {
+            if (!contains(dataIndex)) {
+                return false;
+            }
+            final int pos = mPosition[dataIndex] - 1;
+            mPosition[dataIndex] = 0;
+            --mSize;
+            for (int i = pos; i < mSize; ++i) {
+                final int moved = mOrder[i + 1];
+                mOrder[i] = moved;
+                mPosition[moved] = i + 1;
+            }
+            return true;
+        }
+
+        public synchronized void clear() {
+            for (int i = 0; i < mSize; ++i) {
+                mPosition[mOrder[i]] = 0;
+            }
+            mSize = 0;
+        }
+
+        /**
+         * Copy the indices in insertion order; {@code dest} must hold at least {@link #size()}
+         * elements.
+         * @return number of copied indices
+         */
+        public synchronized int copyTo(final int[] dest) {
+            System.arraycopy(mOrder, 0, dest, 0, mSize);
+            return mSize;
+        }
+    }
 
     protected Layout() {
     }
@@ -833,17 +906,22 @@ abstract public class Layout {
     }
 
     protected void updateTransform(Widget child, Axis axis, float offset) {
-        Log.d(Log.SUBSYSTEM.LAYOUT, TAG, "updateTransform [%s], offset = [%f], axis = [%s]",
-                child.getName(), offset, axis);
+        final boolean logEnabled = Log.isEnabled(Log.SUBSYSTEM.LAYOUT);
+        if (logEnabled) {
+            Log.d(Log.SUBSYSTEM.LAYOUT, TAG, "updateTransform [%s], offset = [%f], axis = [%s]",
+                    child.getName(), offset, axis);
+        }
 
         if (Float.isNaN(offset)) {
             Log.d(Log.SUBSYSTEM.LAYOUT, TAG, "Position is NaN" + axis);
         } else {
             offset -= mViewPort.getShift(axis);
             offset *= getFactor(axis);
-            Log.d(Log.SUBSYSTEM.LAYOUT, TAG, "child [%s] position = [%f, %f, %f] offset = %f, axis = %s",
-                    child.getName(), child.getPositionX(), child.getPositionY(), child.getPositionZ(),
-                    offset, axis);
+            if (logEnabled) {
+                Log.d(Log.SUBSYSTEM.LAYOUT, TAG, "child [%s] position = [%f, %f, %f] offset = %f, axis = %s",
+                        child.getName(), child.getPositionX(), child.getPositionY(), child.getPositionZ(),
+                        offset, axis);
+            }
 
             switch (axis) {
                 case X:
@@ -0,0 +1,101 @@
+package com.samsungxr.widgetlib.widget.layout;
+
+/**
+ * Counters for the layout passes run from the scene root. A pass starts when the root
+ * {@link com.samsungxr.widgetlib.widget.Widget Widget} is laid out and ends when the whole
+ * dirty part of the hierarchy has been processed. The counts of the last finished pass can be
+ * used to check that a change only relayouts the subtree it touched.
+ * <p>
+ * The counters are only updated on the thread running the pass (the GL thread).
+ */
+public final class LayoutStats {
+    private static Thread sPassThread;
+    private static int sPass;
+    private static int sMeasureCount;
+    private static int sLayoutCount;
+    private static int sLastMeasureCount;
+    private static int sLastLayoutCount;
+    private static long sTotalMeasureCount;
+    private static long sTotalLayoutCount;
+
+    private LayoutStats() {
+    }
+
+    /**
+     * Start a new layout pass. Called by the scene root.
+     */
+    public static void beginPass() {
+        sPassThread = Thread.currentThread();
+        ++sPass;
+        sMeasureCount = 0;
+        sLayoutCount = 0;
+    }
+
+    /**
+     * Finish the current layout pass. Called by the scene root.
+     */
+    public static void endPass() {
+        sLastMeasureCount = sMeasureCount;
+        sLastLayoutCount = sLayoutCount;
+        sTotalMeasureCount += sMeasureCount;
+        sTotalLayoutCount += sLayoutCount;
+        sPassThread = null;
+    }
+
+    /**
+     * @return true if the calling thread is running a layout pass
+     */
+    public static boolean isInPass() {
+        return sPassThread == Thread.currentThread();
+    }
+
+    /**
+     * @return sequence number of the current (or last) layout pass
+     */
+    public static int getPass() {
+        return sPass;
+    }
+
+    /**
+     * Count a widget being laid out in the current pass.
+     */
+    public static void countLayout() {
+        if (isInPass()) {
+            ++sLayoutCount;
+        }
+    }
+
+    static void countMeasure() {
+        if (isInPass()) {
+            ++sMeasureCount;
+        }
+    }
+
+    /**
+     * @return number of children measured by the layouts during the last pass
+     */
+    public static int getLastMeasureCount() {
+        return sLastMeasureCount;
+    }
+
+    /**
+     * @return number of widgets laid out during the last pass
+     */
+    public static int getLastLayoutCount() {
+        return sLastLayoutCount;
+    }
+
+    /**
+     * @return number of children measured since the application started
+     */
+    public static long getTotalMeasureCount() {
+        return sTotalMeasureCount;
+    }
+
+    /**
+     * @return number of widgets laid out since the application started
+     */
+    public static long getTotalLayoutCount() {
+        return sTotalLayoutCount;
+    }
+}
@@ -16,8 +16,7 @@ public class PropertyManager {
 
     @NonNull
     public UnmodifiableJSONObject getInstanceProperties(Class<?> clazz, String name) {
-        JSONObject properties = buildInstanceProperties(name, clazz);
-        return new UnmodifiableJSONObject(properties);
+        return getPropertySet(clazz, name).toJSON();
     }
 
     @NonNull
@@ -25,6 +24,55 @@ public class PropertyManager {
         return getInstanceProperties(widget.getClass(), widget.getName());
     }
 
+    /**
+     * Get the compiled class properties of {@code clazz}. The schema is built the first time the
+     * class is used and shared from then on.
+     */
+    @NonNull
+    public PropertySchema getSchema(Class<?> clazz) {
+        synchronized (mSchemas) {
+            PropertySchema schema = mSchemas.get(clazz);
+            if (schema == null) {
+                schema = compileSchema(clazz);
+                mSchemas.put(clazz, schema);
+            }
+            return schema;
+        }
+    }
+
+    /**
+     * Get the class properties of {@code clazz} with the instance properties for {@code name}
+     * from "objects.json" applied on top.
+     */
+    @NonNull
+    public PropertySet getPropertySet(Class<?> clazz, String name) {
+        final PropertySchema schema = getSchema(clazz);
+        final JSONObject properties = name != null ? mInstanceJson.optJSONObject(name) : null;
+        if (properties == null) {
+            return schema.getDefaultSet();
+        }
+
+        synchronized (mSchemas) {
+            Map<String, PropertySet> instanceSets = mInstanceSets.get(clazz);
+            if (instanceSets == null) {
+                instanceSets = new HashMap<>();
+                mInstanceSets.put(clazz, instanceSets);
+            }
+            PropertySet set = instanceSets.get(name);
+            if (set == null) {
+                // Overwrite class properties for this widget type with instance-specific properties
+                set = schema.getDefaultSet().override(properties);
+                instanceSets.put(name, set);
+            }
+            return set;
+        }
+    }
+
+    @NonNull
+    public PropertySet getWidgetPropertySet(Widget widget) {
+        return getPropertySet(widget.getClass(), widget.getName());
+    }
+
     public PropertyManager(Context context, String asset) throws JSONException {
         this(context, asset, null);
     }
@@ -35,23 +83,6 @@ public class PropertyManager {
         loadInstanceProperties(context);
     }
 
-    private JSONObject buildInstanceProperties(String name, Class<?> clazz) {
-        final JSONObject properties = mInstanceJson.optJSONObject(name);
-        final UnmodifiableJSONObject defaultMetadata = getClassProperties(clazz, name);
-
-        if (defaultMetadata == null) {
-            if (properties == null) {
-                return new JSONObject();
-            }
-            return properties;
-        } else if (properties == null) {
-            return defaultMetadata;
-        }
-
-        // Overwrite class properties for this widget type with instance-specific properties
-        return JSONHelpers.merge(properties, defaultMetadata);
-    }
-
     private String getCanonicalName(Class<?> clazz) {
         String canonicalName = mCanonicalNames.get(clazz);
         if (canonicalName == null) {
@@ -61,49 +92,30 @@ public class PropertyManager {
         return canonicalName;
     }
 
-    /* package */
-    @SuppressWarnings("unchecked")
-    private UnmodifiableJSONObject getClassProperties(Class<?> clazz, String name) {
+    private PropertySchema compileSchema(Class<?> clazz) {
+        // Class properties are merged over the (already compiled) properties of the superclass.
+        // The result is never handed out mutable, so instance merges can't leak into the cache.
         final String canonicalName = getCanonicalName(clazz);
-        // TODO: Why does caching class properties in mClassProperties not work?
-        UnmodifiableJSONObject classProperties = buildClassProperties(clazz, name, canonicalName);
-
-        return classProperties;
-    }
-
-    private UnmodifiableJSONObject buildClassProperties(Class<?> clazz, String name, String canonicalName) {
-        // Recursively check for class properties up the class hierarchy
-        if (name == null || name.isEmpty()) {
-            name = clazz.getSimpleName();
-        }
-        final UnmodifiableJSONObject superProperties;
         final Class<?> superclass = clazz.getSuperclass();
+        final JSONObject properties;
         if (superclass != null) {
-            superProperties = getClassProperties(superclass, name);
+            properties = JSONHelpers.copy(getSchema(superclass).getDefaults());
         } else {
-            superProperties = new UnmodifiableJSONObject();
+            properties = new JSONObject();
         }
-        Log.d(Log.SUBSYSTEM.JSON, TAG,
-                "buildClassProperties(%s): getting super properties for %s: %s",
-                name, canonicalName, superProperties);
 
-        UnmodifiableJSONObject classProperties = mClassJson.optJSONObject(canonicalName);
+        final UnmodifiableJSONObject classProperties = mClassJson.optJSONObject(canonicalName);
         Log.d(Log.SUBSYSTEM.JSON, TAG,
-                "buildClassProperties(%s): getting class properties for %s: %s",
-                name, canonicalName, classProperties);
-        if (classProperties == null) {
-            classProperties = new UnmodifiableJSONObject();
-        } else {
-            Log.d(Log.SUBSYSTEM.JSON, TAG, "buildClassProperties(%s): copy class properties for %s ...", name,
-                    canonicalName);
-            classProperties = new UnmodifiableJSONObject(JSONHelpers.copy(classProperties));
+                "compileSchema(%s): getting class properties for %s: %s",
+                clazz.getSimpleName(), canonicalName, classProperties);
+        if (classProperties != null) {
+            JSONHelpers.merge(JSONHelpers.copy(classProperties), properties, clazz.getSimpleName());
         }
 
-        JSONObject mergedProperties = JSONHelpers.merge(classProperties, superProperties, name);
-        Log.d(Log.SUBSYSTEM.JSON, TAG,
-                "buildClassProperties(%s): getting merged properties for %s: %s",
-                name, canonicalName, mergedProperties);
-        return new UnmodifiableJSONObject(mergedProperties);
+        final PropertySchema schema = new PropertySchema(clazz, properties);
+        Log.d(Log.SUBSYSTEM.JSON, TAG, "compileSchema(%s): %d slots: %s",
+                clazz.getSimpleName(), schema.size(), properties);
+        return schema;
     }
 
     private static boolean isWidgetClass(Class<?> clazz) {
@@ -135,7 +147,8 @@ public class PropertyManager {
 
     private final Map<Class<?>, String> mCanonicalNames = new HashMap<>();
     private UnmodifiableJSONObject mClassJson;
-    private Map<Class<?>, JSONObject> mClassProperties = new HashMap<>();
+    private final Map<Class<?>, PropertySchema> mSchemas = new HashMap<>();
+    private final Map<Class<?>, Map<String, PropertySet>> mInstanceSets = new HashMap<>();
     private JSONObject mInstanceJson;
 
     private static final String TAG = PropertyManager.class.getSimpleName();
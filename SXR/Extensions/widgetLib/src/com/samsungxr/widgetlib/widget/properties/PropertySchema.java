@@ -0,0 +1,176 @@
+package com.samsungxr.widgetlib.widget.properties;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * The class properties of a widget class, compiled once from the merged class hierarchy into a
+ * flat list of slots. Each top-level property gets a slot index, a {@link Type} and a default
+ * value; instances store their own values as a sparse {@link PropertySet delta} on top of the
+ * schema and read them back by slot.
+ * <p>
+ * The schema is immutable and can be shared by all instances of the class on any thread.
+ */
+public final class PropertySchema {
+    /**
+     * Slot returned by {@link #getSlot(String)} for keys that are not part of the schema
+     */
+    public static final int NO_SLOT = -1;
+
+    /**
+     * Type of a property slot, as found in the default value
+     */
+    public enum Type {
+        BOOLEAN,
+        NUMBER,
+        STRING,
+        OBJECT,
+        ARRAY,
+        NULL,
+        /**
+         * Any other object, e.g. a {@link android.graphics.PointF PointF} put in by code
+         */
+        OTHER
+    }
+
+    PropertySchema(Class<?> clazz, JSONObject defaults) {
+        final int count = defaults.length();
+        mClass = clazz;
+        mKeys = new String[count];
+        mTypes = new Type[count];
+        mDefaults = new Object[count];
+        mSlots = new HashMap<>(count * 2);
+
+        final Iterator<String> keys = defaults.keys();
+        int slot = 0;
+        while (keys.hasNext()) {
+            final String key = keys.next();
+            final Object value = defaults.opt(key);
+            mKeys[slot] = key;
+            mTypes[slot] = typeOf(value);
+            mDefaults[slot] = value;
+            mSlots.put(key, slot);
+            ++slot;
+        }
+
+        mDefaultsJson = new UnmodifiableJSONObject(defaults);
+        mDefaultSet = new PropertySet(this);
+    }
+
+    /**
+     * @return the widget class the schema was compiled for
+     */
+    public Class<?> getSchemaClass() {
+        return mClass;
+    }
+
+    /**
+     * @return number of slots
+     */
+    public int size() {
+        return mKeys.length;
+    }
+
+    /**
+     * @param key property name
+     * @return slot index of the property or {@link #NO_SLOT}
+     */
+    public int getSlot(String key) {
+        final Integer slot = mSlots.get(key);
+        return slot == null ? NO_SLOT : slot;
+    }
+
+    /**
+     * @param property property name
+     * @return slot index of the property or {@link #NO_SLOT}
+     */
+    public <P extends Enum<P>> int getSlot(P property) {
+        return getSlot(property.name());
+    }
+
+    /**
+     * @param slot slot index
+     * @return property name of the slot
+     */
+    public String getKey(int slot) {
+        return mKeys[slot];
+    }
+
+    /**
+     * @param slot slot index
+     * @return type of the default value of the slot
+     */
+    public Type getType(int slot) {
+        return mTypes[slot];
+    }
+
+    /**
+     * @param slot slot index
+     * @return default value of the slot; {@link JSONObject} and {@link JSONArray} values are
+     * returned unmodifiable
+     */
+    public Object getDefault(int slot) {
+        return unmodifiable(mDefaults[slot]);
+    }
+
+    /**
+     * @return all default values as one object
+     */
+    public UnmodifiableJSONObject getDefaults() {
+        return mDefaultsJson;
+    }
+
+    /**
+     * @return the property set with no instance overrides
+     */
+    public PropertySet getDefaultSet() {
+        return mDefaultSet;
+    }
+
+    Object getRawDefault(int slot) {
+        return mDefaults[slot];
+    }
+
+    static Object unmodifiable(Object value) {
+        if (value instanceof JSONObject && !(value instanceof UnmodifiableJSONObject)) {
+            return new UnmodifiableJSONObject((JSONObject) value);
+        } else if (value instanceof JSONArray && !(value instanceof UnmodifiableJSONArray)) {
+            return new UnmodifiableJSONArray((JSONArray) value);
+        }
+        return value;
+    }
+
+    private static Type typeOf(Object value) {
+        if (value instanceof Boolean) {
+            return Type.BOOLEAN;
+        } else if (value instanceof Number) {
+            return Type.NUMBER;
+        } else if (value instanceof String) {
+            return Type.STRING;
+        } else if (value instanceof JSONObject) {
+            return Type.OBJECT;
+        } else if (value instanceof JSONArray) {
+            return Type.ARRAY;
+        } else if (value == null || value == JSONObject.NULL) {
+            return Type.NULL;
+        }
+        return Type.OTHER;
+    }
+
+    @Override
+    public String toString() {
+        return mClass.getSimpleName() + mDefaultsJson;
+    }
+
+    private final Class<?> mClass;
+    private final String[] mKeys;
+    private final Type[] mTypes;
+    private final Object[] mDefaults;
+    private final Map<String, Integer> mSlots;
+    private final UnmodifiableJSONObject mDefaultsJson;
+    private final PropertySet mDefaultSet;
+}
@@ -0,0 +1,289 @@
+package com.samsungxr.widgetlib.widget.properties;
+
+import android.util.SparseArray;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * The properties of one widget: the {@link PropertySchema} of its class plus a sparse delta of
+ * the slots the instance overrides. Properties that are not part of the schema are kept
+ * separately. Sets are immutable; {@link #override(JSONObject)} and
+ * {@link #underlay(JSONObject)} return new sets that share the schema and only merge the keys
+ * they are given.
+ */
+public final class PropertySet {
+
+    PropertySet(PropertySchema schema) {
+        this(schema, EMPTY_SLOTS, EMPTY_VALUES, null);
+    }
+
+    private PropertySet(PropertySchema schema, int[] slots, Object[] values, JSONObject extra) {
+        mSchema = schema;
+        mSlots = slots;
+        mValues = values;
+        mExtra = extra;
+    }
+
+    /**
+     * @return the schema of the widget class
+     */
+    public PropertySchema getSchema() {
+        return mSchema;
+    }
+
+    /**
+     * @return true if the set has any value that differs from the class defaults
+     */
+    public boolean hasOverrides() {
+        return mSlots.length > 0 || mExtra != null;
+    }
+
+    /**
+     * @return number of schema slots overridden by the instance
+     */
+    public int getOverrideCount() {
+        return mSlots.length;
+    }
+
+    /**
+     * @param slot slot index from the {@linkplain #getSchema() schema}
+     * @return true if the instance overrides the slot
+     */
+    public boolean isOverridden(int slot) {
+        return Arrays.binarySearch(mSlots, slot) >= 0;
+    }
+
+    /**
+     * @param slot slot index from the {@linkplain #getSchema() schema}
+     * @return value of the slot; {@link JSONObject} and {@link JSONArray} values are returned
+     * unmodifiable
+     */
+    public Object get(int slot) {
+        return PropertySchema.unmodifiable(getRaw(slot));
+    }
+
+    /**
+     * @param key property name
+     * @return value of the property, or null if the set does not have it
+     */
+    public Object get(String key) {
+        final int slot = mSchema.getSlot(key);
+        if (slot != PropertySchema.NO_SLOT) {
+            return get(slot);
+        }
+        return mExtra != null ? PropertySchema.unmodifiable(mExtra.opt(key)) : null;
+    }
+
+    public boolean getBoolean(int slot, boolean fallback) {
+        final Object value = getRaw(slot);
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        } else if (value instanceof String) {
+            final String s = (String) value;
+            if ("true".equalsIgnoreCase(s)) {
+                return true;
+            } else if ("false".equalsIgnoreCase(s)) {
+                return false;
+            }
+        }
+        return fallback;
+    }
+
+    public float getFloat(int slot, float fallback) {
+        final Object value = getRaw(slot);
+        if (value instanceof Number) {
+            return ((Number) value).floatValue();
+        } else if (value instanceof String) {
+            try {
+                return Float.parseFloat((String) value);
+            } catch (NumberFormatException e) {
+                return fallback;
+            }
+        }
+        return fallback;
+    }
+
+    public int getInt(int slot, int fallback) {
+        final Object value = getRaw(slot);
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        } else if (value instanceof String) {
+            try {
+                return (int) Double.parseDouble((String) value);
+            } catch (NumberFormatException e) {
+                return fallback;
+            }
+        }
+        return fallback;
+    }
+
+    public String getString(int slot, String fallback) {
+        final Object value = getRaw(slot);
+        if (value == null || value == JSONObject.NULL) {
+            return fallback;
+        }
+        return value.toString();
+    }
+
+    public UnmodifiableJSONObject getJSONObject(int slot) {
+        final Object value = getRaw(slot);
+        return value instanceof JSONObject
+                ? (UnmodifiableJSONObject) PropertySchema.unmodifiable(value) : null;
+    }
+
+    public UnmodifiableJSONArray getJSONArray(int slot) {
+        final Object value = getRaw(slot);
+        return value instanceof JSONArray
+                ? (UnmodifiableJSONArray) PropertySchema.unmodifiable(value) : null;
+    }
+
+    /**
+     * Create a set where the values from {@code properties} overwrite the values of this set.
+     * Objects and arrays are merged the same way {@link JSONHelpers#merge(JSONObject, JSONObject)}
+     * does, but only for the keys in {@code properties}.
+     *
+     * @param properties values to apply; not modified
+     * @return the new set, or this set if {@code properties} is null or empty
+     */
+    public PropertySet override(JSONObject properties) {
+        return apply(properties, true);
+    }
+
+    /**
+     * Create a set where the values of this set overwrite the values from {@code properties}.
+     * Keys only found in {@code properties} are added.
+     *
+     * @param properties values to apply; not modified
+     * @return the new set, or this set if {@code properties} is null or empty
+     */
+    public PropertySet underlay(JSONObject properties) {
+        return apply(properties, false);
+    }
+
+    /**
+     * @return all properties as one object. For a set with no overrides this is the shared
+     * {@linkplain PropertySchema#getDefaults() schema defaults}; otherwise a shallow object is
+     * built on first use, sharing the unchanged values with the schema.
+     */
+    public UnmodifiableJSONObject toJSON() {
+        if (!hasOverrides()) {
+            return mSchema.getDefaults();
+        }
+        if (mJson == null) {
+            final JSONObject json = new JSONObject();
+            final int size = mSchema.size();
+            for (int slot = 0; slot < size; ++slot) {
+                put(json, mSchema.getKey(slot), getRaw(slot));
+            }
+            if (mExtra != null) {
+                final Iterator<String> keys = mExtra.keys();
+                while (keys.hasNext()) {
+                    final String key = keys.next();
+                    put(json, key, mExtra.opt(key));
+                }
+            }
+            mJson = new UnmodifiableJSONObject(json);
+        }
+        return mJson;
+    }
+
+    @Override
+    public String toString() {
+        return toJSON().toString();
+    }
+
+    private Object getRaw(int slot) {
+        final int i = Arrays.binarySearch(mSlots, slot);
+        return i >= 0 ? mValues[i] : mSchema.getRawDefault(slot);
+    }
+
+    private PropertySet apply(JSONObject properties, boolean overwrite) {
+        if (properties == null || properties.length() == 0) {
+            return this;
+        }
+
+        final SparseArray<Object> delta = new SparseArray<>(mSlots.length + properties.length());
+        for (int i = 0; i < mSlots.length; ++i) {
+            delta.append(mSlots[i], mValues[i]);
+        }
+        JSONObject extra = mExtra != null ? JSONHelpers.copy(mExtra, false) : null;
+
+        final Iterator<String> keys = properties.keys();
+        while (keys.hasNext()) {
+            final String key = keys.next();
+            final Object value = properties.opt(key);
+            final int slot = mSchema.getSlot(key);
+            if (slot != PropertySchema.NO_SLOT) {
+                final Object current = delta.get(slot, mSchema.getRawDefault(slot));
+                delta.put(slot, overwrite
+                        ? mergeValue(key, value, current)
+                        : mergeValue(key, current, value));
+            } else {
+                if (extra == null) {
+                    extra = new JSONObject();
+                }
+                final Object current = extra.opt(key);
+                if (current == null) {
+                    put(extra, key, value);
+                } else {
+                    put(extra, key, overwrite
+                            ? mergeValue(key, value, current)
+                            : mergeValue(key, current, value));
+                }
+            }
+        }
+
+        final int count = delta.size();
+        final int[] slots = new int[count];
+        final Object[] values = new Object[count];
+        for (int i = 0; i < count; ++i) {
+            slots[i] = delta.keyAt(i);
+            values[i] = delta.valueAt(i);
+        }
+        return new PropertySet(mSchema, slots, values, extra);
+    }
+
+    /**
+     * Merge one value the way {@link JSONHelpers#merge(JSONObject, JSONObject)} merges a key that
+     * is present in both objects. {@code dest} is copied first, so neither value is modified.
+     */
+    private static Object mergeValue(String key, Object src, Object dest) {
+        final JSONObject srcHolder = new JSONObject();
+        final JSONObject destHolder = new JSONObject();
+        put(srcHolder, key, src);
+        put(destHolder, key, copyValue(dest));
+        JSONHelpers.merge(srcHolder, destHolder);
+        return destHolder.opt(key);
+    }
+
+    private static Object copyValue(Object value) {
+        if (value instanceof JSONObject) {
+            return JSONHelpers.copy((JSONObject) value);
+        } else if (value instanceof JSONArray) {
+            return JSONHelpers.copy((JSONArray) value, true);
+        }
+        return value;
+    }
+
+    private static void put(JSONObject dest, String key, Object value) {
+        try {
+            dest.put(key, value);
+        } catch (JSONException e) {
+            throw new RuntimeException(e.getLocalizedMessage(), e);
+        }
+    }
+
+    private static final int[] EMPTY_SLOTS = new int[0];
+    private static final Object[] EMPTY_VALUES = new Object[0];
+
+    private final PropertySchema mSchema;
+    private final int[] mSlots;
+    private final Object[] mValues;
+    private final JSONObject mExtra;
+    private volatile UnmodifiableJSONObject mJson;
+}
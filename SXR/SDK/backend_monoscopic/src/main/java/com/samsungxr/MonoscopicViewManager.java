@@ -167,6 +167,7 @@ class MonoscopicViewManager extends SXRViewManager implements MonoscopicRotation
         mTracerAfterDrawEyes = new SXRMethodCallTracer("afterDrawEyes");
 
         mStatsLine.addColumn(mFPSTracer.getStatColumn());
+        mStatsLine.addColumn(mFPSTracer.getFrameTimeColumn());
         mStatsLine.addColumn(mTracerDrawFrame.getStatColumn());
         mStatsLine.addColumn(mTracerDrawFrameGap.getStatColumn());
         mStatsLine.addColumn(mTracerBeforeDrawEyes.getStatColumn());
@@ -174,6 +175,7 @@ class MonoscopicViewManager extends SXRViewManager implements MonoscopicRotation
         mStatsLine.addColumn(mTracerDrawEyes1.getStatColumn());
         mStatsLine.addColumn(mTracerDrawEyes2.getStatColumn());
         mStatsLine.addColumn(mTracerAfterDrawEyes.getStatColumn());
+        mStatsLine.addColumn(mTracerDrawFrame.getHistogramColumn());
 
         if(NativeVulkanCore.getVulkanPropValue() > 0){
             isVulkanInstance = true;
@@ -127,6 +127,7 @@ class OvrViewManager extends SXRViewManager {
         mTracerAfterDrawEyes = new SXRMethodCallTracer("afterDrawEyes");
 
         mStatsLine.addColumn(mFPSTracer.getStatColumn());
+        mStatsLine.addColumn(mFPSTracer.getFrameTimeColumn());
         mStatsLine.addColumn(mTracerDrawFrame.getStatColumn());
         mStatsLine.addColumn(mTracerDrawFrameGap.getStatColumn());
         mStatsLine.addColumn(mTracerBeforeDrawEyes.getStatColumn());
@@ -134,6 +135,7 @@ class OvrViewManager extends SXRViewManager {
         mStatsLine.addColumn(mTracerDrawEyes1.getStatColumn());
         mStatsLine.addColumn(mTracerDrawEyes2.getStatColumn());
         mStatsLine.addColumn(mTracerAfterDrawEyes.getStatColumn());
+        mStatsLine.addColumn(mTracerDrawFrame.getHistogramColumn());
 
         mControllerReader = new OvrControllerReader(mApplication.getActivityNative().getNative());
     }
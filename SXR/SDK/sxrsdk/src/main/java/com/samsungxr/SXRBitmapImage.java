@@ -230,6 +230,18 @@ public class SXRBitmapImage extends SXRImage
         NativeBitmapImage.updateFromMemory(getNative(), width, height, grayscaleData);
     }
 
+    /**
+     * Determine whether the last update of the image has yet to be copied
+     * to the GPU. A new update replaces a pending one, so callers sending
+     * partial updates should wait until this returns false.
+     *
+     * @return true if an update is waiting for the GL thread
+     */
+    public boolean isUpdatePending()
+    {
+        return NativeBitmapImage.isUpdatePending(getNative());
+    }
+
     private static Bitmap loadBitmap(SXRContext gvrContext, String pngAssetFilename)
     {
         try
@@ -260,6 +272,7 @@ class NativeBitmapImage {
     static native void updateFromMemory(long pointer, int width, int height, byte[] data);
     static native void updateFromBitmap(long pointer, Bitmap bitmap, boolean hasAlpha, String format);
     static native void updateFromBuffer(long pointer, int xoffset, int yoffset, int width, int height, int format, int type, Buffer pixels);
+    static native boolean isUpdatePending(long pointer);
     static native void updateCompressed(long pointer, int width, int height, int imageSize, byte[] data, int levels, int[] offsets);
 
 }
\ No newline at end of file
@@ -74,6 +74,7 @@ public class SXRComponent extends SXRHybridObject
     }
 
     protected SXRNode owner;
+    int mIndexSlot = -1;
 
     /**
      * @return The {@link SXRNode} this object is currently attached to, or null if not attached.
@@ -38,9 +38,10 @@ import com.samsungxr.utility.Threads;
 import java.lang.ref.PhantomReference;
 import java.lang.ref.ReferenceQueue;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
 /**
  * Like the Android {@link Context} class, {@code SXRContext} provides core
@@ -432,6 +433,13 @@ public abstract class SXRContext implements IEventReceiver {
      */
     public abstract void runOnGlThreadPostRender(int delayFrames, Runnable runnable);
 
+    /**
+     * Get the number of {@linkplain #runOnGlThread(Runnable) GL callbacks}
+     * waiting to be run. A queue that keeps growing means the GL thread
+     * cannot keep up with the work posted to it.
+     */
+    public abstract int getGlQueueDepth();
+
     /**
      * Subscribes a {@link SXRDrawFrameListener}.
      * 
@@ -763,13 +771,56 @@ public abstract class SXRContext implements IEventReceiver {
      * otherwise, the references get garbage collected (usually before their
      * objects) and never get enqueued.
      */
-    private final Set<SXRReference> mReferenceSet = new HashSet<SXRReference>();
+    private final ReferenceRegistry mReferenceRegistry = new ReferenceRegistry();
+    private volatile int mReclaimBudget = DEFAULT_RECLAIM_BUDGET;
 
+    /**
+     * Default maximum number of native objects deleted per frame.
+     * @see #setReclaimBudget(int)
+     */
+    public static final int DEFAULT_RECLAIM_BUDGET = 1024;
+
+    /**
+     * Delete the native objects of garbage collected hybrid objects. Called
+     * once per frame on the GL thread; the native objects are deleted with a
+     * single JNI call.
+     */
     protected final void finalizeUnreachableObjects() {
-        SXRReference reference;
-        while (null != (reference = (SXRReference) mReferenceQueue.poll())) {
-            reference.close(mReferenceSet);
+        mReferenceRegistry.reclaim(mReferenceQueue, mReclaimBudget);
+    }
+
+    /**
+     * Set the maximum number of native objects deleted per frame. Objects
+     * over the budget are deleted on the following frames, which spreads the
+     * cost of releasing a large scene.
+     *
+     * @param maxObjectsPerFrame maximum number of deletions per frame, at
+     *                           least 1
+     */
+    public void setReclaimBudget(int maxObjectsPerFrame) {
+        if (maxObjectsPerFrame < 1) {
+            throw new IllegalArgumentException("reclaim budget must be at least 1");
         }
+        mReclaimBudget = maxObjectsPerFrame;
+    }
+
+    /**
+     * @return the number of hybrid objects whose native object has not been
+     *         deleted yet
+     */
+    public int getLiveObjectCount() {
+        return mReferenceRegistry.size();
+    }
+
+    /**
+     * Count the hybrid objects whose native object has not been deleted yet,
+     * by class. This walks the whole registry and is meant for leak checks in
+     * tests and diagnostics, not for use every frame.
+     *
+     * @return the live object count of each class with live objects
+     */
+    public Map<Class<?>, Integer> getLiveObjectCounts() {
+        return mReferenceRegistry.countByClass();
     }
 
     /**
@@ -782,26 +833,20 @@ public abstract class SXRContext implements IEventReceiver {
 
     final static class UndertakerThread extends Thread {
         private final ReferenceQueue<SXRHybridObject> referenceQueue;
-        private final Set<SXRReference> referenceSet;
+        private final ReferenceRegistry referenceRegistry;
 
-        UndertakerThread(final ReferenceQueue<SXRHybridObject> referenceQueue, final Set<SXRReference> referenceSet, final String threadName) {
+        UndertakerThread(final ReferenceQueue<SXRHybridObject> referenceQueue, final ReferenceRegistry referenceRegistry, final String threadName) {
             super(threadName);
             this.referenceQueue = referenceQueue;
-            this.referenceSet = referenceSet;
+            this.referenceRegistry = referenceRegistry;
         }
 
         @Override
         public void run() {
-            while (true) {
+            while (0 != referenceRegistry.size()) {
                 try {
                     SXRReference reference = (SXRReference)referenceQueue.remove();
-                    reference.close(referenceSet);
-
-                    synchronized (referenceSet) {
-                        if (0 == referenceSet.size()) {
-                            break;
-                        }
-                    }
+                    reference.close(referenceRegistry);
                 } catch (InterruptedException e) {
                     //ignore; nobody has a handle to this thread, nobody can and is supposed to interrupt it
                 }
@@ -815,62 +860,193 @@ public abstract class SXRContext implements IEventReceiver {
         }
 
         final String threadName = "Undertaker-" + Integer.toHexString(hashCode());
-        new UndertakerThread(mReferenceQueue, mReferenceSet, threadName).start();
+        new UndertakerThread(mReferenceQueue, mReferenceRegistry, threadName).start();
     }
 
     static final class SXRReference extends PhantomReference<SXRHybridObject> {
         private long mNativePointer;
         private final List<NativeCleanupHandler> mCleanupHandlers;
+        private final Class<?> mClass;
+        /** Next reference registered for the same native pointer */
+        private SXRReference mNext;
 
         private SXRReference(SXRHybridObject object, long nativePointer, List<NativeCleanupHandler> cleanupHandlers, final ReferenceQueue<SXRHybridObject> referenceQueue) {
             super(object, referenceQueue);
 
             mNativePointer = nativePointer;
             mCleanupHandlers = cleanupHandlers;
+            mClass = object.getClass();
         }
 
-        private void close(final Set<SXRReference> referenceSet) {
-            close(referenceSet, true);
+        private void cleanup() {
+            if (mCleanupHandlers != null) {
+                for (NativeCleanupHandler handler : mCleanupHandlers) {
+                    handler.nativeCleanup(mNativePointer);
+                }
+            }
         }
 
-        private void close(final Set<SXRReference> referenceSet, boolean removeFromSet) {
-            synchronized (referenceSet) {
-                if (mNativePointer != 0) {
-                    if (mCleanupHandlers != null) {
-                        for (NativeCleanupHandler handler : mCleanupHandlers) {
-                            handler.nativeCleanup(mNativePointer);
-                        }
+        /**
+         * Delete the native object, unless the reference has already been
+         * closed.
+         */
+        void close(final ReferenceRegistry referenceRegistry) {
+            if (referenceRegistry.remove(this)) {
+                cleanup();
+                NativeHybridObject.delete(mNativePointer);
+                mNativePointer = 0;
+            }
+        }
+    }
+
+    /**
+     * Holds the {@linkplain SXRReference references} of the live hybrid
+     * objects, keyed by native pointer.
+     * <p>
+     * The references are spread over independently locked shards, so that
+     * threads creating objects concurrently rarely contend, and closing an
+     * object is a hash lookup rather than a search of every reference.
+     */
+    static final class ReferenceRegistry {
+        private static final int SHARD_BITS = 4;
+
+        private final Shard[] mShards = new Shard[1 << SHARD_BITS];
+        private long[] mReclaimed = new long[64];
+
+        private static final class Shard {
+            final HashMap<Long, SXRReference> references = new HashMap<Long, SXRReference>();
+            int size;
+        }
+
+        ReferenceRegistry() {
+            for (int i = 0; i < mShards.length; ++i) {
+                mShards[i] = new Shard();
+            }
+        }
+
+        private Shard getShard(long nativePointer) {
+            // native pointers are aligned, so mix the bits before picking a shard
+            return mShards[(int) ((nativePointer * 0x9E3779B97F4A7C15L) >>> (64 - SHARD_BITS))];
+        }
+
+        void add(SXRReference reference) {
+            final Shard shard = getShard(reference.mNativePointer);
+            synchronized (shard) {
+                reference.mNext = shard.references.put(reference.mNativePointer, reference);
+                ++shard.size;
+            }
+        }
+
+        /**
+         * @return true if the reference was registered, false if it has
+         *         already been removed
+         */
+        boolean remove(SXRReference reference) {
+            final long nativePointer = reference.mNativePointer;
+            if (nativePointer == 0) {
+                return false;
+            }
+            final Shard shard = getShard(nativePointer);
+            synchronized (shard) {
+                SXRReference head = shard.references.get(nativePointer);
+                if (head == reference) {
+                    if (reference.mNext != null) {
+                        shard.references.put(nativePointer, reference.mNext);
+                    } else {
+                        shard.references.remove(nativePointer);
                     }
-                    NativeHybridObject.delete(mNativePointer);
-                    mNativePointer = 0;
+                    reference.mNext = null;
+                    --shard.size;
+                    return true;
+                }
+                for (; head != null; head = head.mNext) {
+                    if (head.mNext == reference) {
+                        head.mNext = reference.mNext;
+                        reference.mNext = null;
+                        --shard.size;
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        SXRReference find(long nativePointer) {
+            final Shard shard = getShard(nativePointer);
+            synchronized (shard) {
+                return shard.references.get(nativePointer);
+            }
+        }
+
+        /**
+         * Close up to {@code budget} enqueued references, deleting their
+         * native objects with a single JNI call. Must only be called from
+         * one thread.
+         *
+         * @return the number of native objects deleted
+         */
+        int reclaim(ReferenceQueue<SXRHybridObject> referenceQueue, int budget) {
+            int count = 0;
+            SXRReference reference;
+
+            while (count < budget && null != (reference = (SXRReference) referenceQueue.poll())) {
+                if (!remove(reference)) {
+                    continue;
                 }
+                reference.cleanup();
+                if (count == mReclaimed.length) {
+                    mReclaimed = Arrays.copyOf(mReclaimed, count * 2);
+                }
+                mReclaimed[count++] = reference.mNativePointer;
+                reference.mNativePointer = 0;
+            }
+            if (count > 0) {
+                NativeHybridObject.deleteAll(mReclaimed, count);
+            }
+            return count;
+        }
 
-                if (removeFromSet) {
-                    referenceSet.remove(this);
+        int size() {
+            int size = 0;
+            for (Shard shard : mShards) {
+                synchronized (shard) {
+                    size += shard.size;
                 }
             }
+            return size;
+        }
+
+        Map<Class<?>, Integer> countByClass() {
+            final Map<Class<?>, Integer> counts = new HashMap<Class<?>, Integer>();
+            for (Shard shard : mShards) {
+                synchronized (shard) {
+                    for (SXRReference head : shard.references.values()) {
+                        for (; head != null; head = head.mNext) {
+                            final Integer count = counts.get(head.mClass);
+                            counts.put(head.mClass, count != null ? count + 1 : 1);
+                        }
+                    }
+                }
+            }
+            return counts;
         }
     }
 
     final void registerHybridObject(SXRHybridObject gvrHybridObject, long nativePointer, List<NativeCleanupHandler> cleanupHandlers) {
-        synchronized (mReferenceSet) {
-            mReferenceSet.add(new SXRReference(gvrHybridObject, nativePointer, cleanupHandlers, mReferenceQueue));
+        if (nativePointer != 0) {
+            mReferenceRegistry.add(new SXRReference(gvrHybridObject, nativePointer, cleanupHandlers, mReferenceQueue));
         }
     }
 
     /**
      * Explicitly close()ing an object is going to be relatively rare - most
      * native memory will be freed when the owner-objects are garbage collected.
-     * Doing a lookup in these rare cases means that we can avoid giving every @link
-     * {@link SXRHybridObject} a hard reference to its {@link SXRReference}.
+     * Keeping the references in a registry keyed by native pointer means that
+     * we can avoid giving every {@link SXRHybridObject} a hard reference to
+     * its {@link SXRReference}.
      */
     final SXRReference findReference(long nativePointer) {
-        for (SXRReference reference : mReferenceSet) {
-            if (reference.mNativePointer == nativePointer) {
-                return reference;
-            }
-        }
-        return null;
+        return mReferenceRegistry.find(nativePointer);
     }
 
 }
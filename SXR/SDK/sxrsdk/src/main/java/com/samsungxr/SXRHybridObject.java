@@ -245,4 +245,6 @@ public abstract class SXRHybridObject {
 
 class NativeHybridObject {
     static native void delete(long nativePointer);
+
+    static native void deleteAll(long[] nativePointers, int count);
 }
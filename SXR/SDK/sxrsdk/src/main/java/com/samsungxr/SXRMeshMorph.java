@@ -17,6 +17,7 @@ package com.samsungxr;
 
 import com.samsungxr.utility.Log;
 
+import java.util.Arrays;
 import java.util.StringTokenizer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -58,6 +59,19 @@ import static android.opengl.GLES30.GL_RGB32F;
  * The blend shape texture is put in the <b>blendShapeTexture</b> sampler
  * in the vertex shader. The blend weights are in the <b>u_blendweights</b> uniform.
  * </p>
+ * Blend shapes are kept in sparse form: for each shape, only the
+ * vertices it actually moves are stored, along with their deltas from
+ * the base shape. The blend shape texture only has rows for the union of
+ * the vertices affected by any of the shapes. The <b>blendshapeIndexTexture</b>
+ * maps each vertex of the base mesh to its row in the blend shape texture
+ * (or -1 if no blend shape affects it).
+ * <p>
+ * A morph can also be evaluated on the CPU instead of the GPU.
+ * In that case the material does not need a shader which supports
+ * morphing, the morphed positions and normals are computed
+ * in Java each time the weights change, skipping blend shapes
+ * with a zero weight, and copied into the vertex buffer of the mesh.
+ * </p>
  */
 public class SXRMeshMorph extends SXRBehavior
 {
@@ -67,7 +81,7 @@ public class SXRMeshMorph extends SXRBehavior
     protected int mDescriptorFlags = 0;
 
     final protected int mNumBlendShapes;
-    //final protected boolean mMorphNormals;
+    final protected boolean mMorphOnCPU;
     protected int mFloatsPerVertex;
     protected int mTexWidth;
     protected int mNumVerts;
@@ -78,17 +92,53 @@ public class SXRMeshMorph extends SXRBehavior
     protected float[] mBaseBlendShape;
     protected SXRVertexBuffer mbaseShape;
 
+    /*
+     * Sparse blend shapes: for each shape, the indices of the vertices
+     * it moves (in ascending order) and mFloatsPerVertex deltas for each.
+     */
+    protected int[][] mShapeVertices;
+    protected float[][] mShapeDeltas;
+    /*
+     * Row of each base vertex in the blend shape texture, -1 if
+     * no blend shape affects it.
+     */
+    protected int[] mVertexRows;
+    protected int mNumRows;
+    protected boolean mShapesChanged = false;
+
+    /*
+     * Scratch buffers: the dense deltas of the blend shape being set
+     * and the morphed vertices for CPU evaluation.
+     */
+    private float[] mShapeScratch;
+    private float[] mMorphedPositions;
+    private float[] mMorphedNormals;
+
     /**
      * Construct a morph to a node with a base mesh.
      * @param ctx  The current SXRF context.
      * @param numBlendShapes number of blend shapes to be set.
      */
     public SXRMeshMorph(SXRContext ctx, int numBlendShapes)
+    {
+        this(ctx, numBlendShapes, false);
+    }
+
+    /**
+     * Construct a morph to a node with a base mesh.
+     * @param ctx  The current SXRF context.
+     * @param numBlendShapes number of blend shapes to be set.
+     * @param morphOnCPU true to morph the mesh vertices in Java
+     *                   when the weights change, false to morph
+     *                   in the vertex shader.
+     */
+    public SXRMeshMorph(SXRContext ctx, int numBlendShapes, boolean morphOnCPU)
     {
         super(ctx, 0);
 
         mType = getComponentType();
         mNumBlendShapes = numBlendShapes;
+        mMorphOnCPU = morphOnCPU;
         if (numBlendShapes <= 0)
         {
             throw new IllegalArgumentException("Number of blend shapes must be positive");
@@ -122,6 +172,11 @@ public class SXRMeshMorph extends SXRBehavior
         {
             throw new IllegalStateException("Cannot attach a morph to a node without a base mesh");
         }
+        if (mMorphOnCPU)
+        {
+            copyBaseShape(mesh.getVertexBuffer());
+            return;
+        }
         SXRShaderData mtl = getMaterial();
 
         if ((mtl == null) ||
@@ -138,7 +193,14 @@ public class SXRMeshMorph extends SXRBehavior
     {
         mBlendShapeDiffs = null;
         mBaseBlendShape = null;
+        mShapeVertices = null;
+        mShapeDeltas = null;
+        mVertexRows = null;
+        mShapeScratch = null;
+        mMorphedPositions = null;
+        mMorphedNormals = null;
         mNumVerts = 0;
+        mNumRows = 0;
     }
 
     protected void copyBaseShape(SXRVertexBuffer baseShape)
@@ -165,7 +227,12 @@ public class SXRMeshMorph extends SXRBehavior
         mTexWidth = mFloatsPerVertex*mNumBlendShapes;
         mBaseBlendShape = new float[mFloatsPerVertex * mNumVerts];
         mWeights = new float[mNumBlendShapes];
-        mBlendShapeDiffs = new float[mTexWidth * mNumVerts];
+        mShapeVertices = new int[mNumBlendShapes][];
+        mShapeDeltas = new float[mNumBlendShapes][];
+        mVertexRows = new int[mNumVerts];
+        mNumRows = 0;
+        mBlendShapeDiffs = null;
+        mShapesChanged = true;
 
         copyBaseAttribute(baseShape, "a_position", 0);
         if ((mDescriptorFlags & HAS_NORMAL) != 0)
@@ -192,12 +259,8 @@ public class SXRMeshMorph extends SXRBehavior
         }
     }
 
-    protected void copyBlendShape(int shapeofs, int baseofs, float[] vec3data)
+    protected void copyBlendShape(int baseofs, float[] vec3data)
     {
-        if (mBaseBlendShape == null)
-        {
-            throw new IllegalStateException("Must be attached to a node to set blend shapes");
-        }
         if (mNumVerts != vec3data.length / 3)
         {
             throw new IllegalArgumentException("All blend shapes must have the same number of vertices");
@@ -205,11 +268,56 @@ public class SXRMeshMorph extends SXRBehavior
         for (int i = 0; i < mNumVerts; ++i)
         {
             int b = i * mFloatsPerVertex + baseofs;
-            int s = i * mTexWidth + shapeofs;
-            mBlendShapeDiffs[s] = (vec3data[i * 3] - mBaseBlendShape[b]);
-            mBlendShapeDiffs[s + 1] = (vec3data[i * 3 + 1] - mBaseBlendShape[b + 1]);
-            mBlendShapeDiffs[s + 2] = (vec3data[i * 3 + 2] - mBaseBlendShape[b + 2]);
+            mShapeScratch[b] = (vec3data[i * 3] - mBaseBlendShape[b]);
+            mShapeScratch[b + 1] = (vec3data[i * 3 + 1] - mBaseBlendShape[b + 1]);
+            mShapeScratch[b + 2] = (vec3data[i * 3 + 2] - mBaseBlendShape[b + 2]);
+        }
+    }
+
+    /**
+     * Convert the dense deltas in the scratch buffer into
+     * the sparse form of a blend shape, keeping only
+     * the vertices which have a non-zero delta.
+     */
+    protected void compactBlendShape(int index)
+    {
+        int numAffected = 0;
+
+        for (int i = 0; i < mNumVerts; ++i)
+        {
+            if (isAffected(mShapeScratch, i * mFloatsPerVertex))
+            {
+                ++numAffected;
+            }
+        }
+        int[] vertices = new int[numAffected];
+        float[] deltas = new float[numAffected * mFloatsPerVertex];
+        int n = 0;
+
+        for (int i = 0; i < mNumVerts; ++i)
+        {
+            int b = i * mFloatsPerVertex;
+            if (isAffected(mShapeScratch, b))
+            {
+                System.arraycopy(mShapeScratch, b, deltas, n * mFloatsPerVertex, mFloatsPerVertex);
+                vertices[n++] = i;
+            }
+        }
+        mShapeVertices[index] = vertices;
+        mShapeDeltas[index] = deltas;
+        mShapesChanged = true;
+    }
+
+    private boolean isAffected(float[] deltas, int ofs)
+    {
+        for (int j = 0; j < mFloatsPerVertex; ++j)
+        {
+            if (deltas[ofs + j] != 0.0f)
+            {
+                return true;
+            }
         }
+        return false;
     }
 
     public float getWeight(int index)
@@ -224,8 +332,26 @@ public class SXRMeshMorph extends SXRBehavior
 
     public void setWeights(float[] weights)
     {
+        boolean changed = false;
+
+        for (int i = 0; i < mWeights.length; ++i)
+        {
+            if (mWeights[i] != weights[i])
+            {
+                mWeights[i] = weights[i];
+                changed = true;
+            }
+        }
+        if (!changed)
+        {
+            return;
+        }
+        if (mMorphOnCPU)
+        {
+            morphVertices();
+            return;
+        }
         SXRMaterial mtl = getMaterial();
-        System.arraycopy(weights, 0, mWeights, 0, mWeights.length);
         if (mtl != null)
         {
             mtl.setFloatArray("u_blendweights", mWeights);
@@ -252,7 +378,19 @@ public class SXRMeshMorph extends SXRBehavior
         int shapeDescriptorFlags = 0;
         String shapeDescriptor = vbuf.getDescriptor();
 
-        copyBlendShape(index * mFloatsPerVertex, 0, vbuf.getFloatArray("a_position"));
+        if (mBaseBlendShape == null)
+        {
+            throw new IllegalStateException("Must be attached to a node to set blend shapes");
+        }
+        if (mShapeScratch == null)
+        {
+            mShapeScratch = new float[mFloatsPerVertex * mNumVerts];
+        }
+        else
+        {
+            Arrays.fill(mShapeScratch, 0.0f);
+        }
+        copyBlendShape(0, vbuf.getFloatArray("a_position"));
         if (shapeDescriptor.contains("a_normal"))
         {
             shapeDescriptorFlags |= HAS_NORMAL;
@@ -267,11 +405,199 @@ public class SXRMeshMorph extends SXRBehavior
         }
         if ((shapeDescriptorFlags & HAS_NORMAL) != 0)
         {
-            copyBlendShape(index * mFloatsPerVertex + 3, 3, vbuf.getFloatArray("a_normal"));
+            copyBlendShape(3, vbuf.getFloatArray("a_normal"));
         }
         if ((shapeDescriptorFlags & HAS_TANGENT) != 0)
         {
-            copyBlendShape(index * mFloatsPerVertex + 6, 6, vbuf.getFloatArray("a_tangent"));
+            copyBlendShape(6, vbuf.getFloatArray("a_tangent"));
+            if (shapeDescriptor.contains("a_bitangent"))
+            {
+                copyBlendShape(9, vbuf.getFloatArray("a_bitangent"));
+            }
+        }
+        compactBlendShape(index);
+    }
+
+    /**
+     * Set a blend shape from its sparse representation.
+     * <p>
+     * Only the vertices moved by the blend shape are given,
+     * with their deltas from the base shape. Each vertex
+     * has a position delta, followed by a normal delta if the
+     * base mesh has normals, followed by tangent and bitangent
+     * deltas if the base mesh has tangents.
+     * @param index         index of the blend shape.
+     * @param vertexIndices indices of the base mesh vertices moved
+     *                      by the blend shape, in ascending order.
+     * @param deltas        deltas for each vertex in vertexIndices.
+     */
+    public void setBlendShape(int index, int[] vertexIndices, float[] deltas)
+    {
+        if (mBaseBlendShape == null)
+        {
+            throw new IllegalStateException("Must be attached to a node to set blend shapes");
+        }
+        if (deltas.length != vertexIndices.length * mFloatsPerVertex)
+        {
+            throw new IllegalArgumentException("Blend shape needs " + mFloatsPerVertex + " floats per vertex");
+        }
+        int prev = -1;
+        for (int v : vertexIndices)
+        {
+            if ((v <= prev) || (v >= mNumVerts))
+            {
+                throw new IllegalArgumentException("Blend shape vertex indices must be ascending and in range");
+            }
+            prev = v;
+        }
+        mShapeVertices[index] = vertexIndices.clone();
+        mShapeDeltas[index] = deltas.clone();
+        mShapesChanged = true;
+    }
+
+    /**
+     * Get the number of base mesh vertices moved
+     * by a blend shape.
+     * @param index index of the blend shape.
+     * @return number of vertices, 0 if the blend shape has not been set.
+     */
+    public int getBlendShapeVertexCount(int index)
+    {
+        int[] vertices = mShapeVertices[index];
+        return (vertices != null) ? vertices.length : 0;
+    }
+
+    /**
+     * Compute the morphed positions and normals on the CPU.
+     * <p>
+     * Starts from the base shape and adds the weighted deltas
+     * of each blend shape with a non-zero weight. Only the
+     * vertices moved by a blend shape are visited.
+     * @param positions array to get 3 floats per vertex of morphed positions.
+     * @param normals   array to get 3 floats per vertex of morphed normals,
+     *                  may be null. Ignored if the base mesh has no normals.
+     */
+    public void evaluate(float[] positions, float[] normals)
+    {
+        final int stride = mFloatsPerVertex;
+        final boolean doNormals = (normals != null) && ((mDescriptorFlags & HAS_NORMAL) != 0);
+        final float[] base = mBaseBlendShape;
+
+        for (int i = 0, b = 0, p = 0; i < mNumVerts; ++i, b += stride, p += 3)
+        {
+            positions[p] = base[b];
+            positions[p + 1] = base[b + 1];
+            positions[p + 2] = base[b + 2];
+            if (doNormals)
+            {
+                normals[p] = base[b + 3];
+                normals[p + 1] = base[b + 4];
+                normals[p + 2] = base[b + 5];
+            }
+        }
+        for (int s = 0; s < mNumBlendShapes; ++s)
+        {
+            final float w = mWeights[s];
+            final int[] vertices = mShapeVertices[s];
+
+            if ((w == 0.0f) || (vertices == null))
+            {
+                continue;
+            }
+            final float[] deltas = mShapeDeltas[s];
+            final int n = vertices.length;
+
+            for (int k = 0, d = 0; k < n; ++k, d += stride)
+            {
+                final int p = vertices[k] * 3;
+
+                positions[p] += w * deltas[d];
+                positions[p + 1] += w * deltas[d + 1];
+                positions[p + 2] += w * deltas[d + 2];
+                if (doNormals)
+                {
+                    normals[p] += w * deltas[d + 3];
+                    normals[p + 1] += w * deltas[d + 4];
+                    normals[p + 2] += w * deltas[d + 5];
+                }
+            }
+        }
+    }
+
+    /**
+     * Morph the vertices of the base mesh on the CPU
+     * with the current weights.
+     */
+    protected void morphVertices()
+    {
+        if (mBaseBlendShape == null)
+        {
+            return;
+        }
+        if (mMorphedPositions == null)
+        {
+            mMorphedPositions = new float[3 * mNumVerts];
+            if ((mDescriptorFlags & HAS_NORMAL) != 0)
+            {
+                mMorphedNormals = new float[3 * mNumVerts];
+            }
+        }
+        evaluate(mMorphedPositions, mMorphedNormals);
+        mbaseShape.setFloatArray("a_position", mMorphedPositions);
+        if (mMorphedNormals != null)
+        {
+            mbaseShape.setFloatArray("a_normal", mMorphedNormals);
+        }
+    }
+
+    /**
+     * Build the blend shape texture data: one row
+     * for each vertex affected by any blend shape.
+     */
+    protected void compactBlendShapeRows()
+    {
+        Arrays.fill(mVertexRows, -1);
+        mNumRows = 0;
+        for (int s = 0; s < mNumBlendShapes; ++s)
+        {
+            int[] vertices = mShapeVertices[s];
+            if (vertices == null)
+            {
+                continue;
+            }
+            for (int v : vertices)
+            {
+                if (mVertexRows[v] < 0)
+                {
+                    mVertexRows[v] = 0;
+                    ++mNumRows;
+                }
+            }
+        }
+        int row = 0;
+        for (int i = 0; i < mNumVerts; ++i)
+        {
+            if (mVertexRows[i] >= 0)
+            {
+                mVertexRows[i] = row++;
+            }
+        }
+        mBlendShapeDiffs = new float[mTexWidth * Math.max(mNumRows, 1)];
+        for (int s = 0; s < mNumBlendShapes; ++s)
+        {
+            int[] vertices = mShapeVertices[s];
+            if (vertices == null)
+            {
+                continue;
+            }
+            float[] deltas = mShapeDeltas[s];
+            int shapeofs = s * mFloatsPerVertex;
+            for (int k = 0; k < vertices.length; ++k)
+            {
+                System.arraycopy(deltas, k * mFloatsPerVertex,
+                                 mBlendShapeDiffs, mVertexRows[vertices[k]] * mTexWidth + shapeofs,
+                                 mFloatsPerVertex);
+            }
         }
     }
 
@@ -297,10 +623,26 @@ public class SXRMeshMorph extends SXRBehavior
         SXRFloatImage blendshapeImage;
         SXRMaterial mtl = getMaterial();
 
-        if ((mBlendShapeDiffs == null) || (mtl == null))
+        mShapeScratch = null;
+        if (mMorphOnCPU)
+        {
+            if (mBaseBlendShape == null)
+            {
+                return false;
+            }
+            morphVertices();
+            return true;
+        }
+        if ((mShapeVertices == null) || (mtl == null))
         {
             return false;
         }
+        if (!mShapesChanged && mtl.hasTexture("blendshapeTexture"))
+        {
+            return true;
+        }
+        compactBlendShapeRows();
+        mShapesChanged = false;
         if (mtl.hasTexture("blendshapeTexture"))
         {
             blendshapeTex = mtl.getTexture("blendshapeTexture");
@@ -316,10 +658,39 @@ public class SXRMeshMorph extends SXRBehavior
             blendshapeTex.setImage(blendshapeImage);
             mtl.setTexture("blendshapeTexture", blendshapeTex);
         }
-        blendshapeImage.update(mTexWidth / 3, mNumVerts, mBlendShapeDiffs);
+        blendshapeImage.update(mTexWidth / 3, Math.max(mNumRows, 1), mBlendShapeDiffs);
+        updateIndexTexture(mtl);
         return true;
     }
 
+    /**
+     * Put the row of each vertex in the blend shape texture
+     * into the <b>blendshapeIndexTexture</b> sampler.
+     */
+    private void updateIndexTexture(SXRMaterial mtl)
+    {
+        float[] rows = new float[2 * mNumVerts];
+
+        for (int i = 0; i < mNumVerts; ++i)
+        {
+            rows[2 * i] = mVertexRows[i];
+        }
+        if (mtl.hasTexture("blendshapeIndexTexture"))
+        {
+            SXRFloatImage indexImage = (SXRFloatImage) mtl.getTexture("blendshapeIndexTexture").getImage();
+            indexImage.update(1, mNumVerts, rows);
+        }
+        else
+        {
+            SXRTextureParameters texparams = new SXRTextureParameters(getSXRContext());
+            texparams.setMinFilterType(SXRTextureParameters.TextureFilterType.GL_NEAREST);
+            texparams.setMagFilterType(SXRTextureParameters.TextureFilterType.GL_NEAREST);
+            SXRTexture indexTex = new SXRTexture(getSXRContext(), texparams);
+            indexTex.setImage(new SXRFloatImage(getSXRContext(), 1, mNumVerts, rows));
+            mtl.setTexture("blendshapeIndexTexture", indexTex);
+        }
+    }
+
     private String dumpDiffs(int numVerts)
     {
         String s = "";
@@ -16,6 +16,7 @@
 package com.samsungxr;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -64,6 +65,7 @@ public class SXRNode extends SXRHybridObject implements PrettyPrint, IScriptable
     private Object mTag;
     private final List<SXRNode> mChildren = new CopyOnWriteArrayList<SXRNode>();
     private final SXREventReceiver mEventReceiver = new SXREventReceiver(this);
+    SXRSceneIndex.Entry mIndexEntry;
 
     /**
      * Constructs an empty node with a default {@link SXRTransform
@@ -303,6 +305,10 @@ public class SXRNode extends SXRHybridObject implements PrettyPrint, IScriptable
      */
     public void setName(String name) {
         NativeNode.setName(getNative(), name);
+        final SXRSceneIndex.Entry entry = mIndexEntry;
+        if (entry != null) {
+            entry.index.rename(this, name);
+        }
     }
 
     /**
@@ -352,10 +358,15 @@ public class SXRNode extends SXRHybridObject implements PrettyPrint, IScriptable
             if (!mComponents.containsKey(type)) {
                 mComponents.put(type, component);
                 component.setOwnerObject(this);
-                return true;
+            } else {
+                return false;
             }
         }
-        return false;
+        final SXRSceneIndex.Entry entry = mIndexEntry;
+        if (entry != null) {
+            entry.index.addComponent(component);
+        }
+        return true;
     }
 
     /**
@@ -370,13 +381,18 @@ public class SXRNode extends SXRHybridObject implements PrettyPrint, IScriptable
      */
     public SXRComponent detachComponent(long type) {
         NativeNode.detachComponent(getNative(), type);
+        SXRComponent component;
         synchronized (mComponents) {
-            SXRComponent component = mComponents.remove(type);
+            component = mComponents.remove(type);
             if (component != null) {
                 component.setOwnerObject(null);
             }
-            return component;
         }
+        final SXRSceneIndex.Entry entry = mIndexEntry;
+        if ((component != null) && (entry != null)) {
+            entry.index.removeComponent(component);
+        }
+        return component;
     }
 
     /**
@@ -569,14 +585,18 @@ public class SXRNode extends SXRHybridObject implements PrettyPrint, IScriptable
     @SuppressWarnings("unchecked")
     public <T extends SXRComponent> ArrayList<T> getAllComponents(long type) {
         ArrayList<T> list = new ArrayList<T>();
+        collectComponents(type, list);
+        return list;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends SXRComponent> void collectComponents(long type, ArrayList<T> list) {
         SXRComponent component = getComponent(type);
         if (component != null)
             list.add((T) component);
         for (SXRNode child : mChildren) {
-            ArrayList<T> temp = child.getAllComponents(type);
-            list.addAll(temp);
+            child.collectComponents(type, list);
         }
-        return list;
     }
 
     /**
@@ -682,6 +702,10 @@ public class SXRNode extends SXRHybridObject implements PrettyPrint, IScriptable
         mChildren.add(child);
         child.mParent = this;
         NativeNode.addChildObject(getNative(), child.getNative());
+        final SXRSceneIndex.Entry entry = mIndexEntry;
+        if (entry != null) {
+            entry.index.addSubtree(child);
+        }
         child.onNewParentObject(this);
         return true;
     }
@@ -698,6 +722,10 @@ public class SXRNode extends SXRHybridObject implements PrettyPrint, IScriptable
             NativeNode.removeChildObject(getNative(), child.getNative());
 
             child.mParent = null;
+            final SXRSceneIndex.Entry entry = child.mIndexEntry;
+            if (entry != null) {
+                entry.index.removeSubtree(child);
+            }
             child.onRemoveParentObject(this);
 
             mChildren.remove(child);
@@ -1140,6 +1168,54 @@ public class SXRNode extends SXRHybridObject implements PrettyPrint, IScriptable
         return mChildren;
     }
 
+    /*
+     * Java side of removing children for a {@link SXRNodeTransaction},
+     * with a single copy of the child list. The native side is updated
+     * separately, in bulk.
+     */
+    void detachChildren(Collection<SXRNode> children) {
+        synchronized (mChildren) {
+            mChildren.removeAll(children);
+        }
+        for (SXRNode child : children) {
+            child.mParent = null;
+            final SXRSceneIndex.Entry entry = child.mIndexEntry;
+            if (entry != null) {
+                entry.index.removeSubtree(child);
+            }
+        }
+    }
+
+    /*
+     * Java side of adding children for a {@link SXRNodeTransaction},
+     * with a single copy of the child list.
+     */
+    void attachChildren(Collection<SXRNode> children) {
+        synchronized (mChildren) {
+            mChildren.addAll(children);
+        }
+        final SXRSceneIndex.Entry entry = mIndexEntry;
+        for (SXRNode child : children) {
+            child.mParent = this;
+            if (entry != null) {
+                entry.index.addSubtree(child);
+            }
+        }
+    }
+
+    /** Add the components of this node to a scene index, or remove them */
+    void indexComponents(SXRSceneIndex index, boolean add) {
+        synchronized (mComponents) {
+            for (SXRComponent component : mComponents.values()) {
+                if (add) {
+                    index.addComponent(component);
+                } else {
+                    index.removeComponent(component);
+                }
+            }
+        }
+    }
+
     private static class Children implements Iterable<SXRNode>,
             Iterator<SXRNode> {
 
@@ -1316,6 +1392,9 @@ class NativeNode {
 
     static native void removeChildObject(long sceneObject, long child);
 
+    static native void updateChildren(long[] removals, int removalLength,
+                                      long[] additions, int additionLength);
+
     static native boolean isColliding(long sceneObject, long otherObject);
 
     static native boolean isEnabled(long sceneObject);
@@ -0,0 +1,228 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stages many changes to the scene graph and applies them at once.
+ * <p>
+ * Each {@link SXRNode#addChildObject(SXRNode)} copies the child list of
+ * the parent and makes its own native call, so building a node with
+ * thousands of children that way is slow. A transaction records the
+ * additions, removals and reparenting of nodes, and {@link #commit()}
+ * applies their net effect with one update of the child list of each
+ * parent and a single native call.
+ * <p>
+ * Until the transaction is committed the scene graph is unchanged, and the
+ * nodes it stages should not be added or removed by other means. Children
+ * are appended to their new parent in the order they were first staged.
+ * A transaction is not thread safe; once committed it is empty and can be
+ * reused.
+ */
+public final class SXRNodeTransaction {
+    private static final class Change {
+        final SXRNode child;
+        final SXRNode oldParent;
+        SXRNode newParent;
+        boolean detached;
+
+        Change(SXRNode child) {
+            this.child = child;
+            this.oldParent = child.getParent();
+            this.newParent = oldParent;
+        }
+    }
+
+    private final Map<SXRNode, Change> mChanges = new IdentityHashMap<SXRNode, Change>();
+    private final List<Change> mOrder = new ArrayList<Change>();
+
+    /**
+     * @return the parent a node will have once the transaction is
+     *         committed
+     */
+    public SXRNode getParent(SXRNode child) {
+        final Change change = mChanges.get(child);
+        return (change != null) ? change.newParent : child.getParent();
+    }
+
+    /**
+     * Stage the addition of a child, like
+     * {@link SXRNode#addChildObject(SXRNode)}.
+     *
+     * @return true if the child will be added, false if it is already a
+     *         child of {@code parent}
+     * @throws UnsupportedOperationException if the child has another parent
+     */
+    public boolean addChildObject(SXRNode parent, SXRNode child) {
+        final Change change = getChange(child);
+
+        if (change.newParent == parent) {
+            return false;
+        }
+        if (change.newParent != null) {
+            throw new UnsupportedOperationException("SXRNode cannot have multiple parents");
+        }
+        change.newParent = parent;
+        return true;
+    }
+
+    /**
+     * Stage the removal of a child, like
+     * {@link SXRNode#removeChildObject(SXRNode)}.
+     *
+     * @return true if the child will be removed, false if it is not a
+     *         child of {@code parent}
+     */
+    public boolean removeChildObject(SXRNode parent, SXRNode child) {
+        final Change change = getChange(child);
+
+        if (change.newParent != parent) {
+            return false;
+        }
+        change.newParent = null;
+        change.detached = true;
+        return true;
+    }
+
+    /**
+     * Stage moving a node to a new parent.
+     *
+     * @param child     node to move
+     * @param newParent new parent, or null to only remove the node from its
+     *                  current parent
+     */
+    public void reparent(SXRNode child, SXRNode newParent) {
+        final Change change = getChange(child);
+
+        if (change.newParent != null) {
+            removeChildObject(change.newParent, child);
+        }
+        if (newParent != null) {
+            addChildObject(newParent, child);
+        }
+    }
+
+    /**
+     * @return number of nodes touched by the staged changes
+     */
+    public int size() {
+        return mOrder.size();
+    }
+
+    /**
+     * Drop the staged changes.
+     */
+    public void clear() {
+        mChanges.clear();
+        mOrder.clear();
+    }
+
+    private Change getChange(SXRNode child) {
+        Change change = mChanges.get(child);
+
+        if (change == null) {
+            change = new Change(child);
+            mChanges.put(child, change);
+            mOrder.add(change);
+        }
+        return change;
+    }
+
+    /**
+     * Apply the net effect of the staged changes and empty the
+     * transaction. Removed nodes get {@link SXRNode#onRemoveParentObject}
+     * and added nodes get {@link SXRNode#onNewParentObject}, after the
+     * whole scene graph has been updated.
+     */
+    public void commit() {
+        final Map<SXRNode, Set<SXRNode>> removals = new IdentityHashMap<SXRNode, Set<SXRNode>>();
+        final Map<SXRNode, List<SXRNode>> additions = new IdentityHashMap<SXRNode, List<SXRNode>>();
+        final List<SXRNode> removeParents = new ArrayList<SXRNode>();
+        final List<SXRNode> addParents = new ArrayList<SXRNode>();
+        final List<Change> removed = new ArrayList<Change>();
+        final List<Change> added = new ArrayList<Change>();
+        int numRemoved = 0;
+        int numAdded = 0;
+
+        for (Change change : mOrder) {
+            if (change.detached && (change.oldParent != null)) {
+                Set<SXRNode> children = removals.get(change.oldParent);
+                if (children == null) {
+                    children = Collections.newSetFromMap(new IdentityHashMap<SXRNode, Boolean>());
+                    removals.put(change.oldParent, children);
+                    removeParents.add(change.oldParent);
+                }
+                children.add(change.child);
+                removed.add(change);
+                ++numRemoved;
+            }
+            if ((change.newParent != null) && (change.detached || (change.oldParent == null))) {
+                List<SXRNode> children = additions.get(change.newParent);
+                if (children == null) {
+                    children = new ArrayList<SXRNode>();
+                    additions.put(change.newParent, children);
+                    addParents.add(change.newParent);
+                }
+                children.add(change.child);
+                added.add(change);
+                ++numAdded;
+            }
+        }
+        clear();
+        if ((numRemoved == 0) && (numAdded == 0)) {
+            return;
+        }
+
+        final long[] removalGroups = new long[removeParents.size() * 2 + numRemoved];
+        final long[] additionGroups = new long[addParents.size() * 2 + numAdded];
+        int r = 0;
+        int a = 0;
+
+        for (SXRNode parent : removeParents) {
+            final Set<SXRNode> children = removals.get(parent);
+            removalGroups[r++] = parent.getNative();
+            removalGroups[r++] = children.size();
+            for (SXRNode child : children) {
+                removalGroups[r++] = child.getNative();
+            }
+            parent.detachChildren(children);
+        }
+        for (SXRNode parent : addParents) {
+            final List<SXRNode> children = additions.get(parent);
+            additionGroups[a++] = parent.getNative();
+            additionGroups[a++] = children.size();
+            for (SXRNode child : children) {
+                additionGroups[a++] = child.getNative();
+            }
+        }
+        NativeNode.updateChildren(removalGroups, r, additionGroups, a);
+        for (SXRNode parent : addParents) {
+            parent.attachChildren(additions.get(parent));
+        }
+        for (Change change : removed) {
+            change.child.onRemoveParentObject(change.oldParent);
+        }
+        for (Change change : added) {
+            change.child.onNewParentObject(change.newParent);
+        }
+    }
+}
@@ -62,6 +62,7 @@ public class SXRScene extends SXRHybridObject implements PrettyPrint, IScriptabl
     private StringBuilder mStatMessage = new StringBuilder();
     private SXREventReceiver mEventReceiver = new SXREventReceiver(this);
     private SXRNode mSceneRoot;
+    private volatile SXRSceneIndex mIndex;
     /**
      * Constructs a scene with a camera rig holding left & right cameras in it.
      * 
@@ -250,6 +251,10 @@ public class SXRScene extends SXRHybridObject implements PrettyPrint, IScriptabl
      * not be called per frame (in onStep).
      */
     public SXRNode[] getWholeNodes() {
+        final SXRSceneIndex index = mIndex;
+        if (index != null) {
+            return index.copyNodes();
+        }
         List<SXRNode> list = new ArrayList<SXRNode>();
         
         addChildren(list, mSceneRoot);
@@ -273,6 +278,10 @@ public class SXRScene extends SXRHybridObject implements PrettyPrint, IScriptabl
         if (null == name || name.isEmpty()) {
             return null;
         }
+        final SXRSceneIndex index = mIndex;
+        if (index != null) {
+            return index.copyNodesByName(name);
+        }
         return mSceneRoot.getNodesByName(name);
     }
 
@@ -281,15 +290,52 @@ public class SXRScene extends SXRHybridObject implements PrettyPrint, IScriptabl
      * 
      * @param name
      * @return first match in the graph; null if nothing was found or name was null/empty;
-     * in case there might be multiple matches consider using getNodesByName
+     * in case there might be multiple matches consider using getNodesByName.
+     * When the scene index is enabled, returns any of the matches instead
+     * of the first one.
+     * @see #setIndexEnabled(boolean)
      */
     public SXRNode getNodeByName(final String name) {
         if (null == name || name.isEmpty()) {
             return null;
         }
+        final SXRSceneIndex index = mIndex;
+        if (index != null) {
+            return index.getNodeByName(name);
+        }
         return mSceneRoot.getNodeByName(name);
     }
 
+    /**
+     * Enable / disable the index of the nodes in this scene by name
+     * and of their components by type.
+     * The index makes {@link #getNodeByName(String)},
+     * {@link #getNodesByName(String)} and {@link #getWholeNodes()}
+     * independent of the size of the scene, at the cost of a little
+     * bookkeeping whenever nodes are added, removed or renamed and
+     * components are attached or detached. It is disabled by default.
+     * @param flag true to build and maintain the index, false to drop it
+     * @see SXRSceneIndex
+     */
+    public synchronized void setIndexEnabled(boolean flag) {
+        if (flag && (mIndex == null)) {
+            mIndex = new SXRSceneIndex(mSceneRoot);
+        } else if (!flag && (mIndex != null)) {
+            mIndex.close();
+            mIndex = null;
+        }
+    }
+
+    /**
+     * Get the index of this scene, to look up the components of a type
+     * without walking the scene graph.
+     * @return the scene index, or null if it is not enabled
+     * @see #setIndexEnabled(boolean)
+     */
+    public SXRSceneIndex getIndex() {
+        return mIndex;
+    }
+
     /**
      * Enable / disable picking of visible objects.
      * Picking only visible objects is enabled by default.
@@ -0,0 +1,295 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Indexes the nodes of a {@link SXRScene} by name and their components by
+ * type, so that lookups do not walk the scene graph.
+ * <p>
+ * The index is enabled with {@link SXRScene#setIndexEnabled(boolean)} and
+ * is kept up to date as nodes are added and removed, renamed with
+ * {@link SXRNode#setName(String)} and as components are attached and
+ * detached. Each update costs a hash lookup; adding or removing a subtree
+ * costs one update per node in it.
+ * <p>
+ * Queries return a {@link Bucket}, a live view which can be iterated by
+ * index without allocating. The order of the nodes in a bucket is not the
+ * order of the scene graph, and a bucket changes when the scene does:
+ * iterate it on the thread that modifies the scene, or copy it.
+ */
+public final class SXRSceneIndex {
+    /**
+     * Read-only, live list of indexed objects.
+     */
+    public static final class Bucket<T> {
+        private Object[] mItems = new Object[4];
+        private int mSize;
+
+        /**
+         * @return number of objects in the bucket
+         */
+        public int size() {
+            return mSize;
+        }
+
+        /**
+         * @return the object at an index, from 0 to {@link #size()} - 1
+         */
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            if (index >= mSize) {
+                throw new IndexOutOfBoundsException("index " + index + " size " + mSize);
+            }
+            return (T) mItems[index];
+        }
+
+        int add(Object item) {
+            if (mSize == mItems.length) {
+                final Object[] items = new Object[mSize * 2];
+                System.arraycopy(mItems, 0, items, 0, mSize);
+                mItems = items;
+            }
+            mItems[mSize] = item;
+            return mSize++;
+        }
+
+        /*
+         * Move the last object into the hole and return it, so its slot
+         * can be updated; null if the removed object was the last one.
+         */
+        Object removeAt(int slot) {
+            final int last = --mSize;
+            final Object moved = mItems[last];
+            mItems[last] = null;
+            if (slot == last) {
+                return null;
+            }
+            mItems[slot] = moved;
+            return moved;
+        }
+    }
+
+    /*
+     * Where a node is in the index, attached to the node while it is indexed.
+     */
+    static final class Entry {
+        final SXRSceneIndex index;
+        String name;
+        int nameSlot = -1;
+        int nodeSlot = -1;
+
+        Entry(SXRSceneIndex index) {
+            this.index = index;
+        }
+    }
+
+    private static final Bucket<?> EMPTY = new Bucket<Object>();
+
+    private final SXRNode mRoot;
+    private final Map<String, Bucket<SXRNode>> mNames = new HashMap<String, Bucket<SXRNode>>();
+    private final Map<Long, Bucket<SXRComponent>> mComponents = new HashMap<Long, Bucket<SXRComponent>>();
+    private final Bucket<SXRNode> mNodes = new Bucket<SXRNode>();
+
+    /*
+     * Index the descendants of the scene root. The root node itself is not
+     * indexed, it forwards the additions of its children; its components
+     * are, as they are reported when attached through its entry.
+     */
+    SXRSceneIndex(SXRNode root) {
+        mRoot = root;
+        root.mIndexEntry = new Entry(this);
+        root.indexComponents(this, true);
+        for (SXRNode child : root.rawGetChildren()) {
+            addSubtree(child);
+        }
+    }
+
+    /*
+     * Stop maintaining the index and remove it from the scene graph.
+     */
+    synchronized void close() {
+        for (SXRNode child : mRoot.rawGetChildren()) {
+            removeSubtree(child);
+        }
+        mRoot.indexComponents(this, false);
+        mRoot.mIndexEntry = null;
+    }
+
+    /**
+     * @return the number of nodes in the scene, not counting the root
+     */
+    public synchronized int getNodeCount() {
+        return mNodes.size();
+    }
+
+    /**
+     * @return every node in the scene, not counting the root
+     */
+    public synchronized Bucket<SXRNode> getNodes() {
+        return mNodes;
+    }
+
+    /**
+     * @param name name of the nodes to look for, case-sensitive
+     * @return the nodes with the name, an empty bucket if there are none
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized Bucket<SXRNode> getNodesByName(String name) {
+        final Bucket<SXRNode> nodes = mNames.get(name);
+        return (nodes != null) ? nodes : (Bucket<SXRNode>) EMPTY;
+    }
+
+    /**
+     * @param name name of the node to look for, case-sensitive
+     * @return a node with the name, or null if there is none
+     */
+    public synchronized SXRNode getNodeByName(String name) {
+        final Bucket<SXRNode> nodes = mNames.get(name);
+        return (nodes != null) ? nodes.get(0) : null;
+    }
+
+    /*
+     * Copy of the nodes with a name, null if there are none, for
+     * {@link SXRScene#getNodesByName(String)}.
+     */
+    synchronized SXRNode[] copyNodesByName(String name) {
+        final Bucket<SXRNode> nodes = mNames.get(name);
+        return (nodes != null) ? copy(nodes) : null;
+    }
+
+    synchronized SXRNode[] copyNodes() {
+        return copy(mNodes);
+    }
+
+    private static SXRNode[] copy(Bucket<SXRNode> nodes) {
+        final SXRNode[] array = new SXRNode[nodes.size()];
+        System.arraycopy(nodes.mItems, 0, array, 0, array.length);
+        return array;
+    }
+
+    /**
+     * @param type component type, as returned from getComponentType()
+     * @return the components of the type attached to nodes in the scene,
+     *         an empty bucket if there are none
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T extends SXRComponent> Bucket<T> getComponents(long type) {
+        final Bucket<SXRComponent> components = mComponents.get(type);
+        return (Bucket<T>) ((components != null) ? components : EMPTY);
+    }
+
+    synchronized void addSubtree(SXRNode node) {
+        final Entry entry = new Entry(this);
+
+        node.mIndexEntry = entry;
+        entry.nodeSlot = mNodes.add(node);
+        addName(node, entry, node.getName());
+        node.indexComponents(this, true);
+        for (SXRNode child : node.rawGetChildren()) {
+            addSubtree(child);
+        }
+    }
+
+    synchronized void removeSubtree(SXRNode node) {
+        final Entry entry = node.mIndexEntry;
+
+        if ((entry == null) || (entry.index != this)) {
+            return;
+        }
+        for (SXRNode child : node.rawGetChildren()) {
+            removeSubtree(child);
+        }
+        node.indexComponents(this, false);
+        removeName(entry);
+        final SXRNode moved = (SXRNode) mNodes.removeAt(entry.nodeSlot);
+        if (moved != null) {
+            moved.mIndexEntry.nodeSlot = entry.nodeSlot;
+        }
+        node.mIndexEntry = null;
+    }
+
+    synchronized void rename(SXRNode node, String name) {
+        final Entry entry = node.mIndexEntry;
+
+        if (node == mRoot) {
+            return;
+        }
+        removeName(entry);
+        addName(node, entry, name);
+    }
+
+    synchronized void addComponent(SXRComponent component) {
+        final long type = component.getType();
+        Bucket<SXRComponent> components = mComponents.get(type);
+
+        if (component.mIndexSlot >= 0) {
+            return;
+        }
+        if (components == null) {
+            components = new Bucket<SXRComponent>();
+            mComponents.put(type, components);
+        }
+        component.mIndexSlot = components.add(component);
+    }
+
+    synchronized void removeComponent(SXRComponent component) {
+        final Bucket<SXRComponent> components = mComponents.get(component.getType());
+
+        if ((components == null) || (component.mIndexSlot < 0)) {
+            return;
+        }
+        final SXRComponent moved = (SXRComponent) components.removeAt(component.mIndexSlot);
+        if (moved != null) {
+            moved.mIndexSlot = component.mIndexSlot;
+        }
+        component.mIndexSlot = -1;
+        if (components.size() == 0) {
+            mComponents.remove(component.getType());
+        }
+    }
+
+    private void addName(SXRNode node, Entry entry, String name) {
+        entry.name = name;
+        if ((name == null) || name.isEmpty()) {
+            return;
+        }
+        Bucket<SXRNode> nodes = mNames.get(name);
+        if (nodes == null) {
+            nodes = new Bucket<SXRNode>();
+            mNames.put(name, nodes);
+        }
+        entry.nameSlot = nodes.add(node);
+    }
+
+    private void removeName(Entry entry) {
+        if (entry.nameSlot < 0) {
+            return;
+        }
+        final Bucket<SXRNode> nodes = mNames.get(entry.name);
+        final SXRNode moved = (SXRNode) nodes.removeAt(entry.nameSlot);
+        if (moved != null) {
+            moved.mIndexEntry.nameSlot = entry.nameSlot;
+        }
+        if (nodes.size() == 0) {
+            mNames.remove(entry.name);
+        }
+        entry.nameSlot = -1;
+        entry.name = null;
+    }
+}
@@ -436,6 +436,102 @@ public class SXRShaderData extends SXRHybridObject
         NativeShaderData.setIntVec(getNative(), key, val, val.length);
     }
 
+    /**
+     * Get the slot of a uniform, to use with the setters and getters that
+     * take a slot instead of a name.
+     * <p>
+     * A slot is the index of the uniform in the uniform descriptor, so it
+     * is valid for every {@link SXRShaderData} with the same
+     * {@linkplain #getUniformDescriptor() uniform descriptor}. Look it up
+     * once, instead of passing the name for each update.
+     *
+     * @param key name of the uniform
+     * @return slot of the uniform
+     * @throws IllegalArgumentException if key is not in uniform descriptor.
+     */
+    public int getUniformSlot(String key)
+    {
+        checkKeyIsUniform(key);
+        int slot = NativeShaderData.getUniformSlot(getNative(), key);
+        if (slot < 0)
+        {
+            throw Exceptions.IllegalArgument("key " + key + " not in material");
+        }
+        return slot;
+    }
+
+    /**
+     * Bind a {@code float} to the uniform in a slot.
+     * @param slot  slot from {@link #getUniformSlot(String)}
+     * @param value new data
+     * @throws IllegalArgumentException if the slot is not in the uniform descriptor.
+     */
+    public void setFloat(int slot, float value)
+    {
+        checkFloatNotNaNOrInfinity("value", value);
+        checkSlotSet(slot, NativeShaderData.setFloatAt(getNative(), slot, value));
+    }
+
+    /**
+     * Set the value of a floating point vector of length 3 in a slot.
+     * @param slot slot from {@link #getUniformSlot(String)}
+     * @throws IllegalArgumentException if the slot is not in the uniform descriptor.
+     */
+    public void setVec3(int slot, float x, float y, float z)
+    {
+        checkSlotSet(slot, NativeShaderData.setVec3At(getNative(), slot, x, y, z));
+    }
+
+    /**
+     * Set the value of a floating point vector of length 4 in a slot.
+     * @param slot slot from {@link #getUniformSlot(String)}
+     * @throws IllegalArgumentException if the slot is not in the uniform descriptor.
+     */
+    public void setVec4(int slot, float x, float y, float z, float w)
+    {
+        checkSlotSet(slot, NativeShaderData.setVec4At(getNative(), slot, x, y, z, w));
+    }
+
+    /**
+     * Set the value of a floating point vector, array or matrix uniform in
+     * a slot.
+     * @param slot slot from {@link #getUniformSlot(String)}
+     * @param val  new data, no larger than the uniform
+     * @throws IllegalArgumentException if the slot is not in the uniform
+     *         descriptor or the array is too long.
+     */
+    public void setFloatArray(int slot, float val[])
+    {
+        checkSlotSet(slot, NativeShaderData.setFloatVecAt(getNative(), slot, val, val.length));
+    }
+
+    /**
+     * Get the value of a floating point uniform in a slot, without
+     * allocating.
+     * @param slot slot from {@link #getUniformSlot(String)}
+     * @param val  array to receive the value, its length is the number of
+     *             floats read
+     * @return {@code val}
+     * @throws IllegalArgumentException if the slot is not in the uniform
+     *         descriptor, has not been set or is smaller than the array.
+     */
+    public float[] getFloatVec(int slot, float val[])
+    {
+        if (!NativeShaderData.getFloatVecAt(getNative(), slot, val, val.length))
+        {
+            throw Exceptions.IllegalArgument("slot %d not set in material", slot);
+        }
+        return val;
+    }
+
+    private void checkSlotSet(int slot, boolean isSet)
+    {
+        if (!isSet)
+        {
+            throw Exceptions.IllegalArgument("slot %d not in material", slot);
+        }
+    }
+
     private void checkKeyIsTexture(String key)
     {
         checkStringNotNullOrEmpty("key", key);
@@ -571,4 +667,18 @@ class NativeShaderData {
     static native String makeShaderLayout(long shaderData);
 
     static native boolean copyUniforms(long shaderDataDest, long shaderDataSrc);
+
+    static native int getUniformSlot(long shaderData, String key);
+
+    static native boolean setFloatAt(long shaderData, int slot, float value);
+
+    static native boolean setVec3At(long shaderData, int slot, float x, float y, float z);
+
+    static native boolean setVec4At(long shaderData, int slot, float x, float y, float z, float w);
+
+    static native boolean setFloatVecAt(long shaderData, int slot, float[] val, int n);
+
+    static native boolean getFloatVecAt(long shaderData, int slot, float[] val, int n);
+
+    static native int setFloatsAt(long[] shaderData, int[] slots, int[] sizes, java.nio.FloatBuffer values, int count);
 }
\ No newline at end of file
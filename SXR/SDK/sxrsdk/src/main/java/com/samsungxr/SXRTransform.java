@@ -16,6 +16,8 @@
 package com.samsungxr;
 
 import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
 
 /**
  * One of the key SXRF classes: Encapsulates a 4x4 matrix that controls how GL
@@ -31,6 +33,25 @@ public class SXRTransform extends SXRComponent {
     final float TO_DEGREES = (float) (180.0/Math.PI);
     final float TO_RADIANS = 1/TO_DEGREES;
 
+    /**
+     * Number of floats written by {@link #getTRS(float[], boolean)} without
+     * the model matrix: position (x, y, z), rotation (w, x, y, z) and
+     * scale (x, y, z).
+     */
+    public static final int TRS_SIZE = 10;
+    /**
+     * Number of floats written by {@link #getTRS(float[], boolean)} with
+     * the model matrix, which follows the scale.
+     */
+    public static final int READBACK_SIZE = TRS_SIZE + 16;
+
+    private static final ThreadLocal<float[]> sReadback = new ThreadLocal<float[]>() {
+        @Override
+        protected float[] initialValue() {
+            return new float[READBACK_SIZE];
+        }
+    };
+
     SXRTransform(SXRContext gvrContext) {
         super(gvrContext, NativeTransform.ctor());
     }
@@ -325,9 +346,7 @@ public class SXRTransform extends SXRComponent {
      *         {@code Matrix4f} object.
      */
     public Matrix4f getModelMatrix4f() {
-        Matrix4f modelMatrix = new Matrix4f();
-        modelMatrix.set(getModelMatrix());
-        return modelMatrix;
+        return getModelMatrix(new Matrix4f());
     }
 
     /**
@@ -337,9 +356,103 @@ public class SXRTransform extends SXRComponent {
      *         {@code Matrix4f} object.
      */
     public Matrix4f getLocalModelMatrix4f() {
-        Matrix4f modelMatrix = new Matrix4f();
-        modelMatrix.set(getLocalModelMatrix());
-        return modelMatrix;
+        return getLocalModelMatrix(new Matrix4f());
+    }
+
+    /**
+     * Read position, rotation and scale, and optionally the model matrix,
+     * with a single native call.
+     *
+     * @param trs        array of at least {@link #TRS_SIZE} floats, or
+     *                   {@link #READBACK_SIZE} floats with the matrix
+     * @param withMatrix true to also read the model matrix
+     * @return {@code trs}, holding position (x, y, z), rotation
+     *         (w, x, y, z), scale (x, y, z) and, if requested, the model
+     *         matrix in column-major order
+     */
+    public float[] getTRS(float[] trs, boolean withMatrix) {
+        NativeTransform.getTRS(getNative(), trs, withMatrix);
+        return trs;
+    }
+
+    /**
+     * Read position, rotation and scale with a single native call.
+     *
+     * @param position receives the position, may be null
+     * @param rotation receives the rotation, may be null
+     * @param scale    receives the scale, may be null
+     */
+    public void get(Vector3f position, Quaternionf rotation, Vector3f scale) {
+        final float[] trs = getTRS(sReadback.get(), false);
+        if (position != null) {
+            position.set(trs[0], trs[1], trs[2]);
+        }
+        if (rotation != null) {
+            rotation.set(trs[4], trs[5], trs[6], trs[3]);
+        }
+        if (scale != null) {
+            scale.set(trs[7], trs[8], trs[9]);
+        }
+    }
+
+    /**
+     * Read the position with a single native call.
+     *
+     * @return {@code position}
+     */
+    public Vector3f getPosition(Vector3f position) {
+        get(position, null, null);
+        return position;
+    }
+
+    /**
+     * Read the rotation quaternion with a single native call.
+     *
+     * @return {@code rotation}
+     */
+    public Quaternionf getRotation(Quaternionf rotation) {
+        get(null, rotation, null);
+        return rotation;
+    }
+
+    /**
+     * Read the 4x4 model matrix into an array, without allocating.
+     *
+     * @param matrix array of at least 16 floats
+     * @return {@code matrix}, in OpenGL-compatible column-major format
+     */
+    public float[] getModelMatrix(float[] matrix) {
+        NativeTransform.readModelMatrix(getNative(), matrix, false);
+        return matrix;
+    }
+
+    /**
+     * Read the 4x4 local matrix into an array, without allocating.
+     *
+     * @param matrix array of at least 16 floats
+     * @return {@code matrix}, in OpenGL-compatible column-major format
+     */
+    public float[] getLocalModelMatrix(float[] matrix) {
+        NativeTransform.readModelMatrix(getNative(), matrix, true);
+        return matrix;
+    }
+
+    /**
+     * Read the 4x4 model matrix into a JOML matrix, without allocating.
+     *
+     * @return {@code matrix}
+     */
+    public Matrix4f getModelMatrix(Matrix4f matrix) {
+        return matrix.set(getModelMatrix(sReadback.get()));
+    }
+
+    /**
+     * Read the 4x4 local matrix into a JOML matrix, without allocating.
+     *
+     * @return {@code matrix}
+     */
+    public Matrix4f getLocalModelMatrix(Matrix4f matrix) {
+        return matrix.set(getLocalModelMatrix(sReadback.get()));
     }
 
     /**
@@ -574,6 +687,15 @@ class NativeTransform {
 
     static native void setModelMatrix(long tranform, float[] mat);
 
+    static native void setTransforms(long[] transforms, int[] masks,
+            java.nio.FloatBuffer records, int count);
+
+    static native void getTRS(long transform, float[] trs, boolean withMatrix);
+
+    static native void readModelMatrix(long transform, float[] matrix, boolean local);
+
+    static native void getTransforms(long[] transforms, int count, java.nio.FloatBuffer records);
+
     static native void translate(long transform, float x, float y, float z);
 
     static native void setRotationByAxis(long transform, float angle, float x,
@@ -0,0 +1,176 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Stages writes to many {@link SXRTransform}s and applies them with a
+ * single native call, instead of one call per setter.
+ * <p>
+ * Each write is a record of position, rotation and scale, with a mask of
+ * the parts to set. Records are applied in the order they were staged when
+ * {@link #apply()} is called; until then the transforms keep their old
+ * values, so only stage writes that nothing reads back before the batch
+ * is applied. A batch is not thread safe and is meant to be reused from
+ * frame to frame: it only allocates when it grows.
+ */
+public final class SXRTransformBatch {
+    /** Set the position of the transform */
+    public static final int POSITION = 1;
+    /** Set the rotation of the transform */
+    public static final int ROTATION = 2;
+    /** Set the scale of the transform */
+    public static final int SCALE = 4;
+
+    // position (x, y, z), rotation (w, x, y, z), scale (x, y, z)
+    private static final int RECORD_SIZE = 10;
+
+    private SXRTransform[] mTransforms;
+    private long[] mHandles;
+    private int[] mMasks;
+    private FloatBuffer mRecords;
+    private int mCount;
+
+    /**
+     * Create a batch.
+     *
+     * @param capacity number of writes the batch can hold before growing
+     */
+    public SXRTransformBatch(int capacity) {
+        capacity = Math.max(capacity, 16);
+        mTransforms = new SXRTransform[capacity];
+        mHandles = new long[capacity];
+        mMasks = new int[capacity];
+        mRecords = allocate(capacity);
+    }
+
+    private static FloatBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * RECORD_SIZE * 4)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    /**
+     * @return number of staged writes
+     */
+    public int size() {
+        return mCount;
+    }
+
+    /**
+     * Stage the position of a transform.
+     */
+    public void setPosition(SXRTransform transform, float x, float y, float z) {
+        final int base = add(transform, POSITION);
+        final FloatBuffer records = mRecords;
+        records.put(base, x);
+        records.put(base + 1, y);
+        records.put(base + 2, z);
+    }
+
+    /**
+     * Stage the rotation of a transform, as a quaternion.
+     */
+    public void setRotation(SXRTransform transform, float w, float x, float y, float z) {
+        putRotation(add(transform, ROTATION), w, x, y, z);
+    }
+
+    /**
+     * Stage the scale of a transform.
+     */
+    public void setScale(SXRTransform transform, float x, float y, float z) {
+        putScale(add(transform, SCALE), x, y, z);
+    }
+
+    /**
+     * Stage the position, rotation and scale of a transform.
+     */
+    public void set(SXRTransform transform, Vector3f position, Quaternionf rotation, Vector3f scale) {
+        final int base = add(transform, POSITION | ROTATION | SCALE);
+        final FloatBuffer records = mRecords;
+        records.put(base, position.x);
+        records.put(base + 1, position.y);
+        records.put(base + 2, position.z);
+        putRotation(base, rotation.w, rotation.x, rotation.y, rotation.z);
+        putScale(base, scale.x, scale.y, scale.z);
+    }
+
+    private void putRotation(int base, float w, float x, float y, float z) {
+        final FloatBuffer records = mRecords;
+        records.put(base + 3, w);
+        records.put(base + 4, x);
+        records.put(base + 5, y);
+        records.put(base + 6, z);
+    }
+
+    private void putScale(int base, float x, float y, float z) {
+        final FloatBuffer records = mRecords;
+        records.put(base + 7, x);
+        records.put(base + 8, y);
+        records.put(base + 9, z);
+    }
+
+    private int add(SXRTransform transform, int mask) {
+        if (mCount == mHandles.length) {
+            grow();
+        }
+        final int i = mCount++;
+        mTransforms[i] = transform;
+        mHandles[i] = transform.getNative();
+        mMasks[i] = mask;
+        return i * RECORD_SIZE;
+    }
+
+    private void grow() {
+        final int capacity = mHandles.length * 2;
+        mTransforms = Arrays.copyOf(mTransforms, capacity);
+        mHandles = Arrays.copyOf(mHandles, capacity);
+        mMasks = Arrays.copyOf(mMasks, capacity);
+
+        final FloatBuffer records = allocate(capacity);
+        mRecords.position(0).limit(mCount * RECORD_SIZE);
+        records.put(mRecords);
+        records.clear();
+        mRecords.clear();
+        mRecords = records;
+    }
+
+    /**
+     * Apply the staged writes, in order, and empty the batch.
+     */
+    public void apply() {
+        if (mCount == 0) {
+            return;
+        }
+        NativeTransform.setTransforms(mHandles, mMasks, mRecords, mCount);
+        clear();
+    }
+
+    /**
+     * Drop the staged writes.
+     */
+    public void clear() {
+        // the transforms are only held to keep their native objects alive
+        Arrays.fill(mTransforms, 0, mCount, null);
+        mCount = 0;
+    }
+}
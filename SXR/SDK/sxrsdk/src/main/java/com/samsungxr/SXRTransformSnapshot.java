@@ -0,0 +1,158 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr;
+
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Reads back the state of many {@link SXRTransform}s with a single native
+ * call.
+ * <p>
+ * Add the transforms to watch once, then {@link #capture()} them, usually
+ * once per frame. Every reader of the snapshot sees the values of the same
+ * moment, and reading a value does not cross JNI. Each transform takes a
+ * record of {@link SXRTransform#READBACK_SIZE} floats in
+ * {@link #getRecords()}: position, rotation (w, x, y, z), scale and the
+ * model matrix in column-major order.
+ * <p>
+ * A snapshot is not thread safe.
+ */
+public final class SXRTransformSnapshot {
+    private static final int RECORD_SIZE = SXRTransform.READBACK_SIZE;
+
+    private SXRTransform[] mTransforms;
+    private long[] mHandles;
+    private FloatBuffer mRecords;
+    private int mCount;
+
+    /**
+     * Create a snapshot.
+     *
+     * @param capacity number of transforms the snapshot can hold before
+     *                 growing
+     */
+    public SXRTransformSnapshot(int capacity) {
+        capacity = Math.max(capacity, 16);
+        mTransforms = new SXRTransform[capacity];
+        mHandles = new long[capacity];
+        mRecords = allocate(capacity);
+    }
+
+    private static FloatBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * RECORD_SIZE * 4)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    /**
+     * Add a transform to the snapshot. Its values are undefined until the
+     * next {@link #capture()}.
+     *
+     * @return index of the transform in the snapshot
+     */
+    public int add(SXRTransform transform) {
+        if (mCount == mHandles.length) {
+            final int capacity = mCount * 2;
+            mTransforms = Arrays.copyOf(mTransforms, capacity);
+            mHandles = Arrays.copyOf(mHandles, capacity);
+            mRecords = allocate(capacity);
+        }
+        mTransforms[mCount] = transform;
+        mHandles[mCount] = transform.getNative();
+        return mCount++;
+    }
+
+    /**
+     * @return number of transforms in the snapshot
+     */
+    public int size() {
+        return mCount;
+    }
+
+    /**
+     * @return the transform at an index
+     */
+    public SXRTransform getTransform(int i) {
+        return mTransforms[i];
+    }
+
+    /**
+     * Remove all the transforms.
+     */
+    public void clear() {
+        Arrays.fill(mTransforms, 0, mCount, null);
+        mCount = 0;
+    }
+
+    /**
+     * Read the current state of every transform.
+     */
+    public void capture() {
+        if (mCount > 0) {
+            NativeTransform.getTransforms(mHandles, mCount, mRecords);
+        }
+    }
+
+    /**
+     * @return the records written by {@link #capture()}, one per transform,
+     *         {@link SXRTransform#READBACK_SIZE} floats each
+     */
+    public FloatBuffer getRecords() {
+        return mRecords;
+    }
+
+    /**
+     * @return {@code position}, set to the captured position of a transform
+     */
+    public Vector3f getPosition(int i, Vector3f position) {
+        final int base = i * RECORD_SIZE;
+        final FloatBuffer records = mRecords;
+        return position.set(records.get(base), records.get(base + 1), records.get(base + 2));
+    }
+
+    /**
+     * @return {@code rotation}, set to the captured rotation of a transform
+     */
+    public Quaternionf getRotation(int i, Quaternionf rotation) {
+        final int base = i * RECORD_SIZE;
+        final FloatBuffer records = mRecords;
+        return rotation.set(records.get(base + 4), records.get(base + 5),
+                records.get(base + 6), records.get(base + 3));
+    }
+
+    /**
+     * @return {@code scale}, set to the captured scale of a transform
+     */
+    public Vector3f getScale(int i, Vector3f scale) {
+        final int base = i * RECORD_SIZE;
+        final FloatBuffer records = mRecords;
+        return scale.set(records.get(base + 7), records.get(base + 8), records.get(base + 9));
+    }
+
+    /**
+     * @return {@code matrix}, set to the captured model matrix of a
+     *         transform
+     */
+    public Matrix4f getModelMatrix(int i, Matrix4f matrix) {
+        return matrix.set(i * RECORD_SIZE + SXRTransform.TRS_SIZE, mRecords);
+    }
+}
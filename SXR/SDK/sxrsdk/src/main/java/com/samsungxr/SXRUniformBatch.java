@@ -0,0 +1,174 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr;
+
+import com.samsungxr.utility.Log;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Stages uniform writes to many {@link SXRShaderData} objects, usually
+ * {@link SXRMaterial}s, and applies them with a single native call.
+ * <p>
+ * Uniforms are addressed by the slot returned by
+ * {@link SXRShaderData#getUniformSlot(String)}, so resolve the slots once
+ * per uniform descriptor and reuse them for every material that shares it.
+ * Writes are applied in the order they were staged when {@link #apply()}
+ * is called. A batch is not thread safe and is meant to be reused from
+ * frame to frame: it only allocates when it grows.
+ */
+public final class SXRUniformBatch {
+    private static final String TAG = Log.tag(SXRUniformBatch.class);
+
+    private SXRShaderData[] mShaderData;
+    private long[] mHandles;
+    private int[] mSlots;
+    private int[] mSizes;
+    private FloatBuffer mValues;
+    private int mCount;
+    private int mValueCount;
+
+    /**
+     * Create a batch.
+     *
+     * @param capacity number of writes the batch can hold before growing
+     */
+    public SXRUniformBatch(int capacity) {
+        capacity = Math.max(capacity, 16);
+        mShaderData = new SXRShaderData[capacity];
+        mHandles = new long[capacity];
+        mSlots = new int[capacity];
+        mSizes = new int[capacity];
+        mValues = allocate(capacity * 4);
+    }
+
+    private static FloatBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * 4)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    /**
+     * @return number of staged writes
+     */
+    public int size() {
+        return mCount;
+    }
+
+    /**
+     * Stage a {@code float} uniform.
+     */
+    public void setFloat(SXRShaderData shaderData, int slot, float value) {
+        final int base = add(shaderData, slot, 1);
+        mValues.put(base, value);
+    }
+
+    /**
+     * Stage a floating point vector of length 3.
+     */
+    public void setVec3(SXRShaderData shaderData, int slot, float x, float y, float z) {
+        final int base = add(shaderData, slot, 3);
+        final FloatBuffer values = mValues;
+        values.put(base, x);
+        values.put(base + 1, y);
+        values.put(base + 2, z);
+    }
+
+    /**
+     * Stage a floating point vector of length 4.
+     */
+    public void setVec4(SXRShaderData shaderData, int slot, float x, float y, float z, float w) {
+        final int base = add(shaderData, slot, 4);
+        final FloatBuffer values = mValues;
+        values.put(base, x);
+        values.put(base + 1, y);
+        values.put(base + 2, z);
+        values.put(base + 3, w);
+    }
+
+    /**
+     * Stage a floating point vector, array or matrix uniform. The values
+     * are copied, so the array can be reused right away.
+     */
+    public void setFloatArray(SXRShaderData shaderData, int slot, float[] val) {
+        final int base = add(shaderData, slot, val.length);
+        mValues.position(base);
+        mValues.put(val);
+        mValues.clear();
+    }
+
+    private int add(SXRShaderData shaderData, int slot, int size) {
+        if (mCount == mHandles.length) {
+            grow();
+        }
+        if (mValueCount + size > mValues.capacity()) {
+            growValues(mValueCount + size);
+        }
+        final int i = mCount++;
+        final int base = mValueCount;
+        mShaderData[i] = shaderData;
+        mHandles[i] = shaderData.getNative();
+        mSlots[i] = slot;
+        mSizes[i] = size;
+        mValueCount += size;
+        return base;
+    }
+
+    private void grow() {
+        final int capacity = mHandles.length * 2;
+        mShaderData = Arrays.copyOf(mShaderData, capacity);
+        mHandles = Arrays.copyOf(mHandles, capacity);
+        mSlots = Arrays.copyOf(mSlots, capacity);
+        mSizes = Arrays.copyOf(mSizes, capacity);
+    }
+
+    private void growValues(int minCapacity) {
+        final FloatBuffer values = allocate(Math.max(minCapacity, mValues.capacity() * 2));
+        mValues.position(0).limit(mValueCount);
+        values.put(mValues);
+        values.clear();
+        mValues.clear();
+        mValues = values;
+    }
+
+    /**
+     * Apply the staged writes, in order, and empty the batch. Writes to
+     * slots that are not in the uniform descriptor of their target, or
+     * that are larger than the uniform, are skipped and logged.
+     */
+    public void apply() {
+        if (mCount == 0) {
+            return;
+        }
+        final int failed = NativeShaderData.setFloatsAt(mHandles, mSlots, mSizes, mValues, mCount);
+        if (failed > 0) {
+            Log.w(TAG, "%d of %d uniform writes did not match their material", failed, mCount);
+        }
+        clear();
+    }
+
+    /**
+     * Drop the staged writes.
+     */
+    public void clear() {
+        // the materials are only held to keep their native objects alive
+        Arrays.fill(mShaderData, 0, mCount, null);
+        mCount = 0;
+        mValueCount = 0;
+    }
+}
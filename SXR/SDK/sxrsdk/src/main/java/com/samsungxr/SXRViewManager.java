@@ -293,6 +293,11 @@ abstract class SXRViewManager extends SXRContext {
         return mFrameTime;
     }
 
+    @Override
+    public int getGlQueueDepth() {
+        return mRunnables.size();
+    }
+
     /*
      * Splash screen life cycle
      */
@@ -22,6 +22,7 @@ import com.samsungxr.SXRMaterial;
 import com.samsungxr.SXRNode;
 import com.samsungxr.SXRShaderData;
 import com.samsungxr.SXRTransform;
+import com.samsungxr.SXRTransformBatch;
 import com.samsungxr.utility.Log;
 
 import android.graphics.Color;
@@ -122,6 +123,10 @@ public abstract class SXRAnimation {
 
     protected boolean isFinished = false;
 
+    // Transform writes, staged by the engine when enabled
+    private boolean mBatchTransforms = false;
+    SXRTransformBatch mFrameBatch = null;
+
     /**
      * Base constructor.
      * 
@@ -307,6 +312,37 @@ public abstract class SXRAnimation {
         mDuration = end-start;
         return this;
     }
+
+    /**
+     * Lets the animation stage its transform writes in a batch that the
+     * {@link SXRAnimationEngine} applies in one native call once all the
+     * animations have run, which saves a JNI call per animated transform.
+     * Only enable this when nothing reads the animated transform back
+     * between the animation step and the end of the frame's animations. The
+     * batch is flushed before the {@link SXROnFinish} callback runs.
+     * <p>
+     * The default is {@code false}. Animations that do not support batching
+     * ignore it.
+     *
+     * @param batch {@code true} to batch the transform writes
+     * @return {@code this}, so you can chain setProperty() calls.
+     */
+    public SXRAnimation setBatchTransforms(boolean batch) {
+        mBatchTransforms = batch;
+        return this;
+    }
+
+    /**
+     * Gets the batch to stage transform writes in, for descendant classes.
+     *
+     * @return the engine's batch while the animation runs from the engine
+     *         with batching enabled, {@code null} otherwise: the transform
+     *         should then be written directly.
+     */
+    protected SXRTransformBatch getTransformBatch() {
+        return mBatchTransforms ? mFrameBatch : null;
+    }
+
     /**
      * Set the on-finish callback.
      * 
@@ -464,6 +500,9 @@ public abstract class SXRAnimation {
 
             animate(mTarget, endRatio);
 
+            if (mFrameBatch != null) {
+                mFrameBatch.apply();
+            }
             onFinish();
             if (mOnFinish != null) {
                 mOnFinish.finished(this);
@@ -21,6 +21,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import com.samsungxr.SXRContext;
 import com.samsungxr.SXRDrawFrameListener;
 import com.samsungxr.SXRNode;
+import com.samsungxr.SXRTransformBatch;
 
 /**
  * This class runs {@linkplain SXRAnimation animations}.
@@ -61,6 +62,8 @@ public class SXRAnimationEngine {
 
     private final List<SXRAnimation> mAnimations = new CopyOnWriteArrayList<SXRAnimation>();
     private final SXRDrawFrameListener mOnDrawFrame = new DrawFrame();
+    // writes of the animations that batch their transforms, applied after each frame
+    private final SXRTransformBatch mTransformBatch = new SXRTransformBatch(256);
 
     protected SXRAnimationEngine(SXRContext gvrContext) {
         gvrContext.registerDrawFrameListener(mOnDrawFrame);
@@ -147,10 +150,13 @@ public class SXRAnimationEngine {
         @Override
         public void onDrawFrame(float frameTime) {
             for (SXRAnimation animation : mAnimations) {
+                animation.mFrameBatch = mTransformBatch;
                 if (animation.onDrawFrame(frameTime) == false) {
                     mAnimations.remove(animation);
                 }
+                animation.mFrameBatch = null;
             }
+            mTransformBatch.apply();
         }
     }
 }
@@ -25,6 +25,7 @@ public class SXRColorAnimation extends SXRMaterialAnimation {
 
     private final float mStartR, mStartG, mStartB;
     private final float mDeltaR, mDeltaG, mDeltaB;
+    private final int mColorSlot;
 
     /**
      * Animate the {@linkplain SXRMaterial#setColor(float, float, float) overlay
@@ -49,6 +50,7 @@ public class SXRColorAnimation extends SXRMaterialAnimation {
         mDeltaR = rgb[0] - mStartR;
         mDeltaG = rgb[1] - mStartG;
         mDeltaB = rgb[2] - mStartB;
+        mColorSlot = mMaterial.getUniformSlot("u_color");
     }
 
     /**
@@ -101,7 +103,7 @@ public class SXRColorAnimation extends SXRMaterialAnimation {
 
     @Override
     protected void animate(SXRHybridObject target, float ratio) {
-        mMaterial.setColor(mStartR + ratio * mDeltaR,
+        mMaterial.setVec3(mColorSlot, mStartR + ratio * mDeltaR,
                 mStartG + ratio * mDeltaG, mStartB + ratio * mDeltaB);
     }
 }
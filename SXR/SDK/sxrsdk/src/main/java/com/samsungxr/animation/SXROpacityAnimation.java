@@ -26,6 +26,7 @@ public class SXROpacityAnimation extends SXRMaterialAnimation {
     private final float mInitialOpacity;
     private final float mDeltaOpacity;
     private final float[] mInitialColor;
+    private final int mSlot;
 
     /**
      * Animate the {@link SXRMaterial#setOpacity(float) opacity} property.
@@ -45,12 +46,14 @@ public class SXROpacityAnimation extends SXRMaterialAnimation {
             mInitialOpacity = mMaterial.getOpacity();
             mDeltaOpacity = opacity - mInitialOpacity;
             mInitialColor = null;
+            mSlot = mMaterial.getUniformSlot("u_opacity");
         }
         else if (mMaterial.hasUniform("diffuse_color"))
         {
             mInitialOpacity = 1.0f;
             mInitialColor = mMaterial.getVec4("diffuse_color");
             mDeltaOpacity = opacity - mInitialColor[3];
+            mSlot = mMaterial.getUniformSlot("diffuse_color");
         }
         else
         {
@@ -80,13 +83,13 @@ public class SXROpacityAnimation extends SXRMaterialAnimation {
         float opacity = mDeltaOpacity * ratio;
         if (mInitialColor != null)
         {
-            mMaterial.setVec4("diffuse_color", mInitialColor[0],
+            mMaterial.setVec4(mSlot, mInitialColor[0],
                     mInitialColor[1], mInitialColor[2],
                     mInitialColor[3] + opacity);
         }
         else
         {
-            mMaterial.setOpacity(mInitialOpacity + opacity);
+            mMaterial.setFloat(mSlot, mInitialOpacity + opacity);
         }
     }
 }
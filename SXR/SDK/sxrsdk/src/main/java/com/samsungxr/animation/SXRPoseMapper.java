@@ -6,7 +6,6 @@ import com.samsungxr.animation.SXRPose;
 import com.samsungxr.animation.SXRSkeleton;
 import com.samsungxr.utility.Log;
 import org.joml.Matrix4f;
-import org.joml.Quaternionf;
 import org.joml.Vector3f;
 
 import java.util.Arrays;
@@ -17,6 +16,10 @@ public class SXRPoseMapper extends SXRAnimation
     protected SXRSkeleton mDestSkeleton;
     protected int[]       mBoneMap;
     protected SXRPose     mDestPose;
+    protected SXRRetargetPlan mPlan;
+    protected boolean     mCorrectBindPose = false;
+    private final Vector3f    mTempVec = new Vector3f();
+    private final Matrix4f    mTempMtx = new Matrix4f();
 
     /**
      * Constructs an animation retargeting engine.
@@ -58,6 +61,73 @@ public class SXRPoseMapper extends SXRAnimation
     public void	setSourceSkeleton(SXRSkeleton source)
     {
         mSourceSkeleton = source;
+        if ((mPlan != null) && ((source == null) || !mPlan.isCompatible(source, mDestSkeleton)))
+        {
+            mPlan = null;
+        }
+    }
+
+    /**
+     * Set the compiled plan used by {@link #mapLocalToTarget()}.
+     * @param plan	retargeting plan, null to compile one from the bone map
+     *
+     * Compile a plan once and share it between all the pose mappers which
+     * retarget between skeletons with the same bone layout, so that the
+     * mapping is not resolved again for each of them.
+     *
+     * @see SXRRetargetPlan
+     */
+    public void setRetargetPlan(SXRRetargetPlan plan)
+    {
+        mPlan = plan;
+    }
+
+    /**
+     * Select whether the plan compiled from the bone map corrects for the
+     * difference between the bind poses of the source and target skeletons.
+     * @param correct   true to rotate each bone by the difference between the
+     *                  bind poses, false to copy the rotations as they are
+     *
+     * Changing the option drops the compiled plan, together with any channels
+     * selected on it. It has no effect on a plan set with
+     * {@link #setRetargetPlan(SXRRetargetPlan)} until that plan is dropped.
+     *
+     * @see SXRRetargetPlan#SXRRetargetPlan(SXRSkeleton, SXRSkeleton, int[], boolean)
+     */
+    public void setCorrectBindPose(boolean correct)
+    {
+        if (correct != mCorrectBindPose)
+        {
+            mCorrectBindPose = correct;
+            mPlan = null;
+        }
+    }
+
+    /**
+     * @returns true if the compiled plan corrects for the bind poses
+     * @see #setCorrectBindPose(boolean)
+     */
+    public boolean isCorrectBindPose()
+    {
+        return mCorrectBindPose;
+    }
+
+    /**
+     * Get the compiled plan used by {@link #mapLocalToTarget()}, compiling
+     * it from the bone map if necessary.
+     * @returns retargeting plan, null if the source skeleton is not set
+     */
+    public SXRRetargetPlan getRetargetPlan()
+    {
+        if ((mPlan == null) && (mSourceSkeleton != null))
+        {
+            if (mBoneMap == null)
+            {
+                mBoneMap = makeBoneMap(mSourceSkeleton, mDestSkeleton);
+            }
+            mPlan = new SXRRetargetPlan(mSourceSkeleton, mDestSkeleton, mBoneMap, mCorrectBindPose);
+        }
+        return mPlan;
     }
 
     /**
@@ -119,6 +189,7 @@ public class SXRPoseMapper extends SXRAnimation
             return;
         }
         mBoneMap = bonemap;
+        mPlan = null;
     }
 
     /**
@@ -144,6 +215,7 @@ public class SXRPoseMapper extends SXRAnimation
         String[] lines = bonemap.split("[\r\n]");
 
         mBoneMap = new int[mSourceSkeleton.getNumBones()];
+        mPlan = null;
         Arrays.fill(mBoneMap, -1);
         for (String line : lines)
         {
@@ -232,7 +304,9 @@ public class SXRPoseMapper extends SXRAnimation
     /**
      * Maps the pose of the source skeleton onto the destination skeleton in local space.
      * <p>
-     * The local bone rotations of matching bones are copied.
+     * The local bone rotations of matching bones are copied, and so are
+     * the local positions of the bones which have a
+     * {@link SXRRetargetPlan#POSITION} channel in the retargeting plan.
      * If the PoseMapper has a bone map, it is used to determine which bones
      * of the source skeleton correspond to which bones in the destination skeleton.
      * This function requires both the source and target skeletons to be set.
@@ -243,31 +317,22 @@ public class SXRPoseMapper extends SXRAnimation
     {
         SXRSkeleton	srcskel = mSourceSkeleton;
         SXRSkeleton	dstskel = mDestSkeleton;
-        Vector3f v = new Vector3f();
+        Vector3f v = mTempVec;
 
         if ((dstskel == null) || (srcskel == null))
         {
             return false;
         }
-        if (mBoneMap == null)
-        {
-            mBoneMap = makeBoneMap(srcskel, dstskel);
-        }
-        SXRPose     srcpose = srcskel.getPose();
-        Quaternionf q = new Quaternionf();
-        int		    numsrcbones = srcskel.getNumBones();
+        SXRRetargetPlan plan = getRetargetPlan();
+
         mDestPose.clearRotations();
         srcskel.getPosition(v);
         dstskel.setPosition(v);
-        for (int i = 0; i < numsrcbones; ++i)
+        plan.apply(srcskel.getPose(), mDestPose);
+        if (plan.hasPositions())
         {
-            int	boneindex = mBoneMap[i];
-
-            if (boneindex >= 0)
-            {
-                srcpose.getLocalRotation(i, q);
-                mDestPose.setLocalRotation(boneindex, q.x, q.y, q.z, q.w);
-            }
+            // applyPose ignores translations, it syncs them in with the rotations
+            plan.applyPositions(srcskel.getPose(), dstskel);
         }
         dstskel.applyPose(mDestPose, SXRSkeleton.ROTATION_ONLY);
         return true;
@@ -277,8 +342,8 @@ public class SXRPoseMapper extends SXRAnimation
     {
         SXRSkeleton	srcskel = mSourceSkeleton;
         SXRSkeleton	dstskel = mDestSkeleton;
-        Vector3f v = new Vector3f();
-        Matrix4f mtx = new Matrix4f();
+        Vector3f v = mTempVec;
+        Matrix4f mtx = mTempMtx;
 
         if ((dstskel == null) || (srcskel == null))
         {
@@ -332,9 +397,9 @@ public class SXRPoseMapper extends SXRAnimation
         }
         SXRPose srcpose = srcskel.getPose();
         SXRPose	dstpose = dstskel.getPose();
-        Vector3f    v = new Vector3f();
+        Vector3f    v = mTempVec;
         int			numsrcbones = srcpose.getNumBones();
-        Matrix4f	mtx = new Matrix4f();
+        Matrix4f	mtx = mTempMtx;
 
         srcpose.sync();
         srcpose.getWorldPosition(0, v);
@@ -378,8 +443,8 @@ public class SXRPoseMapper extends SXRAnimation
         SXRPose     srcpose = srcskel.getPose();
         SXRPose	    dstpose = dstskel.getPose();
         int			numsrcbones = srcpose.getNumBones();
-        Matrix4f	mtx = new Matrix4f();
-        Vector3f    v = new Vector3f();
+        Matrix4f	mtx = mTempMtx;
+        Vector3f    v = mTempVec;
 
         dstpose.sync();
         dstpose.getWorldPosition(0, v);
@@ -18,6 +18,7 @@ package com.samsungxr.animation;
 import com.samsungxr.SXRHybridObject;
 import com.samsungxr.SXRNode;
 import com.samsungxr.SXRTransform;
+import com.samsungxr.SXRTransformBatch;
 
 /** Size animation. */
 public class SXRPositionAnimation extends SXRTransformAnimation
@@ -75,7 +76,18 @@ public class SXRPositionAnimation extends SXRTransformAnimation
     @Override
     protected void animate(SXRHybridObject target, float ratio)
     {
-        mTransform.setPosition(mStartX + ratio * mDeltaX, mStartY + ratio
-                * mDeltaY, mStartZ + ratio * mDeltaZ);
+        final float x = mStartX + ratio * mDeltaX;
+        final float y = mStartY + ratio * mDeltaY;
+        final float z = mStartZ + ratio * mDeltaZ;
+        final SXRTransformBatch batch = getTransformBatch();
+
+        if (batch != null)
+        {
+            batch.setPosition(mTransform, x, y, z);
+        }
+        else
+        {
+            mTransform.setPosition(x, y, z);
+        }
     }
 }
@@ -0,0 +1,244 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.samsungxr.animation;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+/**
+ * A bone mapping between a source and a destination skeleton, compiled
+ * into flat arrays so that a pose can be retargeted without name lookups
+ * or allocations.
+ * <p>
+ * The plan holds one entry for each source bone which maps to a
+ * destination bone, with the channels to copy and, optionally, a rotation
+ * which corrects for the difference between the bind poses of the two
+ * skeletons. It only refers to bones by index, so a single plan can be
+ * shared by all the {@link SXRPoseMapper}s that retarget between skeletons
+ * with the same bone layout, such as many instances of the same avatar.
+ * <p>
+ * {@link #apply(SXRPose, SXRPose)} uses scratch objects held by the plan,
+ * so a plan must only be applied from one thread at a time.
+ * @see SXRPoseMapper#setRetargetPlan(SXRRetargetPlan)
+ */
+public final class SXRRetargetPlan
+{
+    /** Copy the local rotation of the bone */
+    public static final int ROTATION = 1;
+    /** Copy the local position of the bone */
+    public static final int POSITION = 2;
+
+    private final int         mNumSourceBones;
+    private final int         mNumDestBones;
+    private final int         mNumEntries;
+    private final int[]       mSourceBones;
+    private final int[]       mDestBones;
+    private final int[]       mChannels;
+    private final float[]     mCorrections;
+    private int               mNumPositions = 0;
+    private final Quaternionf mTempQuat = new Quaternionf();
+    private final Quaternionf mTempCorrection = new Quaternionf();
+    private final Vector3f    mTempVec = new Vector3f();
+
+    /**
+     * Compile a plan from a bone map.
+     * @param srcskel           source skeleton
+     * @param dstskel           destination skeleton
+     * @param bonemap           index of the destination bone for each source
+     *                          bone, -1 if the source bone is not mapped
+     * @param correctBindPose   true to rotate each bone by the difference
+     *                          between the destination and source bind poses,
+     *                          false to copy the rotations as they are
+     * @see SXRPoseMapper#makeBoneMap(SXRSkeleton, SXRSkeleton)
+     */
+    public SXRRetargetPlan(SXRSkeleton srcskel, SXRSkeleton dstskel, int[] bonemap, boolean correctBindPose)
+    {
+        int numentries = 0;
+
+        mNumSourceBones = srcskel.getNumBones();
+        mNumDestBones = dstskel.getNumBones();
+        for (int i = 0; (i < bonemap.length) && (i < mNumSourceBones); ++i)
+        {
+            if ((bonemap[i] >= 0) && (bonemap[i] < mNumDestBones))
+            {
+                ++numentries;
+            }
+        }
+        mNumEntries = numentries;
+        mSourceBones = new int[numentries];
+        mDestBones = new int[numentries];
+        mChannels = new int[numentries];
+        mCorrections = correctBindPose ? new float[numentries * 4] : null;
+
+        int e = 0;
+        for (int i = 0; (i < bonemap.length) && (i < mNumSourceBones); ++i)
+        {
+            if ((bonemap[i] >= 0) && (bonemap[i] < mNumDestBones))
+            {
+                mSourceBones[e] = i;
+                mDestBones[e] = bonemap[i];
+                mChannels[e] = ROTATION;
+                ++e;
+            }
+        }
+        if (correctBindPose)
+        {
+            computeCorrections(srcskel.getBindPose(), dstskel.getBindPose());
+        }
+    }
+
+    /*
+     * The correction of a bone takes the source bind rotation to the
+     * destination bind rotation: dstbind * inverse(srcbind).
+     */
+    private void computeCorrections(SXRPose srcbind, SXRPose dstbind)
+    {
+        Quaternionf src = new Quaternionf();
+        Quaternionf dst = new Quaternionf();
+
+        for (int e = 0; e < mNumEntries; ++e)
+        {
+            int t = e * 4;
+
+            srcbind.getLocalRotation(mSourceBones[e], src);
+            dstbind.getLocalRotation(mDestBones[e], dst);
+            dst.mul(src.conjugate()).normalize();
+            mCorrections[t] = dst.x;
+            mCorrections[t + 1] = dst.y;
+            mCorrections[t + 2] = dst.z;
+            mCorrections[t + 3] = dst.w;
+        }
+    }
+
+    /**
+     * Determine whether the plan can retarget between two skeletons.
+     * @return true if the skeletons have the bone counts the plan was
+     *         compiled for
+     */
+    public boolean isCompatible(SXRSkeleton srcskel, SXRSkeleton dstskel)
+    {
+        return (srcskel.getNumBones() == mNumSourceBones) &&
+               (dstskel.getNumBones() == mNumDestBones);
+    }
+
+    /**
+     * @return number of mapped bones
+     */
+    public int getNumEntries() { return mNumEntries; }
+
+    /**
+     * @return index of the source bone of an entry
+     */
+    public int getSourceBone(int entry) { return mSourceBones[entry]; }
+
+    /**
+     * @return index of the destination bone of an entry
+     */
+    public int getDestBone(int entry) { return mDestBones[entry]; }
+
+    /**
+     * Select the channels copied to a destination bone.
+     * By default only the rotation is copied.
+     * @param destbone  index of the destination bone
+     * @param channels  {@link #ROTATION} and/or {@link #POSITION}, 0 to
+     *                  leave the bone alone
+     */
+    public void setChannels(int destbone, int channels)
+    {
+        for (int e = 0; e < mNumEntries; ++e)
+        {
+            if (mDestBones[e] == destbone)
+            {
+                if ((mChannels[e] & POSITION) != 0)
+                {
+                    --mNumPositions;
+                }
+                if ((channels & POSITION) != 0)
+                {
+                    ++mNumPositions;
+                }
+                mChannels[e] = channels;
+            }
+        }
+    }
+
+    /**
+     * @return true if any bone copies its {@link #POSITION} channel
+     */
+    public boolean hasPositions() { return mNumPositions > 0; }
+
+    /**
+     * Copy the local positions of the bones which have a {@link #POSITION}
+     * channel straight onto the current pose of the destination skeleton.
+     * Locked bones are left alone.
+     * @param srcpose   pose of the source skeleton
+     * @param dstskel   destination skeleton
+     * @see SXRSkeleton#applyPose(SXRPose, int)
+     */
+    public void applyPositions(SXRPose srcpose, SXRSkeleton dstskel)
+    {
+        final SXRPose  dstpose = dstskel.getPose();
+        final Vector3f v = mTempVec;
+
+        for (int e = 0; (e < mNumEntries) && (mNumPositions > 0); ++e)
+        {
+            int bone = mDestBones[e];
+
+            if (((mChannels[e] & POSITION) != 0) && !dstskel.isLocked(bone))
+            {
+                srcpose.getLocalPosition(mSourceBones[e], v);
+                dstpose.setLocalPosition(bone, v.x, v.y, v.z);
+            }
+        }
+    }
+
+    /**
+     * Copy the mapped channels of each source bone onto its destination
+     * bone, in local space.
+     * @param srcpose   pose of the source skeleton
+     * @param dstpose   pose of the destination skeleton to update
+     */
+    public void apply(SXRPose srcpose, SXRPose dstpose)
+    {
+        final int[]       srcbones = mSourceBones;
+        final int[]       dstbones = mDestBones;
+        final int[]       channels = mChannels;
+        final float[]     corrections = mCorrections;
+        final Quaternionf q = mTempQuat;
+        final Vector3f    v = mTempVec;
+
+        for (int e = 0; e < mNumEntries; ++e)
+        {
+            int flags = channels[e];
+
+            if ((flags & ROTATION) != 0)
+            {
+                srcpose.getLocalRotation(srcbones[e], q);
+                if (corrections != null)
+                {
+                    int t = e * 4;
+                    mTempCorrection.set(corrections[t], corrections[t + 1],
+                                        corrections[t + 2], corrections[t + 3]).mul(q, q);
+                }
+                dstpose.setLocalRotation(dstbones[e], q.x, q.y, q.z, q.w);
+            }
+            if ((flags & POSITION) != 0)
+            {
+                srcpose.getLocalPosition(srcbones[e], v);
+                dstpose.setLocalPosition(dstbones[e], v.x, v.y, v.z);
+            }
+        }
+    }
+}
@@ -18,6 +18,7 @@ package com.samsungxr.animation;
 import com.samsungxr.SXRHybridObject;
 import com.samsungxr.SXRNode;
 import com.samsungxr.SXRTransform;
+import com.samsungxr.SXRTransformBatch;
 
 /** Size animation. */
 public class SXRScaleAnimation extends SXRTransformAnimation
@@ -125,7 +126,18 @@ public class SXRScaleAnimation extends SXRTransformAnimation
     @Override
     protected void animate(SXRHybridObject target, float ratio)
     {
-        mTransform.setScale(mStartX + ratio * mDeltaX, mStartY + ratio
-                * mDeltaY, mStartZ + ratio * mDeltaZ);
+        final float x = mStartX + ratio * mDeltaX;
+        final float y = mStartY + ratio * mDeltaY;
+        final float z = mStartZ + ratio * mDeltaZ;
+        final SXRTransformBatch batch = getTransformBatch();
+
+        if (batch != null)
+        {
+            batch.setScale(mTransform, x, y, z);
+        }
+        else
+        {
+            mTransform.setScale(x, y, z);
+        }
     }
 }
@@ -18,6 +18,7 @@ package com.samsungxr.animation;
 
 import com.samsungxr.SXRHybridObject;
 import com.samsungxr.SXRTransform;
+import com.samsungxr.SXRTransformBatch;
 import com.samsungxr.PrettyPrint;
 import com.samsungxr.utility.Log;
 import org.joml.Matrix4f;
@@ -47,9 +48,7 @@ public class SXRTransformAnimation extends SXRAnimation implements PrettyPrint
     {
         super(target, duration);
         mTempMtx = target.getLocalModelMatrix4f();
-        mScale.set(target.getScaleX(), target.getScaleY(), target.getScaleZ());
-        mPosition.set(target.getPositionX(), target.getPositionY(), target.getPositionZ());
-        mRotation.set(target.getRotationX(), target.getRotationY(), target.getRotationZ(), target.getRotationW());
+        target.get(mPosition, mRotation, mScale);
         mTransform = target;
     }
 
@@ -92,8 +91,17 @@ public class SXRTransformAnimation extends SXRAnimation implements PrettyPrint
 
     public void animate(float timeInSec)
     {
+        final SXRTransformBatch batch = getTransformBatch();
+
         mTempMtx.translationRotateScale(mPosition, mRotation, mScale);
-        mTransform.setModelMatrix(mTempMtx);
+        if (batch != null)
+        {
+            batch.set(mTransform, mPosition, mRotation, mScale);
+        }
+        else
+        {
+            mTransform.setModelMatrix(mTempMtx);
+        }
     }
 
     @Override
@@ -40,6 +40,7 @@ import com.samsungxr.SXRHybridObject;
 import com.samsungxr.SXRImage;
 import com.samsungxr.SXRMesh;
 import com.samsungxr.SXRTexture;
+import com.samsungxr.debug.SXRLatencyHistogram;
 import com.samsungxr.utility.Log;
 import com.samsungxr.utility.ResourceCache;
 import com.samsungxr.utility.Threads;
@@ -72,6 +73,22 @@ public class SXRAsynchronousResourceLoader {
         AsyncBitmapTexture.setup(gvrContext);
     }
 
+    /**
+     * Get the number of asynchronous resource loads that have not completed
+     * yet. Requests for the same resource are counted once.
+     */
+    public static int getPendingRequestCount() {
+        return Throttler.get().getPendingRequestCount();
+    }
+
+    /**
+     * Get the distribution of the time spent loading each resource on the
+     * background threads, in nanoseconds.
+     */
+    public static SXRLatencyHistogram getLoadLatency() {
+        return Throttler.sLoadTime;
+    }
+
     /**
      * Load a compressed texture asynchronously.
      * 
@@ -31,6 +31,7 @@ import com.samsungxr.SXRAndroidResource.CancelableCallback;
 import com.samsungxr.SXRContext;
 import com.samsungxr.SXRHybridObject;
 import com.samsungxr.SXRMesh;
+import com.samsungxr.debug.SXRLatencyHistogram;
 import com.samsungxr.utility.Exceptions;
 import com.samsungxr.utility.Log;
 import com.samsungxr.utility.RuntimeAssertion;
@@ -101,6 +102,18 @@ class Throttler implements Scheduler {
     private Throttler() {
     }
 
+    /**
+     * @return number of resources being loaded or waiting for a load thread
+     */
+    int getPendingRequestCount() {
+        return requests.pendingRequests.size();
+    }
+
+    /**
+     * Time spent loading and converting each resource on a background thread
+     */
+    static final SXRLatencyHistogram sLoadTime = new SXRLatencyHistogram("asyncLoad");
+
     /*
      * Extension points
      */
@@ -179,6 +192,7 @@ class Throttler implements Scheduler {
 
         @Override
         public void run() {
+            final long startTime = System.nanoTime();
             INTERMEDIATE async = null;
             try {
                 async = loadResource(); // load resource, on background thread
@@ -202,6 +216,7 @@ class Throttler implements Scheduler {
                     // loadResource() returned null
                     callback.failed(new Throwable("Not able to load resource"), resource);
                 }
+                sLoadTime.record(System.nanoTime() - startTime);
             }
         }
 
@@ -0,0 +1,121 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.debug;
+
+import android.os.Build;
+import android.os.Debug;
+import android.os.SystemClock;
+
+import com.samsungxr.SXRContext;
+import com.samsungxr.asynchronous.SXRAsynchronousResourceLoader;
+
+import java.util.Locale;
+
+/**
+ * A snapshot of runtime statistics, as served by the metrics endpoint of the
+ * {@link DebugServer}.
+ * <p>
+ * The snapshot can be formatted as a single line of {@code key=value} pairs
+ * for the line protocol, or as one {@code name value} pair per line for
+ * HTTP scrapers. Values the platform does not report are -1.
+ */
+public final class DebugMetrics {
+    /** Milliseconds since boot when the snapshot was taken */
+    public final long timestamp;
+    /** Duration of the last frame, in milliseconds */
+    public final float frameTime;
+    /** Number of callbacks waiting to run on the GL thread */
+    public final int glQueueDepth;
+    /** Number of asynchronous resource loads that have not completed */
+    public final int assetQueueDepth;
+    /** Number of garbage collections since the process started */
+    public final long gcCount;
+    /** Number of garbage collections that blocked the calling thread */
+    public final long gcBlockingCount;
+    /** Time spent in garbage collection, in milliseconds */
+    public final long gcTime;
+    /** Java heap in use, in bytes */
+    public final long heapUsed;
+    /** Native heap in use, in bytes */
+    public final long nativeHeapUsed;
+
+    private DebugMetrics(SXRContext gvrContext) {
+        final Runtime runtime = Runtime.getRuntime();
+
+        timestamp = SystemClock.uptimeMillis();
+        frameTime = gvrContext.getFrameTime() * 1000.0f;
+        glQueueDepth = gvrContext.getGlQueueDepth();
+        assetQueueDepth = SXRAsynchronousResourceLoader.getPendingRequestCount();
+        gcCount = getRuntimeStat("art.gc.gc-count");
+        gcBlockingCount = getRuntimeStat("art.gc.blocking-gc-count");
+        gcTime = getRuntimeStat("art.gc.gc-time");
+        heapUsed = runtime.totalMemory() - runtime.freeMemory();
+        nativeHeapUsed = Debug.getNativeHeapAllocatedSize();
+    }
+
+    /**
+     * Take a snapshot.
+     * @param gvrContext context to read the frame statistics from
+     */
+    public static DebugMetrics collect(SXRContext gvrContext) {
+        return new DebugMetrics(gvrContext);
+    }
+
+    private static long getRuntimeStat(String name) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
+            return -1;
+        }
+        try {
+            final String value = Debug.getRuntimeStat(name);
+            return value != null ? Long.parseLong(value) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return the snapshot as one line of {@code key=value} pairs, without a
+     *         line terminator
+     */
+    public String toLine() {
+        return String.format(Locale.US,
+                "time=%d frame_ms=%.2f gl_queue=%d asset_queue=%d gc_count=%d gc_blocking=%d gc_ms=%d heap=%d native_heap=%d",
+                timestamp, frameTime, glQueueDepth, assetQueueDepth, gcCount, gcBlockingCount,
+                gcTime, heapUsed, nativeHeapUsed);
+    }
+
+    /**
+     * @return the snapshot as one {@code name value} pair per line
+     */
+    public String toText() {
+        return String.format(Locale.US,
+                "sxr_frame_time_ms %.2f\n"
+                + "sxr_gl_queue_depth %d\n"
+                + "sxr_asset_queue_depth %d\n"
+                + "sxr_gc_count %d\n"
+                + "sxr_gc_blocking_count %d\n"
+                + "sxr_gc_time_ms %d\n"
+                + "sxr_heap_used_bytes %d\n"
+                + "sxr_native_heap_used_bytes %d\n",
+                frameTime, glQueueDepth, assetQueueDepth, gcCount, gcBlockingCount,
+                gcTime, heapUsed, nativeHeapUsed);
+    }
+
+    @Override
+    public String toString() {
+        return toLine();
+    }
+}
@@ -16,24 +16,38 @@
 package com.samsungxr.debug;
 import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.PrintStream;
-import java.net.ServerSocket;
-import java.net.Socket;
-import java.net.SocketException;
-import java.util.concurrent.Callable;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 import com.samsungxr.SXRContext;
 import com.samsungxr.debug.cli.Shell;
+import com.samsungxr.debug.cli.util.Strings;
 
+import android.os.SystemClock;
 import android.util.Log;
 
 /**
  * Debug server provides a command line interface (CLI) for SXRf
- * framework. <p>
+ * framework, and a metrics endpoint for tools. <p>
  *
  * The commands are defined in {@link ShellCommandHandler}. For example,
  * you can use the command 'lua' to enter lua mode, and the command 'js'
@@ -41,82 +55,69 @@ import android.util.Log;
  * SXRContext object using the variable 'gvrf'. Type 'exit' to exit from
  * the script shell, or the top-level shell. <p>
  *
- * To connect to the debug server, you can use telnet from Linux, or
- * putty from Windows. If Windows environment, you would need to configure
- * the terminal to add a CR (\r) for each LF (\n) for proper display.
+ * To connect to the shell, you can use telnet from Linux, or putty from
+ * Windows. The shell is line based: the terminal does the line editing. <p>
+ *
+ * The metrics endpoint listens on its own port ({@code port + 1} by
+ * default) and serves {@link DebugMetrics} snapshots. An HTTP
+ * {@code GET /metrics} gets one snapshot as plain text. Otherwise the
+ * endpoint takes line commands: {@code get} for one snapshot on one line,
+ * {@code stream [ms]} to get a line periodically (every second by default),
+ * {@code stop} and {@code quit}. <p>
+ *
+ * All sockets are served by a single I/O thread. Each shell runs its
+ * commands on its own worker thread, so a long command does not stall the
+ * other connections.
  */
 public class DebugServer implements Runnable {
     public static final int DEFAULT_DEBUG_PORT = 1645;
     public static final int NUM_CLIENTS = 2;
+    /**
+     * @deprecated Shells are line based; the telnet line editing is gone and
+     * this flag is ignored.
+     */
+    @Deprecated
     public static final boolean SIMULATE_TELNET = true;
+    /**
+     * Maximum number of concurrent metrics clients
+     */
+    public static final int MAX_METRICS_CLIENTS = 128;
 
+    private static final String TAG = "DebugServer";
     private static final String PROMPT = "gvrf";
     private static final String APP_NAME = "GearVR Framework";
+    private static final String PROMPT_SUFFIX = "> ";
+    private static final Charset UTF8 = Charset.forName("UTF-8");
 
-    // Need a way to stop the program...
-    private boolean shuttingDown;
-    private ServerSocket serverSocket;
-    private DebugConnection debugConnection;
+    private static final int BACKLOG = 128;
+    private static final int READ_BUFFER_SIZE = 4096;
+    private static final int MAX_LINE_LENGTH = 4096;
+    private static final int MAX_PENDING_OUTPUT = 1 << 20;
+    private static final long DEFAULT_STREAM_INTERVAL = 1000;
+    private static final long MIN_STREAM_INTERVAL = 50;
 
-    private SXRContext gvrContext;
-    int port;
-    int maxClients;
+    // telnet commands, skipped on input
+    private static final int IAC = 255;
+    private static final int SB = 250;
+    private static final int SE = 240;
+    private static final int WILL = 251;
+    private static final int DONT = 254;
 
-    class DebugConnection implements Callable<Object> {
-        private Socket socket;
-        private PrintStream errorLog = null;
-        
-        public DebugConnection(Socket socket) {
-            this.socket = socket;
-        }
+    private volatile boolean shuttingDown;
+    private volatile Selector selector;
 
-        @Override
-        public Object call() throws Exception {
-            // Hand over to shell
-            Shell shell = null;
-
-            if (SIMULATE_TELNET) {
-                // Supporting editing and history
-                shell = SXRConsoleFactory.createTelnetConsoleShell(PROMPT, APP_NAME,
-                        new ShellCommandHandler(gvrContext),
-                        socket.getInputStream(), socket.getOutputStream());
-            } else {
-                // Simple console
-                PrintStream out = new PrintStream(socket.getOutputStream());
-                errorLog = out;
-                shell = SXRConsoleFactory.createConsoleShell(PROMPT, APP_NAME,
-                        new ShellCommandHandler(gvrContext),
-                        new BufferedReader(new InputStreamReader(socket.getInputStream())),
-                        out, out, null);
-            }
+    private final SXRContext gvrContext;
+    int port;
+    int metricsPort;
+    int maxClients;
 
-            shell.commandLoop();
-            errorLog = null;
-            socket.close();
-            this.socket = null;
-            return null;
-        }
-        
-        public void logError(String message)
-        {
-            try
-            {
-                if ((errorLog == null) && (this.socket != null))
-                {
-                    errorLog = new PrintStream(socket.getOutputStream());
-                }                
-            }
-            catch (IOException ex)
-            {
-                ex.printStackTrace();
-            }
-            if (errorLog != null)
-            {
-                errorLog.print(message);
-            }
-            Log.e("SCRIPT", "ERROR: " + message);
-        }
-    }
+    private final Queue<Runnable> mTasks = new ConcurrentLinkedQueue<Runnable>();
+    private final List<ShellConnection> mShells = new ArrayList<ShellConnection>();
+    private final List<MetricsConnection> mMetricsClients = new ArrayList<MetricsConnection>();
+    private final ByteBuffer mReadBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    // the lists belong to the I/O thread, the counts can be read from any thread
+    private volatile int mShellCount;
+    private volatile int mMetricsClientCount;
 
     /**
      * Constructor.
@@ -138,33 +139,46 @@ public class DebugServer implements Runnable {
     }
 
     /**
-     * Constructor.
+     * Constructor. The metrics endpoint listens on {@code port + 1}.
      *
      * @param gvrContext
      *     The {@link SXRContext} object.
      * @param port
      *     The port to override the default port 1645.
      * @param maxClients
-     *     Maximum number of clients.
+     *     Maximum number of shell clients.
      */
     public DebugServer(SXRContext gvrContext, int port, int maxClients) {
+        this(gvrContext, port, maxClients, port + 1);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param gvrContext
+     *     The {@link SXRContext} object.
+     * @param port
+     *     The port of the shell.
+     * @param maxClients
+     *     Maximum number of shell clients.
+     * @param metricsPort
+     *     The port of the metrics endpoint, 0 to disable it.
+     */
+    public DebugServer(SXRContext gvrContext, int port, int maxClients, int metricsPort) {
         this.gvrContext = gvrContext;
         this.port = port;
         this.maxClients = maxClients;
+        this.metricsPort = metricsPort;
     }
 
     /**
-     * Shuts down the server. Active connections are not affected.
+     * Shuts down the server and closes all connections.
      */
     public void shutdown() {
-        debugConnection = null;
         shuttingDown = true;
-        try {
-            if (serverSocket != null) {
-                serverSocket.close();
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+        final Selector s = selector;
+        if (s != null) {
+            s.wakeup();
         }
     }
 
@@ -173,36 +187,572 @@ public class DebugServer implements Runnable {
      */
     @Override
     public void run() {
-        ExecutorService executorService = Executors.newFixedThreadPool(maxClients);
+        ServerSocketChannel shellServer = null;
+        ServerSocketChannel metricsServer = null;
         try {
-            serverSocket = new ServerSocket(port, maxClients);
+            selector = Selector.open();
+            shellServer = listen(port, ShellConnection.class);
+            if (metricsPort > 0) {
+                metricsServer = listen(metricsPort, MetricsConnection.class);
+            }
+
             while (!shuttingDown) {
-                try {
-                    Socket socket = serverSocket.accept();
-                    debugConnection = new DebugConnection(socket);
-                    executorService.submit(debugConnection);
-                } catch (SocketException e) {
-                    // closed
-                    debugConnection = null;
+                final long timeout = streamMetrics();
+                selector.select(timeout);
+                runTasks();
+
+                final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    final SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept(key);
+                        continue;
+                    }
+                    final Connection connection = (Connection) key.attachment();
+                    if (key.isReadable()) {
+                        connection.read();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        connection.write();
+                    }
                 }
             }
         } catch (IOException e) {
-            e.printStackTrace();
+            Log.e(TAG, "debug server failed", e);
         } finally {
+            for (Connection c : new ArrayList<Connection>(mShells)) {
+                c.close();
+            }
+            for (Connection c : new ArrayList<Connection>(mMetricsClients)) {
+                c.close();
+            }
+            closeQuietly(shellServer);
+            closeQuietly(metricsServer);
             try {
-                debugConnection = null;
-                serverSocket.close();
-            } catch (Exception e) {
+                if (selector != null) {
+                    selector.close();
+                }
+            } catch (IOException e) {
             }
-            executorService.shutdownNow();
         }
     }
-    
-    public void logError(String message)
+
+    /**
+     * Print a message on all the shells.
+     */
+    public void logError(final String message)
     {
-        if (debugConnection != null)
-        {
-            debugConnection.logError(message);
+        post(new Runnable() {
+            @Override
+            public void run() {
+                for (ShellConnection shell : mShells) {
+                    shell.send(toTerminal(message));
+                }
+            }
+        });
+        Log.e("SCRIPT", "ERROR: " + message);
+    }
+
+    /**
+     * @return number of connected shell clients
+     */
+    public int getClientCount() {
+        return mShellCount;
+    }
+
+    /**
+     * @return number of connected metrics clients
+     */
+    public int getMetricsClientCount() {
+        return mMetricsClientCount;
+    }
+
+    private ServerSocketChannel listen(int port, Class<? extends Connection> type) throws IOException {
+        final ServerSocketChannel server = ServerSocketChannel.open();
+        server.configureBlocking(false);
+        server.socket().setReuseAddress(true);
+        server.socket().bind(new InetSocketAddress(port), BACKLOG);
+        server.register(selector, SelectionKey.OP_ACCEPT, type);
+        return server;
+    }
+
+    private void accept(SelectionKey key) throws IOException {
+        final SocketChannel channel = ((ServerSocketChannel) key.channel()).accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+
+        if (key.attachment() == ShellConnection.class) {
+            if (mShells.size() >= maxClients) {
+                reject(channel);
+            } else {
+                mShells.add(new ShellConnection(channel));
+                mShellCount = mShells.size();
+            }
+        } else {
+            if (mMetricsClients.size() >= MAX_METRICS_CLIENTS) {
+                reject(channel);
+            } else {
+                mMetricsClients.add(new MetricsConnection(channel));
+                mMetricsClientCount = mMetricsClients.size();
+            }
+        }
+    }
+
+    private static void reject(SocketChannel channel) {
+        try {
+            channel.write(ByteBuffer.wrap("Too many clients\r\n".getBytes(UTF8)));
+        } catch (IOException e) {
+        }
+        closeQuietly(channel);
+    }
+
+    private void post(Runnable task) {
+        mTasks.add(task);
+        final Selector s = selector;
+        if (s != null) {
+            s.wakeup();
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = mTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    /*
+     * Send the metrics line to the streaming clients that are due.
+     * Returns the time until the next one is due, 0 if none is streaming.
+     */
+    private long streamMetrics() {
+        final long now = SystemClock.uptimeMillis();
+        long next = Long.MAX_VALUE;
+        String line = null;
+
+        for (int i = mMetricsClients.size() - 1; i >= 0; --i) {
+            final MetricsConnection client = mMetricsClients.get(i);
+            if (client.interval <= 0) {
+                continue;
+            }
+            if (now >= client.nextDue) {
+                if (line == null) {
+                    line = DebugMetrics.collect(gvrContext).toLine() + "\r\n";
+                }
+                client.nextDue += client.interval;
+                if (client.nextDue <= now) {
+                    client.nextDue = now + client.interval;
+                }
+                client.send(line);
+            }
+            if (client.interval > 0) {
+                next = Math.min(next, client.nextDue - now);
+            }
+        }
+        return next == Long.MAX_VALUE ? 0 : Math.max(next, 1);
+    }
+
+    private static String toTerminal(String text) {
+        return text.replace("\r\n", "\n").replace("\n", "\r\n") + "\r\n";
+    }
+
+    private static void closeQuietly(java.io.Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+            }
+        }
+    }
+
+    /**
+     * A client socket. Splits the input in lines, skipping telnet commands,
+     * and queues the output until the socket can take it. Only used on the
+     * I/O thread.
+     */
+    private abstract class Connection {
+        protected final SocketChannel channel;
+        private final SelectionKey key;
+        private final Queue<ByteBuffer> output = new ArrayDeque<ByteBuffer>();
+        private int pendingBytes;
+        private byte[] line = new byte[128];
+        private int lineLength;
+        private int telnetState;
+        private boolean closeAfterFlush;
+        protected boolean closed;
+
+        Connection(SocketChannel channel) throws ClosedChannelException {
+            this.channel = channel;
+            this.key = channel.register(selector, SelectionKey.OP_READ, this);
+        }
+
+        abstract void onLine(String line);
+
+        abstract void onClose();
+
+        void read() {
+            final ByteBuffer buffer = mReadBuffer;
+            buffer.clear();
+            final int count;
+            try {
+                count = channel.read(buffer);
+            } catch (IOException e) {
+                close();
+                return;
+            }
+            if (count < 0) {
+                close();
+                return;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining() && !closed) {
+                feed(buffer.get() & 0xFF);
+            }
+        }
+
+        private void feed(int b) {
+            switch (telnetState) {
+                case 1: // after IAC
+                    if (b == IAC) {
+                        append(b);
+                        telnetState = 0;
+                    } else if (b >= WILL && b <= DONT) {
+                        telnetState = 2;
+                    } else if (b == SB) {
+                        telnetState = 3;
+                    } else {
+                        telnetState = 0;
+                    }
+                    return;
+                case 2: // option of WILL/WONT/DO/DONT
+                    telnetState = 0;
+                    return;
+                case 3: // subnegotiation
+                    if (b == IAC) {
+                        telnetState = 4;
+                    }
+                    return;
+                case 4:
+                    telnetState = (b == SE) ? 0 : 3;
+                    return;
+                default:
+                    break;
+            }
+
+            if (b == IAC) {
+                telnetState = 1;
+            } else if (b == '\n') {
+                int length = lineLength;
+                if (length > 0 && line[length - 1] == '\r') {
+                    --length;
+                }
+                lineLength = 0;
+                onLine(new String(line, 0, length, UTF8));
+            } else if (b != 0) {
+                append(b);
+            }
+        }
+
+        private void append(int b) {
+            if (lineLength == line.length) {
+                if (lineLength >= MAX_LINE_LENGTH) {
+                    Log.w(TAG, "line too long, closing connection");
+                    close();
+                    return;
+                }
+                line = Arrays.copyOf(line, line.length * 2);
+            }
+            line[lineLength++] = (byte) b;
+        }
+
+        void send(String text) {
+            send(text.getBytes(UTF8));
+        }
+
+        void send(byte[] bytes) {
+            if (closed || bytes.length == 0) {
+                return;
+            }
+            output.add(ByteBuffer.wrap(bytes));
+            pendingBytes += bytes.length;
+            if (pendingBytes > MAX_PENDING_OUTPUT) {
+                Log.w(TAG, "client is not reading, closing connection");
+                close();
+                return;
+            }
+            write();
+        }
+
+        void write() {
+            try {
+                while (!output.isEmpty()) {
+                    final ByteBuffer buffer = output.peek();
+                    channel.write(buffer);
+                    if (buffer.hasRemaining()) {
+                        break;
+                    }
+                    pendingBytes -= buffer.limit();
+                    output.poll();
+                }
+            } catch (IOException e) {
+                close();
+                return;
+            }
+            if (output.isEmpty()) {
+                if (closeAfterFlush) {
+                    close();
+                } else {
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+            } else {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+
+        /**
+         * Close once all the output has been sent.
+         */
+        void finish() {
+            closeAfterFlush = true;
+            if (output.isEmpty()) {
+                close();
+            }
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            key.cancel();
+            closeQuietly(channel);
+            output.clear();
+            onClose();
+        }
+    }
+
+    /**
+     * An interactive shell. Commands are queued and run one at a time on the
+     * command thread of the shell; their output is sent back through the I/O
+     * thread.
+     */
+    private final class ShellConnection extends Connection {
+        private final ExecutorService executor = Executors.newSingleThreadExecutor();
+        private final ShellOutput shellOutput = new ShellOutput();
+        private final Queue<String> commands = new ArrayDeque<String>();
+        private final Shell shell;
+        private boolean busy;
+
+        ShellConnection(SocketChannel channel) throws ClosedChannelException {
+            super(channel);
+            final PrintStream out = new PrintStream(shellOutput, true);
+            shell = SXRConsoleFactory.createConsoleShell(PROMPT, APP_NAME,
+                    new ShellCommandHandler(gvrContext),
+                    new BufferedReader(new StringReader("")), out, out, null);
+            execute(new Runnable() {
+                @Override
+                public void run() {
+                    shell.enterLoop();
+                }
+            }, true);
+        }
+
+        @Override
+        void onLine(String line) {
+            commands.add(line);
+            if (!busy) {
+                runNext();
+            }
+        }
+
+        private void runNext() {
+            final String command = commands.poll();
+            if (command == null) {
+                return;
+            }
+            execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (!shell.runCommand(command)) {
+                        shell.leaveLoop();
+                        throw new ExitShell();
+                    }
+                }
+            }, true);
+        }
+
+        /*
+         * Run a task on the command thread, then send its output (and the
+         * prompt) and go on with the next command on the I/O thread.
+         */
+        private void execute(final Runnable task, final boolean prompt) {
+            busy = true;
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        boolean exit = false;
+                        try {
+                            task.run();
+                        } catch (ExitShell e) {
+                            exit = true;
+                        } catch (RuntimeException e) {
+                            Log.e(TAG, "shell command failed", e);
+                        }
+                        final byte[] bytes = shellOutput.drain();
+                        final String promptText = (prompt && !exit)
+                                ? Strings.joinStrings(shell.getPath(), false, '/') + PROMPT_SUFFIX
+                                : null;
+                        final boolean exited = exit;
+                        post(new Runnable() {
+                            @Override
+                            public void run() {
+                                send(bytes);
+                                if (exited) {
+                                    finish();
+                                    return;
+                                }
+                                if (promptText != null) {
+                                    send(promptText);
+                                }
+                                busy = false;
+                                runNext();
+                            }
+                        });
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                close();
+            }
+        }
+
+        @Override
+        void onClose() {
+            mShells.remove(this);
+            mShellCount = mShells.size();
+            commands.clear();
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class ExitShell extends RuntimeException {
+    }
+
+    /**
+     * Collects the output of a shell, converting line ends for terminals.
+     */
+    private static final class ShellOutput extends OutputStream {
+        private byte[] bytes = new byte[256];
+        private int count;
+        private int last;
+
+        @Override
+        public synchronized void write(int b) {
+            if (b == '\n' && last != '\r') {
+                append('\r');
+            }
+            append(b);
+            last = b;
+        }
+
+        private void append(int b) {
+            if (count == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            bytes[count++] = (byte) b;
+        }
+
+        synchronized byte[] drain() {
+            final byte[] result = Arrays.copyOf(bytes, count);
+            count = 0;
+            return result;
+        }
+    }
+
+    /**
+     * A client of the metrics endpoint, speaking either HTTP or the line
+     * protocol.
+     */
+    private final class MetricsConnection extends Connection {
+        long interval;
+        long nextDue;
+        private String httpPath;
+
+        MetricsConnection(SocketChannel channel) throws ClosedChannelException {
+            super(channel);
+        }
+
+        @Override
+        void onLine(String line) {
+            if (httpPath != null) {
+                if (line.isEmpty()) {
+                    respondHttp();
+                }
+                return;
+            }
+
+            final String[] args = line.trim().split("\\s+");
+            final String command = args[0];
+            if (command.equals("GET") && args.length >= 2) {
+                // HTTP request; answer once the headers are in
+                httpPath = args[1];
+            } else if (command.equals("get")) {
+                send(DebugMetrics.collect(gvrContext).toLine() + "\r\n");
+            } else if (command.equals("stream")) {
+                long ms = DEFAULT_STREAM_INTERVAL;
+                if (args.length > 1) {
+                    try {
+                        ms = Long.parseLong(args[1]);
+                    } catch (NumberFormatException e) {
+                        send("error: invalid interval '" + args[1] + "'\r\n");
+                        return;
+                    }
+                }
+                interval = Math.max(ms, MIN_STREAM_INTERVAL);
+                nextDue = SystemClock.uptimeMillis();
+                // wake the selector up so the new deadline is taken into account
+                selector.wakeup();
+            } else if (command.equals("stop")) {
+                interval = 0;
+            } else if (command.equals("quit") || command.equals("exit")) {
+                finish();
+            } else if (command.equals("help")) {
+                send("get | stream [ms] | stop | quit\r\n");
+            } else if (!command.isEmpty()) {
+                send("error: unknown command '" + command + "'\r\n");
+            }
+        }
+
+        private void respondHttp() {
+            final String status;
+            final String body;
+            if (httpPath.equals("/metrics") || httpPath.equals("/")) {
+                status = "200 OK";
+                body = DebugMetrics.collect(gvrContext).toText();
+            } else {
+                status = "404 Not Found";
+                body = "not found\n";
+            }
+            final byte[] bodyBytes = body.getBytes(UTF8);
+            send("HTTP/1.0 " + status + "\r\n"
+                    + "Content-Type: text/plain; charset=utf-8\r\n"
+                    + "Content-Length: " + bodyBytes.length + "\r\n"
+                    + "Connection: close\r\n\r\n");
+            send(bodyBytes);
+            finish();
+        }
+
+        @Override
+        void onClose() {
+            mMetricsClients.remove(this);
+            mMetricsClientCount = mMetricsClients.size();
         }
     }
-}
\ No newline at end of file
+}
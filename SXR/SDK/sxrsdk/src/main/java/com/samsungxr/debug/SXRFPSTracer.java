@@ -15,19 +15,24 @@
 
 package com.samsungxr.debug;
 
-import java.util.LinkedList;
-import java.util.List;
-import java.util.ListIterator;
+import java.util.Arrays;
 
 import com.samsungxr.SXRTime;
 
 /**
  * FPS tracer with smoothing. It accumulates frames in latest T seconds, and compute the frames per second in this
- * time window.
+ * time window. The time between frames is also recorded in a {@link SXRLatencyHistogram}, which shows the long
+ * frames the average hides.
  */
 public class SXRFPSTracer {
     protected SXRStatsLine.SXRStandardColumn<Float> mStatColumn;
-    protected List<Long> mTimestamps;
+    protected SXRStatsLine.SXRHistogramColumn mFrameTimeColumn;
+
+    // ring buffer of the frame times within the window, in milliseconds
+    private long[] mTimestamps = new long[256];
+    private int mFirst;
+    private int mSize;
+    private long mLastTickNanos = -1;
 
     private static int BUFFER_SECONDS = 3;
 
@@ -37,7 +42,7 @@ public class SXRFPSTracer {
      */
     public SXRFPSTracer(String name) {
         mStatColumn = new SXRStatsLine.SXRStandardColumn<Float>(name);
-        mTimestamps = new LinkedList<Long>();
+        mFrameTimeColumn = new SXRStatsLine.SXRHistogramColumn(name + "FrameTime");
     }
 
     /**
@@ -48,23 +53,47 @@ public class SXRFPSTracer {
         return mStatColumn;
     }
 
+    /**
+     * Gets the column with the distribution of the time between frames.
+     * @return the column object.
+     */
+    public SXRStatsLine.SXRHistogramColumn getFrameTimeColumn() {
+        return mFrameTimeColumn;
+    }
+
+    /**
+     * Gets the histogram of the time between frames, in nanoseconds.
+     * @return the histogram.
+     */
+    public SXRLatencyHistogram getFrameTimeHistogram() {
+        return mFrameTimeColumn.getHistogram();
+    }
+
     /**
      * Should be called each frame.
      */
     public synchronized void tick() {
+        long currentNanos = SXRTime.getNanoTime();
+        if (mLastTickNanos >= 0) {
+            mFrameTimeColumn.getHistogram().record(currentNanos - mLastTickNanos);
+        }
+        mLastTickNanos = currentNanos;
+
         long currentTime = SXRTime.getMilliTime();
         long cutoffTime = currentTime - BUFFER_SECONDS * 1000;
-        ListIterator<Long> it = mTimestamps.listIterator();
-        while (it.hasNext()) {
-            Long timestamp = it.next();
-            if (timestamp < cutoffTime) {
-                it.remove();
-            } else {
-                break;
-            }
+        while (mSize > 0 && mTimestamps[mFirst] < cutoffTime) {
+            mFirst = (mFirst + 1) % mTimestamps.length;
+            --mSize;
         }
 
-        mTimestamps.add(currentTime);
-        mStatColumn.addValue(((float)mTimestamps.size()) / BUFFER_SECONDS);
+        if (mSize == mTimestamps.length) {
+            // unroll the ring into a larger array
+            long[] timestamps = Arrays.copyOf(mTimestamps, mTimestamps.length * 2);
+            System.arraycopy(mTimestamps, 0, timestamps, mTimestamps.length, mFirst);
+            mTimestamps = timestamps;
+        }
+        mTimestamps[(mFirst + mSize) % mTimestamps.length] = currentTime;
+        ++mSize;
+        mStatColumn.addValue(((float)mSize) / BUFFER_SECONDS);
     }
 }
@@ -0,0 +1,346 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.debug;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, log-bucketed histogram of latencies in nanoseconds.
+ * <p>
+ * Values below 32 are counted exactly; above that every power of two is
+ * split into 16 linear sub-buckets, so a recorded value is reported with
+ * a relative error of at most 1/16. The whole range of a {@code long} fits
+ * in {@link #BUCKET_COUNT} counters, so the histogram never allocates after
+ * construction and {@link #record(long)} may be called from any thread
+ * without locking.
+ * <p>
+ * Readers copy the counters into a {@link Snapshot}, which can be reused
+ * so that reporting does not allocate either. {@link #getSnapshot(Snapshot)}
+ * covers everything since the last {@link #reset()};
+ * {@link #getIntervalSnapshot(Snapshot)} only the samples recorded since
+ * the previous interval, for periodic reports and exports.
+ */
+public class SXRLatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_HALF = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_COUNT = SUB_BUCKET_HALF << 1;
+
+    /**
+     * Number of counters used by every histogram.
+     */
+    public static final int BUCKET_COUNT = getBucketIndex(Long.MAX_VALUE) + 1;
+
+    protected final String mName;
+    protected final AtomicLongArray mCounts = new AtomicLongArray(BUCKET_COUNT);
+    protected final AtomicLong mTotalCount = new AtomicLong();
+    protected final AtomicLong mMax = new AtomicLong();
+    private final long[] mIntervalBase = new long[BUCKET_COUNT];
+
+    /**
+     * Constructor.
+     * @param name The name of the histogram.
+     */
+    public SXRLatencyHistogram(String name) {
+        mName = name;
+    }
+
+    /**
+     * Gets the name of the histogram.
+     * @return the name passed to the constructor.
+     */
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * Records one latency sample. Negative values are counted as zero.
+     * @param nanos latency in nanoseconds.
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        mCounts.incrementAndGet(getBucketIndex(nanos));
+        mTotalCount.incrementAndGet();
+
+        long max = mMax.get();
+        while (nanos > max && !mMax.compareAndSet(max, nanos)) {
+            max = mMax.get();
+        }
+    }
+
+    /**
+     * Gets the number of samples recorded since the last {@link #reset()}.
+     * @return the sample count.
+     */
+    public long getCount() {
+        return mTotalCount.get();
+    }
+
+    /**
+     * Gets the largest sample recorded since the last {@link #reset()}.
+     * @return the maximum latency in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getMax() {
+        return mMax.get();
+    }
+
+    /**
+     * Gets the latency below which the given percentage of samples fall.
+     * @param percentile value between 0 and 100.
+     * @return the upper bound of the bucket holding the percentile, in
+     * nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = mTotalCount.get();
+        if (total == 0) {
+            return 0;
+        }
+        percentile = Math.min(Math.max(percentile, 0.0), 100.0);
+        long target = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            seen += mCounts.get(i);
+            if (seen >= target) {
+                return Math.min(getBucketUpperBound(i), mMax.get());
+            }
+        }
+        return mMax.get();
+    }
+
+    /**
+     * Copies the counters recorded since the last {@link #reset()}. Samples
+     * recorded concurrently may or may not be included.
+     * @param snapshot snapshot to fill, or null to allocate one.
+     * @return the snapshot.
+     */
+    public Snapshot getSnapshot(Snapshot snapshot) {
+        if (snapshot == null) {
+            snapshot = new Snapshot();
+        }
+        final long[] counts = snapshot.mCounts;
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            counts[i] = mCounts.get(i);
+            total += counts[i];
+        }
+        snapshot.set(total, mMax.get());
+        return snapshot;
+    }
+
+    /**
+     * Copies the counters recorded since the previous call, or since the
+     * last {@link #reset()}. Recording is not interrupted, so every sample
+     * lands in exactly one interval.
+     * <p>
+     * The maximum of an interval is the upper bound of its highest bucket,
+     * so it has the same relative error as the percentiles.
+     * @param snapshot snapshot to fill, or null to allocate one.
+     * @return the snapshot.
+     */
+    public synchronized Snapshot getIntervalSnapshot(Snapshot snapshot) {
+        if (snapshot == null) {
+            snapshot = new Snapshot();
+        }
+        final long[] counts = snapshot.mCounts;
+        long total = 0;
+        int highest = -1;
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            final long count = mCounts.get(i);
+            counts[i] = count - mIntervalBase[i];
+            mIntervalBase[i] = count;
+            if (counts[i] != 0) {
+                total += counts[i];
+                highest = i;
+            }
+        }
+        snapshot.set(total, highest < 0 ? 0 : Math.min(getBucketUpperBound(highest), mMax.get()));
+        return snapshot;
+    }
+
+    /**
+     * Clears all counters.
+     */
+    public synchronized void reset() {
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            mCounts.set(i, 0);
+            mIntervalBase[i] = 0;
+        }
+        mTotalCount.set(0);
+        mMax.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: n=%d p50=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms", mName,
+                getCount(), getValueAtPercentile(50) / 1e6, getValueAtPercentile(99) / 1e6,
+                getValueAtPercentile(99.9) / 1e6, getMax() / 1e6);
+    }
+
+    /**
+     * A copy of the counters of a histogram, see
+     * {@link SXRLatencyHistogram#getSnapshot(Snapshot)} and
+     * {@link SXRLatencyHistogram#getIntervalSnapshot(Snapshot)}. Queries do
+     * not allocate. A snapshot is not thread safe.
+     */
+    public static final class Snapshot {
+        private final long[] mCounts = new long[BUCKET_COUNT];
+        private long mTotalCount;
+        private long mMax;
+
+        private void set(long totalCount, long max) {
+            mTotalCount = totalCount;
+            mMax = max;
+        }
+
+        /**
+         * @return the number of samples in the snapshot.
+         */
+        public long getCount() {
+            return mTotalCount;
+        }
+
+        /**
+         * @return the largest sample in nanoseconds, or 0 if the snapshot is empty.
+         */
+        public long getMax() {
+            return mMax;
+        }
+
+        /**
+         * Gets the latency below which the given percentage of samples fall.
+         * @param percentile value between 0 and 100.
+         * @return the upper bound of the bucket holding the percentile, in
+         * nanoseconds, or 0 if the snapshot is empty.
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (mTotalCount == 0) {
+                return 0;
+            }
+            percentile = Math.min(Math.max(percentile, 0.0), 100.0);
+            long target = Math.max(1, (long) Math.ceil(mTotalCount * percentile / 100.0));
+            long seen = 0;
+
+            for (int i = 0; i < BUCKET_COUNT; ++i) {
+                seen += mCounts[i];
+                if (seen >= target) {
+                    return Math.min(getBucketUpperBound(i), mMax);
+                }
+            }
+            return mMax;
+        }
+
+        public long getP50() {
+            return getValueAtPercentile(50);
+        }
+
+        public long getP99() {
+            return getValueAtPercentile(99);
+        }
+
+        public long getP999() {
+            return getValueAtPercentile(99.9);
+        }
+
+        /**
+         * Adds the counts of another snapshot to this one, for instance to
+         * merge histograms recorded by different threads.
+         */
+        public void add(Snapshot other) {
+            for (int i = 0; i < BUCKET_COUNT; ++i) {
+                mCounts[i] += other.mCounts[i];
+            }
+            mTotalCount += other.mTotalCount;
+            mMax = Math.max(mMax, other.mMax);
+        }
+
+        /**
+         * Appends the count and the p50, p99, p99.9 and max latencies, in
+         * milliseconds.
+         * @param sb builder to append to.
+         * @return {@code sb}
+         */
+        public StringBuilder appendSummary(StringBuilder sb) {
+            sb.append("n=").append(mTotalCount);
+            appendMillis(sb.append(" p50="), getP50());
+            appendMillis(sb.append(" p99="), getP99());
+            appendMillis(sb.append(" p99.9="), getP999());
+            appendMillis(sb.append(" max="), mMax);
+            return sb;
+        }
+
+        /**
+         * Appends one {@code lowest,highest,count} line per non-empty
+         * bucket, latencies in nanoseconds, so that the distribution can be
+         * exported and merged elsewhere.
+         * @param sb builder to append to.
+         * @return {@code sb}
+         */
+        public StringBuilder appendBuckets(StringBuilder sb) {
+            for (int i = 0; i < BUCKET_COUNT; ++i) {
+                if (mCounts[i] != 0) {
+                    sb.append(getBucketLowerBound(i)).append(',')
+                      .append(getBucketUpperBound(i)).append(',')
+                      .append(mCounts[i]).append('\n');
+                }
+            }
+            return sb;
+        }
+
+        private static void appendMillis(StringBuilder sb, long nanos) {
+            // two decimals without going through String.format
+            final long hundredths = (nanos + 5000) / 10000;
+            sb.append(hundredths / 100).append('.');
+            final long fraction = hundredths % 100;
+            if (fraction < 10) {
+                sb.append('0');
+            }
+            sb.append(fraction).append("ms");
+        }
+
+        @Override
+        public String toString() {
+            return appendSummary(new StringBuilder()).toString();
+        }
+    }
+
+    static int getBucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    static long getBucketLowerBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index >> SUB_BUCKET_BITS) - 1;
+        long sub = (index & (SUB_BUCKET_HALF - 1)) + SUB_BUCKET_HALF;
+        return sub << shift;
+    }
+
+    static long getBucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index >> SUB_BUCKET_BITS) - 1;
+        return getBucketLowerBound(index) + (1L << shift) - 1;
+    }
+}
@@ -19,6 +19,7 @@ import com.samsungxr.SXRTime;
 
 public class SXRMethodCallTracer {
     protected SXRStatsLine.SXRStandardColumn<Float> mStatColumn;
+    protected SXRStatsLine.SXRHistogramColumn mHistogramColumn;
 
     private long mEnterTime;
     private long mLeaveTime;
@@ -27,6 +28,7 @@ public class SXRMethodCallTracer {
 
     public SXRMethodCallTracer(String name) {
         mStatColumn = new SXRStatsLine.SXRStandardColumn<Float>(name);
+        mHistogramColumn = new SXRStatsLine.SXRHistogramColumn(name + "Latency");
         mEnterTime = -1;
     }
 
@@ -38,6 +40,11 @@ public class SXRMethodCallTracer {
         mLeaveTime = getTime();
         long timeDiff = mEnterTime != -1 ? mLeaveTime - mEnterTime : 0;
         mStatColumn.addValue(timeDiff / NANO_TO_MILLIS);
+        // a leave without an enter has no duration, keep it out of the distribution
+        if (mEnterTime != -1) {
+            mHistogramColumn.getHistogram().record(timeDiff);
+            mEnterTime = -1;
+        }
     }
 
     protected long getTime() {
@@ -47,4 +54,19 @@ public class SXRMethodCallTracer {
     public SXRStatsLine.SXRStandardColumn<Float> getStatColumn() {
         return mStatColumn;
     }
+
+    /**
+     * Gets the column with the distribution of the call durations. Unlike
+     * the statistic column, it is not cleared for each line.
+     */
+    public SXRStatsLine.SXRHistogramColumn getHistogramColumn() {
+        return mHistogramColumn;
+    }
+
+    /**
+     * Gets the histogram of the call durations, in nanoseconds.
+     */
+    public SXRLatencyHistogram getHistogram() {
+        return mHistogramColumn.getHistogram();
+    }
 }
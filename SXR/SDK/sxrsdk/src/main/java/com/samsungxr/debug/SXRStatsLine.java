@@ -284,4 +284,96 @@ public class SXRStatsLine {
             mDecimalFormat = new DecimalFormat(fmt);
         }
     }
+
+    /**
+     * This class represents a latency column backed by a {@link SXRLatencyHistogram}.
+     * Values are latencies in nanoseconds and may be added from any thread. Unlike
+     * {@link SXRStandardColumn} the data is not cleared for each line: the column
+     * prints the count and the p50, p99, p99.9 and max latencies of the last complete
+     * window (one second by default), so that the long-tail frames show up.
+     */
+    public static class SXRHistogramColumn extends SXRColumnBase<Long> {
+        protected final SXRLatencyHistogram mHistogram;
+        protected long mWindowMS = 1000;
+
+        private final SXRLatencyHistogram.Snapshot mSnapshot = new SXRLatencyHistogram.Snapshot();
+        private final StringBuilder mBuilder = new StringBuilder();
+        private long mWindowStartMS = -1;
+        private String mStat = "n/a";
+
+        /**
+         * Constructor.
+         * @param name
+         *         The name of the statistic column. It will be printed in the log line.
+         */
+        public SXRHistogramColumn(String name) {
+            this(new SXRLatencyHistogram(name));
+        }
+
+        /**
+         * Constructor.
+         * @param histogram
+         *         The histogram to report. The column is named after it.
+         */
+        public SXRHistogramColumn(SXRLatencyHistogram histogram) {
+            super(histogram.getName());
+            mHistogram = histogram;
+        }
+
+        /**
+         * Gets the histogram the values are recorded in.
+         * @return the histogram.
+         */
+        public SXRLatencyHistogram getHistogram() {
+            return mHistogram;
+        }
+
+        /**
+         * Sets the duration of the reporting window.
+         * @param windowMS The window in milliseconds.
+         */
+        public void setWindow(long windowMS) {
+            mWindowMS = windowMS;
+        }
+
+        @Override
+        public synchronized void reset() {
+            super.reset();
+            mHistogram.reset();
+            mWindowStartMS = -1;
+            mStat = "n/a";
+        }
+
+        @Override
+        protected void onStartLine() {
+        }
+
+        @Override
+        public void addValue(Long value) {
+            if (value == null) {
+                return;
+            }
+            mHistogram.record(value);
+        }
+
+        @Override
+        public synchronized Object getStat() {
+            long currentTime = SXRTime.getMilliTime();
+
+            if (mWindowStartMS < 0) {
+                mWindowStartMS = currentTime;
+                mHistogram.getIntervalSnapshot(mSnapshot);
+            } else if (currentTime - mWindowStartMS >= mWindowMS) {
+                mWindowStartMS = currentTime;
+                mHistogram.getIntervalSnapshot(mSnapshot);
+                if (mSnapshot.getCount() == 0) {
+                    mStat = "n/a";
+                } else {
+                    mBuilder.setLength(0);
+                    mStat = mSnapshot.appendSummary(mBuilder).toString();
+                }
+            }
+            return mStat;
+        }
+    }
 }
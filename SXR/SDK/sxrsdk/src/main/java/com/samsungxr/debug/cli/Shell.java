@@ -222,36 +222,64 @@ public class Shell {
      * @throws java.io.IOException when can't readLine() from input.
      */
     public void commandLoop() throws IOException {
+        enterLoop();
+        while (true) {
+            if (!runCommand(input.readCommand(path))) {
+                break;
+            }
+        }
+        leaveLoop();
+    }
+
+    /**
+     * Notify the handlers that the shell starts taking commands and show the
+     * app name. Used with {@link #runCommand(String)} and {@link #leaveLoop()}
+     * to drive the shell line by line instead of through {@link #commandLoop()}.
+     */
+    public void enterLoop() {
         for (Object handler : allHandlers) {
             if (handler instanceof ShellManageable) {
                 ((ShellManageable)handler).cliEnterLoop();
             }
         }
         output.output(appName, outputConverter);
-        String command = "";
-        while (true) {
-            try {
-                command = input.readCommand(path);
-                if (command.trim().equals("exit")) {
-                    if (lineProcessor == null)
-                        break;
-                    else {
-                        path = savedPath;
-                        lineProcessor = null;
-                    }
-                }
+    }
 
-                processLine(command);
-            } catch (TokenException te) {
-                lastException = te;
-                output.outputException(command, te);
-            } catch (CLIException clie) {
-                lastException = clie;
-                if (!command.trim().equals("exit")) {
-                    output.outputException(clie);
+    /**
+     * Run one command the way {@link #commandLoop()} does. Errors are reported
+     * to the shell's Output.
+     *
+     * @param command Full command line
+     * @return false if the command exits the top-level shell
+     */
+    public boolean runCommand(String command) {
+        try {
+            if (command.trim().equals("exit")) {
+                if (lineProcessor == null)
+                    return false;
+                else {
+                    path = savedPath;
+                    lineProcessor = null;
                 }
             }
+
+            processLine(command);
+        } catch (TokenException te) {
+            lastException = te;
+            output.outputException(command, te);
+        } catch (CLIException clie) {
+            lastException = clie;
+            if (!command.trim().equals("exit")) {
+                output.outputException(clie);
+            }
         }
+        return true;
+    }
+
+    /**
+     * Notify the handlers that the shell stops taking commands.
+     */
+    public void leaveLoop() {
         for (Object handler : allHandlers) {
             if (handler instanceof ShellManageable) {
                 ((ShellManageable)handler).cliLeaveLoop();
@@ -15,6 +15,7 @@
 
 package com.samsungxr.io;
 
+import android.os.SystemClock;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
 
@@ -35,6 +36,7 @@ import com.samsungxr.IPickEvents;
 import com.samsungxr.ISensorEvents;
 import com.samsungxr.ITouchEvents;
 import com.samsungxr.SensorEvent;
+import com.samsungxr.debug.SXRLatencyHistogram;
 import org.joml.Matrix3f;
 import org.joml.Matrix4f;
 import org.joml.Quaternionf;
@@ -194,6 +196,8 @@ public abstract class SXRCursorController implements IEventReceiver
     protected SXRContext context;
     protected volatile boolean mConnected = false;
     protected int mTouchButtons = MotionEvent.BUTTON_SECONDARY | MotionEvent.BUTTON_PRIMARY;
+    protected boolean mPickOnGlThread = false;
+    protected final SXRLatencyHistogram mPickLatency;
 
     /**
      * Create an instance of {@link SXRCursorController} only using the
@@ -245,6 +249,7 @@ public abstract class SXRCursorController implements IEventReceiver
         processedKeyEvent = new ArrayList<KeyEvent>();
         motionEvent = new ArrayList<MotionEvent>();
         processedMotionEvent = new ArrayList<MotionEvent>();
+        mPickLatency = new SXRLatencyHistogram("InputToPick");
         listeners = new SXREventReceiver(this);
         if (mPicker == null)
         {
@@ -276,6 +281,16 @@ public abstract class SXRCursorController implements IEventReceiver
      */
     public int getTouchButtons() { return mTouchButtons; }
 
+    /**
+     * Get the histogram of input-to-pick latency for this controller.
+     * <p>
+     * A sample is recorded each time a {@link MotionEvent} is used to pick.
+     * It measures the time from when Android stamped the event to when the
+     * pick ray was intersected with the scene.
+     * @return latency histogram, in nanoseconds
+     */
+    public SXRLatencyHistogram getPickLatency() { return mPickLatency; }
+
     /**
      * Dispatch a key event for this controller.
      * @param event event to dispatch
@@ -1092,6 +1107,7 @@ public abstract class SXRCursorController implements IEventReceiver
             }
             if (mEvent != null)
             {
+                mPickLatency.record((SystemClock.uptimeMillis() - mEvent.getEventTime()) * 1000000L);
                 mEvent.recycle();
                 mEvent = null;
             }
@@ -1114,12 +1130,23 @@ public abstract class SXRCursorController implements IEventReceiver
      * will use that object to derive its position and orientation.
      * The "active" state of this controller is used to indicate touch.
      * The cursor position is updated after picking.
+     * <p>
+     * Controllers which are updated from a per-frame callback set
+     * {@link #mPickOnGlThread} so the pick runs immediately instead of
+     * waiting for the next frame's GL thread queue.
      */
     protected void updatePicker(MotionEvent event, boolean isActive)
     {
         final MotionEvent newEvent = (event != null) ? event : null;
         final ControllerPick controllerPick = new ControllerPick(mPicker, newEvent, isActive);
-        context.runOnGlThread(controllerPick);
+        if (mPickOnGlThread && context.isCurrentThreadGLThread())
+        {
+            controllerPick.run();
+        }
+        else
+        {
+            context.runOnGlThread(controllerPick);
+        }
     }
 
     /**
@@ -1127,15 +1154,34 @@ public abstract class SXRCursorController implements IEventReceiver
      */
     private void update()
     {
-        boolean hasEvents = false;
         // set the newly received key and motion events.
+        // The processed lists are normally empty here so they are swapped
+        // with the pending lists instead of copied; a nested update from
+        // an event listener still appends.
         synchronized (eventLock)
         {
-            hasEvents = (keyEvent.size() > 0) || (motionEvent.size() > 0);
-            processedKeyEvent.addAll(keyEvent);
-            keyEvent.clear();
-            processedMotionEvent.addAll(motionEvent);
-            motionEvent.clear();
+            if (processedKeyEvent.isEmpty())
+            {
+                List<KeyEvent> keys = processedKeyEvent;
+                processedKeyEvent = keyEvent;
+                keyEvent = keys;
+            }
+            else
+            {
+                processedKeyEvent.addAll(keyEvent);
+                keyEvent.clear();
+            }
+            if (processedMotionEvent.isEmpty())
+            {
+                List<MotionEvent> motions = processedMotionEvent;
+                processedMotionEvent = motionEvent;
+                motionEvent = motions;
+            }
+            else
+            {
+                processedMotionEvent.addAll(motionEvent);
+                motionEvent.clear();
+            }
         }
         previousActive = active;
         if ((scene != null) && (mPicker != null))
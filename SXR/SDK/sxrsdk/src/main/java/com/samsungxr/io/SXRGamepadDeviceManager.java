@@ -19,10 +19,12 @@ import android.opengl.Matrix;
 import android.util.Log;
 import android.util.SparseArray;
 import android.view.InputDevice;
+import android.view.InputEvent;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
 
 import com.samsungxr.SXRContext;
+import com.samsungxr.SXRDrawFrameListener;
 import com.samsungxr.SXRScene;
 import com.samsungxr.SXRNode;
 import com.samsungxr.SXRTransform;
@@ -34,16 +36,20 @@ import java.util.Set;
  * Use this class to translate MotionEvents and KeyEvents generated by the
  * Controller/Gamepad to manipulate {@link SXRGamepadController}s.
  */
-class SXRGamepadDeviceManager {
+class SXRGamepadDeviceManager implements SXRDrawFrameListener {
     private static final String TAG = SXRGamepadDeviceManager.class
             .getSimpleName();
-    private static final int DELAY_MILLISECONDS = 16;
-    private static final String THREAD_NAME = "SXRGamepadManagerThread";
+    // The cursor speed is expressed per step of this length so that it
+    // does not depend on the display refresh rate.
+    private static final float STEP_SECONDS = 0.016f;
+    private static final float MAX_STEPS_PER_FRAME = 4.0f;
+    private static final int EVENT_QUEUE_CAPACITY = 64;
     private static final Set<Integer> ACTIVE_BUTTONS = new HashSet<Integer>();
 
-    private EventHandlerThread thread;
-    private SparseArray<SXRGamepadController> controllers;
-    private boolean threadStarted = false;
+    private final SXRContext context;
+    private final SparseArray<SXRGamepadController> controllers;
+    private volatile SXRGamepadController[] frameControllers = new SXRGamepadController[0];
+    private volatile boolean started = false;
 
     static {
         // Add the buttons that define the active state
@@ -66,9 +72,10 @@ class SXRGamepadDeviceManager {
      *
      * The main functions of this helper class are <br>
      *
-     * 1) To provide a separate thread to handle all the input events generated
-     * by Android. This ensures that the main UI thread is not blocked while
-     * performing SXRf actions. <br>
+     * 1) To hand the input events generated by Android over to the GL thread.
+     * Each controller queues its events in a preallocated ring which is
+     * drained once per frame, so the main UI thread is never blocked and no
+     * extra thread is needed. <br>
      *
      * 2) Provide x, y, and z displacement values to the app. <br>
      *
@@ -76,29 +83,73 @@ class SXRGamepadDeviceManager {
      * controller/gamepad device is detected by the {@link SXRInputManager}.
      *
      */
-    SXRGamepadDeviceManager() {
-        thread = new EventHandlerThread(THREAD_NAME);
+    SXRGamepadDeviceManager(SXRContext context) {
+        this.context = context;
         controllers = new SparseArray<SXRGamepadController>();
     }
 
     SXRCursorController getCursorController(SXRContext context, String name,
                                           int vendorId, int productId) {
-        startThread();
+        start();
         SXRGamepadController controller = new SXRGamepadController(context,
                 SXRControllerType.GAMEPAD, name, vendorId, productId, this);
         int id = controller.getId();
-        controllers.append(id, controller);
+        synchronized (controllers) {
+            controllers.append(id, controller);
+            updateFrameControllers();
+        }
         return controller;
     }
 
     void removeCursorController(SXRCursorController controller) {
         int id = controller.getId();
-        controllers.remove(id);
+        synchronized (controllers) {
+            SXRGamepadController removed = controllers.get(id);
+            controllers.remove(id);
+            updateFrameControllers();
+            if (removed != null) {
+                drainEvents(new SXRGamepadController[] { removed });
+            }
+
+            // stop consuming events if no more devices are online
+            if (controllers.size() == 0) {
+                Log.d(TAG, "Stopping gamepad event processing");
+                forceStop();
+            }
+        }
+    }
+
+    /**
+     * Recycles the events still queued by controllers which are no longer
+     * drained every frame. The rings are only consumed on the GL thread.
+     */
+    private void drainEvents(final SXRGamepadController[] drained) {
+        context.runOnGlThread(new Runnable() {
+            @Override
+            public void run() {
+                for (SXRGamepadController controller : drained) {
+                    controller.events.clear();
+                }
+            }
+        });
+    }
 
-        // stop the thread if no more devices are online
-        if (controllers.size() == 0) {
-            Log.d(TAG, "Stopping " + THREAD_NAME);
-            forceStopThread();
+    private void updateFrameControllers() {
+        SXRGamepadController[] array = new SXRGamepadController[controllers.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = controllers.valueAt(i);
+        }
+        frameControllers = array;
+    }
+
+    /**
+     * Drains the queued events of every controller on the GL thread.
+     */
+    @Override
+    public void onDrawFrame(float frameTime) {
+        float steps = Math.min(frameTime / STEP_SECONDS, MAX_STEPS_PER_FRAME);
+        for (SXRGamepadController controller : frameControllers) {
+            controller.processEvents(steps);
         }
     }
 
@@ -113,8 +164,28 @@ class SXRGamepadDeviceManager {
         // Change this value to increase or decrease the controller cursor speed
         private static final float SPEED = 30f;
 
+        private static final KeyEvent BUTTON_L2_DOWN = new KeyEvent(
+                KeyEvent.ACTION_DOWN, KeyEvent.KEYCODE_BUTTON_L2);
+        private static final KeyEvent BUTTON_L2_UP = new KeyEvent(KeyEvent.ACTION_UP,
+                KeyEvent.KEYCODE_BUTTON_L2);
+        private static final KeyEvent BUTTON_R2_DOWN = new KeyEvent(
+                KeyEvent.ACTION_DOWN, KeyEvent.KEYCODE_BUTTON_R2);
+        private static final KeyEvent BUTTON_R2_UP = new KeyEvent(KeyEvent.ACTION_UP,
+                KeyEvent.KEYCODE_BUTTON_R2);
+
         private SXRGamepadDeviceManager deviceManager;
         private SXRTransform tempTrans;
+        private final SXRInputEventRing events = new SXRInputEventRing(EVENT_QUEUE_CAPACITY);
+        private final float[] xAxis = new float[4];
+        private final float[] yAxis = new float[4];
+        private final float[] point = new float[3];
+
+        // only touched on the GL thread
+        private int dpadState;
+        private float dpadX, dpadY;
+        private float x, y, ry;
+        private boolean pedalDown = false;
+        private volatile boolean invalidatePending = false;
 
         public SXRGamepadController(SXRContext context,
                                     SXRControllerType controllerType, String name, int vendorId,
@@ -123,56 +194,52 @@ class SXRGamepadDeviceManager {
             tempTrans = new SXRNode(context).getTransform();
             tempTrans.setPosition(0.0f, 0.0f, -1.0f);
             this.deviceManager = deviceManager;
+            mPickOnGlThread = true;
         }
 
         @Override
         public void setEnable(boolean flag) {
             if (!enable && flag) {
                 enable = true;
-                deviceManager.startThread();
-                //set the enabled flag on the handler thread
-                deviceManager.thread.setEnable(getId(), true);
+                deviceManager.start();
+                super.setEnable(true);
                 mConnected = true;
             } else if (enable && !flag) {
                 enable = false;
-                //set the disabled flag on the handler thread
-                deviceManager.thread.setEnable(getId(), false);
-                deviceManager.stopThread();
+                super.setEnable(false);
+                deviceManager.stop();
                 mConnected = false;
                 context.getInputManager().removeCursorController(this);
             }
         }
 
         @Override
-        public void setScene(SXRScene scene) {
-            if (!deviceManager.threadStarted) {
+        public void setScene(final SXRScene scene) {
+            if (!deviceManager.started) {
                 super.setScene(scene);
             } else {
-                deviceManager.thread.setScene(getId(), scene);
+                context.runOnGlThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        callParentSetScene(scene);
+                    }
+                });
             }
         }
 
         @Override
         public void invalidate() {
-            if (!deviceManager.threadStarted) {
+            if (!deviceManager.started) {
                 //do nothing
                 return;
             }
-            deviceManager.thread.sendInvalidate(getId());
-        }
-
-        void callParentSetEnable(boolean enable){
-            super.setEnable(enable);
+            invalidatePending = true;
         }
 
         void callParentSetScene(SXRScene scene) {
             super.setScene(scene);
         }
 
-        void callParentInvalidate() {
-            super.invalidate();
-        }
-
         @Override
         protected void setKeyEvent(KeyEvent keyEvent) {
             int action = keyEvent.getAction();
@@ -197,242 +264,112 @@ class SXRGamepadDeviceManager {
         }
 
         @Override
-        public boolean dispatchKeyEvent(KeyEvent event)
+        public synchronized boolean dispatchKeyEvent(KeyEvent event)
         {
-            if (deviceManager.thread.submitKeyEvent(getId(), event))
+            if (deviceManager.started && isFromGamepad(event))
             {
-                return true;
+                return events.offer(event);
             }
             return false;
         }
 
         @Override
-        public boolean dispatchMotionEvent(MotionEvent event)
+        public synchronized boolean dispatchMotionEvent(MotionEvent event)
         {
-            if (deviceManager.thread.submitMotionEvent(getId(), event))
+            if (deviceManager.started && isFromGamepad(event))
             {
-                return true;
+                MotionEvent clone = MotionEvent.obtain(event);
+                if (events.offer(clone))
+                {
+                    return true;
+                }
+                clone.recycle();
             }
             return false;
         }
 
-        private void processControllerEvent(float x, float y, float z) {
-            SXRScene scene = context.getMainScene();
-            if (scene != null) {
-                float[] viewMatrix = scene.getMainCameraRig().getHeadTransform()
-                        .getModelMatrix();
-                float[] xAxis = new float[4];
-                float[] yAxis = new float[4];
-
-                Matrix.multiplyMV(xAxis, 0, viewMatrix, 0, UP_VECTOR, 0);
-                Matrix.multiplyMV(yAxis, 0, viewMatrix, 0, RIGHT_VECTOR, 0);
-                float sensitivity = SPEED / 100f;
-                if (x != 0 || y != 0) {
-                    float angle = (float) Math.atan2(y, x);
-                    float displacementX = (float) Math.cos(angle);
-                    float displacementY = (float) Math.sin(angle);
-                    tempTrans.setRotation(1.0f, 0.0f, 0.0f, 0.0f);
-
-                    tempTrans.rotateByAxisWithPivot(
-                            -displacementX * sensitivity, xAxis[0], xAxis[1],
-                            xAxis[2], 0.0f, 0.0f, 0.0f);
-                    tempTrans.rotateByAxisWithPivot(
-                            displacementY * sensitivity, yAxis[0], yAxis[1],
-                            yAxis[2], 0.0f, 0.0f, 0.0f);
-                }
-                float[] controllerPosition = new float[]{
-                        tempTrans.getPositionX(),
-                        tempTrans.getPositionY(),
-                        tempTrans.getPositionZ()};
-
-                if (z != 0.0f) {
-                    float step = (z < 0) ? DEPTH_STEP * sensitivity
-                            : -DEPTH_STEP * sensitivity;
-
-                    float[] point = {
-                            controllerPosition[0]
-                                    + controllerPosition[0] * step,
-                            controllerPosition[1]
-                                    + controllerPosition[1] * step,
-                            controllerPosition[2]
-                                    + controllerPosition[2] * step};
+        private static boolean isFromGamepad(InputEvent event) {
+            return event.isFromSource(InputDevice.SOURCE_GAMEPAD)
+                    || event.isFromSource(InputDevice.SOURCE_JOYSTICK);
+        }
 
-                    if (checkBounds(point)) {
-                        tempTrans.setPosition(point[0], point[1], point[2]);
-                    }
+        /**
+         * Consume the events queued since the last frame. Runs on the GL
+         * thread. Consecutive stick movements are coalesced into the most
+         * recent one, the stick position then moves the cursor every frame
+         * for as long as it is held. Movements which change the pedals or
+         * the hat are all processed, as they turn into button presses.
+         */
+        void processEvents(float steps) {
+            boolean hadEvents = !events.isEmpty();
+            InputEvent event;
+
+            dpadX = dpadY = 0.0f;
+            while ((event = events.poll()) != null) {
+                if (event instanceof KeyEvent) {
+                    processKeyEvent((KeyEvent) event);
+                } else if (SXRInputEventRing.isCoalescable(event)
+                        && isCoalescableWith((MotionEvent) event, events.peek())) {
+                    ((MotionEvent) event).recycle();
+                } else {
+                    processMotionEvent((MotionEvent) event);
                 }
-                super.setPosition(tempTrans.getPositionX(),
-                                  tempTrans.getPositionY(),
-                                  tempTrans.getPositionZ());
             }
-        }
-
-        private boolean checkBounds(float[] point) {
-            float lhs = square(point[0]) + square(point[1]) + square(point[2]);
-            return (lhs <= getMaxRadius() && lhs >= getMinRadius());
-        }
-
-        private static float square(float x) {
-            return x * x;
-        }
-
-        private float getMinRadius() {
-            float nearDepth = getNearDepth();
-            return nearDepth * nearDepth;
-        }
-
-        private float getMaxRadius() {
-            float farDepth = getFarDepth();
-            return farDepth * farDepth;
-        }
-
-        @Override
-        public void setPosition(float x, float y, float z) {
-            super.setPosition(x, y, z);
-            tempTrans.setPosition(x, y, z);
-            if (!deviceManager.threadStarted) {
-                //do nothing
+            if (!enable) {
                 return;
             }
-            deviceManager.thread.sendInvalidate(getId());
-        }
-    }
-
-    private class EventHandlerThread extends Thread {
-        private final KeyEvent BUTTON_L2_DOWN = new KeyEvent(
-                KeyEvent.ACTION_DOWN, KeyEvent.KEYCODE_BUTTON_L2);
-        private final KeyEvent BUTTON_L2_UP = new KeyEvent(KeyEvent.ACTION_UP,
-                KeyEvent.KEYCODE_BUTTON_L2);
-        private final KeyEvent BUTTON_R2_DOWN = new KeyEvent(
-                KeyEvent.ACTION_DOWN, KeyEvent.KEYCODE_BUTTON_R2);
-        private final KeyEvent BUTTON_R2_UP = new KeyEvent(KeyEvent.ACTION_UP,
-                KeyEvent.KEYCODE_BUTTON_R2);
-        private int dpadState;
-        private float x, y, ry;
-        private Object lock = new Object();
-        private boolean pedalDown = false;
-        private SparseArray<EventDataHolder> holders;
-
-        public static final int ENABLE = 0;
-        public static final int DISABLE = 1;
-
-        private class EventDataHolder {
-            private MotionEvent event;
-            private KeyEvent keyEvent;
-            private SXRScene scene;
-            private int enabled = -1;
-            private boolean callInvalidate= false;
-            private int id;
-
-
-            public EventDataHolder(int id, MotionEvent event,
-                                   KeyEvent keyEvent) {
-                this.id = id;
-                this.event = event;
-                scene = null;
-                this.keyEvent = keyEvent;
+            if (dpadX != 0 || dpadY != 0) {
+                processControllerEvent(dpadX, dpadY, 0.0f, 1.0f);
             }
-
-            public void setId(int id) {
-                this.id = id;
-            }
-
-            public void setMotionEvent(MotionEvent event) {
-                this.event = event;
+            if (x != 0 || y != 0 || ry != 0) {
+                processControllerEvent(x, y, ry, steps);
             }
-
-            public void setKeyEvent(KeyEvent keyEvent) {
-                this.keyEvent = keyEvent;
+            if (hadEvents || invalidatePending) {
+                invalidatePending = false;
+                super.invalidate();
             }
-
-        }
-
-        EventHandlerThread(String name) {
-            super(name);
-            holders = new SparseArray<EventDataHolder>();
         }
 
-        @Override
-        public void run() {
-            try {
-                while (true) {
-                    synchronized (lock) {
-                        if (holders.size() == 0) {
-                            lock.wait();
-                        }
-
-                        for (int i = 0; i < holders.size(); i++) {
-                            int key = holders.keyAt(i);
-                            EventDataHolder holder = holders.valueAt(i);
-
-                            if (holder == null) {
-                                continue;
-                            }
-                            int id = key;
-
-                            SXRGamepadController controller = controllers.get(id);
-                            MotionEvent event = holder.event;
-                            KeyEvent keyEvent = holder.keyEvent;
-                            int enabled = holder.enabled;
-
-                            if (event != null) {
-                                dispatchMotionEvent(controller, event);
-                            }
-                            if (keyEvent != null) {
-                                dispatchKeyEvent(controller, keyEvent);
-                            }
-
-                            if (enabled != -1) {
-                                controller.callParentSetEnable(holder.enabled == ENABLE);
-                                holder.enabled = -1;
-                            }
-
-                            if (holder.scene != null) {
-                                controller.callParentSetScene(holder.scene);
-                                holder.scene = null;
-                            }
-
-                            if (holder.callInvalidate) {
-                                controller.callParentInvalidate();
-                                holder.callInvalidate = false;
-                            }
-
-                            if (holder.event == null) {
-                                // reset holder when there is no motion event
-                                holders.remove(controller.getId());
-                            }
-
-                            controller.processControllerEvent(this.x, this.y, this.ry);
-                        }
-                    }
-                    Thread.sleep(DELAY_MILLISECONDS);
+        /**
+         * Check whether a stick movement can be dropped for the next event:
+         * the pedal and hat axes must not change in between.
+         */
+        private static boolean isCoalescableWith(MotionEvent event, InputEvent next) {
+            if (!SXRInputEventRing.isCoalescable(next)) {
+                return false;
+            }
+            MotionEvent motion = (MotionEvent) next;
+            for (int axis : BUTTON_AXES) {
+                if (event.getAxisValue(axis) != motion.getAxisValue(axis)) {
+                    return false;
                 }
-            } catch (InterruptedException e) {
-                Log.d(TAG, "Stopped " + THREAD_NAME);
             }
+            return true;
         }
 
+        private static final int[] BUTTON_AXES = {
+                MotionEvent.AXIS_BRAKE, MotionEvent.AXIS_GAS,
+                MotionEvent.AXIS_HAT_X, MotionEvent.AXIS_HAT_Y
+        };
+
         /**
          * Process the KeyEvent from the Gamepad.
          *
          * @param event the {@link KeyEvent}.
-         * @return <code>true</code> if the key is from an active button,
-         * <code>false</code> otherwise
          */
-        private void dispatchKeyEvent(SXRGamepadController controller,
-                                      KeyEvent event) {
+        private void processKeyEvent(KeyEvent event) {
             int keyCode = event.getKeyCode();
             int action = event.getAction();
 
             if (ACTIVE_BUTTONS.contains(keyCode)) {
-                controller.setKeyEvent(event);
+                setKeyEvent(event);
             } else {
                 switch (keyCode) {
                     case KeyEvent.KEYCODE_DPAD_LEFT:
                         if (action == KeyEvent.ACTION_DOWN
                                 && dpadState != KeyEvent.KEYCODE_DPAD_LEFT) {
                             dpadState = KeyEvent.KEYCODE_DPAD_LEFT;
-                            x = -1.0f;
+                            dpadX = -1.0f;
                         } else if (action == KeyEvent.ACTION_UP) {
                             dpadState = 0;
                         }
@@ -441,7 +378,7 @@ class SXRGamepadDeviceManager {
                         if (action == KeyEvent.ACTION_DOWN
                                 && dpadState != KeyEvent.KEYCODE_DPAD_RIGHT) {
                             dpadState = KeyEvent.KEYCODE_DPAD_RIGHT;
-                            x = 1.0f;
+                            dpadX = 1.0f;
                         } else if (action == KeyEvent.ACTION_UP) {
                             dpadState = 0;
                         }
@@ -450,7 +387,7 @@ class SXRGamepadDeviceManager {
                         if (action == KeyEvent.ACTION_DOWN
                                 && dpadState != KeyEvent.KEYCODE_DPAD_UP) {
                             dpadState = KeyEvent.KEYCODE_DPAD_UP;
-                            y = 1.0f;
+                            dpadY = 1.0f;
                         } else if (action == KeyEvent.ACTION_UP) {
                             dpadState = 0;
                         }
@@ -459,7 +396,7 @@ class SXRGamepadDeviceManager {
                         if (action == KeyEvent.ACTION_DOWN
                                 && dpadState != KeyEvent.KEYCODE_DPAD_DOWN) {
                             dpadState = KeyEvent.KEYCODE_DPAD_DOWN;
-                            y = -1.0f;
+                            dpadY = -1.0f;
                         } else if (action == KeyEvent.ACTION_UP) {
                             dpadState = 0;
                         }
@@ -468,60 +405,14 @@ class SXRGamepadDeviceManager {
             }
         }
 
-        boolean submitMotionEvent(int id, MotionEvent event) {
-            if (threadStarted && event.isFromSource(InputDevice.SOURCE_GAMEPAD)
-                    || event.isFromSource(InputDevice.SOURCE_JOYSTICK)) {
-                MotionEvent clone = MotionEvent.obtain(event);
-                synchronized (lock) {
-                    EventDataHolder holder = holders.get(id);
-                    if (holder == null) {
-                        holder = new EventDataHolder(id,  clone, null);
-                        holders.put(id, holder);
-                    } else {
-                        // if there is already an event recycle it
-                        if (holder.event != null) {
-                            holder.event.recycle();
-                        }
-                        holder.setId(id);
-                        holder.setMotionEvent(clone);
-                    }
-                    lock.notify();
-                }
-                return true;
-            } else {
-                return false;
-            }
-        }
-
-        boolean submitKeyEvent(int id, KeyEvent event) {
-            if (threadStarted && event.isFromSource(InputDevice.SOURCE_GAMEPAD)
-                    || event.isFromSource(InputDevice.SOURCE_JOYSTICK)) {
-                synchronized (lock) {
-                    EventDataHolder holder = holders.get(id);
-                    if (holder == null) {
-                        holder = new EventDataHolder(id, null, event);
-                        holders.put(id, holder);
-                    } else {
-                        holder.setKeyEvent(event);
-                    }
-                    lock.notify();
-                }
-                return true;
-            } else {
-                return false;
-            }
-        }
-
         // The following methods are taken from the controller sample on the
         // Android Developer web site:
         // https://developer.android.com/training/game-controllers/controller-input.html
-        private void dispatchMotionEvent(SXRGamepadController controller,
-                                         MotionEvent event) {
+        private void processMotionEvent(MotionEvent event) {
             InputDevice device = event.getDevice();
             if (event.getAction() != MotionEvent.ACTION_MOVE
                     || device == null) {
                 event.recycle();
-                holders.remove(controller.getId());
                 return;
             }
 
@@ -556,17 +447,17 @@ class SXRGamepadDeviceManager {
                         MotionEvent.AXIS_GAS);
                 if (brakeAxis != 0 && pedalDown == false) {
                     pedalDown = true;
-                    controller.setKeyEvent(BUTTON_L2_DOWN);
+                    setKeyEvent(BUTTON_L2_DOWN);
                 } else if (brakeAxis == 0 && pedalDown == true) {
                     pedalDown = false;
-                    controller.setKeyEvent(BUTTON_L2_UP);
+                    setKeyEvent(BUTTON_L2_UP);
                 }
                 if (gasAxis != 0 && pedalDown == false) {
                     pedalDown = true;
-                    controller.setKeyEvent(BUTTON_R2_DOWN);
+                    setKeyEvent(BUTTON_R2_DOWN);
                 } else if (gasAxis == 0 && pedalDown == true) {
                     pedalDown = false;
-                    controller.setKeyEvent(BUTTON_R2_UP);
+                    setKeyEvent(BUTTON_R2_UP);
                 }
             }
 
@@ -576,58 +467,14 @@ class SXRGamepadDeviceManager {
 
             if (x == 0 && y == 0 && ry == 0) {
                 event.recycle();
-                holders.remove(controller.getId());
             } else {
-                MotionEvent clone = MotionEvent.obtain(event);
-                holders.get(controller.getId()).event = clone;
-                controller.setMotionEvent(event);
-            }
-        }
-
-        void setEnable(int id, boolean enable) {
-            synchronized (lock) {
-                EventDataHolder holder = holders.get(id);
-                if (holder == null) {
-                    holder = new EventDataHolder(id, null, null);
-                    holder.enabled = enable ? ENABLE : DISABLE;
-                    holders.put(id, holder);
-                } else {
-                    holder.enabled = enable ? ENABLE : DISABLE;
-                }
-                lock.notify();
-            }
-        }
-
-        void setScene(int id, SXRScene scene){
-            synchronized (lock) {
-                EventDataHolder holder = holders.get(id);
-                if (holder == null) {
-                    holder = new EventDataHolder(id, null, null);
-                    holder.scene = scene;
-                    holders.put(id, holder);
-                } else {
-                    holder.scene = scene;
-                }
-                lock.notify();
+                // the controller recycles the event after picking
+                setMotionEvent(event);
             }
         }
 
-        void sendInvalidate(int id) {
-            synchronized (lock) {
-                EventDataHolder holder = holders.get(id);
-                if (holder == null) {
-                    holder = new EventDataHolder(id, null, null);
-                    holder.callInvalidate = true;
-                    holders.put(id, holder);
-                } else {
-                    holder.callInvalidate = true;
-                }
-                lock.notify();
-            }
-        }
-
-        private float getCenteredAxis(MotionEvent event, InputDevice device,
-                                      int axis) {
+        private static float getCenteredAxis(MotionEvent event, InputDevice device,
+                                             int axis) {
             final InputDevice.MotionRange range = device.getMotionRange(axis,
                     event.getSource());
             if (range != null) {
@@ -639,39 +486,109 @@ class SXRGamepadDeviceManager {
             }
             return 0;
         }
+
+        private void processControllerEvent(float x, float y, float z, float steps) {
+            SXRScene scene = context.getMainScene();
+            if (scene != null) {
+                float[] viewMatrix = scene.getMainCameraRig().getHeadTransform()
+                        .getModelMatrix();
+
+                Matrix.multiplyMV(xAxis, 0, viewMatrix, 0, UP_VECTOR, 0);
+                Matrix.multiplyMV(yAxis, 0, viewMatrix, 0, RIGHT_VECTOR, 0);
+                float sensitivity = SPEED / 100f * steps;
+                if (x != 0 || y != 0) {
+                    float angle = (float) Math.atan2(y, x);
+                    float displacementX = (float) Math.cos(angle);
+                    float displacementY = (float) Math.sin(angle);
+                    tempTrans.setRotation(1.0f, 0.0f, 0.0f, 0.0f);
+
+                    tempTrans.rotateByAxisWithPivot(
+                            -displacementX * sensitivity, xAxis[0], xAxis[1],
+                            xAxis[2], 0.0f, 0.0f, 0.0f);
+                    tempTrans.rotateByAxisWithPivot(
+                            displacementY * sensitivity, yAxis[0], yAxis[1],
+                            yAxis[2], 0.0f, 0.0f, 0.0f);
+                }
+
+                if (z != 0.0f) {
+                    float step = (z < 0) ? DEPTH_STEP * sensitivity
+                            : -DEPTH_STEP * sensitivity;
+                    float px = tempTrans.getPositionX();
+                    float py = tempTrans.getPositionY();
+                    float pz = tempTrans.getPositionZ();
+
+                    point[0] = px + px * step;
+                    point[1] = py + py * step;
+                    point[2] = pz + pz * step;
+
+                    if (checkBounds(point)) {
+                        tempTrans.setPosition(point[0], point[1], point[2]);
+                    }
+                }
+                super.setPosition(tempTrans.getPositionX(),
+                                  tempTrans.getPositionY(),
+                                  tempTrans.getPositionZ());
+            }
+        }
+
+        private boolean checkBounds(float[] point) {
+            float lhs = square(point[0]) + square(point[1]) + square(point[2]);
+            return (lhs <= getMaxRadius() && lhs >= getMinRadius());
+        }
+
+        private static float square(float x) {
+            return x * x;
+        }
+
+        private float getMinRadius() {
+            float nearDepth = getNearDepth();
+            return nearDepth * nearDepth;
+        }
+
+        private float getMaxRadius() {
+            float farDepth = getFarDepth();
+            return farDepth * farDepth;
+        }
+
+        @Override
+        public void setPosition(float x, float y, float z) {
+            super.setPosition(x, y, z);
+            tempTrans.setPosition(x, y, z);
+            invalidate();
+        }
     }
 
-    void startThread(){
-        if(!threadStarted){
-            thread.start();
-            threadStarted = true;
+    void start() {
+        if (!started) {
+            context.registerDrawFrameListener(this);
+            started = true;
         }
     }
 
-    void stopThread() {
+    void stop() {
         boolean foundEnabled = false;
 
-        for(int i = 0 ;i< controllers.size(); i++){
-            SXRCursorController controller = controllers.valueAt(i);
-            if(controller.isEnabled()){
-                foundEnabled = true;
-                break;
+        synchronized (controllers) {
+            for (int i = 0; i < controllers.size(); i++) {
+                SXRCursorController controller = controllers.valueAt(i);
+                if (controller.isEnabled()) {
+                    foundEnabled = true;
+                    break;
+                }
             }
         }
 
-        if (!foundEnabled && threadStarted) {
-            thread.interrupt();
-            thread = new EventHandlerThread(THREAD_NAME);
-            threadStarted = false;
+        if (!foundEnabled) {
+            forceStop();
         }
     }
 
-    void forceStopThread(){
-        if (threadStarted) {
-            thread.interrupt();
-            thread = new EventHandlerThread(THREAD_NAME);
-            threadStarted = false;
+    void forceStop() {
+        if (started) {
+            context.unregisterDrawFrameListener(this);
+            started = false;
+            drainEvents(frameControllers);
         }
     }
 
-}
\ No newline at end of file
+}
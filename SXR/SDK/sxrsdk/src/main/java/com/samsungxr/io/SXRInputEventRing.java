@@ -0,0 +1,132 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.io;
+
+import android.view.InputEvent;
+import android.view.MotionEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded single-producer / single-consumer queue of input events.
+ * <p>
+ * The producer is the thread Android dispatches input on, the consumer is
+ * the GL thread draining the queue once per frame. All slots are allocated
+ * up front so offering and polling never allocate. {@link MotionEvent}s are
+ * owned by the ring once offered: the consumer either hands them on to a
+ * {@link SXRCursorController} (which recycles them after picking) or
+ * recycles them itself.
+ */
+final class SXRInputEventRing
+{
+    private final InputEvent[] mSlots;
+    private final int mMask;
+    private final AtomicLong mHead = new AtomicLong();  // next slot to write
+    private final AtomicLong mTail = new AtomicLong();  // next slot to read
+
+    /**
+     * @param capacity maximum number of queued events, rounded up to a power of two.
+     */
+    SXRInputEventRing(int capacity)
+    {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        mSlots = new InputEvent[size];
+        mMask = size - 1;
+    }
+
+    /**
+     * Queue an event. Must only be called from the producer thread.
+     * @return false if the ring is full and the event was not queued.
+     */
+    boolean offer(InputEvent event)
+    {
+        long head = mHead.get();
+        if (head - mTail.get() > mMask)
+        {
+            return false;
+        }
+        mSlots[(int) head & mMask] = event;
+        mHead.lazySet(head + 1);
+        return true;
+    }
+
+    /**
+     * Remove the oldest event. Must only be called from the consumer thread.
+     * @return the event, or null if the ring is empty.
+     */
+    InputEvent poll()
+    {
+        long tail = mTail.get();
+        if (tail == mHead.get())
+        {
+            return null;
+        }
+        int index = (int) tail & mMask;
+        InputEvent event = mSlots[index];
+        mSlots[index] = null;
+        mTail.lazySet(tail + 1);
+        return event;
+    }
+
+    /**
+     * Look at the oldest event without removing it. Consumer thread only.
+     */
+    InputEvent peek()
+    {
+        long tail = mTail.get();
+        if (tail == mHead.get())
+        {
+            return null;
+        }
+        return mSlots[(int) tail & mMask];
+    }
+
+    boolean isEmpty()
+    {
+        return mTail.get() == mHead.get();
+    }
+
+    /**
+     * Drop all queued events, recycling motion events. Consumer thread only.
+     */
+    void clear()
+    {
+        InputEvent event;
+        while ((event = poll()) != null)
+        {
+            if (event instanceof MotionEvent)
+            {
+                ((MotionEvent) event).recycle();
+            }
+        }
+    }
+
+    /**
+     * Check whether a motion event only moves the pointer, so an older one
+     * can be dropped in favour of a newer one without losing state changes.
+     * Devices which turn axis values into button presses must also check
+     * that those axes do not change between the two events.
+     */
+    static boolean isCoalescable(InputEvent event)
+    {
+        if (!(event instanceof MotionEvent))
+        {
+            return false;
+        }
+        int action = ((MotionEvent) event).getActionMasked();
+        return (action == MotionEvent.ACTION_MOVE) || (action == MotionEvent.ACTION_HOVER_MOVE);
+    }
+}
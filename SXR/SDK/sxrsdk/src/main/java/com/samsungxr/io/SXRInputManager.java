@@ -149,7 +149,7 @@ public class SXRInputManager implements IEventReceiver
         controllerIds = new SparseArray<SXRCursorController>();
         cache = new SparseArray<SXRCursorController>();
         mouseDeviceManager = new SXRMouseDeviceManager(context);
-        gamepadDeviceManager = new SXRGamepadDeviceManager();
+        gamepadDeviceManager = new SXRGamepadDeviceManager(context);
         for (int i = 0; i < numControllers; ++i)
         {
             gearCursorControllers.add(new SXRGearCursorController(context, i));
@@ -452,8 +452,8 @@ public class SXRInputManager implements IEventReceiver
     public void close()
     {
         inputManager.unregisterInputDeviceListener(inputDeviceListener);
-        mouseDeviceManager.forceStopThread();
-        gamepadDeviceManager.forceStopThread();
+        mouseDeviceManager.forceStop();
+        gamepadDeviceManager.forceStop();
         controllerIds.clear();
         cache.clear();
         controllers.clear();
@@ -17,43 +17,48 @@ package com.samsungxr.io;
 
 
 import com.samsungxr.SXRContext;
+import com.samsungxr.SXRDrawFrameListener;
 import com.samsungxr.SXRPerspectiveCamera;
 import com.samsungxr.SXRScene;
 import com.samsungxr.utility.Log;
 
-import android.os.Handler;
-import android.os.HandlerThread;
-import android.os.Message;
 import android.util.SparseArray;
 import android.view.InputDevice;
+import android.view.InputEvent;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
 
 /**
  * Use this class to translate MotionEvents generated by a mouse to manipulate
  * {@link SXRMouseController}s.
+ * <p>
+ * Events are queued by the Android input thread into a preallocated ring
+ * per controller and consumed on the GL thread once per frame, where
+ * consecutive pointer moves are coalesced into the latest one.
  */
-final class SXRMouseDeviceManager {
+final class SXRMouseDeviceManager implements SXRDrawFrameListener {
     private static final String TAG = "SXRMouseDeviceManager";
-    private static final String THREAD_NAME = "SXRMouseManagerThread";
-    private EventHandlerThread thread;
+    private static final int EVENT_QUEUE_CAPACITY = 128;
+    private final SXRContext context;
     private SparseArray<SXRMouseController> controllers;
-    private boolean threadStarted;
+    private volatile SXRMouseController[] frameControllers = new SXRMouseController[0];
+    private volatile boolean started;
 
 
     SXRMouseDeviceManager(SXRContext context) {
-        thread = new EventHandlerThread(THREAD_NAME);
+        this.context = context;
         controllers = new SparseArray<>();
     }
 
     SXRCursorController getCursorController(SXRContext context, String name, int vendorId, int productId) {
         Log.d(TAG, "Creating Mouse Device");
-        startThread();
+        start();
         SXRMouseController controller = new SXRMouseController(context,
                 SXRControllerType.MOUSE, name, vendorId, productId, this);
         int id = controller.getId();
         synchronized (controllers) {
             controllers.append(id, controller);
+            updateFrameControllers();
         }
         return controller;
     }
@@ -61,12 +66,50 @@ final class SXRMouseDeviceManager {
     void removeCursorController(SXRCursorController controller) {
         int id = controller.getId();
         synchronized (controllers) {
+            SXRMouseController removed = controllers.get(id);
             controllers.remove(id);
+            updateFrameControllers();
+            if (removed != null) {
+                drainEvents(new SXRMouseController[] { removed });
+            }
 
-            // stopThread the thread if no more devices are online
+            // stop consuming events if no more devices are online
             if (controllers.size() == 0) {
-                forceStopThread();
+                forceStop();
+            }
+        }
+    }
+
+    /**
+     * Recycles the events still queued by controllers which are no longer
+     * drained every frame. The rings are only consumed on the GL thread.
+     */
+    private void drainEvents(final SXRMouseController[] drained) {
+        context.runOnGlThread(new Runnable() {
+            @Override
+            public void run() {
+                for (SXRMouseController controller : drained) {
+                    controller.events.clear();
+                }
             }
+        });
+    }
+
+    private void updateFrameControllers() {
+        SXRMouseController[] array = new SXRMouseController[controllers.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = controllers.valueAt(i);
+        }
+        frameControllers = array;
+    }
+
+    /**
+     * Drains the queued events of every controller on the GL thread.
+     */
+    @Override
+    public void onDrawFrame(float frameTime) {
+        for (SXRMouseController controller : frameControllers) {
+            controller.processEvents();
         }
     }
 
@@ -76,12 +119,15 @@ final class SXRMouseDeviceManager {
         private static final KeyEvent BUTTON_1_UP = new KeyEvent(KeyEvent.ACTION_UP, KeyEvent.KEYCODE_BUTTON_1);
 
         private SXRMouseDeviceManager deviceManager;
+        private final SXRInputEventRing events = new SXRInputEventRing(EVENT_QUEUE_CAPACITY);
+        private volatile boolean invalidatePending = false;
 
         SXRMouseController(SXRContext context, SXRControllerType controllerType, String name, int
                 vendorId, int productId, SXRMouseDeviceManager deviceManager) {
             super(context, controllerType, name, vendorId, productId);
             this.deviceManager = deviceManager;
             mConnected = true;
+            mPickOnGlThread = true;
         }
 
         @Override
@@ -92,48 +138,43 @@ final class SXRMouseDeviceManager {
             }
             if (!enable && flag) {
                 enable = true;
-                deviceManager.startThread();
-                //set the enabled flag on the handler thread
-                deviceManager.thread.setEnable(getId(), true);
+                deviceManager.start();
+                super.setEnable(true);
                 mConnected = true;
             } else if (enable && !flag) {
                 enable = false;
-                //set the disabled flag on the handler thread
-                deviceManager.thread.setEnable(getId(), false);
-                deviceManager.stopThread();
+                super.setEnable(false);
+                deviceManager.stop();
                 mConnected = false;
                 context.getInputManager().removeCursorController(this);
             }
         }
 
         @Override
-        public void setScene(SXRScene scene) {
-            if (!deviceManager.threadStarted) {
+        public void setScene(final SXRScene scene) {
+            if (!deviceManager.started) {
                 super.setScene(scene);
             } else {
-                deviceManager.thread.setScene(getId(), scene);
+                context.runOnGlThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        callParentSetScene(scene);
+                    }
+                });
             }
         }
 
-        void callParentSetEnable(boolean enable){
-            super.setEnable(enable);
-        }
-
         void callParentSetScene(SXRScene scene) {
             super.setScene(scene);
         }
 
-        void callParentInvalidate() {
-            super.invalidate();
-        }
-
         @Override
         public void invalidate() {
-            if (!deviceManager.threadStarted) {
+            if (!deviceManager.started) {
                 //do nothing
                 return;
             }
-            deviceManager.thread.sendInvalidate(getId());
+            invalidatePending = true;
         }
 
         @Override
@@ -144,12 +185,9 @@ final class SXRMouseDeviceManager {
         @Override
         public synchronized boolean dispatchKeyEvent(KeyEvent event)
         {
-            if (event.isFromSource(InputDevice.SOURCE_MOUSE))
+            if (deviceManager.started && event.isFromSource(InputDevice.SOURCE_MOUSE))
             {
-                if (deviceManager.thread.submitKeyEvent(getId(), event))
-                {
-                    return true;
-                }
+                return events.offer(event);
             }
             return false;
         }
@@ -157,16 +195,88 @@ final class SXRMouseDeviceManager {
         @Override
         public synchronized boolean dispatchMotionEvent(MotionEvent event)
         {
-            if (event.isFromSource(InputDevice.SOURCE_MOUSE))
+            if (deviceManager.started && event.isFromSource(InputDevice.SOURCE_MOUSE))
             {
-                if (deviceManager.thread.submitMotionEvent(getId(), event))
+                MotionEvent clone = MotionEvent.obtain(event);
+                if (events.offer(clone))
                 {
                     return true;
                 }
+                clone.recycle();
             }
             return false;
         }
 
+        /**
+         * Consume the events queued since the last frame. Runs on the GL
+         * thread. A pointer move followed by another move is dropped, every
+         * other event is processed in order.
+         */
+        void processEvents()
+        {
+            boolean hadEvents = !events.isEmpty();
+            InputEvent event;
+
+            while ((event = events.poll()) != null)
+            {
+                if (event instanceof KeyEvent)
+                {
+                    processKeyEvent((KeyEvent) event);
+                }
+                else if (SXRInputEventRing.isCoalescable(event)
+                         && SXRInputEventRing.isCoalescable(events.peek()))
+                {
+                    ((MotionEvent) event).recycle();
+                }
+                else if (!processMotionEvent((MotionEvent) event))
+                {
+                    // recycle if unhandled.
+                    ((MotionEvent) event).recycle();
+                }
+            }
+            if (enable && (hadEvents || invalidatePending))
+            {
+                invalidatePending = false;
+                super.invalidate();
+            }
+        }
+
+        private void processKeyEvent(KeyEvent event) {
+            InputDevice device = event.getDevice();
+            if (device != null) {
+                setKeyEvent(event);
+            }
+        }
+
+        // The following methods are taken from the controller sample on the
+        // Android Developer web site:
+        // https://developer.android.com/training/game-controllers/controller-input.html
+        private boolean processMotionEvent(MotionEvent event) {
+            InputDevice device = event.getDevice();
+            if (device == null) {
+                return false;
+            }
+
+            /*
+             * Retrieve the normalized coordinates (-1 to 1) for any given (x,y)
+             * value reported by the MotionEvent.
+             */
+            InputDevice.MotionRange range = device
+                    .getMotionRange(MotionEvent.AXIS_X, event.getSource());
+            float x = range.getMax() + 1;
+            range = device.getMotionRange(MotionEvent.AXIS_Y, event.getSource());
+            float y = range.getMax() + 1;
+            float z = 0;
+            if (event.getAction() == MotionEvent.ACTION_SCROLL)
+            {
+                z = (event.getAxisValue(MotionEvent.AXIS_VSCROLL) > 0 ? -1 : 1);
+            }
+            x = (event.getX() / x * 2.0f - 1.0f);
+            y = 1.0f - event.getY() / y * 2.0f;
+
+            return processMouseEvent(x, y, z, event);
+        }
+
         private boolean processMouseEvent(float x, float y, float z, MotionEvent e)
         {
             if (scene == null)
@@ -220,187 +330,36 @@ final class SXRMouseDeviceManager {
         }
     }
 
-    private class EventHandlerThread extends HandlerThread {
-        private static final int MOTION_EVENT = 0;
-        private static final int KEY_EVENT = 1;
-        private static final int UPDATE_POSITION = 2;
-        public static final int SET_ENABLE = 3;
-        public static final int SET_SCENE = 4;
-        public static final int SEND_INVALIDATE = 5;
-
-        public static final int ENABLE = 0;
-        public static final int DISABLE = 1;
-
-        private Handler handler;
-
-        EventHandlerThread(String name) {
-            super(name);
-        }
-
-        void prepareHandler() {
-            handler = new Handler(getLooper()) {
-                @Override
-                public void handleMessage(Message msg) {
-                    int id = msg.arg1;
-                    switch (msg.what) {
-                        case MOTION_EVENT:
-                            MotionEvent motionEvent = (MotionEvent) msg.obj;
-                            if (dispatchMotionEvent(id, motionEvent) == false) {
-                                // recycle if unhandled.
-                                motionEvent.recycle();
-                            }
-                            break;
-                        case KEY_EVENT:
-                            KeyEvent keyEvent = (KeyEvent) msg.obj;
-                            dispatchKeyEvent(id, keyEvent);
-                            break;
-                        case SET_ENABLE:
-                            synchronized (controllers) {
-                                final SXRMouseController c = controllers.get(id);
-                                if (null != c) {
-                                    c.callParentSetEnable(msg.arg2 == ENABLE);
-                                }
-                            }
-                            break;
-
-                        case SET_SCENE:
-                            synchronized (controllers) {
-                                final SXRMouseController c = controllers.get(id);
-                                if (null != c) {
-                                    c.callParentSetScene((SXRScene) msg.obj);
-                                }
-                            }
-                            break;
-
-                        case SEND_INVALIDATE:
-                            synchronized (controllers) {
-                                final SXRMouseController c = controllers.get(id);
-                                if (null != c) {
-                                    c.callParentInvalidate();
-                                }
-                            }
-                            break;
-
-                        default:
-                            break;
-                    }
-                }
-            };
-        }
-
-        boolean submitKeyEvent(int id, KeyEvent event) {
-            if (threadStarted) {
-                Message message = Message.obtain(null, KEY_EVENT, id, 0, event);
-                return handler.sendMessage(message);
-            }
-            return false;
-        }
-
-        boolean submitMotionEvent(int id, MotionEvent event) {
-            if (threadStarted) {
-                MotionEvent clone = MotionEvent.obtain(event);
-                Message message = Message.obtain(null, MOTION_EVENT, id, 0, clone);
-                return handler.sendMessage(message);
-            }
-            return false;
-        }
-
-        void setEnable(int id, boolean enable) {
-            if (threadStarted) {
-                handler.removeMessages(SET_ENABLE);
-                Message msg = Message.obtain(handler, SET_ENABLE, id, enable ? ENABLE : DISABLE);
-                msg.sendToTarget();
-            }
-        }
-
-        void setScene(int id, SXRScene scene){
-            if (threadStarted) {
-                handler.removeMessages(SET_SCENE);
-                Message msg = Message.obtain(handler, SET_SCENE, id, 0, scene);
-                msg.sendToTarget();
-            }
-        }
-
-        void sendInvalidate(int id){
-            if (threadStarted) {
-                handler.removeMessages(SEND_INVALIDATE);
-                Message msg = Message.obtain(handler, SEND_INVALIDATE, id, 0);
-                msg.sendToTarget();
-            }
-        }
-
-        private void dispatchKeyEvent(int id, KeyEvent event) {
-            if (id != -1) {
-                InputDevice device = event.getDevice();
-                if (device != null) {
-                    SXRMouseController mouseDevice = controllers.get(id);
-                    mouseDevice.setKeyEvent(event);
-                }
-            }
-        }
-
-        // The following methods are taken from the controller sample on the
-        // Android Developer web site:
-        // https://developer.android.com/training/game-controllers/controller-input.html
-        private boolean dispatchMotionEvent(int id, MotionEvent event) {
-            InputDevice device = event.getDevice();
-            if (id == -1 || device == null) {
-                return false;
-            }
-
-            /*
-             * Retrieve the normalized coordinates (-1 to 1) for any given (x,y)
-             * value reported by the MotionEvent.
-             */
-            InputDevice.MotionRange range = device
-                    .getMotionRange(MotionEvent.AXIS_X, event.getSource());
-            float x = range.getMax() + 1;
-            range = device.getMotionRange(MotionEvent.AXIS_Y, event.getSource());
-            float y = range.getMax() + 1;
-            float z = 0;
-            if (event.getAction() == MotionEvent.ACTION_SCROLL)
-            {
-                z = (event.getAxisValue(MotionEvent.AXIS_VSCROLL) > 0 ? -1 : 1);
-            }
-            x = (event.getX() / x * 2.0f - 1.0f);
-            y = 1.0f - event.getY() / y * 2.0f;
-
-            SXRMouseController controller = controllers.get(id);
-            return controller.processMouseEvent(x, y, z, event);
-        }
-    }
-
-    void startThread(){
-        if(!threadStarted){
-            thread.start();
-            thread.prepareHandler();
-            threadStarted = true;
+    void start(){
+        if(!started){
+            context.registerDrawFrameListener(this);
+            started = true;
         }
     }
 
-    void stopThread() {
+    void stop() {
         boolean foundEnabled = false;
 
-        for(int i = 0 ;i< controllers.size(); i++){
-            SXRCursorController controller = controllers.valueAt(i);
-            if(controller.isEnabled()){
-                foundEnabled = true;
-                break;
+        synchronized (controllers) {
+            for (int i = 0; i < controllers.size(); i++) {
+                SXRCursorController controller = controllers.valueAt(i);
+                if (controller.isEnabled()) {
+                    foundEnabled = true;
+                    break;
+                }
             }
         }
 
-        if (!foundEnabled && threadStarted) {
-            thread.quitSafely();
-            thread = new EventHandlerThread(THREAD_NAME);
-            threadStarted = false;
+        if (!foundEnabled) {
+            forceStop();
         }
     }
 
-    void forceStopThread(){
-        if (threadStarted) {
-            thread.quitSafely();
-            thread = new EventHandlerThread(THREAD_NAME);
-            threadStarted = false;
+    void forceStop(){
+        if (started) {
+            context.unregisterDrawFrameListener(this);
+            started = false;
+            drainEvents(frameControllers);
         }
     }
-}
\ No newline at end of file
+}
@@ -30,6 +30,12 @@ import com.samsungxr.SXRTexture;
 import com.samsungxr.SXRVertexBuffer;
 import org.joml.Vector3f;
 
+/**
+ * A cube. The geometry of the mesh comes from the {@link SXRPrimitiveMeshFactory};
+ * the factory settings decide whether nodes with the same shape share their
+ * mesh, and whether the mesh is tessellated in the background, leaving the
+ * node without a mesh until it is ready.
+ */
 public class SXRCubeNode extends SXRNode {
 
     private static final float SIZE = 0.5f;
@@ -267,10 +273,9 @@ public class SXRCubeNode extends SXRNode {
      */
     public SXRCubeNode(SXRContext gvrContext, boolean facingOut, String vertexDesc, SXRShaderId shaderId) {
         super(gvrContext);
-        SXRMesh mesh = createCube(gvrContext, vertexDesc, facingOut, null);
         SXRRenderData renderData = new SXRRenderData(gvrContext, new SXRMaterial(gvrContext, shaderId));
         attachComponent(renderData);
-        renderData.setMesh(mesh);
+        SXRPrimitiveMeshFactory.getInstance(gvrContext).setCube(renderData, facingOut, vertexDesc, null);
     }
 
     /**
@@ -298,10 +303,9 @@ public class SXRCubeNode extends SXRNode {
      */
     public SXRCubeNode(SXRContext gvrContext, boolean facingOut, String vertexDesc, SXRMaterial mtl, Vector3f dimensions) {
         super(gvrContext);
-        SXRMesh mesh = createCube(gvrContext, vertexDesc, facingOut, dimensions);
         SXRRenderData renderData = new SXRRenderData(gvrContext, mtl);
         attachComponent(renderData);
-        renderData.setMesh(mesh);
+        SXRPrimitiveMeshFactory.getInstance(gvrContext).setCube(renderData, facingOut, vertexDesc, dimensions);
     }
 
     /**
@@ -507,13 +511,37 @@ public class SXRCubeNode extends SXRNode {
         return mesh;
     }
 
+    /**
+     * Generate the vertices, normals, texture coordinates and indices of a
+     * cube with the given dimensions. Does not touch any native objects so it
+     * may be called from any thread.
+     */
+    static SXRPrimitiveMeshFactory.Geometry tessellate(boolean facingOut, float width, float height, float depth)
+    {
+        float[] vertices = new float[SIMPLE_VERTICES.length];
+
+        for (int i = 0; i < SIMPLE_VERTICES.length; i += 3)
+        {
+            vertices[i] = SIMPLE_VERTICES[i] * width;
+            vertices[i + 1] = SIMPLE_VERTICES[i + 1] * height;
+            vertices[i + 2] = SIMPLE_VERTICES[i + 2] * depth;
+        }
+        if (facingOut)
+        {
+            return new SXRPrimitiveMeshFactory.Geometry(vertices, SIMPLE_OUTWARD_NORMALS,
+                    SIMPLE_OUTWARD_TEXCOORDS, SIMPLE_OUTWARD_INDICES);
+        }
+        return new SXRPrimitiveMeshFactory.Geometry(vertices, SIMPLE_INWARD_NORMALS,
+                SIMPLE_INWARD_TEXCOORDS, SIMPLE_INWARD_INDICES);
+    }
+
     private void createSimpleCube(SXRContext gvrContext, boolean facingOut,
             SXRMaterial material, Vector3f dimensions) {
 
-        SXRMesh mesh = createCube(gvrContext, "float3 a_position, float2 a_texcoord, float3 a_normal", facingOut, dimensions);
         SXRRenderData renderData = new SXRRenderData(gvrContext, material);
         attachComponent(renderData);
-        renderData.setMesh(mesh);
+        SXRPrimitiveMeshFactory.getInstance(gvrContext)
+                .setCube(renderData, facingOut, "float3 a_position, float2 a_texcoord, float3 a_normal", dimensions);
     }
 
     private static final char[] SIMPLE_OUTWARD_FRONT_INDICES = { 0, 1, 2, // front
@@ -27,6 +27,12 @@ import com.samsungxr.SXRMesh;
 import com.samsungxr.SXRTexture;
 import com.samsungxr.utility.Log;
 
+/**
+ * A cylinder. The geometry of the mesh comes from the {@link SXRPrimitiveMeshFactory};
+ * the factory settings decide whether nodes with the same shape share their
+ * mesh, and whether the mesh is tessellated in the background, leaving the
+ * node without a mesh until it is ready.
+ */
 public class SXRCylinderNode extends SXRNode {
     public static class CylinderParams {
         public float       Height = 1.0f;
@@ -558,37 +564,31 @@ public class SXRCylinderNode extends SXRNode {
     }
 
     private void generateCylinderObject(SXRContext gvrContext, CylinderParams params) {
-        String vertexDesc = params.VertexDescriptor;
-
-        if (vertexDesc == null) {
-            vertexDesc = "float3 a_position float2 a_texcoord float3 a_normal";
-        }
-        generateCylinder(params);
-
-        SXRMesh mesh = new SXRMesh(gvrContext, vertexDesc);
         SXRMaterial material = params.Material;
 
         if (material == null)
         {
             material = new SXRMaterial(gvrContext);
         }
-        mesh.setVertices(vertices);
-        if (vertexDesc.contains("normal"))
-        {
-            mesh.setNormals(normals);
-        }
-        if (vertexDesc.contains("texcoord"))
-        {
-            mesh.setTexCoords(texCoords);
-        }
-        mesh.setIndices(indices);
 
         SXRRenderData renderData = new SXRRenderData(gvrContext);
         attachRenderData(renderData);
-        renderData.setMesh(mesh);
+        SXRPrimitiveMeshFactory.getInstance(gvrContext).setCylinder(renderData, params);
         renderData.setMaterial(material);
     }
 
+    /**
+     * Generate the vertices, normals, texture coordinates and indices of a
+     * cylinder. Does not touch any native objects so it may be called from
+     * any thread.
+     */
+    static SXRPrimitiveMeshFactory.Geometry tessellate(CylinderParams params) {
+        Tessellator tessellator = new Tessellator();
+        tessellator.generateCylinder(params);
+        return new SXRPrimitiveMeshFactory.Geometry(tessellator.vertices, tessellator.normals,
+                tessellator.texCoords, tessellator.indices);
+    }
+
     private void generateCylinderObjectThreeMeshes(SXRContext gvrContext,
             CylinderParams params,
             ArrayList<SXRTexture> textureList) {
@@ -610,274 +610,281 @@ public class SXRCylinderNode extends SXRNode {
         }
     }
 
-    private void generateCylinder(CylinderParams params) {
-
-        int capNumber = 2;
-        if (params.BottomRadius == 0) {
-            capNumber--;
-        }
-
-        if (params.TopRadius == 0) {
-            capNumber--;
-        }
-
-        int capVertexNumber = 3 * params.SliceNumber;
-        int bodyVertexNumber = 4 * params.SliceNumber * params.StackNumber;
-        int vertexNumber = (capNumber * capVertexNumber) + bodyVertexNumber;
-        int triangleNumber = (capNumber * capVertexNumber)
-                + (6 * params.SliceNumber * params.StackNumber);
-        float halfHeight = params.Height / 2.0f;
+    private static final class Tessellator {
+        private float[] vertices;
+        private float[] normals;
+        private float[] texCoords;
+        private char[] indices;
+        private int vertexCount = 0;
+        private int texCoordCount = 0;
+        private char indexCount = 0;
+        private int triangleCount = 0;
+
+        private void generateCylinder(CylinderParams params) {
+
+            int capNumber = 2;
+            if (params.BottomRadius == 0) {
+                capNumber--;
+            }
 
-        vertices = new float[3 * vertexNumber];
-        normals = new float[3 * vertexNumber];
-        texCoords = new float[2 * vertexNumber];
-        indices = new char[triangleNumber];
+            if (params.TopRadius == 0) {
+                capNumber--;
+            }
 
-        // top cap
-        // 3 * numSlices
-        if (params.HasTopCap && (params.TopRadius > 0)) {
-            createCap(params.TopRadius, halfHeight, params.SliceNumber, 1.0f, params.FacingOut);
-        }
+            int capVertexNumber = 3 * params.SliceNumber;
+            int bodyVertexNumber = 4 * params.SliceNumber * params.StackNumber;
+            int vertexNumber = (capNumber * capVertexNumber) + bodyVertexNumber;
+            int triangleNumber = (capNumber * capVertexNumber)
+                    + (6 * params.SliceNumber * params.StackNumber);
+            float halfHeight = params.Height / 2.0f;
+
+            vertices = new float[3 * vertexNumber];
+            normals = new float[3 * vertexNumber];
+            texCoords = new float[2 * vertexNumber];
+            indices = new char[triangleNumber];
+
+            // top cap
+            // 3 * numSlices
+            if (params.HasTopCap && (params.TopRadius > 0)) {
+                createCap(params.TopRadius, halfHeight, params.SliceNumber, 1.0f, params.FacingOut);
+            }
 
-        // cylinder body
-        // 4 * numSlices * numStacks
-        createBody(params);
+            // cylinder body
+            // 4 * numSlices * numStacks
+            createBody(params);
 
-        // bottom cap
-        // 3 * numSlices
-        if (params.HasBottomCap && (params.BottomRadius > 0)) {
-            createCap(params.BottomRadius, -halfHeight, params.SliceNumber, -1.0f, params.FacingOut);
+            // bottom cap
+            // 3 * numSlices
+            if (params.HasBottomCap && (params.BottomRadius > 0)) {
+                createCap(params.BottomRadius, -halfHeight, params.SliceNumber, -1.0f, params.FacingOut);
+            }
         }
-    }
     
-    private void createCap(float radius, float height, int sliceNumber,
-            float normalDirection, boolean facingOut) {
-        if (!facingOut) {
-            normalDirection = -normalDirection;
-        }
-        for (int slice = 0; slice < sliceNumber; slice++) {
-            double theta0 = ((double) (slice) / sliceNumber) * 2.0 * Math.PI;
-            double theta1 = ((double) (slice + 1) / sliceNumber) * 2.0
-                    * Math.PI;
-
-            float y = height;
-            float x0 = (float) (radius * Math.cos(theta0));
-            float z0 = (float) (radius * Math.sin(theta0));
-            float x1 = (float) (radius * Math.cos(theta1));
-            float z1 = (float) (radius * Math.sin(theta1));
-
-            float s0, s1;
-            if (normalDirection > 0) {
-                s0 = (float) (slice) / sliceNumber;
-                s1 = (float) (slice + 1) / sliceNumber;
-            } else {
-                s0 = 1.0f - (float) (slice) / sliceNumber;
-                s1 = 1.0f - (float) (slice + 1) / sliceNumber;
+        private void createCap(float radius, float height, int sliceNumber,
+                float normalDirection, boolean facingOut) {
+            if (!facingOut) {
+                normalDirection = -normalDirection;
             }
-            float s2 = (s0 + s1) / 2.0f;
-
-            vertices[vertexCount + 0] = x0;
-            vertices[vertexCount + 1] = y;
-            vertices[vertexCount + 2] = z0;
-            vertices[vertexCount + 3] = x1;
-            vertices[vertexCount + 4] = y;
-            vertices[vertexCount + 5] = z1;
-            vertices[vertexCount + 6] = 0.0f;
-            vertices[vertexCount + 7] = y;
-            vertices[vertexCount + 8] = 0.0f;
+            for (int slice = 0; slice < sliceNumber; slice++) {
+                double theta0 = ((double) (slice) / sliceNumber) * 2.0 * Math.PI;
+                double theta1 = ((double) (slice + 1) / sliceNumber) * 2.0
+                        * Math.PI;
 
-            normals[vertexCount + 0] = 0.0f;
-            normals[vertexCount + 1] = normalDirection;
-            normals[vertexCount + 2] = 0.0f;
-            normals[vertexCount + 3] = 0.0f;
-            normals[vertexCount + 4] = normalDirection;
-            normals[vertexCount + 5] = 0.0f;
-            normals[vertexCount + 6] = 0.0f;
-            normals[vertexCount + 7] = normalDirection;
-            normals[vertexCount + 8] = 0.0f;
+                float y = height;
+                float x0 = (float) (radius * Math.cos(theta0));
+                float z0 = (float) (radius * Math.sin(theta0));
+                float x1 = (float) (radius * Math.cos(theta1));
+                float z1 = (float) (radius * Math.sin(theta1));
 
-            texCoords[texCoordCount + 0] = s0;
-            texCoords[texCoordCount + 1] = 0.0f;
+                float s0, s1;
+                if (normalDirection > 0) {
+                    s0 = (float) (slice) / sliceNumber;
+                    s1 = (float) (slice + 1) / sliceNumber;
+                } else {
+                    s0 = 1.0f - (float) (slice) / sliceNumber;
+                    s1 = 1.0f - (float) (slice + 1) / sliceNumber;
+                }
+                float s2 = (s0 + s1) / 2.0f;
 
-            texCoords[texCoordCount + 2] = s1;
-            texCoords[texCoordCount + 3] = 0.0f;
+                vertices[vertexCount + 0] = x0;
+                vertices[vertexCount + 1] = y;
+                vertices[vertexCount + 2] = z0;
+                vertices[vertexCount + 3] = x1;
+                vertices[vertexCount + 4] = y;
+                vertices[vertexCount + 5] = z1;
+                vertices[vertexCount + 6] = 0.0f;
+                vertices[vertexCount + 7] = y;
+                vertices[vertexCount + 8] = 0.0f;
 
-            texCoords[texCoordCount + 4] = s2;
-            texCoords[texCoordCount + 5] = 1.0f;
+                normals[vertexCount + 0] = 0.0f;
+                normals[vertexCount + 1] = normalDirection;
+                normals[vertexCount + 2] = 0.0f;
+                normals[vertexCount + 3] = 0.0f;
+                normals[vertexCount + 4] = normalDirection;
+                normals[vertexCount + 5] = 0.0f;
+                normals[vertexCount + 6] = 0.0f;
+                normals[vertexCount + 7] = normalDirection;
+                normals[vertexCount + 8] = 0.0f;
 
-            if (normalDirection > 0) {
-                indices[indexCount + 0] = (char) (triangleCount + 1);
-                indices[indexCount + 1] = (char) (triangleCount + 0);
-                indices[indexCount + 2] = (char) (triangleCount + 2);
-            } else {
-                indices[indexCount + 0] = (char) (triangleCount + 0);
-                indices[indexCount + 1] = (char) (triangleCount + 1);
-                indices[indexCount + 2] = (char) (triangleCount + 2);
-            }
+                texCoords[texCoordCount + 0] = s0;
+                texCoords[texCoordCount + 1] = 0.0f;
 
-            vertexCount += 9;
-            texCoordCount += 6;
-            indexCount += 3;
-            triangleCount += 3;
-        }
-    }
+                texCoords[texCoordCount + 2] = s1;
+                texCoords[texCoordCount + 3] = 0.0f;
 
-    private void createBody(CylinderParams params) {
-        float difference = params.BottomRadius - params.TopRadius;
-        float length = (float) Math.sqrt(difference*difference + params.Height * params.Height);
-        float ratio = params.Height / length;
-        float halfHeight = params.Height / 2.0f;
-        float normalDirection = params.FacingOut ? 1 : -1;
-
-        for (int stack = 0; stack < params.StackNumber; stack++) {
-
-            float stackPercentage0 = ((float) (stack) / params.StackNumber);
-            float stackPercentage1 = ((float) (stack + 1) / params.StackNumber);
-            float radius0 = (params.BottomRadius - (difference * stackPercentage0));
-            float radius1 = (params.BottomRadius - (difference * stackPercentage1));
-
-            float t0 = 1.0f - stackPercentage0;
-            float t1 = 1.0f - stackPercentage1;
-            float y0 = -halfHeight + (stackPercentage0 * params.Height);
-            float y1 = -halfHeight + (stackPercentage1 * params.Height);
-
-            for (int slice = 0; slice < params.SliceNumber; slice++) {
-                float slicePercentage0 = ((float) (slice) / params.SliceNumber);
-                float slicePercentage1 = ((float) (slice + 1) / params.SliceNumber);
-                double theta0 = slicePercentage0 * 2.0 * Math.PI;
-                double theta1 = slicePercentage1 * 2.0 * Math.PI;
-                double cosTheta0 = Math.cos(theta0);
-                double sinTheta0 = Math.sin(theta0);
-                double cosTheta1 = Math.cos(theta1);
-                double sinTheta1 = Math.sin(theta1);
-
-                float x0 = (float) (radius0 * cosTheta0);
-                float z0 = (float) (-radius0 * sinTheta0);
-                float x1 = (float) (radius0 * cosTheta1);
-                float z1 = (float) (-radius0 * sinTheta1);
-
-                float x2 = (float) (radius1 * cosTheta0);
-                float z2 = (float) (-radius1 * sinTheta0);
-                float x3 = (float) (radius1 * cosTheta1);
-                float z3 = (float) (-radius1 * sinTheta1);
+                texCoords[texCoordCount + 4] = s2;
+                texCoords[texCoordCount + 5] = 1.0f;
 
-                float s0, s1;
-                if (params.FacingOut) {
-                    s0 = slicePercentage0;
-                    s1 = slicePercentage1;
+                if (normalDirection > 0) {
+                    indices[indexCount + 0] = (char) (triangleCount + 1);
+                    indices[indexCount + 1] = (char) (triangleCount + 0);
+                    indices[indexCount + 2] = (char) (triangleCount + 2);
                 } else {
-                    s0 = 1.0f - slicePercentage0;
-                    s1 = 1.0f - slicePercentage1;
+                    indices[indexCount + 0] = (char) (triangleCount + 0);
+                    indices[indexCount + 1] = (char) (triangleCount + 1);
+                    indices[indexCount + 2] = (char) (triangleCount + 2);
                 }
 
-                vertices[vertexCount + 0] = x0;
-                vertices[vertexCount + 1] = y0;
-                vertices[vertexCount + 2] = z0;
+                vertexCount += 9;
+                texCoordCount += 6;
+                indexCount += 3;
+                triangleCount += 3;
+            }
+        }
 
-                vertices[vertexCount + 3] = x1;
-                vertices[vertexCount + 4] = y0;
-                vertices[vertexCount + 5] = z1;
+        private void createBody(CylinderParams params) {
+            float difference = params.BottomRadius - params.TopRadius;
+            float length = (float) Math.sqrt(difference*difference + params.Height * params.Height);
+            float ratio = params.Height / length;
+            float halfHeight = params.Height / 2.0f;
+            float normalDirection = params.FacingOut ? 1 : -1;
+
+            for (int stack = 0; stack < params.StackNumber; stack++) {
+
+                float stackPercentage0 = ((float) (stack) / params.StackNumber);
+                float stackPercentage1 = ((float) (stack + 1) / params.StackNumber);
+                float radius0 = (params.BottomRadius - (difference * stackPercentage0));
+                float radius1 = (params.BottomRadius - (difference * stackPercentage1));
+
+                float t0 = 1.0f - stackPercentage0;
+                float t1 = 1.0f - stackPercentage1;
+                float y0 = -halfHeight + (stackPercentage0 * params.Height);
+                float y1 = -halfHeight + (stackPercentage1 * params.Height);
+
+                for (int slice = 0; slice < params.SliceNumber; slice++) {
+                    float slicePercentage0 = ((float) (slice) / params.SliceNumber);
+                    float slicePercentage1 = ((float) (slice + 1) / params.SliceNumber);
+                    double theta0 = slicePercentage0 * 2.0 * Math.PI;
+                    double theta1 = slicePercentage1 * 2.0 * Math.PI;
+                    double cosTheta0 = Math.cos(theta0);
+                    double sinTheta0 = Math.sin(theta0);
+                    double cosTheta1 = Math.cos(theta1);
+                    double sinTheta1 = Math.sin(theta1);
+
+                    float x0 = (float) (radius0 * cosTheta0);
+                    float z0 = (float) (-radius0 * sinTheta0);
+                    float x1 = (float) (radius0 * cosTheta1);
+                    float z1 = (float) (-radius0 * sinTheta1);
+
+                    float x2 = (float) (radius1 * cosTheta0);
+                    float z2 = (float) (-radius1 * sinTheta0);
+                    float x3 = (float) (radius1 * cosTheta1);
+                    float z3 = (float) (-radius1 * sinTheta1);
+
+                    float s0, s1;
+                    if (params.FacingOut) {
+                        s0 = slicePercentage0;
+                        s1 = slicePercentage1;
+                    } else {
+                        s0 = 1.0f - slicePercentage0;
+                        s1 = 1.0f - slicePercentage1;
+                    }
+
+                    vertices[vertexCount + 0] = x0;
+                    vertices[vertexCount + 1] = y0;
+                    vertices[vertexCount + 2] = z0;
 
-                vertices[vertexCount + 6] = x2;
-                vertices[vertexCount + 7] = y1;
-                vertices[vertexCount + 8] = z2;
+                    vertices[vertexCount + 3] = x1;
+                    vertices[vertexCount + 4] = y0;
+                    vertices[vertexCount + 5] = z1;
 
-                vertices[vertexCount + 9] = x3;
-                vertices[vertexCount + 10] = y1;
-                vertices[vertexCount + 11] = z3;
+                    vertices[vertexCount + 6] = x2;
+                    vertices[vertexCount + 7] = y1;
+                    vertices[vertexCount + 8] = z2;
 
-                // calculate normal
-                float nx0 = (float) (ratio * cosTheta0);
-                float nx1 = (float) (ratio * cosTheta1);
-                float ny = difference / length;
-                float nz0 = (float) (-ratio * sinTheta0);
-                float nz1 = (float) (-ratio * sinTheta0);
+                    vertices[vertexCount + 9] = x3;
+                    vertices[vertexCount + 10] = y1;
+                    vertices[vertexCount + 11] = z3;
+
+                    // calculate normal
+                    float nx0 = (float) (ratio * cosTheta0);
+                    float nx1 = (float) (ratio * cosTheta1);
+                    float ny = difference / length;
+                    float nz0 = (float) (-ratio * sinTheta0);
+                    float nz1 = (float) (-ratio * sinTheta0);
                 
-                normals[vertexCount + 0] = normalDirection * nx0;
-                normals[vertexCount + 1] = normalDirection * ny;
-                normals[vertexCount + 2] = normalDirection * nz0;
+                    normals[vertexCount + 0] = normalDirection * nx0;
+                    normals[vertexCount + 1] = normalDirection * ny;
+                    normals[vertexCount + 2] = normalDirection * nz0;
                 
-                normals[vertexCount + 3] = normalDirection * nx1;
-                normals[vertexCount + 4] = normalDirection * ny;
-                normals[vertexCount + 5] = normalDirection * nz1;
+                    normals[vertexCount + 3] = normalDirection * nx1;
+                    normals[vertexCount + 4] = normalDirection * ny;
+                    normals[vertexCount + 5] = normalDirection * nz1;
                 
-                normals[vertexCount + 6] = normalDirection * nx0;
-                normals[vertexCount + 7] = normalDirection * ny;
-                normals[vertexCount + 8] = normalDirection * nz0;
+                    normals[vertexCount + 6] = normalDirection * nx0;
+                    normals[vertexCount + 7] = normalDirection * ny;
+                    normals[vertexCount + 8] = normalDirection * nz0;
                 
-                normals[vertexCount + 9] = normalDirection * nx1;
-                normals[vertexCount + 10] = normalDirection * ny;
-                normals[vertexCount + 11] = normalDirection * nz1;
-
-                texCoords[texCoordCount + 0] = s0;
-                texCoords[texCoordCount + 1] = t0;
-
-                texCoords[texCoordCount + 2] = s1;
-                texCoords[texCoordCount + 3] = t0;
-
-                texCoords[texCoordCount + 4] = s0;
-                texCoords[texCoordCount + 5] = t1;
-
-                texCoords[texCoordCount + 6] = s1;
-                texCoords[texCoordCount + 7] = t1;
-
-                // one quad looking from outside toward center
-                //
-                // @formatter:off
-                //
-                // t1   2-----3
-                //  |   |     |
-                //  v   |     |
-                // t0   0-----1
-                //
-                //     s0 --> s1
-                //     
-                // @formatter:on
-                //
-                // Note that tex_coord t increase from top to bottom because the
-                // texture image is loaded upside down.
-                if (normalDirection > 0) {
-                    indices[indexCount + 0] = (char) (triangleCount + 0); // 0
-                    indices[indexCount + 1] = (char) (triangleCount + 1); // 1
-                    indices[indexCount + 2] = (char) (triangleCount + 2); // 2
-
-                    indices[indexCount + 3] = (char) (triangleCount + 2); // 2
-                    indices[indexCount + 4] = (char) (triangleCount + 1); // 1
-                    indices[indexCount + 5] = (char) (triangleCount + 3); // 3
-                } else {
-                    indices[indexCount + 0] = (char) (triangleCount + 0); // 0
-                    indices[indexCount + 1] = (char) (triangleCount + 2); // 2
-                    indices[indexCount + 2] = (char) (triangleCount + 1); // 1
+                    normals[vertexCount + 9] = normalDirection * nx1;
+                    normals[vertexCount + 10] = normalDirection * ny;
+                    normals[vertexCount + 11] = normalDirection * nz1;
+
+                    texCoords[texCoordCount + 0] = s0;
+                    texCoords[texCoordCount + 1] = t0;
+
+                    texCoords[texCoordCount + 2] = s1;
+                    texCoords[texCoordCount + 3] = t0;
+
+                    texCoords[texCoordCount + 4] = s0;
+                    texCoords[texCoordCount + 5] = t1;
+
+                    texCoords[texCoordCount + 6] = s1;
+                    texCoords[texCoordCount + 7] = t1;
+
+                    // one quad looking from outside toward center
+                    //
+                    // @formatter:off
+                    //
+                    // t1   2-----3
+                    //  |   |     |
+                    //  v   |     |
+                    // t0   0-----1
+                    //
+                    //     s0 --> s1
+                    //     
+                    // @formatter:on
+                    //
+                    // Note that tex_coord t increase from top to bottom because the
+                    // texture image is loaded upside down.
+                    if (normalDirection > 0) {
+                        indices[indexCount + 0] = (char) (triangleCount + 0); // 0
+                        indices[indexCount + 1] = (char) (triangleCount + 1); // 1
+                        indices[indexCount + 2] = (char) (triangleCount + 2); // 2
+
+                        indices[indexCount + 3] = (char) (triangleCount + 2); // 2
+                        indices[indexCount + 4] = (char) (triangleCount + 1); // 1
+                        indices[indexCount + 5] = (char) (triangleCount + 3); // 3
+                    } else {
+                        indices[indexCount + 0] = (char) (triangleCount + 0); // 0
+                        indices[indexCount + 1] = (char) (triangleCount + 2); // 2
+                        indices[indexCount + 2] = (char) (triangleCount + 1); // 1
+
+                        indices[indexCount + 3] = (char) (triangleCount + 2); // 2
+                        indices[indexCount + 4] = (char) (triangleCount + 3); // 3
+                        indices[indexCount + 5] = (char) (triangleCount + 1); // 1
+                    }
 
-                    indices[indexCount + 3] = (char) (triangleCount + 2); // 2
-                    indices[indexCount + 4] = (char) (triangleCount + 3); // 3
-                    indices[indexCount + 5] = (char) (triangleCount + 1); // 1
+                    vertexCount += 12;
+                    texCoordCount += 8;
+                    indexCount += 6;
+                    triangleCount += 4;
                 }
-
-                vertexCount += 12;
-                texCoordCount += 8;
-                indexCount += 6;
-                triangleCount += 4;
             }
         }
     }
 
     private void createCapMesh(SXRContext gvrContext, CylinderParams params, float radius, float height,
             float normalDirection, SXRTexture texture) {
+        Tessellator tessellator = new Tessellator();
         int sliceNumber = params.SliceNumber;
         boolean facingOut = params.FacingOut;
         int capVertexNumber = 3 * sliceNumber;
-        vertices = new float[3 * capVertexNumber];
-        normals = new float[3 * capVertexNumber];
-        texCoords = new float[2 * capVertexNumber];
-        indices = new char[capVertexNumber];
+        tessellator.vertices = new float[3 * capVertexNumber];
+        tessellator.normals = new float[3 * capVertexNumber];
+        tessellator.texCoords = new float[2 * capVertexNumber];
+        tessellator.indices = new char[capVertexNumber];
 
-        vertexCount = 0;
-        texCoordCount = 0;
-        indexCount = 0;
-        triangleCount = 0;
-
-        createCap(radius, height, sliceNumber, normalDirection, facingOut);
+        tessellator.createCap(radius, height, sliceNumber, normalDirection, facingOut);
         String vertexDesc = params.VertexDescriptor;
 
         if (vertexDesc == null) {
@@ -885,22 +892,23 @@ public class SXRCylinderNode extends SXRNode {
         }
 
         SXRMesh mesh = new SXRMesh(gvrContext, vertexDesc);
-        mesh.setVertices(vertices);
+        mesh.setVertices(tessellator.vertices);
         if (vertexDesc.contains("normal"))
         {
-            mesh.setNormals(normals);
+            mesh.setNormals(tessellator.normals);
         }
         if (vertexDesc.contains("texcoord"))
         {
-            mesh.setTexCoords(texCoords);
+            mesh.setTexCoords(tessellator.texCoords);
         }
-        mesh.setIndices(indices);
+        mesh.setIndices(tessellator.indices);
 
         SXRNode child = new SXRNode(gvrContext, mesh, texture);
         addChildObject(child);        
    }
 
     private void createBodyMesh(SXRContext gvrContext, CylinderParams params, SXRTexture texture) {
+        Tessellator tessellator = new Tessellator();
         int bodyVertexNumber = 4 * params.SliceNumber * params.StackNumber;
         int triangleNumber = 6 * params.SliceNumber * params.StackNumber;
         String vertexDesc = "float3 a_position float2 a_texcoord float3 a_normal";
@@ -913,29 +921,24 @@ public class SXRCylinderNode extends SXRNode {
             hasNormals = vertexDesc.contains("a_normal");
             hasTexCoords = vertexDesc.contains("a_texcoord");
         }
-        vertices = new float[3 * bodyVertexNumber];
-        normals = hasNormals ? new float[3 * bodyVertexNumber] : null;
-        texCoords = hasTexCoords ? new float[2 * bodyVertexNumber] : null;
-        indices = new char[triangleNumber];
-
-        vertexCount = 0;
-        texCoordCount = 0;
-        indexCount = 0;
-        triangleCount = 0;
+        tessellator.vertices = new float[3 * bodyVertexNumber];
+        tessellator.normals = hasNormals ? new float[3 * bodyVertexNumber] : null;
+        tessellator.texCoords = hasTexCoords ? new float[2 * bodyVertexNumber] : null;
+        tessellator.indices = new char[triangleNumber];
 
-        createBody(params);
+        tessellator.createBody(params);
 
         SXRMesh mesh = new SXRMesh(gvrContext, vertexDesc);
-        mesh.setVertices(vertices);
+        mesh.setVertices(tessellator.vertices);
         if (hasNormals)
         {
-            mesh.setNormals(normals);
+            mesh.setNormals(tessellator.normals);
         }
         if (hasTexCoords)
         {
-            mesh.setTexCoords(texCoords);
+            mesh.setTexCoords(tessellator.texCoords);
         }
-        mesh.setIndices(indices);
+        mesh.setIndices(tessellator.indices);
 
         SXRNode child = new SXRNode(gvrContext, mesh, texture);
         addChildObject(child);        
@@ -0,0 +1,462 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.nodes;
+
+import android.graphics.Bitmap;
+
+import com.samsungxr.SXRBitmapImage;
+import com.samsungxr.SXRContext;
+import com.samsungxr.SXRDrawFrameListener;
+import com.samsungxr.SXRTexture;
+import com.samsungxr.SXRTextureParameters;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static android.opengl.GLES20.GL_RGBA;
+import static android.opengl.GLES20.GL_UNSIGNED_BYTE;
+
+/**
+ * A texture holding the glyphs of one font, shared by all the
+ * {@link SXRGlyphTextNode text nodes} using that font.
+ * <p>
+ * Glyphs are rasterized by a pluggable {@link GlyphRasterizer} the first time
+ * they are used and packed into horizontal shelves. Glyphs are never evicted:
+ * once the atlas is full, new glyphs are counted as
+ * {@linkplain #getMissingGlyphCount() missing} and drawn as blanks, so the
+ * atlas should be sized for the character set of the application.
+ * <p>
+ * Only the rows touched since the last upload are copied to the GPU, at most
+ * once per frame. Packing and layout do not need a GPU: the texture is only
+ * created when {@link #getTexture(SXRContext)} is called, which makes the
+ * atlas usable headless with a test rasterizer.
+ */
+public class SXRGlyphAtlas {
+    private static final String TAG = SXRGlyphAtlas.class.getSimpleName();
+
+    public static final int DEFAULT_SIZE = 1024;
+    private static final int PADDING = 1;
+    // white with no coverage, so filtering at glyph edges does not darken the text
+    private static final int CLEAR_PIXEL = 0xFFFFFF00;
+
+    /**
+     * Produces the glyph images of one font. Sizes are in pixels; the
+     * baseline is at y = 0 and y grows upwards.
+     */
+    public interface GlyphRasterizer {
+        /**
+         * @return distance from the baseline to the top of the line
+         */
+        float getAscent();
+
+        /**
+         * @return distance from the baseline to the bottom of the line
+         */
+        float getDescent();
+
+        /**
+         * @return distance between the baselines of two lines
+         */
+        float getLineHeight();
+
+        /**
+         * Get the size and position of a glyph.
+         * @param codePoint Unicode code point
+         * @param metrics filled in with the glyph metrics
+         * @return false if the font has no glyph for the code point
+         */
+        boolean measure(int codePoint, GlyphMetrics metrics);
+
+        /**
+         * Draw a glyph.
+         * @param codePoint Unicode code point
+         * @param metrics metrics returned by {@link #measure(int, GlyphMetrics)}
+         * @param coverage receives {@code metrics.width * metrics.height}
+         *                 coverage values, row by row from the top
+         */
+        void rasterize(int codePoint, GlyphMetrics metrics, byte[] coverage);
+    }
+
+    /**
+     * Size and position of a glyph image relative to the pen position on the
+     * baseline, in pixels.
+     */
+    public static class GlyphMetrics {
+        /** Width of the glyph image */
+        public int width;
+        /** Height of the glyph image */
+        public int height;
+        /** Offset from the pen position to the left of the image */
+        public float left;
+        /** Offset from the baseline up to the top of the image */
+        public float top;
+        /** Distance to move the pen to the next glyph */
+        public float advance;
+    }
+
+    /**
+     * A glyph in the atlas.
+     */
+    public static final class Glyph {
+        public final int codePoint;
+        public final int width;
+        public final int height;
+        public final float left;
+        public final float top;
+        public final float advance;
+        /** Position of the image in the atlas, -1 if the glyph is not packed */
+        public final int x;
+        public final int y;
+        public final float u0;
+        public final float v0;
+        public final float u1;
+        public final float v1;
+
+        Glyph(int codePoint, GlyphMetrics metrics, int x, int y, int atlasWidth, int atlasHeight) {
+            this.codePoint = codePoint;
+            this.width = metrics.width;
+            this.height = metrics.height;
+            this.left = metrics.left;
+            this.top = metrics.top;
+            this.advance = metrics.advance;
+            this.x = x;
+            this.y = y;
+            if (x >= 0) {
+                u0 = (float) x / atlasWidth;
+                v0 = (float) y / atlasHeight;
+                u1 = (float) (x + width) / atlasWidth;
+                v1 = (float) (y + height) / atlasHeight;
+            } else {
+                u0 = v0 = u1 = v1 = 0;
+            }
+        }
+
+        /**
+         * @return true if the glyph has an image in the atlas
+         */
+        public boolean isVisible() {
+            return x >= 0;
+        }
+    }
+
+    private static final class Shelf {
+        final int y;
+        final int height;
+        int x;
+
+        Shelf(int y, int height) {
+            this.y = y;
+            this.height = height;
+        }
+    }
+
+    /**
+     * Create an atlas of {@link #DEFAULT_SIZE} x {@link #DEFAULT_SIZE} pixels.
+     * @param rasterizer font to draw the glyphs with
+     */
+    public SXRGlyphAtlas(GlyphRasterizer rasterizer) {
+        this(rasterizer, DEFAULT_SIZE, DEFAULT_SIZE);
+    }
+
+    /**
+     * @param rasterizer font to draw the glyphs with
+     * @param width atlas width, in pixels
+     * @param height atlas height, in pixels
+     */
+    public SXRGlyphAtlas(GlyphRasterizer rasterizer, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Invalid atlas size " + width + "x" + height);
+        }
+        mRasterizer = rasterizer;
+        mWidth = width;
+        mHeight = height;
+        mPixels = ByteBuffer.allocateDirect(width * height * 4);
+        IntBuffer pixels = mPixels.duplicate().order(ByteOrder.BIG_ENDIAN).asIntBuffer();
+        while (pixels.hasRemaining()) {
+            pixels.put(CLEAR_PIXEL);
+        }
+    }
+
+    public GlyphRasterizer getRasterizer() {
+        return mRasterizer;
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    /**
+     * Get a glyph, adding it to the atlas if needed.
+     * @param codePoint Unicode code point
+     * @return the glyph; glyphs the font does not have are returned with
+     *         no image and no advance
+     */
+    public synchronized Glyph getGlyph(int codePoint) {
+        Glyph glyph = mGlyphs.get(codePoint);
+        if (glyph != null) {
+            return glyph;
+        }
+
+        final GlyphMetrics metrics = mMetrics;
+        metrics.width = metrics.height = 0;
+        metrics.left = metrics.top = metrics.advance = 0;
+        if (!mRasterizer.measure(codePoint, metrics)) {
+            metrics.width = metrics.height = 0;
+            metrics.advance = 0;
+        }
+
+        int x = -1;
+        int y = -1;
+        if (metrics.width > 0 && metrics.height > 0) {
+            Shelf shelf = allocate(metrics.width + 2 * PADDING, metrics.height + 2 * PADDING);
+            if (shelf != null) {
+                x = shelf.x - metrics.width - PADDING;
+                y = shelf.y + PADDING;
+                draw(codePoint, metrics, x, y);
+            } else {
+                ++mMissingGlyphs;
+                com.samsungxr.utility.Log.w(TAG, "atlas full, no room for glyph %d", codePoint);
+            }
+        }
+        glyph = new Glyph(codePoint, metrics, x, y, mWidth, mHeight);
+        mGlyphs.put(codePoint, glyph);
+        return glyph;
+    }
+
+    private void draw(int codePoint, GlyphMetrics metrics, int x, int y) {
+        final int width = metrics.width;
+        final int height = metrics.height;
+        if (mCoverage.length < width * height) {
+            mCoverage = new byte[width * height];
+        }
+        mRasterizer.rasterize(codePoint, metrics, mCoverage);
+
+        for (int row = 0; row < height; ++row) {
+            int offset = ((y + row) * mWidth + x) * 4 + 3;
+            for (int col = 0; col < width; ++col, offset += 4) {
+                mPixels.put(offset, mCoverage[row * width + col]);
+            }
+        }
+        mUsedPixels += (width + 2 * PADDING) * (height + 2 * PADDING);
+        ++mPackedGlyphs;
+        markDirty(y - PADDING, y + height + PADDING);
+    }
+
+    /*
+     * Shelf packing: use the lowest shelf that is tall enough without wasting
+     * too much height, otherwise open a new shelf, otherwise take any shelf
+     * with room left.
+     */
+    private Shelf allocate(int width, int height) {
+        if (width > mWidth || height > mHeight) {
+            return null;
+        }
+        Shelf best = null;
+        for (Shelf shelf : mShelves) {
+            if (shelf.height >= height && mWidth - shelf.x >= width
+                    && height * 4 >= shelf.height * 3
+                    && (best == null || shelf.height < best.height)) {
+                best = shelf;
+            }
+        }
+        if (best == null && mNextShelfY + height <= mHeight) {
+            best = new Shelf(mNextShelfY, height);
+            mShelves.add(best);
+            mNextShelfY += height;
+        }
+        if (best == null) {
+            for (Shelf shelf : mShelves) {
+                if (shelf.height >= height && mWidth - shelf.x >= width
+                        && (best == null || shelf.height < best.height)) {
+                    best = shelf;
+                }
+            }
+        }
+        if (best != null) {
+            best.x += width;
+        }
+        return best;
+    }
+
+    private void markDirty(int top, int bottom) {
+        top = Math.max(top, 0);
+        bottom = Math.min(bottom, mHeight);
+        if (mDirtyTop >= mDirtyBottom) {
+            mDirtyTop = top;
+            mDirtyBottom = bottom;
+        } else {
+            mDirtyTop = Math.min(mDirtyTop, top);
+            mDirtyBottom = Math.max(mDirtyBottom, bottom);
+        }
+        if (mContext != null && !mUploadScheduled) {
+            mUploadScheduled = true;
+            mContext.registerDrawFrameListener(mUploader);
+        }
+    }
+
+    /**
+     * @return true if glyphs have been added since the last upload
+     */
+    public synchronized boolean isDirty() {
+        return mDirtyTop < mDirtyBottom;
+    }
+
+    /**
+     * Get the atlas pixels, RGBA, row by row from the top. The color is white
+     * and the alpha holds the glyph coverage.
+     */
+    public synchronized ByteBuffer getPixels() {
+        return mPixels.asReadOnlyBuffer();
+    }
+
+    /**
+     * Get the texture of the atlas, creating it on first use. Changes to the
+     * atlas are copied to the texture before the next frame is rendered.
+     * @param context context to create the texture in
+     */
+    public synchronized SXRTexture getTexture(SXRContext context) {
+        if (mTexture == null) {
+            // the bitmap allocates the whole texture with the current pixels,
+            // later changes are copied into it row by row
+            final Bitmap bitmap = Bitmap.createBitmap(mWidth, mHeight, Bitmap.Config.ARGB_8888);
+            final SXRTextureParameters params = new SXRTextureParameters(context);
+            params.setMinFilterType(SXRTextureParameters.TextureFilterType.GL_LINEAR);
+
+            bitmap.copyPixelsFromBuffer(mPixels.duplicate());
+            mImage = new SXRBitmapImage(context, bitmap);
+            mTexture = new SXRTexture(context, params);
+            mTexture.setImage(mImage);
+            mContext = context;
+            mUploadedBytes += (long) mWidth * mHeight * 4;
+            ++mUploadCount;
+            mDirtyTop = mDirtyBottom = 0;
+        }
+        return mTexture;
+    }
+
+    private synchronized void upload() {
+        if (mDirtyTop >= mDirtyBottom) {
+            mUploadScheduled = false;
+            mContext.unregisterDrawFrameListener(mUploader);
+            return;
+        }
+        // a new update would replace the pending one and lose its rows:
+        // keep accumulating the dirty rows until the image has been copied
+        if (mImage.isUpdatePending()) {
+            return;
+        }
+        mUploadScheduled = false;
+        mContext.unregisterDrawFrameListener(mUploader);
+        final int rowBytes = mWidth * 4;
+        final ByteBuffer rows = mPixels.duplicate();
+        rows.position(mDirtyTop * rowBytes);
+        rows.limit(mDirtyBottom * rowBytes);
+        mImage.setBuffer(0, mDirtyTop, mWidth, mDirtyBottom - mDirtyTop,
+                GL_RGBA, GL_UNSIGNED_BYTE, rows.slice());
+
+        ++mUploadCount;
+        mUploadedBytes += (long) (mDirtyBottom - mDirtyTop) * rowBytes;
+        mDirtyTop = mDirtyBottom = 0;
+    }
+
+    /**
+     * @return number of different code points requested so far, including
+     *         blanks and missing glyphs
+     */
+    public synchronized int getGlyphCount() {
+        return mGlyphs.size();
+    }
+
+    /**
+     * @return number of glyph images packed in the atlas
+     */
+    public synchronized int getPackedGlyphCount() {
+        return mPackedGlyphs;
+    }
+
+    /**
+     * @return number of glyphs that did not fit in the atlas
+     */
+    public synchronized int getMissingGlyphCount() {
+        return mMissingGlyphs;
+    }
+
+    /**
+     * @return fraction of the atlas area taken by glyph images, 0 to 1
+     */
+    public synchronized float getOccupancy() {
+        return (float) mUsedPixels / ((float) mWidth * mHeight);
+    }
+
+    /**
+     * @return fraction of the atlas height taken by shelves, 0 to 1
+     */
+    public synchronized float getShelfOccupancy() {
+        return (float) mNextShelfY / mHeight;
+    }
+
+    /**
+     * @return number of texture uploads done so far
+     */
+    public synchronized int getUploadCount() {
+        return mUploadCount;
+    }
+
+    /**
+     * @return number of bytes copied to the texture so far
+     */
+    public synchronized long getUploadedBytes() {
+        return mUploadedBytes;
+    }
+
+    private final SXRDrawFrameListener mUploader = new SXRDrawFrameListener() {
+        @Override
+        public void onDrawFrame(float frameTime) {
+            upload();
+        }
+    };
+
+    private final GlyphRasterizer mRasterizer;
+    private final int mWidth;
+    private final int mHeight;
+    private final ByteBuffer mPixels;
+    private final Map<Integer, Glyph> mGlyphs = new HashMap<Integer, Glyph>();
+    private final List<Shelf> mShelves = new ArrayList<Shelf>();
+    private final GlyphMetrics mMetrics = new GlyphMetrics();
+    private byte[] mCoverage = new byte[64 * 64];
+    private int mNextShelfY;
+    private int mDirtyTop;
+    private int mDirtyBottom;
+    private int mPackedGlyphs;
+    private int mMissingGlyphs;
+    private long mUsedPixels;
+    private int mUploadCount;
+    private long mUploadedBytes;
+
+    private SXRContext mContext;
+    private SXRBitmapImage mImage;
+    private SXRTexture mTexture;
+    private boolean mUploadScheduled;
+}
@@ -0,0 +1,223 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.nodes;
+
+import java.util.Arrays;
+
+/**
+ * Turns text into textured quads using the glyphs of a {@link SXRGlyphAtlas}.
+ * Several blocks of text can be added one after the other to build a single
+ * mesh; {@link #reset()} starts over. The buffers are reused between layouts.
+ * <p>
+ * Each block is centered on its origin. Lines are separated by '\n' and
+ * aligned within the block. There is no kerning and no word wrapping.
+ */
+public final class SXRGlyphTextLayout {
+    public enum Alignment { BEGIN, MIDDLE, END }
+
+    private static final int FLOATS_PER_POSITION = 3;
+    private static final int FLOATS_PER_TEXCOORD = 2;
+
+    /**
+     * Remove all quads.
+     */
+    public void reset() {
+        mQuadCount = 0;
+        mLastWidth = mLastHeight = 0;
+    }
+
+    /**
+     * Add a block of text.
+     *
+     * @param atlas         glyphs to use
+     * @param text          text to lay out
+     * @param alignment     alignment of the lines within the block
+     * @param lineSpacing   extra space between lines, in pixels
+     * @param pixelsPerUnit number of glyph pixels per scene graph unit
+     * @param originX       center of the block
+     * @param originY       center of the block
+     * @return number of quads added
+     */
+    public int add(SXRGlyphAtlas atlas, CharSequence text, Alignment alignment,
+                   float lineSpacing, float pixelsPerUnit, float originX, float originY) {
+        final SXRGlyphAtlas.GlyphRasterizer font = atlas.getRasterizer();
+        final int length = text.length();
+        final int firstQuad = mQuadCount;
+
+        // measure the lines
+        int lineCount = 0;
+        float lineWidth = 0;
+        float blockWidth = 0;
+        for (int i = 0; i < length; ) {
+            final int codePoint = Character.codePointAt(text, i);
+            i += Character.charCount(codePoint);
+            if (codePoint == '\n') {
+                setLineWidth(lineCount++, lineWidth);
+                blockWidth = Math.max(blockWidth, lineWidth);
+                lineWidth = 0;
+            } else if (codePoint != '\r') {
+                lineWidth += atlas.getGlyph(codePoint).advance;
+            }
+        }
+        setLineWidth(lineCount++, lineWidth);
+        blockWidth = Math.max(blockWidth, lineWidth);
+
+        final float lineHeight = font.getLineHeight();
+        final float blockHeight = lineCount * lineHeight + (lineCount - 1) * lineSpacing;
+        final float scale = 1.0f / pixelsPerUnit;
+        final float left = originX - blockWidth * 0.5f * scale;
+        final float top = originY + blockHeight * 0.5f * scale;
+
+        int line = 0;
+        float penX = lineStart(alignment, blockWidth, mLineWidths[0]);
+        float baseline = font.getAscent();
+        for (int i = 0; i < length; ) {
+            final int codePoint = Character.codePointAt(text, i);
+            i += Character.charCount(codePoint);
+            if (codePoint == '\n') {
+                ++line;
+                penX = lineStart(alignment, blockWidth, mLineWidths[line]);
+                baseline += lineHeight + lineSpacing;
+                continue;
+            } else if (codePoint == '\r') {
+                continue;
+            }
+
+            final SXRGlyphAtlas.Glyph glyph = atlas.getGlyph(codePoint);
+            if (glyph.isVisible()) {
+                final float x0 = left + (penX + glyph.left) * scale;
+                final float x1 = x0 + glyph.width * scale;
+                final float y0 = top - (baseline - glyph.top) * scale;
+                final float y1 = y0 - glyph.height * scale;
+                addQuad(x0, y0, x1, y1, glyph);
+            }
+            penX += glyph.advance;
+        }
+
+        mLastWidth = blockWidth * scale;
+        mLastHeight = blockHeight * scale;
+        return mQuadCount - firstQuad;
+    }
+
+    private static float lineStart(Alignment alignment, float blockWidth, float lineWidth) {
+        switch (alignment) {
+            case MIDDLE:
+                return (blockWidth - lineWidth) * 0.5f;
+            case END:
+                return blockWidth - lineWidth;
+            default:
+                return 0;
+        }
+    }
+
+    private void setLineWidth(int line, float width) {
+        if (line >= mLineWidths.length) {
+            mLineWidths = Arrays.copyOf(mLineWidths, mLineWidths.length * 2);
+        }
+        mLineWidths[line] = width;
+    }
+
+    /*
+     * Vertices in the same order as SXRMesh.createQuad(): top left,
+     * bottom left, top right, bottom right.
+     */
+    private void addQuad(float x0, float y0, float x1, float y1, SXRGlyphAtlas.Glyph glyph) {
+        ensureCapacity(mQuadCount + 1);
+        int p = mQuadCount * 4 * FLOATS_PER_POSITION;
+        int t = mQuadCount * 4 * FLOATS_PER_TEXCOORD;
+        final float[] positions = mPositions;
+        final float[] texCoords = mTexCoords;
+
+        positions[p++] = x0; positions[p++] = y0; positions[p++] = 0;
+        positions[p++] = x0; positions[p++] = y1; positions[p++] = 0;
+        positions[p++] = x1; positions[p++] = y0; positions[p++] = 0;
+        positions[p++] = x1; positions[p++] = y1; positions[p] = 0;
+
+        texCoords[t++] = glyph.u0; texCoords[t++] = glyph.v0;
+        texCoords[t++] = glyph.u0; texCoords[t++] = glyph.v1;
+        texCoords[t++] = glyph.u1; texCoords[t++] = glyph.v0;
+        texCoords[t++] = glyph.u1; texCoords[t] = glyph.v1;
+        ++mQuadCount;
+    }
+
+    private void ensureCapacity(int quads) {
+        if (quads * 4 * FLOATS_PER_POSITION > mPositions.length) {
+            final int capacity = Math.max(quads, mPositions.length / (4 * FLOATS_PER_POSITION) * 2);
+            mPositions = Arrays.copyOf(mPositions, capacity * 4 * FLOATS_PER_POSITION);
+            mTexCoords = Arrays.copyOf(mTexCoords, capacity * 4 * FLOATS_PER_TEXCOORD);
+        }
+    }
+
+    public int getQuadCount() {
+        return mQuadCount;
+    }
+
+    public int getVertexCount() {
+        return mQuadCount * 4;
+    }
+
+    /**
+     * @return width of the last block added, in scene graph units
+     */
+    public float getLastWidth() {
+        return mLastWidth;
+    }
+
+    /**
+     * @return height of the last block added, in scene graph units
+     */
+    public float getLastHeight() {
+        return mLastHeight;
+    }
+
+    /**
+     * @return a new array with the vertex positions, three floats per vertex
+     */
+    public float[] getPositions() {
+        return Arrays.copyOf(mPositions, getVertexCount() * FLOATS_PER_POSITION);
+    }
+
+    /**
+     * @return a new array with the texture coordinates, two floats per vertex
+     */
+    public float[] getTexCoords() {
+        return Arrays.copyOf(mTexCoords, getVertexCount() * FLOATS_PER_TEXCOORD);
+    }
+
+    /**
+     * @return a new array with two triangles per quad
+     */
+    public int[] getIndices() {
+        final int[] indices = new int[mQuadCount * 6];
+        for (int q = 0, i = 0; q < mQuadCount; ++q) {
+            final int base = q * 4;
+            indices[i++] = base;
+            indices[i++] = base + 1;
+            indices[i++] = base + 2;
+            indices[i++] = base + 1;
+            indices[i++] = base + 3;
+            indices[i++] = base + 2;
+        }
+        return indices;
+    }
+
+    private float[] mPositions = new float[64 * 4 * FLOATS_PER_POSITION];
+    private float[] mTexCoords = new float[64 * 4 * FLOATS_PER_TEXCOORD];
+    private float[] mLineWidths = new float[8];
+    private int mQuadCount;
+    private float mLastWidth;
+    private float mLastHeight;
+}
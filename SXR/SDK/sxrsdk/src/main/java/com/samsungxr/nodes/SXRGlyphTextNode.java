@@ -0,0 +1,340 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.nodes;
+
+import android.graphics.Color;
+
+import com.samsungxr.SXRContext;
+import com.samsungxr.SXRMaterial;
+import com.samsungxr.SXRMaterial.SXRShaderType;
+import com.samsungxr.SXRMesh;
+import com.samsungxr.SXRNode;
+import com.samsungxr.SXRRenderData;
+import com.samsungxr.nodes.SXRGlyphTextLayout.Alignment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Text drawn from a shared {@link SXRGlyphAtlas}, as an alternative to
+ * {@link SXRTextViewNode} for labels that change rarely or come in numbers.
+ * <p>
+ * Instead of an Android view rendered into a texture of its own, the node
+ * builds one mesh with a quad per glyph. A node can hold several
+ * {@linkplain Label labels}, so a whole HUD can be drawn with a single mesh
+ * and the atlas texture. The mesh is only rebuilt, on the GL thread, when a
+ * label changes; there is no per-frame work otherwise.
+ */
+public class SXRGlyphTextNode extends SXRNode {
+    private static final String VERTEX_DESCRIPTOR = "float3 a_position float2 a_texcoord";
+
+    /**
+     * Default number of glyph pixels per scene graph unit, same as the
+     * {@link SXRTextViewNode} canvas resolution
+     */
+    public static final float DEFAULT_PIXELS_PER_UNIT = 128;
+
+    private static final AtomicInteger sRebuildCount = new AtomicInteger();
+
+    /**
+     * A block of text at a position of the node.
+     */
+    public final class Label {
+        private String mText;
+        private float mX;
+        private float mY;
+        private Alignment mAlignment = Alignment.MIDDLE;
+
+        private Label(CharSequence text, float x, float y) {
+            mText = text != null ? text.toString() : "";
+            mX = x;
+            mY = y;
+        }
+
+        public String getText() {
+            return mText;
+        }
+
+        /**
+         * Set the text. The node is only rebuilt if the text is different.
+         */
+        public void setText(CharSequence text) {
+            final String s = text != null ? text.toString() : "";
+            synchronized (mLabels) {
+                if (s.equals(mText)) {
+                    return;
+                }
+                mText = s;
+            }
+            invalidate();
+        }
+
+        /**
+         * Move the center of the label.
+         */
+        public void setPosition(float x, float y) {
+            synchronized (mLabels) {
+                if (x == mX && y == mY) {
+                    return;
+                }
+                mX = x;
+                mY = y;
+            }
+            invalidate();
+        }
+
+        public float getX() {
+            return mX;
+        }
+
+        public float getY() {
+            return mY;
+        }
+
+        /**
+         * Set how the lines are aligned within the label.
+         */
+        public void setAlignment(Alignment alignment) {
+            synchronized (mLabels) {
+                if (alignment == mAlignment) {
+                    return;
+                }
+                mAlignment = alignment;
+            }
+            invalidate();
+        }
+
+        public Alignment getAlignment() {
+            return mAlignment;
+        }
+    }
+
+    /**
+     * Create a node with no labels.
+     *
+     * @param gvrContext current {@link SXRContext}
+     * @param atlas      glyphs to draw with
+     */
+    public SXRGlyphTextNode(SXRContext gvrContext, SXRGlyphAtlas atlas) {
+        super(gvrContext, new SXRMesh(gvrContext, VERTEX_DESCRIPTOR));
+        mAtlas = atlas;
+
+        SXRMaterial material = new SXRMaterial(gvrContext, SXRShaderType.Texture.ID);
+        material.setMainTexture(atlas.getTexture(gvrContext));
+        material.setColor(Color.WHITE);
+
+        SXRRenderData renderData = getRenderData();
+        renderData.setMaterial(material);
+        renderData.setAlphaBlend(true);
+        renderData.setRenderingOrder(SXRRenderData.SXRRenderingOrder.TRANSPARENT);
+        // nothing to draw until the first rebuild
+        renderData.setEnable(false);
+    }
+
+    /**
+     * Create a node with one label at its center.
+     *
+     * @param gvrContext current {@link SXRContext}
+     * @param atlas      glyphs to draw with
+     * @param text       text of the label
+     */
+    public SXRGlyphTextNode(SXRContext gvrContext, SXRGlyphAtlas atlas, CharSequence text) {
+        this(gvrContext, atlas);
+        addLabel(text, 0, 0);
+    }
+
+    public SXRGlyphAtlas getAtlas() {
+        return mAtlas;
+    }
+
+    /**
+     * Add a label.
+     *
+     * @param text text of the label
+     * @param x    center of the label, in node coordinates
+     * @param y    center of the label, in node coordinates
+     * @return the new label
+     */
+    public Label addLabel(CharSequence text, float x, float y) {
+        final Label label = new Label(text, x, y);
+        synchronized (mLabels) {
+            mLabels.add(label);
+        }
+        invalidate();
+        return label;
+    }
+
+    public void removeLabel(Label label) {
+        final boolean removed;
+        synchronized (mLabels) {
+            removed = mLabels.remove(label);
+        }
+        if (removed) {
+            invalidate();
+        }
+    }
+
+    public int getLabelCount() {
+        synchronized (mLabels) {
+            return mLabels.size();
+        }
+    }
+
+    public Label getLabel(int index) {
+        synchronized (mLabels) {
+            return mLabels.get(index);
+        }
+    }
+
+    /**
+     * Set the text of the first label, adding it if the node has none.
+     */
+    public void setText(CharSequence text) {
+        final Label label;
+        synchronized (mLabels) {
+            label = mLabels.isEmpty() ? null : mLabels.get(0);
+        }
+        if (label != null) {
+            label.setText(text);
+        } else {
+            addLabel(text, 0, 0);
+        }
+    }
+
+    /**
+     * @return the text of the first label, or an empty string
+     */
+    public String getText() {
+        synchronized (mLabels) {
+            return mLabels.isEmpty() ? "" : mLabels.get(0).getText();
+        }
+    }
+
+    /**
+     * Set the color of all the labels.
+     *
+     * @param color Android {@link Color}, alpha included
+     */
+    public void setTextColor(int color) {
+        final SXRMaterial material = getRenderData().getMaterial();
+        material.setColor(color);
+        material.setOpacity(Color.alpha(color) / 255.0f);
+    }
+
+    /**
+     * @param lineSpacing extra space between lines, in glyph pixels
+     */
+    public void setLineSpacing(float lineSpacing) {
+        synchronized (mLabels) {
+            mLineSpacing = lineSpacing;
+        }
+        invalidate();
+    }
+
+    public float getLineSpacing() {
+        return mLineSpacing;
+    }
+
+    /**
+     * @param pixelsPerUnit number of glyph pixels per scene graph unit, which
+     *                      sets the size of the text
+     */
+    public void setPixelsPerUnit(float pixelsPerUnit) {
+        if (pixelsPerUnit <= 0) {
+            throw new IllegalArgumentException("pixelsPerUnit must be positive");
+        }
+        synchronized (mLabels) {
+            mPixelsPerUnit = pixelsPerUnit;
+        }
+        invalidate();
+    }
+
+    public float getPixelsPerUnit() {
+        return mPixelsPerUnit;
+    }
+
+    /**
+     * @return number of times the mesh of this node has been rebuilt
+     */
+    public int getRebuildCount() {
+        return mRebuildCount;
+    }
+
+    /**
+     * @return number of glyphs in the mesh after the last rebuild
+     */
+    public int getGlyphCount() {
+        return mGlyphCount;
+    }
+
+    /**
+     * @return number of mesh rebuilds of all the glyph text nodes
+     */
+    public static int getTotalRebuildCount() {
+        return sRebuildCount.get();
+    }
+
+    private void invalidate() {
+        synchronized (mLabels) {
+            if (mRebuildPending) {
+                return;
+            }
+            mRebuildPending = true;
+        }
+        getSXRContext().runOnGlThread(mRebuild);
+    }
+
+    private void rebuild() {
+        final SXRGlyphTextLayout layout = mLayout;
+        layout.reset();
+        synchronized (mLabels) {
+            mRebuildPending = false;
+            for (Label label : mLabels) {
+                layout.add(mAtlas, label.mText, label.mAlignment, mLineSpacing,
+                        mPixelsPerUnit, label.mX, label.mY);
+            }
+        }
+
+        final SXRRenderData renderData = getRenderData();
+        mGlyphCount = layout.getQuadCount();
+        if (mGlyphCount > 0) {
+            final SXRMesh mesh = renderData.getMesh();
+            mesh.setVertices(layout.getPositions());
+            mesh.setTexCoords(layout.getTexCoords());
+            mesh.setIndices(layout.getIndices());
+        }
+        renderData.setEnable(mGlyphCount > 0);
+        ++mRebuildCount;
+        sRebuildCount.incrementAndGet();
+    }
+
+    private final Runnable mRebuild = new Runnable() {
+        @Override
+        public void run() {
+            rebuild();
+        }
+    };
+
+    private final SXRGlyphAtlas mAtlas;
+    private final List<Label> mLabels = new ArrayList<Label>();
+    private final SXRGlyphTextLayout mLayout = new SXRGlyphTextLayout();
+    private float mLineSpacing;
+    private float mPixelsPerUnit = DEFAULT_PIXELS_PER_UNIT;
+    private boolean mRebuildPending;
+    private volatile int mRebuildCount;
+    private volatile int mGlyphCount;
+}
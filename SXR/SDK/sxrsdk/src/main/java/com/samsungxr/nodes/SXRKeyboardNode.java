@@ -85,6 +85,7 @@ public class SXRKeyboardNode extends SXRNode {
     private float mKeyMeshDepthScale;
     private float mKeyMeshDepthPos;
 
+    private final boolean mSingleMesh;
     private final float mDefaultKeyAnimZOffset;
     private SXRNode mEditableNode;
     private KeyEventsHandler mKeyEventsHandler;
@@ -101,7 +102,8 @@ public class SXRKeyboardNode extends SXRNode {
      */
     private SXRKeyboardNode(SXRContext gvrContext, int keyboardResId, SXRMesh keyboardMesh,
                                   SXRMesh keyMesh, SXRTexture keyboardTexture,
-                                   Drawable keyBackground, int textColor, boolean enableHoverAnim) {
+                                   Drawable keyBackground, int textColor, boolean enableHoverAnim,
+                                   boolean singleMesh) {
         super(gvrContext);
         mApplication = gvrContext.getApplication();
         mKeyboardMesh = keyboardMesh;
@@ -109,6 +111,7 @@ public class SXRKeyboardNode extends SXRNode {
         mKeyboardTexture = keyboardTexture;
         mKeyBackground = keyBackground;
         mTextColor = textColor;
+        mSingleMesh = singleMesh;
 
         if (enableHoverAnim)
             mDefaultKeyAnimZOffset = 0.1f;
@@ -118,7 +121,8 @@ public class SXRKeyboardNode extends SXRNode {
         MeshUtils.resize(mKeyboardMesh, 1.0f);
         MeshUtils.resize(mKeyMesh, 1.0f);
 
-        mKeyMeshDepthSize = MeshUtils.getBoundingSize(mKeyMesh)[2];
+        // The keys of a single mesh keyboard are flat quads
+        mKeyMeshDepthSize = singleMesh ? 0.0f : MeshUtils.getBoundingSize(mKeyMesh)[2];
         mKeyEventsHandler = new KeyEventsHandler(gvrContext.getActivity().getMainLooper(), this, mApplication);
         mSXRKeyboardCache = new HashMap<Integer, SXRKeyboard>();
         mEditableNode = null;
@@ -233,6 +237,9 @@ public class SXRKeyboardNode extends SXRNode {
         gvrKeyboard.getRenderData().setMaterial(material);
         gvrKeyboard.attachCollider(new SXRMeshCollider(gvrContext, true));
         gvrKeyboard.setName("Keyboard" + cacheId);
+        if (mSingleMesh) {
+            return createSingleMeshKeys(gvrKeyboard, owner);
+        }
         for (Keyboard.Key key: keyboard.getKeys()) {
             final float x = gvrKeyboard.posViewXToScene(key.x + key.width / 2.0f);
             final float y = gvrKeyboard.posViewYToScene(key.y + key.height / 2.0f);
@@ -255,6 +262,26 @@ public class SXRKeyboardNode extends SXRNode {
         return gvrKeyboard;
     }
 
+    private SXRKeyboard createSingleMeshKeys(SXRKeyboard gvrKeyboard, SXRKeyboardNode owner) {
+        final SXRContext gvrContext = getSXRContext();
+        final Keyboard keyboard = gvrKeyboard.mKeyboard;
+        final List<Keyboard.Key> keys = keyboard.getKeys();
+        final SXRKeyBatch batch = new SXRKeyBatch(gvrContext, gvrKeyboard, mKeyMeshDepthPos);
+
+        for (int i = 0; i < keys.size(); ++i) {
+            final Keyboard.Key key = keys.get(i);
+            SXRKey gvrKey = new SXRKey(gvrContext, key, batch, i, mKeyBackground, mTextColor);
+            gvrKey.setHoveredOffset(mKeyMeshDepthPos, mDefaultKeyAnimZOffset);
+            gvrKeyboard.addKey(gvrKey);
+            gvrKey.setName(key.label.toString());
+        }
+        gvrKeyboard.setBatch(batch);
+        gvrKeyboard.drawKeys();
+        gvrKeyboard.getEventReceiver().addListener(
+                new KeyGridPicker(gvrKeyboard, owner.getKeyEventsHandler()));
+        return gvrKeyboard;
+    }
+
 
     /**
      * Listens to touch events on all objects and hides the keyboard
@@ -485,6 +512,7 @@ public class SXRKeyboardNode extends SXRNode {
         private boolean mCapsLocked;
         private SXRKey mModifierKey;
         private List<SXRKey> mSXRkeys;
+        private SXRKeyBatch mBatch;
 
 
         public SXRKeyboard(SXRKeyboardNode owner, Keyboard keyboard, SXRMesh mesh, int resId) {
@@ -504,10 +532,40 @@ public class SXRKeyboardNode extends SXRNode {
         }
 
         public void addKey(SXRKey gvrKey) {
-            addChildObject(gvrKey);
+            if (gvrKey.mBatch == null) {
+                addChildObject(gvrKey);
+            }
             mSXRkeys.add(gvrKey);
         }
 
+        public void setBatch(SXRKeyBatch batch) {
+            mBatch = batch;
+            addChildObject(batch);
+        }
+
+        /**
+         * Finds the key under a point of the keyboard with the key grid of
+         * the {@link Keyboard}, without testing every key.
+         *
+         * @param hitLocation point on the keyboard, in its local coordinates
+         * @return the key under the point, or null if there is none
+         */
+        public SXRKey findKey(float[] hitLocation) {
+            if (hitLocation == null) {
+                return null;
+            }
+            final int x = (int) (hitLocation[0] * mKeyboardSize + mKeyboardWidth / 2);
+            final int y = (int) (mKeyboardHeight / 2 - hitLocation[1] * mKeyboardSize);
+            final List<Keyboard.Key> keys = mKeyboard.getKeys();
+
+            for (int index : mKeyboard.getNearestKeys(x, y)) {
+                if (index < mSXRkeys.size() && keys.get(index).isInside(x, y)) {
+                    return mSXRkeys.get(index);
+                }
+            }
+            return null;
+        }
+
         public void setShifted(boolean shifted) {
             if (!shifted)
                 mCapsLocked = false;
@@ -529,6 +587,10 @@ public class SXRKeyboardNode extends SXRNode {
         }
 
         public void drawKeys() {
+            if (mBatch != null) {
+                mBatch.drawKeys(mKeyboard.isShifted() || mCapsLocked);
+                return;
+            }
             for (SXRKey gvrKey: mSXRkeys) {
                 gvrKey.onDraw(mKeyboard.isShifted() || mCapsLocked);
             }
@@ -565,6 +627,8 @@ public class SXRKeyboardNode extends SXRNode {
         private final Drawable mBackground;
         private final int mTextColor;
         private final Paint mPaint;
+        private final SXRKeyBatch mBatch;
+        private final int mBatchIndex;
         private Surface mSurface;
         private SurfaceTexture mSurfaceTexture;
         private boolean mIsDirty;
@@ -624,6 +688,8 @@ public class SXRKeyboardNode extends SXRNode {
             mKey = key;
             mBackground = background;
             mTextColor = textColor;
+            mBatch = null;
+            mBatchIndex = -1;
 
             mSurfaceTexture = new SurfaceTexture(texture.getId());
             mSurfaceTexture.setDefaultBufferSize(key.width, key.height);
@@ -632,11 +698,7 @@ public class SXRKeyboardNode extends SXRNode {
             material.setMainTexture(texture);
             getRenderData().setMaterial(material);
 
-            mPaint = new Paint();
-            mPaint.setAntiAlias(true);
-            mPaint.setTextSize(android.R.attr.keyTextSize);
-            mPaint.setTextAlign(Paint.Align.CENTER);
-            mPaint.setAlpha(255);
+            mPaint = createPaint();
 
             mHovered = false;
             mIsDirty = false;
@@ -657,6 +719,35 @@ public class SXRKeyboardNode extends SXRNode {
             });
         }
 
+        /**
+         * Creates a key drawn by a {@link SXRKeyBatch}, without a mesh or a
+         * surface of its own.
+         */
+        public SXRKey(SXRContext gvrContext, Keyboard.Key key, SXRKeyBatch batch, int batchIndex,
+                      Drawable background, int textColor) {
+            super(gvrContext);
+
+            mKey = key;
+            mBackground = background;
+            mTextColor = textColor;
+            mBatch = batch;
+            mBatchIndex = batchIndex;
+            mPaint = createPaint();
+
+            mHovered = false;
+            mIsDirty = false;
+            mPopupKeyboard = null;
+        }
+
+        private static Paint createPaint() {
+            final Paint paint = new Paint();
+            paint.setAntiAlias(true);
+            paint.setTextSize(android.R.attr.keyTextSize);
+            paint.setTextAlign(Paint.Align.CENTER);
+            paint.setAlpha(255);
+            return paint;
+        }
+
         public Keyboard getPopupKeyboard() {
             if (mPopupKeyboard != null
                     || mKey.popupResId == 0) {
@@ -740,6 +831,33 @@ public class SXRKeyboardNode extends SXRNode {
         //TODO: Fix cause of concurrency calling onDraw
         // Can called by touch events at UI Thread or hover events at GL Thread
         public synchronized void onDraw(boolean isShifted) {
+            final float z;
+
+            if (mBatch != null) {
+                mBatch.drawKey(this, isShifted);
+            } else {
+                Canvas canvas = mSurface.lockCanvas(null);
+                canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+                draw(canvas, isShifted);
+                mSurface.unlockCanvasAndPost(canvas);
+            }
+
+            if (mKey.pressed || !mHovered) {
+                z = mNormalZPos;
+            } else {
+                z = mNormalZPos + mHoveredZOffset;
+            }
+            if (mBatch != null) {
+                mBatch.setKeyPositionZ(mBatchIndex, z);
+            } else {
+                getTransform().setPositionZ(z);
+            }
+        }
+
+        /**
+         * Draws the key in the rectangle from (0, 0) to its size.
+         */
+        void draw(Canvas canvas, boolean isShifted) {
             final Paint paint = mPaint;
             final Keyboard.Key key = mKey;
             final Drawable background = mBackground;
@@ -753,9 +871,6 @@ public class SXRKeyboardNode extends SXRNode {
                 background.setBounds(0, 0, key.width, key.height);
             }
 
-            Canvas canvas = mSurface.lockCanvas(null);
-            canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
-
             background.draw(canvas);
 
             paint.setFakeBoldText(true);
@@ -795,13 +910,208 @@ public class SXRKeyboardNode extends SXRNode {
                         (key.height + key.icon.getIntrinsicHeight()) / 2);
                 key.icon.draw(canvas);
             }
+        }
+    }
+
+    /**
+     * Renders all the keys of a keyboard with one mesh and one texture.
+     * <p>
+     * Each key is a quad of the mesh, whose texture coordinates map to the
+     * rectangle of the key in a surface as large as the keyboard, so the
+     * keys take a single draw call. When a key changes state only its
+     * rectangle of the surface is redrawn, and raising or lowering a key
+     * moves the vertices of its quad instead of a transform.
+     */
+    private static class SXRKeyBatch extends SXRNode {
+        private final SXRKeyboard mKeyboard;
+        private final float[] mVertices;
+        private final Surface mSurface;
+        private final SurfaceTexture mSurfaceTexture;
+        private final Rect mDirty = new Rect();
+
+        public SXRKeyBatch(final SXRContext gvrContext, SXRKeyboard keyboard, float depth) {
+            super(gvrContext, createMesh(gvrContext, keyboard, depth));
+            final SXRTexture texture = new SXRExternalTexture(gvrContext);
+            final SXRMaterial material = new SXRMaterial(gvrContext, SXRMaterial.SXRShaderType.OES.ID);
+
+            mKeyboard = keyboard;
+            mVertices = getRenderData().getMesh().getVertices();
+
+            mSurfaceTexture = new SurfaceTexture(texture.getId());
+            mSurfaceTexture.setDefaultBufferSize((int) keyboard.mKeyboardWidth,
+                    (int) keyboard.mKeyboardHeight);
+            mSurface = new Surface(mSurfaceTexture);
+
+            material.setMainTexture(texture);
+            getRenderData().setMaterial(material);
+            setName("Keys" + keyboard.mResId);
+
+            // Builds the key grid now instead of on the first pick
+            keyboard.mKeyboard.getNearestKeys(0, 0);
+
+            mSurfaceTexture.setOnFrameAvailableListener(new SurfaceTexture.OnFrameAvailableListener() {
+                Runnable onFrameAvailableGLCallback = new Runnable() {
+                    @Override
+                    public void run() {
+                        mSurfaceTexture.updateTexImage();
+                    }
+                };
+
+                @Override
+                public void onFrameAvailable(SurfaceTexture surfaceTexture) {
+                    gvrContext.runOnGlThread(onFrameAvailableGLCallback);
+                }
+            });
+        }
+
+        private static SXRMesh createMesh(SXRContext gvrContext, SXRKeyboard keyboard, float depth) {
+            final List<Keyboard.Key> keys = keyboard.mKeyboard.getKeys();
+            final int numKeys = keys.size();
+            final float width = keyboard.mKeyboardWidth;
+            final float height = keyboard.mKeyboardHeight;
+            final float[] vertices = new float[numKeys * 12];
+            final float[] normals = new float[numKeys * 12];
+            final float[] texCoords = new float[numKeys * 8];
+            final char[] triangles = new char[numKeys * 6];
+            final SXRMesh mesh = new SXRMesh(gvrContext);
+
+            for (int i = 0; i < numKeys; ++i) {
+                final Keyboard.Key key = keys.get(i);
+                final float left = keyboard.posViewXToScene(key.x);
+                final float right = keyboard.posViewXToScene(key.x + key.width);
+                final float top = keyboard.posViewYToScene(key.y);
+                final float bottom = keyboard.posViewYToScene(key.y + key.height);
+                // Half a texel inside the key, so its edges do not sample its neighbours
+                final float u0 = (key.x + 0.5f) / width;
+                final float u1 = (key.x + key.width - 0.5f) / width;
+                final float v0 = (key.y + 0.5f) / height;
+                final float v1 = (key.y + key.height - 0.5f) / height;
+                final float[] quad = { left, top, depth, left, bottom, depth,
+                        right, top, depth, right, bottom, depth };
+                final float[] uvs = { u0, v0, u0, v1, u1, v0, u1, v1 };
+                final char base = (char) (i * 4);
+
+                System.arraycopy(quad, 0, vertices, i * 12, 12);
+                System.arraycopy(uvs, 0, texCoords, i * 8, 8);
+                for (int n = 0; n < 4; ++n) {
+                    normals[i * 12 + n * 3 + 2] = 1.0f;
+                }
+                triangles[i * 6] = base;
+                triangles[i * 6 + 1] = (char) (base + 1);
+                triangles[i * 6 + 2] = (char) (base + 2);
+                triangles[i * 6 + 3] = (char) (base + 1);
+                triangles[i * 6 + 4] = (char) (base + 3);
+                triangles[i * 6 + 5] = (char) (base + 2);
+            }
+            mesh.setVertices(vertices);
+            mesh.setNormals(normals);
+            mesh.setTexCoords(texCoords);
+            mesh.setIndices(triangles);
+            return mesh;
+        }
+
+        public synchronized void drawKey(SXRKey gvrKey, boolean isShifted) {
+            final Keyboard.Key key = gvrKey.getKey();
+
+            mDirty.set(key.x, key.y, key.x + key.width, key.y + key.height);
+            draw(isShifted);
+        }
+
+        public synchronized void drawKeys(boolean isShifted) {
+            mDirty.set(0, 0, (int) mKeyboard.mKeyboardWidth, (int) mKeyboard.mKeyboardHeight);
+            draw(isShifted);
+        }
 
+        private void draw(boolean isShifted) {
+            final List<SXRKey> keys = mKeyboard.mSXRkeys;
+            // The surface may grow the dirty rectangle when it does not keep
+            // its previous content, every key inside it is redrawn
+            final Canvas canvas = mSurface.lockCanvas(mDirty);
+
+            canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+            for (int i = 0; i < keys.size(); ++i) {
+                final SXRKey gvrKey = keys.get(i);
+                final Keyboard.Key key = gvrKey.getKey();
+
+                if (!mDirty.intersects(key.x, key.y, key.x + key.width, key.y + key.height)) {
+                    continue;
+                }
+                canvas.save();
+                canvas.translate(key.x, key.y);
+                canvas.clipRect(0, 0, key.width, key.height);
+                gvrKey.draw(canvas, isShifted);
+                canvas.restore();
+            }
             mSurface.unlockCanvasAndPost(canvas);
+        }
 
-            if (mKey.pressed || !mHovered) {
-                getTransform().setPositionZ(mNormalZPos);
-            } else {
-                getTransform().setPositionZ(mNormalZPos + mHoveredZOffset);
+        /**
+         * Moves the quad of a key along the z axis of the keyboard.
+         */
+        public synchronized void setKeyPositionZ(int index, float z) {
+            final int first = index * 12 + 2;
+
+            if (mVertices[first] == z) {
+                return;
+            }
+            for (int n = 0; n < 4; ++n) {
+                mVertices[first + n * 3] = z;
+            }
+            getRenderData().getMesh().setVertices(mVertices);
+        }
+    }
+
+    /**
+     * Handles the touch events on a single mesh keyboard. The keyboard is the
+     * only collider the picker tests, and the key under the hit point is
+     * looked up in the key grid; the key events go to the
+     * {@link KeyEventsHandler} as if the key had been picked itself.
+     */
+    private static class KeyGridPicker implements ITouchEvents
+    {
+        private final SXRKeyboard mKeyboard;
+        private final KeyEventsHandler mHandler;
+        private SXRKey mHitKey;
+
+        public KeyGridPicker(SXRKeyboard keyboard, KeyEventsHandler handler) {
+            mKeyboard = keyboard;
+            mHandler = handler;
+        }
+
+        public void onEnter(SXRNode sceneObject, SXRPicker.SXRPickedObject pickInfo) {
+            setHitKey(mKeyboard.findKey(pickInfo.hitLocation));
+        }
+
+        public void onExit(SXRNode sceneObject, SXRPicker.SXRPickedObject pickInfo) {
+            setHitKey(null);
+        }
+
+        public void onTouchStart(SXRNode sceneObject, SXRPicker.SXRPickedObject pickInfo) {
+            setHitKey(mKeyboard.findKey(pickInfo.hitLocation));
+            mHandler.onTouchStart(sceneObject, pickInfo);
+        }
+
+        public void onTouchEnd(SXRNode sceneObject, SXRPicker.SXRPickedObject pickInfo) {
+            mHandler.onTouchEnd(sceneObject, pickInfo);
+        }
+
+        public void onInside(SXRNode sceneObject, SXRPicker.SXRPickedObject pickInfo) {
+            setHitKey(mKeyboard.findKey(pickInfo.hitLocation));
+            mHandler.onInside(sceneObject, pickInfo);
+        }
+
+        public void onMotionOutside(SXRPicker picker, MotionEvent event) { }
+
+        private void setHitKey(SXRKey gvrKey) {
+            if (gvrKey == mHitKey) {
+                return;
+            }
+            if (mHitKey != null) {
+                mHandler.onExitKey(mHitKey);
+            }
+            mHitKey = gvrKey;
+            if (gvrKey != null) {
+                mHandler.onEnterKey(gvrKey);
             }
         }
     }
@@ -917,15 +1227,23 @@ public class SXRKeyboardNode extends SXRNode {
         }
 
         public void onEnter(SXRNode sceneObject, SXRPicker.SXRPickedObject pickInfo) {
-            mOnEnterKey.HitKey = (SXRKey) pickInfo.hitObject;
-            mApplication.getActivity().runOnUiThread(mOnEnterKey);
+            onEnterKey((SXRKey) pickInfo.hitObject);
         }
 
         public void onExit(SXRNode sceneObject, SXRPicker.SXRPickedObject pickInfo) {
-            mOnExitKey.HitKey = (SXRKey) pickInfo.hitObject;
-            mApplication.getActivity().runOnUiThread(mOnExitKey);
+            onExitKey((SXRKey) pickInfo.hitObject);
        }
 
+        public void onEnterKey(SXRKey gvrKey) {
+            mOnEnterKey.HitKey = gvrKey;
+            mApplication.getActivity().runOnUiThread(mOnEnterKey);
+        }
+
+        public void onExitKey(SXRKey gvrKey) {
+            mOnExitKey.HitKey = gvrKey;
+            mApplication.getActivity().runOnUiThread(mOnExitKey);
+        }
+
         public void onTouchStart(SXRNode sceneObject, SXRPicker.SXRPickedObject pickInfo) {
             mApplication.getActivity().runOnUiThread(mOnTouchStartKey);
         }
@@ -1076,6 +1394,7 @@ public class SXRKeyboardNode extends SXRNode {
         private SXRTexture keyboardTexture;
         private Drawable keyBackground;
         private boolean keyHoveredAnimated;
+        private boolean singleMesh;
         private int textColor;
 
         /**
@@ -1087,6 +1406,7 @@ public class SXRKeyboardNode extends SXRNode {
             this.keyboardTexture = null;
             this.keyBackground = null;
             this.keyHoveredAnimated = true;
+            this.singleMesh = false;
             this.textColor = Color.BLACK;
         }
 
@@ -1120,6 +1440,20 @@ public class SXRKeyboardNode extends SXRNode {
             return this;
         }
 
+        /**
+         * Renders all the keys of each keyboard with a single mesh and
+         * texture instead of a node, mesh and collider per key. The key
+         * under the pointer is found from the point where the keyboard is
+         * hit, so the picker only tests the keyboard. The key mesh is not
+         * used; the keys are flat quads.
+         *
+         * @param enabled true to render the keys with a single mesh
+         */
+        public Builder setSingleMesh(boolean enabled) {
+            this.singleMesh = enabled;
+            return this;
+        }
+
         public SXRKeyboardNode build(SXRContext gvrContext, int keyboardResId) {
             if (keyboardMesh == null) {
                 keyboardMesh = MeshUtils.createQuad(gvrContext, 1.0f, 1.0f);
@@ -1138,7 +1472,7 @@ public class SXRKeyboardNode extends SXRNode {
 
             return new SXRKeyboardNode(gvrContext, keyboardResId, this.keyboardMesh,
                     this.keyMesh, this.keyboardTexture, this.keyBackground,
-                    this.textColor, keyHoveredAnimated);
+                    this.textColor, keyHoveredAnimated, singleMesh);
         }
     }
 
@@ -0,0 +1,131 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.nodes;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+
+import com.samsungxr.SXRContext;
+
+/**
+ * Draws glyphs for a {@link SXRGlyphAtlas} with an Android {@link Paint}.
+ */
+public class SXRPaintGlyphRasterizer implements SXRGlyphAtlas.GlyphRasterizer {
+    /**
+     * @param textSize size of the text, in pixels
+     */
+    public SXRPaintGlyphRasterizer(float textSize) {
+        this(Typeface.DEFAULT, textSize);
+    }
+
+    /**
+     * @param typeface font to draw with
+     * @param textSize size of the text, in pixels
+     */
+    public SXRPaintGlyphRasterizer(Typeface typeface, float textSize) {
+        mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mPaint.setTypeface(typeface);
+        mPaint.setTextSize(textSize);
+        mPaint.setColor(Color.WHITE);
+
+        final Paint.FontMetrics metrics = mPaint.getFontMetrics();
+        mAscent = -metrics.ascent;
+        mDescent = metrics.descent;
+        mLineHeight = metrics.descent - metrics.ascent + metrics.leading;
+    }
+
+    /**
+     * Create a rasterizer for a font in the assets directory.
+     *
+     * @param gvrContext current {@link SXRContext}
+     * @param font       font file name, such as "myFont.ttf"
+     * @param style      {@link Typeface} style
+     * @param textSize   size of the text, in pixels
+     */
+    public static SXRPaintGlyphRasterizer fromAsset(SXRContext gvrContext, String font,
+                                                    int style, float textSize) {
+        Typeface typeface = Typeface.createFromAsset(gvrContext.getContext().getAssets(), font);
+        return new SXRPaintGlyphRasterizer(Typeface.create(typeface, style), textSize);
+    }
+
+    @Override
+    public float getAscent() {
+        return mAscent;
+    }
+
+    @Override
+    public float getDescent() {
+        return mDescent;
+    }
+
+    @Override
+    public float getLineHeight() {
+        return mLineHeight;
+    }
+
+    @Override
+    public boolean measure(int codePoint, SXRGlyphAtlas.GlyphMetrics metrics) {
+        final int count = Character.toChars(codePoint, mChars, 0);
+        mPaint.getTextBounds(mChars, 0, count, mBounds);
+        metrics.advance = mPaint.measureText(mChars, 0, count);
+        if (mBounds.isEmpty()) {
+            metrics.width = metrics.height = 0;
+            metrics.left = metrics.top = 0;
+        } else {
+            metrics.width = mBounds.width();
+            metrics.height = mBounds.height();
+            metrics.left = mBounds.left;
+            metrics.top = -mBounds.top;
+        }
+        return true;
+    }
+
+    @Override
+    public void rasterize(int codePoint, SXRGlyphAtlas.GlyphMetrics metrics, byte[] coverage) {
+        final int width = metrics.width;
+        final int height = metrics.height;
+        if (mBitmap == null || mBitmap.getWidth() < width || mBitmap.getHeight() < height) {
+            mBitmap = Bitmap.createBitmap(Math.max(width, 64), Math.max(height, 64),
+                    Bitmap.Config.ARGB_8888);
+            mCanvas = new Canvas(mBitmap);
+        }
+        if (mRow.length < width * height) {
+            mRow = new int[width * height];
+        }
+
+        final int count = Character.toChars(codePoint, mChars, 0);
+        mBitmap.eraseColor(Color.TRANSPARENT);
+        mCanvas.drawText(mChars, 0, count, -metrics.left, metrics.top, mPaint);
+        mBitmap.getPixels(mRow, 0, width, 0, 0, width, height);
+        for (int i = width * height - 1; i >= 0; --i) {
+            coverage[i] = (byte) (mRow[i] >>> 24);
+        }
+    }
+
+    private final Paint mPaint;
+    private final float mAscent;
+    private final float mDescent;
+    private final float mLineHeight;
+    private final char[] mChars = new char[2];
+    private final Rect mBounds = new Rect();
+    private Bitmap mBitmap;
+    private Canvas mCanvas;
+    private int[] mRow = new int[64 * 64];
+}
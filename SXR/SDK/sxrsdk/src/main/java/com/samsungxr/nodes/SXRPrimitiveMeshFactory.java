@@ -0,0 +1,599 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.nodes;
+
+import com.samsungxr.SXRContext;
+import com.samsungxr.SXRMesh;
+import com.samsungxr.SXRRenderData;
+import com.samsungxr.nodes.SXRCylinderNode.CylinderParams;
+import com.samsungxr.utility.Log;
+import com.samsungxr.utility.Threads;
+
+import org.joml.Vector3f;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates the meshes used by the primitive nodes and caches their geometry.
+ *
+ * {@link SXRSphereNode}, {@link SXRCylinderNode}, {@link SXRConeNode} and
+ * {@link SXRCubeNode} ask the factory for their mesh instead of tessellating
+ * it themselves. The geometry is cached by the parameters which determine the
+ * shape (stacks, slices, radii, facing, dimensions and vertex descriptor), so
+ * that a scene with thousands of identical primitives only tessellates each
+ * shape once. The cache keeps the most recently used shapes, up to
+ * {@link #setCacheSize(int)}.
+ * <p>
+ * By default every node still gets its own mesh, built from the cached
+ * geometry, so changing the mesh of one node does not affect the others.
+ * With {@link #setSharedMeshes(boolean)} the nodes with the same shape share
+ * a single mesh and its vertex and index buffers; changing the vertices of
+ * one of them then changes all of them, so make a copy with
+ * {@link SXRMesh#SXRMesh(SXRMesh)} before modifying a shared mesh. Shared
+ * meshes are only weakly referenced by the factory.
+ * <p>
+ * With {@link #setBackgroundTessellation(boolean)} the nodes do not tessellate
+ * uncached shapes on the thread which creates them: the node has no mesh, and
+ * is not rendered, until the shape has been tessellated on a background
+ * thread. The mesh is then attached on the GL thread to every node created
+ * with that shape in the meantime. The {@code request} methods do the same for
+ * any {@link SXRRenderData}; the {@code get} methods tessellate on the calling
+ * thread, or wait for a pending background tessellation of the same shape.
+ * <p>
+ * The segmented and multi-texture variants of the primitive nodes split the
+ * shape across several meshes and are not cached.
+ */
+public class SXRPrimitiveMeshFactory {
+    private static final String TAG = Log.tag(SXRPrimitiveMeshFactory.class);
+    private static final String DEFAULT_DESCRIPTOR = "float3 a_position float2 a_texcoord float3 a_normal";
+
+    /**
+     * Default number of shapes kept in the cache.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 64;
+
+    private static SXRPrimitiveMeshFactory sInstance = null;
+
+    static {
+        SXRContext.addResetOnRestartHandler(new Runnable() {
+
+            @Override
+            public void run() {
+                sInstance = null;
+            }
+        });
+    }
+
+    private final SXRContext mContext;
+    private int mCacheSize = DEFAULT_CACHE_SIZE;
+    private volatile boolean mSharedMeshes = false;
+    private volatile boolean mBackgroundTessellation = false;
+    private final Map<Key, Entry> mCache = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > mCacheSize;
+        }
+    };
+
+    protected SXRPrimitiveMeshFactory(SXRContext context) {
+        mContext = context;
+    }
+
+    /**
+     * Get the (lazy-created) singleton.
+     *
+     * @param context
+     *            Current SXRContext
+     *
+     * @return Primitive mesh factory singleton.
+     */
+    public static synchronized SXRPrimitiveMeshFactory getInstance(SXRContext context) {
+        if (sInstance == null) {
+            sInstance = new SXRPrimitiveMeshFactory(context);
+        }
+        return sInstance;
+    }
+
+    /**
+     * Make the primitive nodes with the same shape share a single mesh.
+     * Only affects the meshes created afterwards.
+     *
+     * @param shared true to share the meshes, false (the default) to give
+     *               every node its own mesh
+     */
+    public void setSharedMeshes(boolean shared) {
+        mSharedMeshes = shared;
+    }
+
+    /**
+     * @return true if the primitive nodes with the same shape share a mesh
+     */
+    public boolean isSharedMeshes() {
+        return mSharedMeshes;
+    }
+
+    /**
+     * Tessellate the shapes of new primitive nodes on a background thread
+     * when they are not cached. Until its mesh is ready, such a node has no
+     * mesh and is not rendered.
+     *
+     * @param enabled true to tessellate in the background, false (the
+     *                default) to tessellate when the node is created
+     */
+    public void setBackgroundTessellation(boolean enabled) {
+        mBackgroundTessellation = enabled;
+    }
+
+    /**
+     * @return true if uncached shapes are tessellated in the background
+     */
+    public boolean isBackgroundTessellation() {
+        return mBackgroundTessellation;
+    }
+
+    /**
+     * Set the number of shapes kept in the cache. When the cache is full
+     * the least recently used shape is dropped; nodes which use its mesh are
+     * not affected.
+     *
+     * @param size maximum number of shapes, 0 to disable the cache
+     */
+    public void setCacheSize(int size) {
+        synchronized (mCache) {
+            mCacheSize = Math.max(size, 0);
+            trim();
+        }
+    }
+
+    /**
+     * Get the mesh for a sphere, tessellating it on the calling thread if it
+     * is not already cached.
+     *
+     * @param stackNumber number of stacks, at least 3
+     * @param sliceNumber number of slices, at least 4
+     * @param facingOut   whether the triangles and normals should be facing
+     *                    in or facing out.
+     * @param radius      radius of the sphere
+     * @return sphere mesh, shared if {@link #isSharedMeshes()}
+     */
+    public SXRMesh getSphere(int stackNumber, int sliceNumber, boolean facingOut, float radius) {
+        return get(Key.sphere(stackNumber, sliceNumber, facingOut, radius));
+    }
+
+    /**
+     * Attach the mesh for a sphere to a render data, tessellating it on a
+     * background thread if it is not already cached.
+     *
+     * @param stackNumber number of stacks, at least 3
+     * @param sliceNumber number of slices, at least 4
+     * @param facingOut   whether the triangles and normals should be facing
+     *                    in or facing out.
+     * @param radius      radius of the sphere
+     * @param target      render data to get the mesh
+     */
+    public void requestSphere(int stackNumber, int sliceNumber, boolean facingOut, float radius,
+                              SXRRenderData target) {
+        request(Key.sphere(stackNumber, sliceNumber, facingOut, radius), target);
+    }
+
+    /**
+     * Get the mesh for a cylinder or cone, tessellating it on the calling
+     * thread if it is not already cached. The material in the parameters is
+     * ignored.
+     *
+     * @param params cylinder construction parameters
+     * @return cylinder mesh, shared if {@link #isSharedMeshes()}
+     */
+    public SXRMesh getCylinder(CylinderParams params) {
+        return get(Key.cylinder(params));
+    }
+
+    /**
+     * Attach the mesh for a cylinder or cone to a render data, tessellating it
+     * on a background thread if it is not already cached. The material in the
+     * parameters is ignored.
+     *
+     * @param params cylinder construction parameters
+     * @param target render data to get the mesh
+     */
+    public void requestCylinder(CylinderParams params, SXRRenderData target) {
+        request(Key.cylinder(params), target);
+    }
+
+    /**
+     * Get the mesh for a cube, creating it if it is not already cached.
+     *
+     * @param facingOut  whether the triangles and normals should be facing in
+     *                   or facing out.
+     * @param vertexDesc vertex descriptor for the mesh, {@code null} for
+     *                   positions, normals and texture coordinates
+     * @param dimensions X, Y, Z dimensions, {@code null} for a unit cube
+     * @return cube mesh, shared if {@link #isSharedMeshes()}
+     */
+    public SXRMesh getCube(boolean facingOut, String vertexDesc, Vector3f dimensions) {
+        return get(Key.cube(facingOut, vertexDesc, dimensions));
+    }
+
+    /**
+     * Attach the mesh for a cube to a render data, creating it on a
+     * background thread if it is not already cached.
+     *
+     * @param facingOut  whether the triangles and normals should be facing in
+     *                   or facing out.
+     * @param vertexDesc vertex descriptor for the mesh, {@code null} for
+     *                   positions, normals and texture coordinates
+     * @param dimensions X, Y, Z dimensions, {@code null} for a unit cube
+     * @param target     render data to get the mesh
+     */
+    public void requestCube(boolean facingOut, String vertexDesc, Vector3f dimensions,
+                            SXRRenderData target) {
+        request(Key.cube(facingOut, vertexDesc, dimensions), target);
+    }
+
+    /**
+     * Remove all the shapes from the cache. Nodes which already use their
+     * meshes are not affected.
+     */
+    public void clear() {
+        synchronized (mCache) {
+            mCache.clear();
+        }
+    }
+
+    /**
+     * @return number of shapes in the cache, including the ones still being
+     *         tessellated.
+     */
+    public int size() {
+        synchronized (mCache) {
+            return mCache.size();
+        }
+    }
+
+    /*
+     * Give the render data of a primitive node its mesh, following the
+     * background tessellation setting.
+     */
+    void setSphere(SXRRenderData target, int stackNumber, int sliceNumber, boolean facingOut,
+                   float radius) {
+        attach(Key.sphere(stackNumber, sliceNumber, facingOut, radius), target);
+    }
+
+    void setCylinder(SXRRenderData target, CylinderParams params) {
+        attach(Key.cylinder(params), target);
+    }
+
+    void setCube(SXRRenderData target, boolean facingOut, String vertexDesc, Vector3f dimensions) {
+        attach(Key.cube(facingOut, vertexDesc, dimensions), target);
+    }
+
+    private void attach(Key key, SXRRenderData target) {
+        if (mBackgroundTessellation) {
+            request(key, target);
+        } else {
+            target.setMesh(get(key));
+        }
+    }
+
+    private void trim() {
+        while (mCache.size() > mCacheSize) {
+            mCache.remove(mCache.keySet().iterator().next());
+        }
+    }
+
+    /*
+     * Find the entry of a shape, or add a new one; the caller tessellates
+     * the shape of a new entry.
+     */
+    private Entry getEntry(Key key, boolean[] created) {
+        synchronized (mCache) {
+            Entry entry = mCache.get(key);
+
+            if (entry == null) {
+                entry = new Entry(key);
+                created[0] = true;
+                if (mCacheSize > 0) {
+                    mCache.put(key, entry);
+                }
+            }
+            return entry;
+        }
+    }
+
+    private SXRMesh get(Key key) {
+        final boolean[] created = new boolean[1];
+        final Entry entry = getEntry(key, created);
+
+        if (created[0]) {
+            entry.run();
+        }
+        return entry.getMesh();
+    }
+
+    private void request(Key key, SXRRenderData target) {
+        final boolean[] created = new boolean[1];
+        final Entry entry = getEntry(key, created);
+
+        entry.addTarget(target);
+        if (created[0]) {
+            Threads.spawn(entry);
+        }
+    }
+
+    private SXRMesh createMesh(Geometry geometry, String descriptor) {
+        SXRMesh mesh = new SXRMesh(mContext, descriptor);
+
+        mesh.setVertices(geometry.vertices);
+        if (descriptor.contains("normal")) {
+            mesh.setNormals(geometry.normals);
+        }
+        if (descriptor.contains("texcoord")) {
+            mesh.setTexCoords(geometry.texCoords);
+        }
+        mesh.setIndices(geometry.indices);
+        return mesh;
+    }
+
+    /**
+     * Vertex data generated by one of the primitive nodes.
+     */
+    static final class Geometry {
+        final float[] vertices;
+        final float[] normals;
+        final float[] texCoords;
+        final char[] indices;
+
+        Geometry(float[] vertices, float[] normals, float[] texCoords, char[] indices) {
+            this.vertices = vertices;
+            this.normals = normals;
+            this.texCoords = texCoords;
+            this.indices = indices;
+        }
+    }
+
+    /**
+     * One cached shape: its geometry once it has been tessellated, the
+     * render data waiting for it until then, and the shared mesh if there is
+     * one.
+     */
+    private final class Entry implements Runnable {
+        private final Key mKey;
+        private Geometry mGeometry = null;
+        private RuntimeException mError = null;
+        private boolean mDone = false;
+        private List<SXRRenderData> mTargets = null;
+        private WeakReference<SXRMesh> mSharedMesh = null;
+
+        Entry(Key key) {
+            mKey = key;
+        }
+
+        @Override
+        public void run() {
+            Geometry geometry = null;
+            RuntimeException error = null;
+            final List<SXRRenderData> targets;
+
+            try {
+                geometry = mKey.tessellate();
+            } catch (RuntimeException ex) {
+                error = ex;
+                synchronized (mCache) {
+                    if (mCache.get(mKey) == this) {
+                        mCache.remove(mKey);
+                    }
+                }
+            }
+            synchronized (this) {
+                mGeometry = geometry;
+                mError = error;
+                mDone = true;
+                targets = mTargets;
+                mTargets = null;
+                notifyAll();
+            }
+            if (error != null) {
+                Log.e(TAG, "Cannot tessellate %s: %s", mKey, error);
+            } else if (targets != null) {
+                publish(targets);
+            }
+        }
+
+        synchronized SXRMesh getMesh() {
+            while (!mDone) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for " + mKey);
+                }
+            }
+            if (mError != null) {
+                throw mError;
+            }
+            return createMesh();
+        }
+
+        /*
+         * A new mesh with the geometry, or the shared one. Called once the
+         * geometry is ready, with the entry locked.
+         */
+        private SXRMesh createMesh() {
+            if (!mSharedMeshes) {
+                return SXRPrimitiveMeshFactory.this.createMesh(mGeometry, mKey.descriptor);
+            }
+            SXRMesh mesh = (mSharedMesh != null) ? mSharedMesh.get() : null;
+            if (mesh == null) {
+                mesh = SXRPrimitiveMeshFactory.this.createMesh(mGeometry, mKey.descriptor);
+                mSharedMesh = new WeakReference<SXRMesh>(mesh);
+            }
+            return mesh;
+        }
+
+        void addTarget(SXRRenderData target) {
+            final SXRMesh mesh;
+
+            synchronized (this) {
+                if (!mDone) {
+                    if (mTargets == null) {
+                        mTargets = new ArrayList<SXRRenderData>();
+                    }
+                    mTargets.add(target);
+                    return;
+                }
+                if (mGeometry == null) {
+                    return;
+                }
+                mesh = createMesh();
+            }
+            target.setMesh(mesh);
+        }
+
+        private void publish(final List<SXRRenderData> targets) {
+            mContext.runOnGlThread(new Runnable() {
+                @Override
+                public void run() {
+                    for (SXRRenderData target : targets) {
+                        final SXRMesh mesh;
+                        synchronized (Entry.this) {
+                            mesh = createMesh();
+                        }
+                        target.setMesh(mesh);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Shape parameters used as the cache key.
+     */
+    private static final class Key {
+        private static final int SPHERE = 0;
+        private static final int CYLINDER = 1;
+        private static final int CUBE = 2;
+
+        private static final int FACING_OUT = 1;
+        private static final int TOP_CAP = 2;
+        private static final int BOTTOM_CAP = 4;
+
+        final int shape;
+        final int stacks;
+        final int slices;
+        final int flags;
+        final float x;
+        final float y;
+        final float z;
+        final String descriptor;
+
+        private Key(int shape, int stacks, int slices, int flags,
+                    float x, float y, float z, String descriptor) {
+            this.shape = shape;
+            this.stacks = stacks;
+            this.slices = slices;
+            this.flags = flags;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.descriptor = (descriptor != null) ? descriptor : DEFAULT_DESCRIPTOR;
+        }
+
+        static Key sphere(int stackNumber, int sliceNumber, boolean facingOut, float radius) {
+            return new Key(SPHERE, stackNumber, sliceNumber, facingOut ? FACING_OUT : 0,
+                           radius, radius, radius, null);
+        }
+
+        static Key cylinder(CylinderParams params) {
+            int flags = (params.FacingOut ? FACING_OUT : 0)
+                    | (params.HasTopCap ? TOP_CAP : 0)
+                    | (params.HasBottomCap ? BOTTOM_CAP : 0);
+            return new Key(CYLINDER, params.StackNumber, params.SliceNumber, flags,
+                           params.BottomRadius, params.TopRadius, params.Height,
+                           params.VertexDescriptor);
+        }
+
+        static Key cube(boolean facingOut, String vertexDesc, Vector3f dimensions) {
+            if (dimensions == null) {
+                return new Key(CUBE, 0, 0, facingOut ? FACING_OUT : 0, 1, 1, 1, vertexDesc);
+            }
+            return new Key(CUBE, 0, 0, facingOut ? FACING_OUT : 0,
+                           dimensions.x, dimensions.y, dimensions.z, vertexDesc);
+        }
+
+        Geometry tessellate() {
+            boolean facingOut = (flags & FACING_OUT) != 0;
+
+            switch (shape) {
+                case SPHERE:
+                    return SXRSphereNode.tessellate(stacks, slices, facingOut, x);
+
+                case CYLINDER:
+                    CylinderParams params = new CylinderParams();
+                    params.StackNumber = stacks;
+                    params.SliceNumber = slices;
+                    params.FacingOut = facingOut;
+                    params.HasTopCap = (flags & TOP_CAP) != 0;
+                    params.HasBottomCap = (flags & BOTTOM_CAP) != 0;
+                    params.BottomRadius = x;
+                    params.TopRadius = y;
+                    params.Height = z;
+                    return SXRCylinderNode.tessellate(params);
+
+                default:
+                    return SXRCubeNode.tessellate(facingOut, x, y, z);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return shape == other.shape && stacks == other.stacks && slices == other.slices
+                    && flags == other.flags
+                    && Float.compare(x, other.x) == 0
+                    && Float.compare(y, other.y) == 0
+                    && Float.compare(z, other.z) == 0
+                    && descriptor.equals(other.descriptor);
+        }
+
+        @Override
+        public int hashCode() {
+            int h = shape;
+            h = 31 * h + stacks;
+            h = 31 * h + slices;
+            h = 31 * h + flags;
+            h = 31 * h + Float.floatToIntBits(x);
+            h = 31 * h + Float.floatToIntBits(y);
+            h = 31 * h + Float.floatToIntBits(z);
+            return 31 * h + descriptor.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "shape " + shape + " stacks " + stacks + " slices " + slices
+                    + " flags " + flags + " (" + x + ", " + y + ", " + z + ") " + descriptor;
+        }
+    }
+}
@@ -25,6 +25,12 @@ import com.samsungxr.SXRMesh;
 import com.samsungxr.SXRTexture;
 import com.samsungxr.utility.Log;
 
+/**
+ * A sphere. The geometry of the mesh comes from the {@link SXRPrimitiveMeshFactory};
+ * the factory settings decide whether nodes with the same shape share their
+ * mesh, and whether the mesh is tessellated in the background, leaving the
+ * node without a mesh until it is ready.
+ */
 public class SXRSphereNode extends SXRNode {
 
     @SuppressWarnings("unused")
@@ -364,173 +370,82 @@ public class SXRSphereNode extends SXRNode {
 
     private void generateSphereObject(SXRContext gvrContext, int stackNumber,
                                       int sliceNumber, boolean facingOut, SXRMaterial material, float radius) {
-        generateSphere(stackNumber, sliceNumber, facingOut);
-
-        // multiply by radius > 0
-        //float radius = 1;
-        for (int i = 0; i < vertices.length; i++) {
-            vertices[i] *= radius;
-        }
-        SXRMesh mesh = new SXRMesh(gvrContext, "float3 a_position float2 a_texcoord float3 a_normal");
-        mesh.setVertices(vertices);
-        mesh.setNormals(normals);
-        mesh.setTexCoords(texCoords);
-        mesh.setIndices(indices);
-
         SXRRenderData renderData = new SXRRenderData(gvrContext, material);
         attachComponent(renderData);
-        renderData.setMesh(mesh);
+        SXRPrimitiveMeshFactory.getInstance(gvrContext)
+                .setSphere(renderData, stackNumber, sliceNumber, facingOut, radius);
     }
 
-    private void generateSphere(int stackNumber, int sliceNumber,
-                                boolean facingOut) {
-        int capVertexNumber = 3 * sliceNumber;
-        int bodyVertexNumber = 4 * sliceNumber * (stackNumber - 2);
-        int vertexNumber = (2 * capVertexNumber) + bodyVertexNumber;
-        int triangleNumber = (2 * capVertexNumber)
-                + (6 * sliceNumber * (stackNumber - 2));
-
-        vertices = new float[3 * vertexNumber];
-        normals = new float[3 * vertexNumber];
-        texCoords = new float[2 * vertexNumber];
-        indices = new char[triangleNumber];
-
-        // bottom cap
-        createCap(stackNumber, sliceNumber, false, facingOut);
-
-        // body
-        createBody(stackNumber, sliceNumber, facingOut);
+    /**
+     * Generate the vertices, normals, texture coordinates and indices of a
+     * sphere. Does not touch any native objects so it may be called from any
+     * thread.
+     */
+    static SXRPrimitiveMeshFactory.Geometry tessellate(int stackNumber, int sliceNumber,
+                                                     boolean facingOut, float radius) {
+        Tessellator tessellator = new Tessellator();
+        tessellator.generateSphere(stackNumber, sliceNumber, facingOut);
 
-        // top cap
-        createCap(stackNumber, sliceNumber, true, facingOut);
+        // multiply by radius > 0
+        float[] vertices = tessellator.vertices;
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] *= radius;
+        }
+        return new SXRPrimitiveMeshFactory.Geometry(vertices, tessellator.normals,
+                tessellator.texCoords, tessellator.indices);
     }
 
-    private void createCap(int stackNumber, int sliceNumber, boolean top,
-                           boolean facingOut) {
-
-        float stackPercentage0;
-        float stackPercentage1;
-
-        if (!top) {
-            stackPercentage0 = ((float) (stackNumber - 1) / stackNumber);
-            stackPercentage1 = 1.0f;
-
-        } else {
-            stackPercentage0 = (1.0f / stackNumber);
-            stackPercentage1 = 0.0f;
+    private static final class Tessellator {
+        private float[] vertices;
+        private float[] normals;
+        private float[] texCoords;
+        private char[] indices;
+
+        private int vertexCount = 0;
+        private int texCoordCount = 0;
+        private char indexCount = 0;
+        private char triangleCount = 0;
+
+        private void generateSphere(int stackNumber, int sliceNumber,
+                                    boolean facingOut) {
+            int capVertexNumber = 3 * sliceNumber;
+            int bodyVertexNumber = 4 * sliceNumber * (stackNumber - 2);
+            int vertexNumber = (2 * capVertexNumber) + bodyVertexNumber;
+            int triangleNumber = (2 * capVertexNumber)
+                    + (6 * sliceNumber * (stackNumber - 2));
+
+            vertices = new float[3 * vertexNumber];
+            normals = new float[3 * vertexNumber];
+            texCoords = new float[2 * vertexNumber];
+            indices = new char[triangleNumber];
+
+            // bottom cap
+            createCap(stackNumber, sliceNumber, false, facingOut);
+
+            // body
+            createBody(stackNumber, sliceNumber, facingOut);
+
+            // top cap
+            createCap(stackNumber, sliceNumber, true, facingOut);
         }
 
-        float t0 = stackPercentage0;
-        float t1 = stackPercentage1;
-        double theta0 = stackPercentage0 * Math.PI;
-        double theta1 = stackPercentage1 * Math.PI;
-        double cosTheta0 = Math.cos(theta0);
-        double sinTheta0 = Math.sin(theta0);
-        double cosTheta1 = Math.cos(theta1);
-        double sinTheta1 = Math.sin(theta1);
-
-        for (int slice = 0; slice < sliceNumber; slice++) {
-            float slicePercentage0 = ((float) (slice) / sliceNumber);
-            float slicePercentage1 = ((float) (slice + 1) / sliceNumber);
-            double phi0 = slicePercentage0 * 2.0 * Math.PI;
-            double phi1 = slicePercentage1 * 2.0 * Math.PI;
-            float s0, s1;
-            if (facingOut) {
-                s0 = 1 - slicePercentage0;
-                s1 = 1 - slicePercentage1;
-            } else {
-                s0 = slicePercentage0;
-                s1 = slicePercentage1;
-            }
-            float s2 = (s0 + s1) / 2.0f;
-            double cosPhi0 = Math.cos(phi0);
-            double sinPhi0 = Math.sin(phi0);
-            double cosPhi1 = Math.cos(phi1);
-            double sinPhi1 = Math.sin(phi1);
+        private void createCap(int stackNumber, int sliceNumber, boolean top,
+                               boolean facingOut) {
 
-            float x0 = (float) (sinTheta0 * cosPhi0);
-            float y0 = (float) cosTheta0;
-            float z0 = (float) (sinTheta0 * sinPhi0);
+            float stackPercentage0;
+            float stackPercentage1;
 
-            float x1 = (float) (sinTheta0 * cosPhi1);
-            float y1 = (float) cosTheta0;
-            float z1 = (float) (sinTheta0 * sinPhi1);
+            if (!top) {
+                stackPercentage0 = ((float) (stackNumber - 1) / stackNumber);
+                stackPercentage1 = 1.0f;
 
-            float x2 = (float) (sinTheta1 * cosPhi0);
-            float y2 = (float) cosTheta1;
-            float z2 = (float) (sinTheta1 * sinPhi0);
-
-            vertices[vertexCount + 0] = x0;
-            vertices[vertexCount + 1] = y0;
-            vertices[vertexCount + 2] = z0;
-
-            vertices[vertexCount + 3] = x1;
-            vertices[vertexCount + 4] = y1;
-            vertices[vertexCount + 5] = z1;
-
-            vertices[vertexCount + 6] = x2;
-            vertices[vertexCount + 7] = y2;
-            vertices[vertexCount + 8] = z2;
-
-            if (facingOut) {
-                normals[vertexCount + 0] = x0;
-                normals[vertexCount + 1] = y0;
-                normals[vertexCount + 2] = z0;
-
-                normals[vertexCount + 3] = x1;
-                normals[vertexCount + 4] = y1;
-                normals[vertexCount + 5] = z1;
-
-                normals[vertexCount + 6] = x2;
-                normals[vertexCount + 7] = y2;
-                normals[vertexCount + 8] = z2;
             } else {
-                normals[vertexCount + 0] = -x0;
-                normals[vertexCount + 1] = -y0;
-                normals[vertexCount + 2] = -z0;
-
-                normals[vertexCount + 3] = -x1;
-                normals[vertexCount + 4] = -y1;
-                normals[vertexCount + 5] = -z1;
-
-                normals[vertexCount + 6] = -x2;
-                normals[vertexCount + 7] = -y2;
-                normals[vertexCount + 8] = -z2;
+                stackPercentage0 = (1.0f / stackNumber);
+                stackPercentage1 = 0.0f;
             }
 
-            texCoords[texCoordCount + 0] = s0;
-            texCoords[texCoordCount + 1] = t0;
-            texCoords[texCoordCount + 2] = s1;
-            texCoords[texCoordCount + 3] = t0;
-            texCoords[texCoordCount + 4] = s2;
-            texCoords[texCoordCount + 5] = t1;
-
-            if ((facingOut && top) || (!facingOut && !top)) {
-                indices[indexCount + 0] = (char) (triangleCount + 1);
-                indices[indexCount + 1] = (char) (triangleCount + 0);
-                indices[indexCount + 2] = (char) (triangleCount + 2);
-            } else {
-                indices[indexCount + 0] = (char) (triangleCount + 0);
-                indices[indexCount + 1] = (char) (triangleCount + 1);
-                indices[indexCount + 2] = (char) (triangleCount + 2);
-            }
-
-            vertexCount += 9;
-            texCoordCount += 6;
-            indexCount += 3;
-            triangleCount += 3;
-        }
-
-    }
-
-    private void createBody(int stackNumber, int sliceNumber, boolean facingOut) {
-        for (int stack = 1; stack < stackNumber - 1; stack++) {
-            float stackPercentage0 = ((float) (stack) / stackNumber);
-            float stackPercentage1 = ((float) (stack + 1) / stackNumber);
-
             float t0 = stackPercentage0;
             float t1 = stackPercentage1;
-
             double theta0 = stackPercentage0 * Math.PI;
             double theta1 = stackPercentage1 * Math.PI;
             double cosTheta0 = Math.cos(theta0);
@@ -545,12 +460,13 @@ public class SXRSphereNode extends SXRNode {
                 double phi1 = slicePercentage1 * 2.0 * Math.PI;
                 float s0, s1;
                 if (facingOut) {
-                    s0 = 1.0f - slicePercentage0;
-                    s1 = 1.0f - slicePercentage1;
+                    s0 = 1 - slicePercentage0;
+                    s1 = 1 - slicePercentage1;
                 } else {
                     s0 = slicePercentage0;
                     s1 = slicePercentage1;
                 }
+                float s2 = (s0 + s1) / 2.0f;
                 double cosPhi0 = Math.cos(phi0);
                 double sinPhi0 = Math.sin(phi0);
                 double cosPhi1 = Math.cos(phi1);
@@ -568,10 +484,6 @@ public class SXRSphereNode extends SXRNode {
                 float y2 = (float) cosTheta1;
                 float z2 = (float) (sinTheta1 * sinPhi0);
 
-                float x3 = (float) (sinTheta1 * cosPhi1);
-                float y3 = (float) cosTheta1;
-                float z3 = (float) (sinTheta1 * sinPhi1);
-
                 vertices[vertexCount + 0] = x0;
                 vertices[vertexCount + 1] = y0;
                 vertices[vertexCount + 2] = z0;
@@ -584,10 +496,6 @@ public class SXRSphereNode extends SXRNode {
                 vertices[vertexCount + 7] = y2;
                 vertices[vertexCount + 8] = z2;
 
-                vertices[vertexCount + 9] = x3;
-                vertices[vertexCount + 10] = y3;
-                vertices[vertexCount + 11] = z3;
-
                 if (facingOut) {
                     normals[vertexCount + 0] = x0;
                     normals[vertexCount + 1] = y0;
@@ -600,10 +508,6 @@ public class SXRSphereNode extends SXRNode {
                     normals[vertexCount + 6] = x2;
                     normals[vertexCount + 7] = y2;
                     normals[vertexCount + 8] = z2;
-
-                    normals[vertexCount + 9] = x3;
-                    normals[vertexCount + 10] = y3;
-                    normals[vertexCount + 11] = z3;
                 } else {
                     normals[vertexCount + 0] = -x0;
                     normals[vertexCount + 1] = -y0;
@@ -616,61 +520,182 @@ public class SXRSphereNode extends SXRNode {
                     normals[vertexCount + 6] = -x2;
                     normals[vertexCount + 7] = -y2;
                     normals[vertexCount + 8] = -z2;
-
-                    normals[vertexCount + 9] = -x3;
-                    normals[vertexCount + 10] = -y3;
-                    normals[vertexCount + 11] = -z3;
                 }
 
                 texCoords[texCoordCount + 0] = s0;
                 texCoords[texCoordCount + 1] = t0;
                 texCoords[texCoordCount + 2] = s1;
                 texCoords[texCoordCount + 3] = t0;
-                texCoords[texCoordCount + 4] = s0;
+                texCoords[texCoordCount + 4] = s2;
                 texCoords[texCoordCount + 5] = t1;
-                texCoords[texCoordCount + 6] = s1;
-                texCoords[texCoordCount + 7] = t1;
-
-                // one quad looking from outside toward center
-                //
-                // @formatter:off
-                //
-                //     s1 --> s0
-                //
-                // t0   1-----0
-                //  |   |     |
-                //  v   |     |
-                // t1   3-----2
-                //
-                // @formatter:on
-                //
-                // Note that tex_coord t increase from top to bottom because the
-                // texture image is loaded upside down.
-                if (facingOut) {
-                    indices[indexCount + 0] = (char) (triangleCount + 0);
-                    indices[indexCount + 1] = (char) (triangleCount + 1);
-                    indices[indexCount + 2] = (char) (triangleCount + 2);
 
-                    indices[indexCount + 3] = (char) (triangleCount + 2);
-                    indices[indexCount + 4] = (char) (triangleCount + 1);
-                    indices[indexCount + 5] = (char) (triangleCount + 3);
+                if ((facingOut && top) || (!facingOut && !top)) {
+                    indices[indexCount + 0] = (char) (triangleCount + 1);
+                    indices[indexCount + 1] = (char) (triangleCount + 0);
+                    indices[indexCount + 2] = (char) (triangleCount + 2);
                 } else {
                     indices[indexCount + 0] = (char) (triangleCount + 0);
-                    indices[indexCount + 1] = (char) (triangleCount + 2);
-                    indices[indexCount + 2] = (char) (triangleCount + 1);
-
-                    indices[indexCount + 3] = (char) (triangleCount + 2);
-                    indices[indexCount + 4] = (char) (triangleCount + 3);
-                    indices[indexCount + 5] = (char) (triangleCount + 1);
+                    indices[indexCount + 1] = (char) (triangleCount + 1);
+                    indices[indexCount + 2] = (char) (triangleCount + 2);
                 }
 
-                vertexCount += 12;
-                texCoordCount += 8;
-                indexCount += 6;
-                triangleCount += 4;
+                vertexCount += 9;
+                texCoordCount += 6;
+                indexCount += 3;
+                triangleCount += 3;
             }
+
         }
 
+        private void createBody(int stackNumber, int sliceNumber, boolean facingOut) {
+            for (int stack = 1; stack < stackNumber - 1; stack++) {
+                float stackPercentage0 = ((float) (stack) / stackNumber);
+                float stackPercentage1 = ((float) (stack + 1) / stackNumber);
+
+                float t0 = stackPercentage0;
+                float t1 = stackPercentage1;
+
+                double theta0 = stackPercentage0 * Math.PI;
+                double theta1 = stackPercentage1 * Math.PI;
+                double cosTheta0 = Math.cos(theta0);
+                double sinTheta0 = Math.sin(theta0);
+                double cosTheta1 = Math.cos(theta1);
+                double sinTheta1 = Math.sin(theta1);
+
+                for (int slice = 0; slice < sliceNumber; slice++) {
+                    float slicePercentage0 = ((float) (slice) / sliceNumber);
+                    float slicePercentage1 = ((float) (slice + 1) / sliceNumber);
+                    double phi0 = slicePercentage0 * 2.0 * Math.PI;
+                    double phi1 = slicePercentage1 * 2.0 * Math.PI;
+                    float s0, s1;
+                    if (facingOut) {
+                        s0 = 1.0f - slicePercentage0;
+                        s1 = 1.0f - slicePercentage1;
+                    } else {
+                        s0 = slicePercentage0;
+                        s1 = slicePercentage1;
+                    }
+                    double cosPhi0 = Math.cos(phi0);
+                    double sinPhi0 = Math.sin(phi0);
+                    double cosPhi1 = Math.cos(phi1);
+                    double sinPhi1 = Math.sin(phi1);
+
+                    float x0 = (float) (sinTheta0 * cosPhi0);
+                    float y0 = (float) cosTheta0;
+                    float z0 = (float) (sinTheta0 * sinPhi0);
+
+                    float x1 = (float) (sinTheta0 * cosPhi1);
+                    float y1 = (float) cosTheta0;
+                    float z1 = (float) (sinTheta0 * sinPhi1);
+
+                    float x2 = (float) (sinTheta1 * cosPhi0);
+                    float y2 = (float) cosTheta1;
+                    float z2 = (float) (sinTheta1 * sinPhi0);
+
+                    float x3 = (float) (sinTheta1 * cosPhi1);
+                    float y3 = (float) cosTheta1;
+                    float z3 = (float) (sinTheta1 * sinPhi1);
+
+                    vertices[vertexCount + 0] = x0;
+                    vertices[vertexCount + 1] = y0;
+                    vertices[vertexCount + 2] = z0;
+
+                    vertices[vertexCount + 3] = x1;
+                    vertices[vertexCount + 4] = y1;
+                    vertices[vertexCount + 5] = z1;
+
+                    vertices[vertexCount + 6] = x2;
+                    vertices[vertexCount + 7] = y2;
+                    vertices[vertexCount + 8] = z2;
+
+                    vertices[vertexCount + 9] = x3;
+                    vertices[vertexCount + 10] = y3;
+                    vertices[vertexCount + 11] = z3;
+
+                    if (facingOut) {
+                        normals[vertexCount + 0] = x0;
+                        normals[vertexCount + 1] = y0;
+                        normals[vertexCount + 2] = z0;
+
+                        normals[vertexCount + 3] = x1;
+                        normals[vertexCount + 4] = y1;
+                        normals[vertexCount + 5] = z1;
+
+                        normals[vertexCount + 6] = x2;
+                        normals[vertexCount + 7] = y2;
+                        normals[vertexCount + 8] = z2;
+
+                        normals[vertexCount + 9] = x3;
+                        normals[vertexCount + 10] = y3;
+                        normals[vertexCount + 11] = z3;
+                    } else {
+                        normals[vertexCount + 0] = -x0;
+                        normals[vertexCount + 1] = -y0;
+                        normals[vertexCount + 2] = -z0;
+
+                        normals[vertexCount + 3] = -x1;
+                        normals[vertexCount + 4] = -y1;
+                        normals[vertexCount + 5] = -z1;
+
+                        normals[vertexCount + 6] = -x2;
+                        normals[vertexCount + 7] = -y2;
+                        normals[vertexCount + 8] = -z2;
+
+                        normals[vertexCount + 9] = -x3;
+                        normals[vertexCount + 10] = -y3;
+                        normals[vertexCount + 11] = -z3;
+                    }
+
+                    texCoords[texCoordCount + 0] = s0;
+                    texCoords[texCoordCount + 1] = t0;
+                    texCoords[texCoordCount + 2] = s1;
+                    texCoords[texCoordCount + 3] = t0;
+                    texCoords[texCoordCount + 4] = s0;
+                    texCoords[texCoordCount + 5] = t1;
+                    texCoords[texCoordCount + 6] = s1;
+                    texCoords[texCoordCount + 7] = t1;
+
+                    // one quad looking from outside toward center
+                    //
+                    // @formatter:off
+                    //
+                    //     s1 --> s0
+                    //
+                    // t0   1-----0
+                    //  |   |     |
+                    //  v   |     |
+                    // t1   3-----2
+                    //
+                    // @formatter:on
+                    //
+                    // Note that tex_coord t increase from top to bottom because the
+                    // texture image is loaded upside down.
+                    if (facingOut) {
+                        indices[indexCount + 0] = (char) (triangleCount + 0);
+                        indices[indexCount + 1] = (char) (triangleCount + 1);
+                        indices[indexCount + 2] = (char) (triangleCount + 2);
+
+                        indices[indexCount + 3] = (char) (triangleCount + 2);
+                        indices[indexCount + 4] = (char) (triangleCount + 1);
+                        indices[indexCount + 5] = (char) (triangleCount + 3);
+                    } else {
+                        indices[indexCount + 0] = (char) (triangleCount + 0);
+                        indices[indexCount + 1] = (char) (triangleCount + 2);
+                        indices[indexCount + 2] = (char) (triangleCount + 1);
+
+                        indices[indexCount + 3] = (char) (triangleCount + 2);
+                        indices[indexCount + 4] = (char) (triangleCount + 3);
+                        indices[indexCount + 5] = (char) (triangleCount + 1);
+                    }
+
+                    vertexCount += 12;
+                    texCoordCount += 8;
+                    indexCount += 6;
+                    triangleCount += 4;
+                }
+            }
+
+        }
     }
 
     private void generateComplexSphereObject(SXRContext gvrContext,
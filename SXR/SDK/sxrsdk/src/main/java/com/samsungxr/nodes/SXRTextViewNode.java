@@ -43,6 +43,13 @@ import com.samsungxr.SXRTexture;
 
 import java.lang.ref.WeakReference;
 
+/**
+ * Shows an Android {@link TextView} on a quad. The view is drawn into a
+ * texture of its own and redrawn at the {@linkplain IntervalFrequency refresh
+ * frequency} when it changes. For many labels, or labels that do not need
+ * the features of a {@code TextView}, {@link SXRGlyphTextNode} draws from a
+ * shared glyph atlas instead.
+ */
 public class SXRTextViewNode extends SXRNode {
     private static final String TAG = SXRTextViewNode.class.getSimpleName();
 
@@ -27,6 +27,7 @@ import android.os.Looper;
 import android.os.Message;
 import android.os.SystemClock;
 import android.view.ActionMode;
+import android.view.Choreographer;
 import android.view.GestureDetector;
 import android.view.InputDevice;
 import android.view.KeyEvent;
@@ -311,7 +312,79 @@ public class SXRViewNode extends SXRNode {
      * @see {@link View#postInvalidate()}
      */
     public void invalidate() {
-        mRootViewGroup.postInvalidate();
+        mRootViewGroup.invalidateAll();
+    }
+
+    /**
+     * Enable / disable dirty region rendering.
+     *
+     * By default the whole view is redrawn into the texture whenever any
+     * part of it is invalidated. With dirty region rendering, the
+     * rectangles invalidated by the children are merged and only their
+     * union is locked and redrawn. Redraws are also coalesced to at most
+     * one per display frame, and limited by {@link #setMaxRedrawRate(float)}.
+     *
+     * @param enable true to redraw only the invalidated region
+     */
+    public void setDirtyRegionRendering(boolean enable) {
+        mRootViewGroup.mDirtyRegionRendering = enable;
+        invalidate();
+    }
+
+    /**
+     * @return true if dirty region rendering is enabled
+     * @see #setDirtyRegionRendering(boolean)
+     */
+    public boolean isDirtyRegionRendering() {
+        return mRootViewGroup.mDirtyRegionRendering;
+    }
+
+    /**
+     * Limit how often the view is redrawn in dirty region rendering mode.
+     * Invalidations that arrive in between are merged into the next redraw.
+     *
+     * @param framesPerSecond maximum number of redraws per second, 0 to
+     *                        redraw at most once every display frame
+     * @see #setDirtyRegionRendering(boolean)
+     */
+    public void setMaxRedrawRate(float framesPerSecond) {
+        mRootViewGroup.mMinRedrawInterval = (framesPerSecond > 0)
+                ? (long) (1000000000L / framesPerSecond) : 0;
+    }
+
+    /**
+     * @return number of times the view was drawn into its texture
+     * @see #resetRedrawStats()
+     */
+    public int getRedrawCount() {
+        return mRootViewGroup.mRedrawCount;
+    }
+
+    /**
+     * @return number of texture pixels covered by the redraws, which is the
+     *         texture size times {@link #getRedrawCount()} unless dirty
+     *         region rendering is enabled
+     * @see #resetRedrawStats()
+     */
+    public long getRedrawPixelCount() {
+        return mRootViewGroup.mRedrawPixels;
+    }
+
+    /**
+     * @return number of invalidations received from the view hierarchy
+     * @see #resetRedrawStats()
+     */
+    public int getInvalidationCount() {
+        return mRootViewGroup.mInvalidationCount;
+    }
+
+    /**
+     * Set the redraw and invalidation counters to zero.
+     */
+    public void resetRedrawStats() {
+        mRootViewGroup.mRedrawCount = 0;
+        mRootViewGroup.mRedrawPixels = 0;
+        mRootViewGroup.mInvalidationCount = 0;
     }
 
     /**
@@ -363,6 +436,7 @@ public class SXRViewNode extends SXRNode {
             @Override
             public void run() {
                 mRootViewGroup.setTextureBufferSize(size);
+                mRootViewGroup.invalidateAll();
             }
         });
     }
@@ -466,6 +540,45 @@ public class SXRViewNode extends SXRNode {
         SXRNode mSelected = null;
         SoftInputController mSoftInputController;
 
+        // Dirty region rendering; the regions are only touched at UI thread
+        volatile boolean mDirtyRegionRendering = false;
+        volatile long mMinRedrawInterval = 0;
+        volatile int mRedrawCount = 0;
+        volatile long mRedrawPixels = 0;
+        volatile int mInvalidationCount = 0;
+        final Rect mDirty = new Rect();
+        final Rect mLockRect = new Rect();
+        final Rect mChildRect = new Rect();
+        int mBufferWidth;
+        int mBufferHeight;
+        boolean mRedrawScheduled = false;
+        boolean mRedrawDue = false;
+        long mLastRedrawTime = 0;
+
+        final Choreographer.FrameCallback mRedrawCallback = new Choreographer.FrameCallback() {
+            @Override
+            public void doFrame(long frameTimeNanos) {
+                final long wait = mLastRedrawTime + mMinRedrawInterval - frameTimeNanos;
+
+                if (wait > 0) {
+                    Choreographer.getInstance().postFrameCallbackDelayed(this, wait / 1000000);
+                    return;
+                }
+                mRedrawScheduled = false;
+                mRedrawDue = true;
+                mLastRedrawTime = frameTimeNanos;
+                invalidate();
+            }
+        };
+
+        final Runnable mInvalidateAll = new Runnable() {
+            @Override
+            public void run() {
+                mDirty.set(0, 0, getWidth(), getHeight());
+                scheduleRedraw();
+            }
+        };
+
         public RootViewGroup(SXRApplication application) {
             super(application.getActivity());
 
@@ -491,9 +604,12 @@ public class SXRViewNode extends SXRNode {
             /* FIXME: This method was deprecated in API level 26
               Use onDescendantInvalidated(View, View) instead.
              */
-            postInvalidate();
+            final ViewParent parent = super.invalidateChildInParent(location, dirty);
 
-            return super.invalidateChildInParent(location, dirty);
+            // super has moved the dirty rectangle to our coordinates
+            mDirty.union(dirty);
+            scheduleRedraw();
+            return parent;
         }
 
         @Override
@@ -501,7 +617,26 @@ public class SXRViewNode extends SXRNode {
             super.onDescendantInvalidated(child, target);
             // To fix the issue of not redrawing the children after its invalidation.
 
-            postInvalidate();
+            mChildRect.set(0, 0, target.getWidth(), target.getHeight());
+            offsetDescendantRectToMyCoords(target, mChildRect);
+            mDirty.union(mChildRect);
+            scheduleRedraw();
+        }
+
+        // Android UI thread
+        void scheduleRedraw() {
+            ++mInvalidationCount;
+            if (!mDirtyRegionRendering) {
+                postInvalidate();
+            } else if (!mRedrawScheduled) {
+                mRedrawScheduled = true;
+                Choreographer.getInstance().postFrameCallback(mRedrawCallback);
+            }
+        }
+
+        // Redraw the whole view, from any thread
+        void invalidateAll() {
+            post(mInvalidateAll);
         }
 
         // The child can be as large as it wants up to the specified size.
@@ -588,6 +723,9 @@ public class SXRViewNode extends SXRNode {
             final SXRMaterial material = mNode.getRenderData().getMaterial();
 
             mSurfaceTexture.setDefaultBufferSize((int)width, (int)height);
+            mBufferWidth = (int) width;
+            mBufferHeight = (int) height;
+            mDirty.set(0, 0, getWidth(), getHeight());
 
             material.setFloat("texelWidth", 1.0f / width);
             material.setFloat("texelHeight", 1.0f / height);
@@ -596,8 +734,15 @@ public class SXRViewNode extends SXRNode {
         @Override
         // Android UI thread
         protected void dispatchDraw(Canvas canvas) {
+            if (mDirtyRegionRendering) {
+                dispatchDirtyDraw(canvas);
+                return;
+            }
             // Canvas attached to SXRViewNode to draw on
             Canvas attachedCanvas = mSurface.lockCanvas(null);
+            ++mRedrawCount;
+            mRedrawPixels += (long) attachedCanvas.getWidth() * attachedCanvas.getHeight();
+            mDirty.setEmpty();
             // Clear the canvas
             attachedCanvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
             attachedCanvas.scale(attachedCanvas.getWidth() / (float) canvas.getWidth(),
@@ -608,6 +753,44 @@ public class SXRViewNode extends SXRNode {
             mSurface.unlockCanvasAndPost(attachedCanvas);
         }
 
+        /*
+         * Redraw only the union of the invalidated rectangles, and only when
+         * the frame callback says a redraw is due.
+         */
+        private void dispatchDirtyDraw(Canvas canvas) {
+            final int width = getWidth();
+            final int height = getHeight();
+
+            if (!mRedrawDue || mDirty.isEmpty() || (width == 0) || (height == 0)) {
+                return;
+            }
+            mRedrawDue = false;
+
+            // Dirty region in texture pixels, rounded out
+            final float scaleX = mBufferWidth / (float) width;
+            final float scaleY = mBufferHeight / (float) height;
+            mLockRect.set((int) Math.floor(mDirty.left * scaleX),
+                    (int) Math.floor(mDirty.top * scaleY),
+                    (int) Math.ceil(mDirty.right * scaleX),
+                    (int) Math.ceil(mDirty.bottom * scaleY));
+            mDirty.setEmpty();
+            if (!mLockRect.intersect(0, 0, mBufferWidth, mBufferHeight)) {
+                return;
+            }
+
+            // The surface may grow the region if it cannot keep the old pixels
+            Canvas attachedCanvas = mSurface.lockCanvas(mLockRect);
+            ++mRedrawCount;
+            mRedrawPixels += (long) mLockRect.width() * mLockRect.height();
+            // The canvas is clipped to the locked region
+            attachedCanvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+            attachedCanvas.scale(attachedCanvas.getWidth() / (float) canvas.getWidth(),
+                    attachedCanvas.getHeight() / (float) canvas.getHeight());
+            super.dispatchDraw(attachedCanvas);
+
+            mSurface.unlockCanvasAndPost(attachedCanvas);
+        }
+
         public void startRendering() {
             setChildrenInputController(this);
 
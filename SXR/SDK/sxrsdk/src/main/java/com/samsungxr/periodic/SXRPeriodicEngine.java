@@ -15,7 +15,9 @@
 
 package com.samsungxr.periodic;
 
-import java.util.PriorityQueue;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.samsungxr.SXRContext;
 import com.samsungxr.SXRDrawFrameListener;
@@ -54,9 +56,12 @@ import com.samsungxr.SXRDrawFrameListener;
  * something like a notification.
  * 
  * <p>
- * The engine maintains a priority queue of events, which it checks in a
- * {@linkplain SXRDrawFrameListener frame listener}; events run as
- * {@linkplain SXRContext#runOnGlThread(Runnable) run-once events.} Every frame,
+ * The engine keeps its events in a timing wheel, which it advances in a
+ * {@linkplain SXRDrawFrameListener frame listener}; the events which are due
+ * run together as one {@linkplain SXRContext#runOnGlThread(Runnable) run-once
+ * event.} Scheduling, rescheduling and canceling are constant time and never
+ * block: changes made from any thread are queued without locking and applied
+ * by the frame listener before it advances the wheel. Every frame,
  * SXRF runs any run-once events; then any frame listeners (including
  * animations); then your {@linkplain com.samsungxr.SXRMain#onStep() method;} and
  * then it renders the scene. This means that any periodic events that run on a
@@ -85,7 +90,28 @@ public class SXRPeriodicEngine {
 
     private final SXRContext mContext;
     private final DrawFrameListener mDrawFrameListener = new DrawFrameListener();
-    private final PriorityQueue<EventImplementation> mQueue = new PriorityQueue<EventImplementation>();
+    private final BatchRunner mBatchRunner = new BatchRunner();
+
+    /*
+     * Only used on the GL thread.
+     */
+    private final SXRTimingWheel<Event> mWheel = new SXRTimingWheel<Event>();
+    private ArrayList<Event> mExpired = new ArrayList<Event>();
+    private ArrayList<Event> mBatch = new ArrayList<Event>();
+    private boolean mBatchPending = false;
+
+    /**
+     * Events changed since the last frame, pushed from any thread.
+     */
+    private final AtomicReference<Event> mInbox = new AtomicReference<Event>();
+
+    /**
+     * Origin of the wheel's ticks.
+     */
+    private final long mOrigin = System.nanoTime();
+
+    private static final long TICK_NANOS = 1000000;
+    private static final long UNSCHEDULED_NANOS = Long.MIN_VALUE;
 
     protected SXRPeriodicEngine(SXRContext context) {
         mContext = context;
@@ -328,40 +354,91 @@ public class SXRPeriodicEngine {
         void runEvery(float delay, float period, KeepRunning callback);
     }
 
-    private interface EventImplementation extends PeriodicEvent,
-            Comparable<EventImplementation>, Runnable {
-        float getScheduledTime();
+    /**
+     * Wheel tick of a deadline, rounded up so events never run early.
+     */
+    private long deadlineTick(long nanos) {
+        long elapsed = nanos - mOrigin;
+        return (elapsed <= 0) ? 0 : (elapsed + TICK_NANOS - 1) / TICK_NANOS;
+    }
+
+    private static long toNanos(float seconds) {
+        return (long) (seconds * 1e9);
     }
 
     /**
-     * The periodic engine's time base.
-     * 
-     * Unit is seconds.
+     * Queue an event whose scheduling has changed for the GL thread. An
+     * event is only queued once; the GL thread reads its latest state.
      */
-    private static float now() {
-        return System.nanoTime() / 1e9f;
+    private void submit(Event event) {
+        if (event.mSubmitted.compareAndSet(false, true)) {
+            Event head;
+            do {
+                head = mInbox.get();
+                event.mInboxNext = head;
+            } while (!mInbox.compareAndSet(head, event));
+        }
+    }
+
+    private void drainInbox() {
+        Event event = mInbox.getAndSet(null);
+
+        while (event != null) {
+            Event next = event.mInboxNext;
+            long deadline;
+
+            event.mInboxNext = null;
+            event.mSubmitted.set(false);
+            synchronized (event) {
+                deadline = event.mDeadline;
+                event.mAppliedVersion = event.mVersion;
+            }
+            if (deadline == UNSCHEDULED_NANOS) {
+                mWheel.remove(event);
+            } else {
+                mWheel.schedule(event, deadlineTick(deadline));
+            }
+            event = next;
+        }
     }
 
     private class DrawFrameListener implements SXRDrawFrameListener {
 
         @Override
         public void onDrawFrame(float frameTime) {
-            float now = SXRPeriodicEngine.now();
-            synchronized (mQueue) {
-                for (EventImplementation //
-                first = mQueue.peek(); //
-                first != null && first.getScheduledTime() <= now; //
-                first = mQueue.peek() //
-                ) {
+            long now = System.nanoTime();
+
+            drainInbox();
+            mWheel.advance((now - mOrigin) / TICK_NANOS, mExpired);
+            if (!mBatchPending && !mExpired.isEmpty()) {
+                ArrayList<Event> batch = mExpired;
+                mExpired = mBatch;
+                mBatch = batch;
+                mBatchPending = true;
+                mContext.runOnGlThread(mBatchRunner);
+            }
+        }
+    }
 
-                    mContext.runOnGlThread(mQueue.poll());
+    /**
+     * Runs all the events which expired in one frame.
+     */
+    private class BatchRunner implements Runnable {
 
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < mBatch.size(); ++i) {
+                    mBatch.get(i).runExpired();
                 }
+            } finally {
+                mBatch.clear();
+                mBatchPending = false;
             }
         }
     }
 
-    private class Event implements EventImplementation {
+    private class Event extends SXRTimingWheel.Entry implements PeriodicEvent {
 
         /*
          * Task, and run-count
@@ -378,107 +455,49 @@ public class SXRPeriodicEngine {
         private boolean mRunning = false;
 
         /*
-         * Queue management
-         */
-
-        /**
-         * Set by {@link #cancel()} to assure that events canceled from non-GL
-         * thread during execution are not rescheduled.
+         * Scheduling fields, written under the event's lock by any thread.
+         *
+         * A run-once event has an mPeriod of 0; mDeadline is
+         * UNSCHEDULED_NANOS when no execution is pending. mVersion counts
+         * the changes made through the PeriodicEvent interface, so an
+         * expired event which was changed before it got to run is skipped.
          */
-        private boolean mCanceled = false;
 
-        private void lockedEnqueue() {
-            if (mCanceled != true) {
-                mQueue.add(this);
-            }
-        }
-
-        private void lockedDequeue() {
-            mQueue.remove(this);
-        }
-
-        private void enqueue() {
-            synchronized (mQueue) {
-                lockedEnqueue();
-            }
-        }
-
-        @SuppressWarnings("unused")
-        private void dequeue() {
-            synchronized (mQueue) {
-                lockedDequeue();
-            }
-        }
+        private volatile long mDeadline = UNSCHEDULED_NANOS;
+        private long mPeriod;
+        private KeepRunning mCallback;
+        private int mVersion = 0;
 
         /*
-         * Scheduling fields.
-         * 
-         * A run-once event has an mPeriod == UNSCHEDULED.
-         * 
-         * We allow the user to change the scheduling at any time. To assure
-         * consistency, neither constructors nor the rescheduling methods set
-         * these fields directly: both go through setDelay() or setRepeat().
+         * Inbox management
          */
 
-        private float mTimeBase;
-        private float mScheduledTime;
-        private float mPeriod;
-        private KeepRunning mCallback;
-
-        private void setDelay(float delay) {
-            mTimeBase = now();
-            schedule(mTimeBase + delay);
-            mPeriod = UNSCHEDULED;
-            mCallback = null;
-        }
+        private final AtomicBoolean mSubmitted = new AtomicBoolean();
+        private Event mInboxNext;
 
-        private void setRepeat(float delay, float period, KeepRunning callback) {
-            mTimeBase = now();
-            schedule(mTimeBase + delay);
-            mPeriod = period;
-            mCallback = callback;
-        }
-
-        private void schedule(float time) {
-            mScheduledTime = time;
-            mCanceled = false;
-        }
-
-        private void deschedule() {
-            mScheduledTime = UNSCHEDULED;
-        }
-
-        private void reschedule() {
-            if (repeats()) {
-                if (mCallback != null && mCallback.keepRunning(this) != true) {
-                    return; // Do NOT reschedule
-                }
+        /**
+         * Version the wheel position was computed from. GL thread only.
+         */
+        private int mAppliedVersion = -1;
 
-                float next = mTimeBase + (((now() - mTimeBase) / mPeriod) + 1)
-                        * mPeriod;
-                schedule(next);
-                enqueue();
+        private void setDelay(float delay) {
+            synchronized (this) {
+                mDeadline = System.nanoTime() + toNanos(delay);
+                mPeriod = 0;
+                mCallback = null;
+                ++mVersion;
             }
+            submit(this);
         }
 
-        private boolean enqueued() {
-            synchronized (mQueue) {
-                for (EventImplementation event : mQueue) {
-                    if (this == event) {
-                        return true;
-                    }
-                }
+        private void setRepeat(float delay, float period, KeepRunning callback) {
+            synchronized (this) {
+                mDeadline = System.nanoTime() + toNanos(delay);
+                mPeriod = toNanos(period);
+                mCallback = callback;
+                ++mVersion;
             }
-            // else
-            return false;
-        }
-
-        private boolean scheduled() {
-            return mScheduledTime != UNSCHEDULED;
-        }
-
-        private boolean repeats() {
-            return mPeriod != UNSCHEDULED;
+            submit(this);
         }
 
         /*
@@ -488,16 +507,12 @@ public class SXRPeriodicEngine {
         private Event(Runnable task, float delay) {
             mTask = task;
             setDelay(delay);
-
-            enqueue();
         }
 
         private Event(Runnable task, float delay, float period,
                 KeepRunning callback) {
             mTask = task;
             setRepeat(delay, period, callback);
-
-            enqueue();
         }
 
         /*
@@ -511,27 +526,23 @@ public class SXRPeriodicEngine {
 
         @Override
         public float getCurrentWait() {
-            return scheduled() ? mScheduledTime - now() : UNSCHEDULED;
+            long deadline = mDeadline;
+            return (deadline != UNSCHEDULED_NANOS) ? (deadline - System.nanoTime()) / 1e9f : UNSCHEDULED;
         }
 
         @Override
         public void cancel() {
-            synchronized (mQueue) {
-                deschedule();
-                lockedDequeue();
-                mCanceled = true;
+            synchronized (this) {
+                mDeadline = UNSCHEDULED_NANOS;
+                ++mVersion;
             }
+            submit(this);
         }
 
         @Override
         public void runAfter(float delay) {
             validateDelay(delay);
-
-            synchronized (mQueue) {
-                lockedDequeue();
-                setDelay(delay);
-                lockedEnqueue();
-            }
+            setDelay(delay);
         }
 
         @Override
@@ -549,56 +560,62 @@ public class SXRPeriodicEngine {
         public void runEvery(float delay, float period, KeepRunning callback) {
             validateDelay(delay);
             validatePeriod(period);
-
-            synchronized (mQueue) {
-                lockedDequeue();
-                setRepeat(delay, period, callback);
-                lockedEnqueue();
-            }
-        }
-
-        /*
-         * EventImplementation
-         */
-
-        @Override
-        public float getScheduledTime() {
-            return mScheduledTime;
-        }
-
-        /*
-         * Comparable<EventImplementation>
-         */
-
-        @Override
-        public int compareTo(EventImplementation other) {
-            final float delta = getScheduledTime() - other.getScheduledTime();
-            return delta < 0 ? -1 : (delta == 0 ? 0 : 1);
+            setRepeat(delay, period, callback);
         }
 
-        /*
-         * Runnable
+        /**
+         * Called on the GL thread after the wheel expired this event.
          */
+        private void runExpired() {
+            final int version;
+            final long deadline;
+            final long period;
+            final KeepRunning callback;
+
+            synchronized (this) {
+                if (mVersion != mAppliedVersion || mDeadline == UNSCHEDULED_NANOS) {
+                    return; // changed after it expired
+                }
+                version = mVersion;
+                deadline = mDeadline;
+            }
 
-        @Override
-        public void run() {
             mRunning = true;
             mTask.run();
             mRunning = false;
             mRunCount += 1;
 
             /*
-             * Normally, the event will NOT be enqueued at this point. But, if
-             * the event has rescheduled itself (using the PeriodicEvent
-             * returned when it was created) then it WILL be enqueued, and we
-             * shouldn't re-enqueue it.
+             * If the task rescheduled or canceled the event, through the
+             * PeriodicEvent returned when it was created, that takes
+             * precedence over the period.
              */
-            if (enqueued() != true) {
-                deschedule();
-                reschedule();
+            synchronized (this) {
+                if (mVersion != version) {
+                    return;
+                }
+                mDeadline = UNSCHEDULED_NANOS;
+                period = mPeriod;
+                callback = mCallback;
+            }
+            if (period <= 0 || (callback != null && callback.keepRunning(this) != true)) {
+                return; // Do NOT reschedule
             }
-        }
 
+            long next = deadline + period;
+            long now = System.nanoTime();
+            if (next <= now) {
+                // fell behind: skip the missed periods instead of running them back to back
+                next += ((now - next) / period + 1) * period;
+            }
+            synchronized (this) {
+                if (mVersion != version) {
+                    return;
+                }
+                mDeadline = next;
+            }
+            mWheel.schedule(this, deadlineTick(next));
+        }
     }
 
     private static class RunFor implements KeepRunning {
@@ -0,0 +1,255 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.periodic;
+
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel keyed by integer ticks.
+ * <p>
+ * Four levels of 64 slots cover 2^24 ticks ahead of the current tick;
+ * entries further out wait in an overflow list which is re-examined every
+ * time the top level wraps. An entry is placed at the lowest level whose
+ * slot it does not share with the current tick, and moves down a level
+ * when the wheel reaches its slot, so scheduling and removal are O(1)
+ * and advancing only visits occupied slots.
+ * <p>
+ * Entries are linked intrusively, so the wheel never allocates. It is not
+ * thread safe: {@link SXRPeriodicEngine} only touches it on the GL thread.
+ */
+final class SXRTimingWheel<E extends SXRTimingWheel.Entry>
+{
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final int OVERFLOW = LEVELS * SLOTS;
+    private static final int DUE = OVERFLOW + 1;
+    private static final int NOT_LINKED = -1;
+
+    /**
+     * Base class of the objects kept in the wheel.
+     */
+    static class Entry
+    {
+        Entry mNext;
+        Entry mPrev;
+        int mSlot = NOT_LINKED;
+        long mTick;
+
+        boolean isLinked()
+        {
+            return mSlot != NOT_LINKED;
+        }
+    }
+
+    private final Entry[] mSlots = new Entry[DUE + 1];
+    private final long[] mOccupied = new long[LEVELS];
+    private long mCurrentTick = 0;
+    private int mCount = 0;
+
+    /**
+     * @return number of entries in the wheel.
+     */
+    int size()
+    {
+        return mCount;
+    }
+
+    /**
+     * Add an entry, or move it if it is already in the wheel. Entries which
+     * are already due are returned by the next {@link #advance(long, List)}.
+     */
+    void schedule(E entry, long tick)
+    {
+        remove(entry);
+        entry.mTick = tick;
+        link(entry, slotOf(tick));
+    }
+
+    /**
+     * Remove an entry; does nothing if it is not in the wheel.
+     */
+    void remove(E entry)
+    {
+        if (entry.isLinked())
+        {
+            unlink(entry);
+        }
+    }
+
+    /**
+     * Move the wheel forward and collect every entry due at or before
+     * {@code tick}. Collected entries are no longer in the wheel.
+     */
+    void advance(long tick, List<? super E> expired)
+    {
+        collect(DUE, expired);
+        while (mCount > 0)
+        {
+            long next = nextTick();
+            if (next > tick)
+            {
+                break;
+            }
+            mCurrentTick = next;
+            for (int level = LEVELS; level > 0; --level)
+            {
+                int shift = level * SLOT_BITS;
+                if ((next & ((1L << shift) - 1)) == 0)
+                {
+                    cascade((level == LEVELS) ? OVERFLOW
+                            : level * SLOTS + ((int) (next >>> shift) & SLOT_MASK));
+                }
+            }
+            collect((int) next & SLOT_MASK, expired);
+            collect(DUE, expired);
+        }
+        if (tick > mCurrentTick)
+        {
+            mCurrentTick = tick;
+        }
+    }
+
+    private int slotOf(long tick)
+    {
+        long current = mCurrentTick;
+
+        if (tick <= current)
+        {
+            return DUE;
+        }
+        for (int level = 0; level < LEVELS; ++level)
+        {
+            int shift = (level + 1) * SLOT_BITS;
+            if ((tick >>> shift) == (current >>> shift))
+            {
+                return level * SLOTS + ((int) (tick >>> (level * SLOT_BITS)) & SLOT_MASK);
+            }
+        }
+        return OVERFLOW;
+    }
+
+    /*
+     * First tick after the current one at which a slot has to be expired
+     * or cascaded. Lower levels always come first, and nothing is left in
+     * a slot the wheel has already passed.
+     */
+    private long nextTick()
+    {
+        for (int level = 0; level < LEVELS; ++level)
+        {
+            int shift = level * SLOT_BITS;
+            long position = mCurrentTick >>> shift;
+            long pending = mOccupied[level] & (-2L << ((int) position & SLOT_MASK));
+
+            if (pending != 0)
+            {
+                return ((position & ~(long) SLOT_MASK) + Long.numberOfTrailingZeros(pending)) << shift;
+            }
+        }
+        int shift = LEVELS * SLOT_BITS;
+        return ((mCurrentTick >>> shift) + 1) << shift;
+    }
+
+    private void cascade(int slot)
+    {
+        Entry entry = detach(slot);
+
+        while (entry != null)
+        {
+            Entry next = entry.mNext;
+            entry.mNext = null;
+            entry.mSlot = NOT_LINKED;
+            --mCount;
+            link(entry, slotOf(entry.mTick));
+            entry = next;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void collect(int slot, List<? super E> expired)
+    {
+        Entry entry = detach(slot);
+
+        while (entry != null)
+        {
+            Entry next = entry.mNext;
+            entry.mNext = null;
+            entry.mSlot = NOT_LINKED;
+            --mCount;
+            expired.add((E) entry);
+            entry = next;
+        }
+    }
+
+    private Entry detach(int slot)
+    {
+        Entry head = mSlots[slot];
+
+        mSlots[slot] = null;
+        if (slot < OVERFLOW)
+        {
+            mOccupied[slot >> SLOT_BITS] &= ~(1L << (slot & SLOT_MASK));
+        }
+        return head;
+    }
+
+    private void link(Entry entry, int slot)
+    {
+        Entry head = mSlots[slot];
+
+        entry.mSlot = slot;
+        entry.mPrev = null;
+        entry.mNext = head;
+        if (head != null)
+        {
+            head.mPrev = entry;
+        }
+        mSlots[slot] = entry;
+        if (slot < OVERFLOW)
+        {
+            mOccupied[slot >> SLOT_BITS] |= 1L << (slot & SLOT_MASK);
+        }
+        ++mCount;
+    }
+
+    private void unlink(Entry entry)
+    {
+        int slot = entry.mSlot;
+
+        if (entry.mPrev != null)
+        {
+            entry.mPrev.mNext = entry.mNext;
+        }
+        else
+        {
+            mSlots[slot] = entry.mNext;
+        }
+        if (entry.mNext != null)
+        {
+            entry.mNext.mPrev = entry.mPrev;
+        }
+        if ((mSlots[slot] == null) && (slot < OVERFLOW))
+        {
+            mOccupied[slot >> SLOT_BITS] &= ~(1L << (slot & SLOT_MASK));
+        }
+        entry.mNext = null;
+        entry.mPrev = null;
+        entry.mSlot = NOT_LINKED;
+        --mCount;
+    }
+}
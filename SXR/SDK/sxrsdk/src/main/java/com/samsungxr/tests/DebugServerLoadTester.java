@@ -0,0 +1,216 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.tests;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.Charset;
+
+import com.samsungxr.SXRContext;
+import com.samsungxr.debug.DebugServer;
+import com.samsungxr.utility.Log;
+
+/**
+ * Connects a number of metrics clients and two shells to a {@link DebugServer}
+ * over loopback sockets, and checks that every client is answered while all
+ * of them are connected. Reports the average and the worst time for a
+ * metrics client to get its line.
+ * <p>
+ * Starts its own server on the given ports; can be run from any thread but
+ * the GL thread once the context is initialized.
+ */
+public class DebugServerLoadTester {
+
+    static final String TAG = DebugServerLoadTester.class.getSimpleName();
+
+    public static final int DEFAULT_CLIENTS = 100;
+    public static final int DEFAULT_PORT = 1745;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final int TIMEOUT = 10000;
+    private static final int SHELLS = 2;
+
+    public DebugServerLoadTester(SXRContext context) {
+        this(context, DEFAULT_PORT, DEFAULT_CLIENTS);
+    }
+
+    /**
+     * @param context context the metrics are collected from
+     * @param port shell port of the server; metrics are served on {@code port + 1}
+     * @param clients number of metrics clients, at most {@link DebugServer#MAX_METRICS_CLIENTS}
+     */
+    public DebugServerLoadTester(SXRContext context, int port, int clients) {
+        mContext = context;
+        mPort = port;
+        mClients = clients;
+    }
+
+    /**
+     * Run the test
+     * @return average and worst time in nanoseconds for a metrics client to get its line
+     */
+    public float[] test() throws IOException, InterruptedException {
+        Log.d(TAG, "test starting: %d clients", mClients);
+        final DebugServer server = new DebugServer(mContext, mPort, SHELLS, mPort + 1);
+        final Thread thread = new Thread(server, TAG);
+        thread.start();
+
+        final Socket[] metrics = new Socket[mClients];
+        final Socket[] shells = new Socket[SHELLS];
+        final float[] times;
+        try {
+            for (int i = 0; i < SHELLS; ++i) {
+                shells[i] = connect(mPort);
+            }
+            for (int i = 0; i < mClients; ++i) {
+                metrics[i] = connect(mPort + 1);
+            }
+            waitFor(server, SHELLS, mClients);
+
+            for (Socket shell : shells) {
+                readUntil(shell, "> ");
+            }
+            times = getMetrics(metrics);
+            checkHttp();
+        } finally {
+            for (Socket socket : metrics) {
+                close(socket);
+            }
+            for (Socket socket : shells) {
+                close(socket);
+            }
+        }
+        waitFor(server, 0, 0);
+        server.shutdown();
+        thread.join(TIMEOUT);
+
+        Log.d(TAG, "test finished: %d clients, %.1f us average, %.1f us worst",
+                mClients, times[0] / 1000, times[1] / 1000);
+        return times;
+    }
+
+    /*
+     * All the requests are written before any answer is read, so the server
+     * has every client pending at once.
+     */
+    private float[] getMetrics(Socket[] clients) throws IOException {
+        final long[] sent = new long[clients.length];
+        for (int i = 0; i < clients.length; ++i) {
+            sent[i] = System.nanoTime();
+            write(clients[i], "get\r\n");
+        }
+
+        long total = 0;
+        long worst = 0;
+        for (int i = 0; i < clients.length; ++i) {
+            final String line = readUntil(clients[i], "\n");
+            final long time = System.nanoTime() - sent[i];
+            if (line.trim().isEmpty() || line.startsWith("error")) {
+                throw new RuntimeException("test failed: client " + i + " got '" + line + "'");
+            }
+            total += time;
+            worst = Math.max(worst, time);
+        }
+        return new float[] { total / (float) Math.max(clients.length, 1), worst };
+    }
+
+    private void checkHttp() throws IOException {
+        final Socket socket = connect(mPort + 1);
+        try {
+            write(socket, "GET /metrics HTTP/1.0\r\n\r\n");
+            final String status = readUntil(socket, "\n");
+            if (!status.startsWith("HTTP/1.0 200")) {
+                throw new RuntimeException("test failed: HTTP status '" + status.trim() + "'");
+            }
+        } finally {
+            close(socket);
+        }
+    }
+
+    private static void waitFor(DebugServer server, int shells, int clients) throws InterruptedException {
+        final long end = System.currentTimeMillis() + TIMEOUT;
+        while (server.getClientCount() != shells || server.getMetricsClientCount() != clients) {
+            if (System.currentTimeMillis() > end) {
+                throw new RuntimeException("test failed: " + server.getClientCount() + " shells and "
+                        + server.getMetricsClientCount() + " metrics clients connected, expected "
+                        + shells + " and " + clients);
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    /*
+     * The server may still be binding its sockets when the first client
+     * connects.
+     */
+    private static Socket connect(int port) throws IOException {
+        final long end = System.currentTimeMillis() + TIMEOUT;
+        while (true) {
+            final Socket socket = new Socket();
+            try {
+                socket.connect(new InetSocketAddress("127.0.0.1", port), TIMEOUT);
+                socket.setSoTimeout(TIMEOUT);
+                socket.setTcpNoDelay(true);
+                return socket;
+            } catch (IOException e) {
+                close(socket);
+                if (System.currentTimeMillis() > end) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException ie) {
+                    throw new IOException(ie);
+                }
+            }
+        }
+    }
+
+    private static void write(Socket socket, String text) throws IOException {
+        final OutputStream out = socket.getOutputStream();
+        out.write(text.getBytes(UTF8));
+        out.flush();
+    }
+
+    private static String readUntil(Socket socket, String end) throws IOException {
+        final InputStream in = socket.getInputStream();
+        final StringBuilder sb = new StringBuilder();
+        while (sb.length() < end.length() || !sb.substring(sb.length() - end.length()).equals(end)) {
+            final int b = in.read();
+            if (b < 0) {
+                throw new RuntimeException("test failed: connection closed after '" + sb + "'");
+            }
+            sb.append((char) b);
+        }
+        return sb.toString();
+    }
+
+    private static void close(Socket socket) {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+            }
+        }
+    }
+
+    private final SXRContext mContext;
+    private final int mPort;
+    private final int mClients;
+}
@@ -0,0 +1,223 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.tests;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.samsungxr.nodes.SXRGlyphAtlas;
+import com.samsungxr.nodes.SXRGlyphAtlas.Glyph;
+import com.samsungxr.nodes.SXRGlyphAtlas.GlyphMetrics;
+import com.samsungxr.nodes.SXRGlyphAtlas.GlyphRasterizer;
+import com.samsungxr.utility.Log;
+
+/**
+ * Packs glyphs of random sizes from a test rasterizer into a {@link SXRGlyphAtlas}
+ * and checks the result: glyphs stay inside the atlas and do not overlap, their
+ * pixels are the ones rasterized, the space between them is clear, and glyphs
+ * that do not fit are reported missing without touching the atlas. No GPU is
+ * needed, the texture is never created.
+ */
+public class GlyphAtlasTester {
+
+    static final String TAG = GlyphAtlasTester.class.getSimpleName();
+
+    static final int ATLAS_SIZE = 256;
+    static final int MAX_GLYPH_SIZE = 40;
+    static final int TEST_ITERATIONS = 20;
+    // code points the test font has no glyph for
+    static final int MISSING_CODE_POINT = 0xFFFF;
+    private static final int PADDING = 1;
+
+    public void test() {
+        Log.d(TAG, "test starting");
+
+        for (int i = 0; i < TEST_ITERATIONS; i++) {
+            fillAtlas(new TestRasterizer(mRandom.nextLong()));
+        }
+        glyphsAreCached();
+
+        Log.d(TAG, "test finished");
+    }
+
+    /*
+     * Add glyphs until several of them did not fit, then check the atlas.
+     */
+    private void fillAtlas(TestRasterizer rasterizer) {
+        final SXRGlyphAtlas atlas = new SXRGlyphAtlas(rasterizer, ATLAS_SIZE, ATLAS_SIZE);
+        final List<Glyph> glyphs = new ArrayList<Glyph>();
+        int codePoint = 32;
+
+        while (atlas.getMissingGlyphCount() < 10) {
+            final Glyph glyph = atlas.getGlyph(codePoint++);
+            glyphs.add(glyph);
+            if (!glyph.isVisible()) {
+                check(glyph.u0 == 0 && glyph.v0 == 0 && glyph.u1 == 0 && glyph.v1 == 0,
+                        "missing glyph " + glyph.codePoint + " has texture coordinates");
+            }
+        }
+        check(atlas.isDirty(), "atlas not dirty after adding glyphs");
+        check(atlas.getGlyphCount() == glyphs.size(), "glyph count is " + atlas.getGlyphCount());
+
+        long used = 0;
+        int packed = 0;
+        for (Glyph glyph : glyphs) {
+            if (glyph.isVisible()) {
+                checkInside(glyph);
+                used += (glyph.width + 2 * PADDING) * (glyph.height + 2 * PADDING);
+                ++packed;
+            }
+        }
+        check(atlas.getPackedGlyphCount() == packed, "packed glyph count is " + atlas.getPackedGlyphCount());
+        check(Math.abs(atlas.getOccupancy() - used / (float) (ATLAS_SIZE * ATLAS_SIZE)) < 1e-4f,
+                "occupancy is " + atlas.getOccupancy());
+
+        checkPixels(atlas, rasterizer, glyphs);
+        Log.d(TAG, "%d glyphs packed, %d missing, occupancy %.2f, shelves %.2f", packed,
+                atlas.getMissingGlyphCount(), atlas.getOccupancy(), atlas.getShelfOccupancy());
+    }
+
+    private void glyphsAreCached() {
+        final TestRasterizer rasterizer = new TestRasterizer(mRandom.nextLong());
+        final SXRGlyphAtlas atlas = new SXRGlyphAtlas(rasterizer, ATLAS_SIZE, ATLAS_SIZE);
+
+        final Glyph a = atlas.getGlyph('a');
+        final int rasterized = rasterizer.rasterizeCount;
+        check(atlas.getGlyph('a') == a, "glyph not cached");
+        check(rasterizer.rasterizeCount == rasterized, "cached glyph rasterized again");
+
+        final Glyph missing = atlas.getGlyph(MISSING_CODE_POINT);
+        check(!missing.isVisible() && missing.advance == 0, "glyph missing from the font has an image");
+        check(atlas.getMissingGlyphCount() == 0, "glyph missing from the font counted as not fitting");
+        check(atlas.getGlyph(MISSING_CODE_POINT) == missing, "missing glyph not cached");
+    }
+
+    private static void checkInside(Glyph glyph) {
+        check(glyph.x >= PADDING && glyph.y >= PADDING
+                        && glyph.x + glyph.width + PADDING <= ATLAS_SIZE
+                        && glyph.y + glyph.height + PADDING <= ATLAS_SIZE,
+                "glyph " + glyph.codePoint + " outside the atlas");
+        check(glyph.u0 == (float) glyph.x / ATLAS_SIZE && glyph.v1 == (float) (glyph.y + glyph.height) / ATLAS_SIZE,
+                "glyph " + glyph.codePoint + " texture coordinates do not match its position");
+    }
+
+    /*
+     * Paint the padded rectangle of every glyph in an owner map: a pixel owned
+     * twice means two glyphs overlap. Then every glyph pixel must hold the
+     * coverage of its owner and every other pixel must be clear.
+     */
+    private static void checkPixels(SXRGlyphAtlas atlas, TestRasterizer rasterizer, List<Glyph> glyphs) {
+        final Glyph[] owners = new Glyph[ATLAS_SIZE * ATLAS_SIZE];
+        for (Glyph glyph : glyphs) {
+            if (!glyph.isVisible()) {
+                continue;
+            }
+            for (int y = glyph.y - PADDING; y < glyph.y + glyph.height + PADDING; ++y) {
+                for (int x = glyph.x - PADDING; x < glyph.x + glyph.width + PADDING; ++x) {
+                    final Glyph owner = owners[y * ATLAS_SIZE + x];
+                    check(owner == null, "glyphs " + glyph.codePoint + " and "
+                            + (owner != null ? owner.codePoint : 0) + " overlap at " + x + "," + y);
+                    owners[y * ATLAS_SIZE + x] = glyph;
+                }
+            }
+        }
+
+        final ByteBuffer pixels = atlas.getPixels();
+        for (int y = 0; y < ATLAS_SIZE; ++y) {
+            for (int x = 0; x < ATLAS_SIZE; ++x) {
+                final int offset = (y * ATLAS_SIZE + x) * 4;
+                final Glyph owner = owners[y * ATLAS_SIZE + x];
+                int expected = 0;
+                if (owner != null && x >= owner.x && x < owner.x + owner.width
+                        && y >= owner.y && y < owner.y + owner.height) {
+                    expected = rasterizer.coverage(owner.codePoint, x - owner.x, y - owner.y) & 0xFF;
+                }
+                check((pixels.get(offset) & 0xFF) == 0xFF && (pixels.get(offset + 1) & 0xFF) == 0xFF
+                        && (pixels.get(offset + 2) & 0xFF) == 0xFF, "pixel " + x + "," + y + " is not white");
+                check((pixels.get(offset + 3) & 0xFF) == expected, "pixel " + x + "," + y + " has coverage "
+                        + (pixels.get(offset + 3) & 0xFF) + ", expected " + expected);
+            }
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new RuntimeException("test failed: " + message);
+        }
+    }
+
+    /*
+     * A font with glyphs of random sizes whose coverage is derived from the
+     * code point and the pixel, so every pixel can be checked.
+     */
+    private static final class TestRasterizer implements GlyphRasterizer {
+        private final long mSeed;
+        int rasterizeCount;
+
+        TestRasterizer(long seed) {
+            mSeed = seed;
+        }
+
+        @Override
+        public float getAscent() {
+            return MAX_GLYPH_SIZE * 0.8f;
+        }
+
+        @Override
+        public float getDescent() {
+            return MAX_GLYPH_SIZE * 0.2f;
+        }
+
+        @Override
+        public float getLineHeight() {
+            return MAX_GLYPH_SIZE;
+        }
+
+        @Override
+        public boolean measure(int codePoint, GlyphMetrics metrics) {
+            if (codePoint == MISSING_CODE_POINT) {
+                return false;
+            }
+            final Random random = new Random(mSeed + codePoint);
+            // spaces have an advance but no image
+            metrics.width = (codePoint == ' ') ? 0 : 1 + random.nextInt(MAX_GLYPH_SIZE);
+            metrics.height = (codePoint == ' ') ? 0 : 1 + random.nextInt(MAX_GLYPH_SIZE);
+            metrics.left = 1;
+            metrics.top = metrics.height * 0.8f;
+            metrics.advance = metrics.width + 2;
+            return true;
+        }
+
+        @Override
+        public void rasterize(int codePoint, GlyphMetrics metrics, byte[] coverage) {
+            ++rasterizeCount;
+            for (int y = 0; y < metrics.height; ++y) {
+                for (int x = 0; x < metrics.width; ++x) {
+                    coverage[y * metrics.width + x] = coverage(codePoint, x, y);
+                }
+            }
+        }
+
+        byte coverage(int codePoint, int x, int y) {
+            // never 0, so a glyph pixel cannot be mistaken for a clear one
+            return (byte) (1 + (codePoint * 31 + x * 7 + y * 13) % 255);
+        }
+    }
+
+    private final Random mRandom = new Random(1645);
+}
@@ -0,0 +1,142 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.tests;
+
+import com.samsungxr.debug.SXRLatencyHistogram;
+import com.samsungxr.debug.SXRStatsLine;
+import com.samsungxr.utility.Log;
+
+/**
+ * Records latencies in a {@link SXRLatencyHistogram}, from one thread and
+ * from several threads at once, and in a {@link SXRStatsLine.SXRStandardColumn}
+ * for comparison. Reports the average time per recorded sample for each, and
+ * the time to take a snapshot. Plain Java, it can run on any thread.
+ */
+public class LatencyHistogramBenchmark {
+
+    static final String TAG = LatencyHistogramBenchmark.class.getSimpleName();
+
+    public static final int DEFAULT_COUNT = 1000000;
+    public static final int DEFAULT_THREADS = 4;
+    private static final int SNAPSHOTS = 1000;
+
+    public LatencyHistogramBenchmark() {
+        this(DEFAULT_COUNT, DEFAULT_THREADS);
+    }
+
+    /**
+     * @param count number of samples recorded each way, per thread
+     * @param threads number of threads recording at once
+     */
+    public LatencyHistogramBenchmark(int count, int threads) {
+        mCount = count;
+        mThreads = threads;
+    }
+
+    /**
+     * Run the benchmark
+     * @return average time in nanoseconds per sample recorded in the histogram from one thread,
+     * from {@code threads} threads, per sample added to a standard column, and per snapshot
+     */
+    public float[] run() throws InterruptedException {
+        // Warm up
+        recordHistogram(new SXRLatencyHistogram(TAG), mCount);
+        recordColumn(mCount);
+
+        final float histogramTime = recordHistogram(new SXRLatencyHistogram(TAG), mCount);
+        final float concurrentTime = recordConcurrently(mCount, mThreads);
+        final float columnTime = recordColumn(mCount);
+        final float snapshotTime = takeSnapshots();
+        Log.d(TAG, "test finished: %d samples, %.1f ns per sample, %.1f ns per sample on %d threads, "
+                        + "%.1f ns per column value, %.1f ns per snapshot",
+                mCount, histogramTime, concurrentTime, mThreads, columnTime, snapshotTime);
+        return new float[] { histogramTime, concurrentTime, columnTime, snapshotTime };
+    }
+
+    private float recordHistogram(SXRLatencyHistogram histogram, int count) {
+        final long start = System.nanoTime();
+        for (int i = 0; i < count; ++i) {
+            histogram.record(sample(i));
+        }
+        final long time = System.nanoTime() - start;
+        mSink += histogram.getMax();
+        return time / (float) Math.max(count, 1);
+    }
+
+    private float recordConcurrently(final int count, int threads) throws InterruptedException {
+        final SXRLatencyHistogram histogram = new SXRLatencyHistogram(TAG);
+        final Thread[] workers = new Thread[threads];
+
+        for (int t = 0; t < threads; ++t) {
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < count; ++i) {
+                        histogram.record(sample(i));
+                    }
+                }
+            });
+        }
+        final long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        final long time = System.nanoTime() - start;
+        if (histogram.getCount() != (long) count * threads) {
+            throw new RuntimeException("test failed: " + histogram.getCount() + " samples recorded");
+        }
+        return time / (float) Math.max((long) count * threads, 1);
+    }
+
+    private float recordColumn(int count) {
+        final SXRStatsLine.SXRStandardColumn<Float> column = new SXRStatsLine.SXRStandardColumn<Float>(TAG);
+        final long start = System.nanoTime();
+        for (int i = 0; i < count; ++i) {
+            column.addValue(sample(i) / 1000000.0f);
+        }
+        return (System.nanoTime() - start) / (float) Math.max(count, 1);
+    }
+
+    private float takeSnapshots() {
+        final SXRLatencyHistogram histogram = new SXRLatencyHistogram(TAG);
+        final SXRLatencyHistogram.Snapshot snapshot = new SXRLatencyHistogram.Snapshot();
+        for (int i = 0; i < mCount; ++i) {
+            histogram.record(sample(i));
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < SNAPSHOTS; ++i) {
+            histogram.getSnapshot(snapshot);
+            mSink += snapshot.getP99();
+        }
+        return (System.nanoTime() - start) / (float) SNAPSHOTS;
+    }
+
+    /*
+     * Frame-like latencies spread over a few buckets, without calling a
+     * random generator in the timed loop.
+     */
+    private static long sample(int i) {
+        return 8000000L + (i * 2654435761L & 0xFFFFFF);
+    }
+
+    private final int mCount;
+    private final int mThreads;
+    // Keeps the results alive so the recording is not optimized away
+    private long mSink;
+}
@@ -0,0 +1,194 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.tests;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.samsungxr.debug.SXRLatencyHistogram;
+import com.samsungxr.debug.SXRMethodCallTracer;
+import com.samsungxr.utility.Log;
+
+/**
+ * Records random latencies in a {@link SXRLatencyHistogram} and checks its
+ * percentiles against the exact ones of the sorted samples: a percentile may
+ * only be rounded up, by at most 1/16 of its value. Also checks snapshots,
+ * interval snapshots and {@link SXRMethodCallTracer}. Plain Java, it can run
+ * on any thread.
+ */
+public class LatencyHistogramTester {
+
+    static final String TAG = LatencyHistogramTester.class.getSimpleName();
+
+    static final int SAMPLES = 10000;
+    static final int TEST_ITERATIONS = 20;
+    static final double[] PERCENTILES = { 0, 1, 10, 50, 90, 99, 99.9, 100 };
+
+    public void test() {
+        Log.d(TAG, "test starting");
+
+        smallValuesAreExact();
+        for (int i = 0; i < TEST_ITERATIONS; i++) {
+            checkPercentiles(uniform(SAMPLES, 1000L, 50000000L));
+            checkPercentiles(exponential(SAMPLES, 2000000.0));
+            checkPercentiles(bimodal(SAMPLES));
+        }
+        intervalsAddUp();
+        leaveWithoutEnterIsNotRecorded();
+
+        Log.d(TAG, "test finished");
+    }
+
+    private void smallValuesAreExact() {
+        final SXRLatencyHistogram histogram = new SXRLatencyHistogram("small");
+        final long[] sorted = new long[32];
+        for (int v = 0; v < sorted.length; ++v) {
+            sorted[v] = v;
+            histogram.record(v);
+        }
+        for (double percentile : PERCENTILES) {
+            final long expected = reference(sorted, percentile);
+            check(histogram.getValueAtPercentile(percentile) == expected,
+                    "p" + percentile + " is " + histogram.getValueAtPercentile(percentile) + ", expected " + expected);
+        }
+        check(histogram.getMax() == 31, "max is " + histogram.getMax());
+    }
+
+    private void checkPercentiles(long[] samples) {
+        final SXRLatencyHistogram histogram = new SXRLatencyHistogram("percentiles");
+        for (long v : samples) {
+            histogram.record(v);
+        }
+        final SXRLatencyHistogram.Snapshot snapshot = histogram.getSnapshot(null);
+        final long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+
+        check(histogram.getCount() == samples.length, "count is " + histogram.getCount());
+        check(histogram.getMax() == sorted[sorted.length - 1], "max is " + histogram.getMax());
+        for (double percentile : PERCENTILES) {
+            final long expected = reference(sorted, percentile);
+            checkValue(histogram.getValueAtPercentile(percentile), expected, percentile);
+            checkValue(snapshot.getValueAtPercentile(percentile), expected, percentile);
+        }
+    }
+
+    /*
+     * Two intervals add up to the whole snapshot.
+     */
+    private void intervalsAddUp() {
+        final SXRLatencyHistogram histogram = new SXRLatencyHistogram("intervals");
+        final long[] first = exponential(SAMPLES, 1000000.0);
+        final long[] second = uniform(SAMPLES, 5000000L, 20000000L);
+
+        for (long v : first) {
+            histogram.record(v);
+        }
+        final SXRLatencyHistogram.Snapshot merged = histogram.getIntervalSnapshot(null);
+        check(merged.getCount() == first.length, "first interval has " + merged.getCount() + " samples");
+        for (long v : second) {
+            histogram.record(v);
+        }
+        final SXRLatencyHistogram.Snapshot interval = histogram.getIntervalSnapshot(null);
+        check(interval.getCount() == second.length, "second interval has " + interval.getCount() + " samples");
+        checkValue(interval.getValueAtPercentile(50), reference(sorted(second), 50), 50);
+
+        merged.add(interval);
+        final SXRLatencyHistogram.Snapshot whole = histogram.getSnapshot(null);
+        check(merged.getCount() == whole.getCount(), "merged intervals have " + merged.getCount() + " samples");
+        for (double percentile : PERCENTILES) {
+            check(merged.getValueAtPercentile(percentile) == whole.getValueAtPercentile(percentile),
+                    "merged p" + percentile + " differs from the snapshot");
+        }
+    }
+
+    private void leaveWithoutEnterIsNotRecorded() {
+        final long[] time = new long[1];
+        final SXRMethodCallTracer tracer = new SXRMethodCallTracer("tracer") {
+            @Override
+            protected long getTime() {
+                return time[0];
+            }
+        };
+
+        tracer.leave();
+        check(tracer.getHistogram().getCount() == 0, "leave without enter was recorded");
+        tracer.enter();
+        time[0] = 5000;
+        tracer.leave();
+        check(tracer.getHistogram().getCount() == 1, "call was not recorded");
+        check(tracer.getHistogram().getMax() == 5000, "call took " + tracer.getHistogram().getMax());
+        tracer.leave();
+        check(tracer.getHistogram().getCount() == 1, "second leave was recorded");
+    }
+
+    /*
+     * The value at which the percentile is reached when the samples are
+     * counted in order, which is what the histogram approximates.
+     */
+    private static long reference(long[] sorted, double percentile) {
+        final long target = Math.max(1, (long) Math.ceil(sorted.length * percentile / 100.0));
+        return sorted[(int) target - 1];
+    }
+
+    private static void checkValue(long value, long expected, double percentile) {
+        check(value >= expected && value - expected <= expected / 16,
+                "p" + percentile + " is " + value + ", expected " + expected);
+    }
+
+    private long[] uniform(int count, long min, long max) {
+        final long[] samples = new long[count];
+        for (int i = 0; i < count; ++i) {
+            samples[i] = min + (long) (mRandom.nextDouble() * (max - min));
+        }
+        return samples;
+    }
+
+    private long[] exponential(int count, double mean) {
+        final long[] samples = new long[count];
+        for (int i = 0; i < count; ++i) {
+            samples[i] = (long) (-mean * Math.log(1.0 - mRandom.nextDouble()));
+        }
+        return samples;
+    }
+
+    /*
+     * Mostly short frames with a few long stalls, the shape the stats line
+     * is meant to expose.
+     */
+    private long[] bimodal(int count) {
+        final long[] samples = new long[count];
+        for (int i = 0; i < count; ++i) {
+            samples[i] = (mRandom.nextInt(100) == 0)
+                    ? 50000000L + mRandom.nextInt(50000000)
+                    : 11000000L + mRandom.nextInt(2000000);
+        }
+        return samples;
+    }
+
+    private static long[] sorted(long[] samples) {
+        final long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new RuntimeException("test failed: " + message);
+        }
+    }
+
+    private final Random mRandom = new Random(1645);
+}
@@ -0,0 +1,189 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.tests;
+
+import com.samsungxr.SXRContext;
+import com.samsungxr.SXRNode;
+import com.samsungxr.SXRNodeTransaction;
+import com.samsungxr.utility.Log;
+
+/**
+ * Builds and tears down a scene graph of a number of nodes, grouped under
+ * wide parents, once with {@link SXRNode#addChildObject(SXRNode)} and
+ * {@link SXRNode#removeChildObject(SXRNode)} and once with a
+ * {@link SXRNodeTransaction}. Reports the average time per node for each and
+ * checks that both give the same graph.
+ * <p>
+ * Has to be run after the context has been initialized.
+ */
+public class NodeTransactionBenchmark {
+
+    static final String TAG = NodeTransactionBenchmark.class.getSimpleName();
+
+    public static final int DEFAULT_COUNT = 100000;
+    public static final int DEFAULT_CHILDREN = 1000;
+
+    public NodeTransactionBenchmark(SXRContext context) {
+        this(context, DEFAULT_COUNT, DEFAULT_CHILDREN);
+    }
+
+    /**
+     * @param context context to create the nodes in
+     * @param count number of nodes in the graph
+     * @param children number of children of each group
+     */
+    public NodeTransactionBenchmark(SXRContext context, int count, int children) {
+        final int groups = (count + children - 1) / children;
+        mRoot = new SXRNode(context);
+        mGroups = new SXRNode[groups];
+        mNodes = new SXRNode[count];
+        mChildren = children;
+        for (int g = 0; g < groups; ++g) {
+            mGroups[g] = new SXRNode(context);
+        }
+        for (int i = 0; i < count; ++i) {
+            mNodes[i] = new SXRNode(context);
+        }
+    }
+
+    /**
+     * Build and tear down the graph
+     * @return average time per node in nanoseconds to build directly, to tear down directly,
+     * to build with a transaction and to tear down with a transaction
+     */
+    public float[] run() {
+        final float buildTime = buildDirectly();
+        checkBuilt();
+        final float teardownTime = tearDownDirectly();
+        checkEmpty();
+
+        final float transactionBuildTime = buildTransaction();
+        checkBuilt();
+        final float transactionTeardownTime = tearDownTransaction();
+        checkEmpty();
+        netEffectOnly();
+
+        Log.d(TAG, "test finished: %d nodes, %.1f ns per node built and %.1f ns torn down directly, "
+                        + "%.1f ns per node built and %.1f ns torn down with a transaction",
+                mNodes.length, buildTime, teardownTime, transactionBuildTime, transactionTeardownTime);
+        return new float[] { buildTime, teardownTime, transactionBuildTime, transactionTeardownTime };
+    }
+
+    private float buildDirectly() {
+        final long start = System.nanoTime();
+        for (SXRNode group : mGroups) {
+            mRoot.addChildObject(group);
+        }
+        for (int i = 0; i < mNodes.length; ++i) {
+            mGroups[i / mChildren].addChildObject(mNodes[i]);
+        }
+        return perNode(System.nanoTime() - start);
+    }
+
+    private float tearDownDirectly() {
+        final long start = System.nanoTime();
+        for (int i = 0; i < mNodes.length; ++i) {
+            mGroups[i / mChildren].removeChildObject(mNodes[i]);
+        }
+        for (SXRNode group : mGroups) {
+            mRoot.removeChildObject(group);
+        }
+        return perNode(System.nanoTime() - start);
+    }
+
+    private float buildTransaction() {
+        final long start = System.nanoTime();
+        for (SXRNode group : mGroups) {
+            mTransaction.addChildObject(mRoot, group);
+        }
+        for (int i = 0; i < mNodes.length; ++i) {
+            mTransaction.addChildObject(mGroups[i / mChildren], mNodes[i]);
+        }
+        mTransaction.commit();
+        return perNode(System.nanoTime() - start);
+    }
+
+    private float tearDownTransaction() {
+        final long start = System.nanoTime();
+        for (int i = 0; i < mNodes.length; ++i) {
+            mTransaction.removeChildObject(mGroups[i / mChildren], mNodes[i]);
+        }
+        for (SXRNode group : mGroups) {
+            mTransaction.removeChildObject(mRoot, group);
+        }
+        mTransaction.commit();
+        return perNode(System.nanoTime() - start);
+    }
+
+    /*
+     * Changes that cancel out leave the graph alone.
+     */
+    private void netEffectOnly() {
+        final SXRNode node = mNodes[0];
+        mTransaction.addChildObject(mRoot, node);
+        mTransaction.reparent(node, mGroups[0]);
+        mTransaction.removeChildObject(mGroups[0], node);
+        check(mTransaction.getParent(node) == null, "staged parent is " + mTransaction.getParent(node));
+        mTransaction.commit();
+        check(mTransaction.size() == 0, "transaction not empty after commit");
+        check(node.getParent() == null, "node has a parent after cancelled changes");
+        check(mRoot.getChildrenCount() == 0 && mGroups[0].getChildrenCount() == 0,
+                "parents have children after cancelled changes");
+    }
+
+    /*
+     * Every group holds its nodes in the order they were added.
+     */
+    private void checkBuilt() {
+        check(mRoot.getChildrenCount() == mGroups.length, "root has " + mRoot.getChildrenCount() + " children");
+        for (int g = 0; g < mGroups.length; ++g) {
+            check(mRoot.getChildByIndex(g) == mGroups[g], "group " + g + " out of order");
+            check(mGroups[g].getParent() == mRoot, "group " + g + " has the wrong parent");
+        }
+        for (int i = 0; i < mNodes.length; ++i) {
+            final SXRNode group = mGroups[i / mChildren];
+            check(mNodes[i].getParent() == group, "node " + i + " has the wrong parent");
+            check(group.getChildByIndex(i % mChildren) == mNodes[i], "node " + i + " out of order");
+        }
+    }
+
+    private void checkEmpty() {
+        check(mRoot.getChildrenCount() == 0, "root has " + mRoot.getChildrenCount() + " children");
+        for (int g = 0; g < mGroups.length; ++g) {
+            check(mGroups[g].getParent() == null && mGroups[g].getChildrenCount() == 0,
+                    "group " + g + " not torn down");
+        }
+        for (int i = 0; i < mNodes.length; ++i) {
+            check(mNodes[i].getParent() == null, "node " + i + " still has a parent");
+        }
+    }
+
+    private float perNode(long time) {
+        return time / (float) Math.max(mNodes.length + mGroups.length, 1);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new RuntimeException("test failed: " + message);
+        }
+    }
+
+    private final SXRNode mRoot;
+    private final SXRNode[] mGroups;
+    private final SXRNode[] mNodes;
+    private final int mChildren;
+    private final SXRNodeTransaction mTransaction = new SXRNodeTransaction();
+}
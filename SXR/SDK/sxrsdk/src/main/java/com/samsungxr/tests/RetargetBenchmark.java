@@ -0,0 +1,213 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.tests;
+
+import java.util.Random;
+
+import com.samsungxr.SXRContext;
+import com.samsungxr.animation.SXRPose;
+import com.samsungxr.animation.SXRPoseMapper;
+import com.samsungxr.animation.SXRRetargetPlan;
+import com.samsungxr.animation.SXRSkeleton;
+import com.samsungxr.utility.Log;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+/**
+ * Retargets a source skeleton, animated with random rotations and a moving
+ * root, onto a number of avatars with {@link SXRPoseMapper}. Reports the
+ * average time per avatar per frame when the mapping is resolved again every
+ * frame, when every mapper compiles its own {@link SXRRetargetPlan} and when
+ * all of them share one plan. Checks that the avatars follow the source.
+ * <p>
+ * Has to be run after the context has been initialized.
+ */
+public class RetargetBenchmark {
+
+    static final String TAG = RetargetBenchmark.class.getSimpleName();
+
+    public static final int DEFAULT_AVATARS = 50;
+    public static final int DEFAULT_FRAMES = 100;
+
+    /*
+     * A humanoid hierarchy, parents before their children.
+     */
+    static final String[] BONE_NAMES = {
+            "hips", "spine", "chest", "neck", "head",
+            "l_shoulder", "l_upperarm", "l_forearm", "l_hand",
+            "r_shoulder", "r_upperarm", "r_forearm", "r_hand",
+            "l_thigh", "l_shin", "l_foot", "l_toe",
+            "r_thigh", "r_shin", "r_foot", "r_toe" };
+    static final int[] PARENT_BONES = {
+            -1, 0, 1, 2, 3,
+            2, 5, 6, 7,
+            2, 9, 10, 11,
+            0, 13, 14, 15,
+            0, 17, 18, 19 };
+    // the avatars have an extra bone the source does not animate
+    static final String EXTRA_BONE = "jaw";
+
+    public RetargetBenchmark(SXRContext context) {
+        this(context, DEFAULT_AVATARS, DEFAULT_FRAMES);
+    }
+
+    /**
+     * @param context context to create the skeletons in
+     * @param avatars number of avatars driven by the source
+     * @param frames number of frames retargeted each way
+     */
+    public RetargetBenchmark(SXRContext context, int avatars, int frames) {
+        mSource = new SXRSkeleton(context, PARENT_BONES);
+        mSource.setBoneNames(BONE_NAMES);
+        mFrames = frames;
+
+        final int[] parents = new int[PARENT_BONES.length + 1];
+        final String[] names = new String[BONE_NAMES.length + 1];
+        System.arraycopy(PARENT_BONES, 0, parents, 0, PARENT_BONES.length);
+        System.arraycopy(BONE_NAMES, 0, names, 0, BONE_NAMES.length);
+        parents[PARENT_BONES.length] = 4;
+        names[BONE_NAMES.length] = EXTRA_BONE;
+
+        mMappers = new SXRPoseMapper[avatars];
+        for (int i = 0; i < avatars; ++i) {
+            final SXRSkeleton avatar = new SXRSkeleton(context, parents);
+            avatar.setBoneNames(names);
+            mMappers[i] = new SXRPoseMapper(avatar, mSource, 0);
+        }
+        mBoneMap = mMappers[0].makeBoneMap(mSource, mMappers[0].getTargetSkeleton());
+    }
+
+    /**
+     * Retarget the frames
+     * @return average time per avatar per frame in nanoseconds, resolving the mapping every
+     * frame, with a plan per mapper and with a shared plan
+     */
+    public float[] run() {
+        // Warm up
+        retargetResolved();
+        retargetOwnPlans();
+        retargetSharedPlan();
+
+        final float resolvedTime = retargetResolved();
+        final float ownTime = retargetOwnPlans();
+        final float sharedTime = retargetSharedPlan();
+        check();
+
+        Log.d(TAG, "test finished: %d avatars, %d bones, %.1f ns resolving every frame, "
+                        + "%.1f ns with a plan each, %.1f ns with a shared plan",
+                mMappers.length, BONE_NAMES.length, resolvedTime, ownTime, sharedTime);
+        return new float[] { resolvedTime, ownTime, sharedTime };
+    }
+
+    /*
+     * What every frame cost before plans: the mapping is looked up again.
+     */
+    private float retargetResolved() {
+        long time = 0;
+        for (int f = 0; f < mFrames; ++f) {
+            animateSource();
+            final long start = System.nanoTime();
+            for (SXRPoseMapper mapper : mMappers) {
+                mapper.setBoneMap(mBoneMap);
+                mapper.mapLocalToTarget();
+            }
+            time += System.nanoTime() - start;
+        }
+        return time / (float) Math.max((long) mMappers.length * mFrames, 1);
+    }
+
+    private float retargetOwnPlans() {
+        for (SXRPoseMapper mapper : mMappers) {
+            mapper.setRetargetPlan(null);
+            mapper.setBoneMap(mBoneMap);
+            mapper.getRetargetPlan().setChannels(0, SXRRetargetPlan.ROTATION | SXRRetargetPlan.POSITION);
+        }
+        return retarget();
+    }
+
+    private float retargetSharedPlan() {
+        final SXRRetargetPlan plan = new SXRRetargetPlan(mSource, mMappers[0].getTargetSkeleton(), mBoneMap, false);
+        plan.setChannels(0, SXRRetargetPlan.ROTATION | SXRRetargetPlan.POSITION);
+        for (SXRPoseMapper mapper : mMappers) {
+            mapper.setRetargetPlan(plan);
+        }
+        return retarget();
+    }
+
+    private float retarget() {
+        long time = 0;
+        for (int f = 0; f < mFrames; ++f) {
+            animateSource();
+            final long start = System.nanoTime();
+            for (SXRPoseMapper mapper : mMappers) {
+                mapper.mapLocalToTarget();
+            }
+            time += System.nanoTime() - start;
+        }
+        return time / (float) Math.max((long) mMappers.length * mFrames, 1);
+    }
+
+    /*
+     * A new frame of the source animation, as a BVH player would produce it.
+     */
+    private void animateSource() {
+        final SXRPose pose = mSource.getPose();
+        for (int b = 0; b < BONE_NAMES.length; ++b) {
+            mRotation.identity().rotateXYZ(mRandom.nextFloat() - 0.5f, mRandom.nextFloat() - 0.5f,
+                    mRandom.nextFloat() - 0.5f);
+            pose.setLocalRotation(b, mRotation.x, mRotation.y, mRotation.z, mRotation.w);
+        }
+        pose.setLocalPosition(0, mRandom.nextFloat(), 1 + mRandom.nextFloat(), mRandom.nextFloat());
+    }
+
+    /*
+     * The last frame retargeted with the shared plan: every mapped bone has
+     * the rotation of its source bone, and the hips its position.
+     */
+    private void check() {
+        final SXRPose source = mSource.getPose();
+        final Quaternionf expected = new Quaternionf();
+        final Quaternionf actual = new Quaternionf();
+        final Vector3f expectedPosition = new Vector3f();
+        final Vector3f actualPosition = new Vector3f();
+
+        source.getLocalPosition(0, expectedPosition);
+        for (int i = 0; i < mMappers.length; ++i) {
+            final SXRPose pose = mMappers[i].getTargetSkeleton().getPose();
+            for (int b = 0; b < BONE_NAMES.length; ++b) {
+                source.getLocalRotation(b, expected);
+                pose.getLocalRotation(b, actual);
+                if (Math.abs(expected.dot(actual)) < 0.9999f) {
+                    throw new RuntimeException("test failed: avatar " + i + " bone " + BONE_NAMES[b]
+                            + " has rotation " + actual + ", expected " + expected);
+                }
+            }
+            pose.getLocalPosition(0, actualPosition);
+            if (actualPosition.distance(expectedPosition) > 1e-5f) {
+                throw new RuntimeException("test failed: avatar " + i + " hips at " + actualPosition
+                        + ", expected " + expectedPosition);
+            }
+        }
+    }
+
+    private final SXRSkeleton mSource;
+    private final SXRPoseMapper[] mMappers;
+    private final int[] mBoneMap;
+    private final int mFrames;
+    private final Quaternionf mRotation = new Quaternionf();
+    private final Random mRandom = new Random(1645);
+}
@@ -0,0 +1,159 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.tests;
+
+import java.util.Random;
+
+import com.samsungxr.SXRContext;
+import com.samsungxr.SXRNode;
+import com.samsungxr.SXRScene;
+import com.samsungxr.utility.Log;
+
+/**
+ * Looks up nodes by name in a scene of a number of nodes, walking the scene
+ * graph and through the {@linkplain SXRScene#setIndexEnabled(boolean) scene index}.
+ * Reports the average time per lookup each way, the time to build the index
+ * and the time per node added and removed with the index enabled. Checks that
+ * the index finds the same nodes and follows renames and removals.
+ * <p>
+ * Has to be run after the context has been initialized.
+ */
+public class SceneIndexBenchmark {
+
+    static final String TAG = SceneIndexBenchmark.class.getSimpleName();
+
+    public static final int DEFAULT_COUNT = 10000;
+    public static final int DEFAULT_LOOKUPS = 1000;
+    private static final int FAN_OUT = 8;
+
+    public SceneIndexBenchmark(SXRContext context) {
+        this(context, DEFAULT_COUNT, DEFAULT_LOOKUPS);
+    }
+
+    /**
+     * @param context context to create the scene in
+     * @param count number of nodes in the scene
+     * @param lookups number of names looked up each way
+     */
+    public SceneIndexBenchmark(SXRContext context, int count, int lookups) {
+        mContext = context;
+        mScene = new SXRScene(context);
+        mNodes = new SXRNode[count];
+        mLookups = lookups;
+        for (int i = 0; i < count; ++i) {
+            mNodes[i] = new SXRNode(context);
+            mNodes[i].setName(name(i));
+            if (i < FAN_OUT) {
+                mScene.addNode(mNodes[i]);
+            } else {
+                mNodes[i / FAN_OUT - 1].addChildObject(mNodes[i]);
+            }
+        }
+    }
+
+    /**
+     * Look up the nodes
+     * @return average time per lookup in nanoseconds without and with the index, time to build
+     * the index in nanoseconds and average time per node added and removed with the index
+     */
+    public float[] run() {
+        mScene.setIndexEnabled(false);
+        // Warm up
+        lookup();
+        final float walkTime = lookup();
+
+        final long start = System.nanoTime();
+        mScene.setIndexEnabled(true);
+        final float buildTime = System.nanoTime() - start;
+        lookup();
+        final float indexTime = lookup();
+        final float churnTime = churn();
+
+        check();
+        mScene.setIndexEnabled(false);
+
+        Log.d(TAG, "test finished: %d nodes, %.1f ns per lookup walking the graph, %.1f ns per lookup "
+                        + "with the index, %.0f ns to build the index, %.1f ns per node added and removed",
+                mNodes.length, walkTime, indexTime, buildTime, churnTime);
+        return new float[] { walkTime, indexTime, buildTime, churnTime };
+    }
+
+    private float lookup() {
+        final long start = System.nanoTime();
+        for (int i = 0; i < mLookups; ++i) {
+            final int n = mRandom.nextInt(mNodes.length);
+            if (mScene.getNodeByName(name(n)) != mNodes[n]) {
+                throw new RuntimeException("test failed: " + name(n) + " not found");
+            }
+        }
+        return (System.nanoTime() - start) / (float) Math.max(mLookups, 1);
+    }
+
+    /*
+     * What the index adds to building and tearing down a scene.
+     */
+    private float churn() {
+        final SXRNode[] added = new SXRNode[mLookups];
+        for (int i = 0; i < added.length; ++i) {
+            added[i] = new SXRNode(mContext);
+            added[i].setName("added" + i);
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < added.length; ++i) {
+            mNodes[i % mNodes.length].addChildObject(added[i]);
+        }
+        for (int i = 0; i < added.length; ++i) {
+            mNodes[i % mNodes.length].removeChildObject(added[i]);
+        }
+        return (System.nanoTime() - start) / (float) Math.max(added.length * 2, 1);
+    }
+
+    private void check() {
+        final SXRNode node = mNodes[mNodes.length - 1];
+        final String name = node.getName();
+
+        node.setName("renamed");
+        check(mScene.getNodeByName("renamed") == node, "renamed node not found");
+        check(mScene.getNodeByName(name) == null, "node found by its old name");
+        node.setName(name);
+
+        final SXRNode parent = node.getParent();
+        final int count = mScene.getIndex().getNodeCount();
+        parent.removeChildObject(node);
+        check(mScene.getNodeByName(name) == null, "removed node found");
+        check(mScene.getIndex().getNodeCount() == count - 1, "index has "
+                + mScene.getIndex().getNodeCount() + " nodes after a removal, expected " + (count - 1));
+        parent.addChildObject(node);
+        check(mScene.getNodeByName(name) == node, "node added back not found");
+        check(mScene.getNodeByName("added0") == null, "removed node found");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new RuntimeException("test failed: " + message);
+        }
+    }
+
+    private static String name(int i) {
+        return "node" + i;
+    }
+
+    private final SXRContext mContext;
+    private final SXRScene mScene;
+    private final SXRNode[] mNodes;
+    private final int mLookups;
+    private final Random mRandom = new Random(1645);
+}
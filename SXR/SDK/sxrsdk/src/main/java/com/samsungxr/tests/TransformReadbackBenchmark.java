@@ -0,0 +1,176 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.tests;
+
+import java.util.Random;
+
+import com.samsungxr.SXRContext;
+import com.samsungxr.SXRNode;
+import com.samsungxr.SXRTransform;
+import com.samsungxr.SXRTransformSnapshot;
+import com.samsungxr.utility.Log;
+
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+/**
+ * Reads position, rotation, scale and model matrix of a number of transforms
+ * with the per-component getters, with {@link SXRTransform#getTRS(float[], boolean)}
+ * and with a {@link SXRTransformSnapshot}, and reports the average time per
+ * transform for each. Checks that the three ways read the same values.
+ * <p>
+ * Has to be run after the context has been initialized.
+ */
+public class TransformReadbackBenchmark {
+
+    static final String TAG = TransformReadbackBenchmark.class.getSimpleName();
+
+    public static final int DEFAULT_COUNT = 1000;
+    public static final int DEFAULT_ITERATIONS = 100;
+
+    public TransformReadbackBenchmark(SXRContext context) {
+        this(context, DEFAULT_COUNT, DEFAULT_ITERATIONS);
+    }
+
+    /**
+     * @param context context to create the nodes in
+     * @param count number of transforms to read
+     * @param iterations number of times all the transforms are read each way
+     */
+    public TransformReadbackBenchmark(SXRContext context, int count, int iterations) {
+        final Random random = new Random(1645);
+        mTransforms = new SXRTransform[count];
+        mSnapshot = new SXRTransformSnapshot(count);
+        mIterations = iterations;
+        for (int i = 0; i < count; ++i) {
+            final SXRTransform transform = new SXRNode(context).getTransform();
+            final Quaternionf rotation = new Quaternionf().rotateXYZ(random.nextFloat(),
+                    random.nextFloat(), random.nextFloat());
+            transform.setPosition(random.nextFloat() * 10, random.nextFloat() * 10, random.nextFloat() * 10);
+            transform.setRotation(rotation.w, rotation.x, rotation.y, rotation.z);
+            transform.setScale(1 + random.nextFloat(), 1 + random.nextFloat(), 1 + random.nextFloat());
+            mTransforms[i] = transform;
+            mSnapshot.add(transform);
+        }
+    }
+
+    /**
+     * Read the transforms
+     * @return average time per transform in nanoseconds, with the getters, with getTRS and
+     * with the snapshot
+     */
+    public float[] run() {
+        // Warm up
+        readGetters();
+        readTRS();
+        readSnapshot();
+        check();
+
+        final float gettersTime = readGetters();
+        final float trsTime = readTRS();
+        final float snapshotTime = readSnapshot();
+
+        Log.d(TAG, "test finished: %d transforms, %.1f ns with getters, %.1f ns with getTRS, %.1f ns with a snapshot",
+                mTransforms.length, gettersTime, trsTime, snapshotTime);
+        return new float[] { gettersTime, trsTime, snapshotTime };
+    }
+
+    private float readGetters() {
+        final long start = System.nanoTime();
+        for (int n = 0; n < mIterations; ++n) {
+            for (SXRTransform transform : mTransforms) {
+                mSink += transform.getPositionX() + transform.getPositionY() + transform.getPositionZ()
+                        + transform.getRotationW() + transform.getRotationX() + transform.getRotationY()
+                        + transform.getRotationZ() + transform.getScaleX() + transform.getScaleY()
+                        + transform.getScaleZ() + transform.getModelMatrix()[12];
+            }
+        }
+        return (System.nanoTime() - start) / (float) Math.max((long) mTransforms.length * mIterations, 1);
+    }
+
+    private float readTRS() {
+        final float[] trs = new float[SXRTransform.READBACK_SIZE];
+        final long start = System.nanoTime();
+        for (int n = 0; n < mIterations; ++n) {
+            for (SXRTransform transform : mTransforms) {
+                transform.getTRS(trs, true);
+                mSink += trs[0] + trs[3] + trs[7] + trs[SXRTransform.TRS_SIZE + 12];
+            }
+        }
+        return (System.nanoTime() - start) / (float) Math.max((long) mTransforms.length * mIterations, 1);
+    }
+
+    private float readSnapshot() {
+        final long start = System.nanoTime();
+        for (int n = 0; n < mIterations; ++n) {
+            mSnapshot.capture();
+            for (int i = 0; i < mSnapshot.size(); ++i) {
+                mSink += mSnapshot.getPosition(i, mPosition).x + mSnapshot.getRotation(i, mRotation).w
+                        + mSnapshot.getScale(i, mScale).x + mSnapshot.getModelMatrix(i, mMatrix).m30();
+            }
+        }
+        return (System.nanoTime() - start) / (float) Math.max((long) mTransforms.length * mIterations, 1);
+    }
+
+    private void check() {
+        final float[] trs = new float[SXRTransform.READBACK_SIZE];
+        final float[] matrix = new float[16];
+        final float[] captured = new float[16];
+        mSnapshot.capture();
+        for (int i = 0; i < mTransforms.length; ++i) {
+            final SXRTransform transform = mTransforms[i];
+            final float[] getters = {
+                    transform.getPositionX(), transform.getPositionY(), transform.getPositionZ(),
+                    transform.getRotationW(), transform.getRotationX(), transform.getRotationY(),
+                    transform.getRotationZ(), transform.getScaleX(), transform.getScaleY(),
+                    transform.getScaleZ() };
+            transform.getTRS(trs, true);
+            transform.getModelMatrix(matrix);
+            mSnapshot.getPosition(i, mPosition);
+            mSnapshot.getRotation(i, mRotation);
+            mSnapshot.getScale(i, mScale);
+            mSnapshot.getModelMatrix(i, mMatrix).get(captured);
+            final float[] snapshot = {
+                    mPosition.x, mPosition.y, mPosition.z,
+                    mRotation.w, mRotation.x, mRotation.y, mRotation.z,
+                    mScale.x, mScale.y, mScale.z };
+
+            for (int j = 0; j < SXRTransform.TRS_SIZE; ++j) {
+                if (trs[j] != getters[j] || snapshot[j] != getters[j]) {
+                    throw new RuntimeException("test failed: transform " + i + " value " + j + " is "
+                            + getters[j] + " with getters, " + trs[j] + " with getTRS, "
+                            + snapshot[j] + " with a snapshot");
+                }
+            }
+            for (int j = 0; j < 16; ++j) {
+                if (trs[SXRTransform.TRS_SIZE + j] != matrix[j] || captured[j] != matrix[j]) {
+                    throw new RuntimeException("test failed: transform " + i + " model matrix differs at " + j);
+                }
+            }
+        }
+    }
+
+    private final SXRTransform[] mTransforms;
+    private final SXRTransformSnapshot mSnapshot;
+    private final int mIterations;
+    private final Vector3f mPosition = new Vector3f();
+    private final Quaternionf mRotation = new Quaternionf();
+    private final Vector3f mScale = new Vector3f();
+    private final Matrix4f mMatrix = new Matrix4f();
+    // Keeps the results alive so the reads are not optimized away
+    private float mSink;
+}
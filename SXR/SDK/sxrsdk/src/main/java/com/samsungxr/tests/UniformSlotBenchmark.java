@@ -0,0 +1,119 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.tests;
+
+import com.samsungxr.SXRContext;
+import com.samsungxr.SXRMaterial;
+import com.samsungxr.SXRUniformBatch;
+import com.samsungxr.utility.Log;
+
+/**
+ * Updates the color of a number of materials through the name based setter, through a
+ * {@linkplain com.samsungxr.SXRShaderData#getUniformSlot(String) uniform slot} and through a
+ * {@link SXRUniformBatch}, and reports the average time per material for each. Checks that the
+ * three ways write the same values.
+ * <p>
+ * Has to be run after the context has been initialized.
+ */
+public class UniformSlotBenchmark {
+
+    static final String TAG = UniformSlotBenchmark.class.getSimpleName();
+
+    public static final int DEFAULT_COUNT = 10000;
+    private static final String UNIFORM = "u_color";
+
+    public UniformSlotBenchmark(SXRContext context) {
+        this(context, DEFAULT_COUNT);
+    }
+
+    /**
+     * @param context context to create the materials in
+     * @param count number of materials to update
+     */
+    public UniformSlotBenchmark(SXRContext context, int count) {
+        mMaterials = new SXRMaterial[count];
+        for (int i = 0; i < count; ++i) {
+            mMaterials[i] = new SXRMaterial(context, SXRMaterial.SXRShaderType.Color.ID);
+        }
+        mBatch = new SXRUniformBatch(count);
+    }
+
+    /**
+     * Update the materials
+     * @return average time per material in nanoseconds, with the name, with the slot and with the batch
+     */
+    public float[] run() {
+        final int slot = mMaterials[0].getUniformSlot(UNIFORM);
+        if (slot < 0) {
+            throw new RuntimeException("test failed: no slot for " + UNIFORM);
+        }
+
+        // Warm up
+        setByName(0.1f);
+        setBySlot(slot, 0.2f);
+        setByBatch(slot, 0.3f);
+
+        final float nameTime = setByName(0.4f);
+        checkValues(0.4f);
+        final float slotTime = setBySlot(slot, 0.5f);
+        checkValues(0.5f);
+        final float batchTime = setByBatch(slot, 0.6f);
+        checkValues(0.6f);
+
+        Log.d(TAG, "test finished: %d materials, %.1f ns by name, %.1f ns by slot, %.1f ns batched",
+                mMaterials.length, nameTime, slotTime, batchTime);
+        return new float[] { nameTime, slotTime, batchTime };
+    }
+
+    private float setByName(float value) {
+        final long start = System.nanoTime();
+        for (int i = 0; i < mMaterials.length; ++i) {
+            mMaterials[i].setVec3(UNIFORM, value, i, 1.0f);
+        }
+        return (System.nanoTime() - start) / (float) Math.max(mMaterials.length, 1);
+    }
+
+    private float setBySlot(int slot, float value) {
+        final long start = System.nanoTime();
+        for (int i = 0; i < mMaterials.length; ++i) {
+            mMaterials[i].setVec3(slot, value, i, 1.0f);
+        }
+        return (System.nanoTime() - start) / (float) Math.max(mMaterials.length, 1);
+    }
+
+    private float setByBatch(int slot, float value) {
+        final long start = System.nanoTime();
+        for (int i = 0; i < mMaterials.length; ++i) {
+            mBatch.setVec3(mMaterials[i], slot, value, i, 1.0f);
+        }
+        mBatch.apply();
+        return (System.nanoTime() - start) / (float) Math.max(mMaterials.length, 1);
+    }
+
+    private void checkValues(float value) {
+        final float[] color = new float[3];
+        for (int i = 0; i < mMaterials.length; i += Math.max(mMaterials.length / 100, 1)) {
+            mMaterials[i].getFloatVec(mMaterials[i].getUniformSlot(UNIFORM), color);
+            if (color[0] != value || color[1] != i || color[2] != 1.0f) {
+                throw new RuntimeException("test failed: material " + i + " has color "
+                        + color[0] + ", " + color[1] + ", " + color[2]);
+            }
+        }
+    }
+
+    private final SXRMaterial[] mMaterials;
+    private final SXRUniformBatch mBatch;
+}
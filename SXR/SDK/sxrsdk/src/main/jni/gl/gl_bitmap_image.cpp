@@ -79,7 +79,7 @@ int GLBitmapImage::updateFromBitmap(JNIEnv *env, int target, jobject bitmap, boo
 void GLBitmapImage::updateFromBuffer(JNIEnv *env, int target, jobject pixels)
 {
     void* directPtr = env->GetDirectBufferAddress(pixels);
-    glTexSubImage2D(target, 0, mXOffset, mYOffset, mWidth, mHeight, mFormat, mType, directPtr);
+    glTexSubImage2D(target, 0, mXOffset, mYOffset, mBufferWidth, mBufferHeight, mFormat, mType, directPtr);
 }
 
 void GLBitmapImage::update(int texid)
@@ -133,6 +133,42 @@ void Transform::setModelMatrix(glm::mat4 matrix) {
     invalidate(true);
 }
 
+/*
+ * Set the parts of the transform selected by mask from a TRS record,
+ * invalidating the model matrix once.
+ */
+void Transform::set_trs(const float* trs, int mask) {
+    mutex_.lock();
+    if (mask & TRS_POSITION) {
+        position_ = glm::vec3(trs[0], trs[1], trs[2]);
+    }
+    if (mask & TRS_ROTATION) {
+        rotation_ = glm::quat(trs[3], trs[4], trs[5], trs[6]);
+    }
+    if (mask & TRS_SCALE) {
+        scale_ = glm::vec3(trs[7], trs[8], trs[9]);
+    }
+    mutex_.unlock();
+    invalidate((mask & TRS_ROTATION) != 0);
+}
+
+/*
+ * Copy position, rotation and scale into a TRS record under one lock.
+ */
+void Transform::get_trs(float* trs) const {
+    std::lock_guard<std::mutex> lock(mutex_);
+    trs[0] = position_.x;
+    trs[1] = position_.y;
+    trs[2] = position_.z;
+    trs[3] = rotation_.w;
+    trs[4] = rotation_.x;
+    trs[5] = rotation_.y;
+    trs[6] = rotation_.z;
+    trs[7] = scale_.x;
+    trs[8] = scale_.y;
+    trs[9] = scale_.z;
+}
+
 void Transform::translate(float x, float y, float z) {
     mutex_.lock();
     position_ += glm::vec3(x, y, z);
@@ -35,6 +35,17 @@ namespace sxr {
 
 class Transform: public Component {
 public:
+    // parts of a TRS record written by set_trs()
+    enum {
+        TRS_POSITION = 1,
+        TRS_ROTATION = 2,
+        TRS_SCALE = 4
+    };
+    // floats in a TRS record: position, rotation (w, x, y, z), scale
+    static const int TRS_RECORD_SIZE = 10;
+    // floats in a readback record: TRS record followed by the world matrix
+    static const int READBACK_RECORD_SIZE = TRS_RECORD_SIZE + 16;
+
     Transform();
     virtual ~Transform();
 
@@ -246,6 +257,8 @@ public:
     void rotateWithPivot(float w, float x, float y, float z, float pivot_x,
             float pivot_y, float pivot_z);
     void setModelMatrix(glm::mat4 mat);
+    void set_trs(const float* trs, int mask);
+    void get_trs(float* trs) const;
 
 private:
     Transform(const Transform& transform) = delete;
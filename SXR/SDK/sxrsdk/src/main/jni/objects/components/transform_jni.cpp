@@ -18,6 +18,8 @@
  * JNI
  ***************************************************************************/
 
+#include <cstring>
+
 #include "transform.h"
 
 #include "util/sxr_jni.h"
@@ -118,6 +120,23 @@ JNIEXPORT void JNICALL
 Java_com_samsungxr_NativeTransform_setModelMatrix(JNIEnv * env,
         jobject obj, jlong jtransform, jfloatArray mat);
 
+JNIEXPORT void JNICALL
+Java_com_samsungxr_NativeTransform_setTransforms(JNIEnv * env,
+        jobject obj, jlongArray jtransforms, jintArray jmasks,
+        jobject jrecords, jint count);
+
+JNIEXPORT void JNICALL
+Java_com_samsungxr_NativeTransform_getTRS(JNIEnv * env,
+        jobject obj, jlong jtransform, jfloatArray jtrs, jboolean withMatrix);
+
+JNIEXPORT void JNICALL
+Java_com_samsungxr_NativeTransform_readModelMatrix(JNIEnv * env,
+        jobject obj, jlong jtransform, jfloatArray jmatrix, jboolean local);
+
+JNIEXPORT void JNICALL
+Java_com_samsungxr_NativeTransform_getTransforms(JNIEnv * env,
+        jobject obj, jlongArray jtransforms, jint count, jobject jrecords);
+
 JNIEXPORT void JNICALL
 Java_com_samsungxr_NativeTransform_translate(JNIEnv * env,
         jobject obj, jlong jtransform, jfloat x, jfloat y, jfloat z);
@@ -356,6 +375,68 @@ Java_com_samsungxr_NativeTransform_setModelMatrix(JNIEnv * env,
 	env->ReleaseFloatArrayElements(mat, mat_arr, 0);
 }
 
+JNIEXPORT void JNICALL
+Java_com_samsungxr_NativeTransform_setTransforms(JNIEnv * env,
+        jobject obj, jlongArray jtransforms, jintArray jmasks,
+        jobject jrecords, jint count) {
+    const float* records = static_cast<const float*>(env->GetDirectBufferAddress(jrecords));
+    if (records == nullptr) {
+        LOGE("NativeTransform.setTransforms: records must be a direct buffer");
+        return;
+    }
+    jlong* transforms = env->GetLongArrayElements(jtransforms, 0);
+    jint* masks = env->GetIntArrayElements(jmasks, 0);
+
+    for (int i = 0; i < count; ++i) {
+        Transform* transform = reinterpret_cast<Transform*>(transforms[i]);
+        transform->set_trs(records + i * Transform::TRS_RECORD_SIZE, masks[i]);
+    }
+    env->ReleaseIntArrayElements(jmasks, masks, JNI_ABORT);
+    env->ReleaseLongArrayElements(jtransforms, transforms, JNI_ABORT);
+}
+
+JNIEXPORT void JNICALL
+Java_com_samsungxr_NativeTransform_getTRS(JNIEnv * env,
+        jobject obj, jlong jtransform, jfloatArray jtrs, jboolean withMatrix) {
+    Transform* transform = reinterpret_cast<Transform*>(jtransform);
+    float record[Transform::READBACK_RECORD_SIZE];
+    transform->get_trs(record);
+    if (withMatrix) {
+        glm::mat4 matrix = transform->getModelMatrix();
+        memcpy(record + Transform::TRS_RECORD_SIZE, glm::value_ptr(matrix), sizeof(matrix));
+        env->SetFloatArrayRegion(jtrs, 0, Transform::READBACK_RECORD_SIZE, record);
+    } else {
+        env->SetFloatArrayRegion(jtrs, 0, Transform::TRS_RECORD_SIZE, record);
+    }
+}
+
+JNIEXPORT void JNICALL
+Java_com_samsungxr_NativeTransform_readModelMatrix(JNIEnv * env,
+        jobject obj, jlong jtransform, jfloatArray jmatrix, jboolean local) {
+    Transform* transform = reinterpret_cast<Transform*>(jtransform);
+    glm::mat4 matrix = local ? transform->getLocalModelMatrix() : transform->getModelMatrix();
+    env->SetFloatArrayRegion(jmatrix, 0, 16, glm::value_ptr(matrix));
+}
+
+JNIEXPORT void JNICALL
+Java_com_samsungxr_NativeTransform_getTransforms(JNIEnv * env,
+        jobject obj, jlongArray jtransforms, jint count, jobject jrecords) {
+    float* records = static_cast<float*>(env->GetDirectBufferAddress(jrecords));
+    if (records == nullptr) {
+        LOGE("NativeTransform::getTransforms records must be a direct buffer");
+        return;
+    }
+    jlong* transforms = env->GetLongArrayElements(jtransforms, 0);
+    for (int i = 0; i < count; ++i) {
+        Transform* transform = reinterpret_cast<Transform*>(transforms[i]);
+        float* record = records + i * Transform::READBACK_RECORD_SIZE;
+        transform->get_trs(record);
+        glm::mat4 matrix = transform->getModelMatrix();
+        memcpy(record + Transform::TRS_RECORD_SIZE, glm::value_ptr(matrix), sizeof(matrix));
+    }
+    env->ReleaseLongArrayElements(jtransforms, transforms, JNI_ABORT);
+}
+
 JNIEXPORT void JNICALL
 Java_com_samsungxr_NativeTransform_translate(JNIEnv * env,
         jobject obj, jlong jtransform, jfloat x, jfloat y, jfloat z) {
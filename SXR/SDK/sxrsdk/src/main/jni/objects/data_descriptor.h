@@ -126,6 +126,18 @@ namespace sxr {
         const DataEntry* find(const char* name) const;
         DataEntry* find(const char* name);
 
+        /**
+         * Get the slot of the named entry: its index in descriptor order.
+         * The slot is the same for every block made from the same
+         * descriptor, so it can be looked up once and reused.
+         * @param name name of entry to find.
+         * @return slot of the entry or -1 if not found
+         */
+        int findSlot(const char* name) const
+        {
+            return (name != nullptr) ? findName(name) : -1;
+        }
+
         /*
          * Get the number of bytes occupied by the named entry.
          * For vertex arrays, it is the number of bytes occupied
@@ -19,6 +19,8 @@
 
 #include "node.h"
 
+#include <unordered_set>
+
 #include "objects/components/camera.h"
 #include "objects/components/camera_rig.h"
 #include "objects/components/render_data.h"
@@ -249,6 +251,80 @@ void Node::removeChildObject(Node* child)
     }
 }
 
+/**
+ * Add many children with one update of the child list.
+ */
+void Node::addChildObjects(Node* self, Node* const* children, int count)
+{
+    Scene* scene = Scene::main_scene();
+    Node* root = (scene != NULL) ? scene->getRoot() : NULL;
+
+    for (int i = 0; i < count; ++i)
+    {
+        if (onAddChild(children[i], root) && (scene != NULL))
+        {
+            children[i]->onAddedToScene(scene);
+        }
+    }
+    {
+        std::lock_guard < std::mutex > lock(children_mutex_);
+        children_.reserve(children_.size() + count);
+        children_.insert(children_.end(), children, children + count);
+    }
+    for (int i = 0; i < count; ++i)
+    {
+        children[i]->parent_ = self;
+        children[i]->onTransformChanged();
+    }
+}
+
+/**
+ * Remove many children with one pass over the child list.
+ */
+void Node::removeChildObjects(Node* const* children, int count)
+{
+    Scene* scene = Scene::main_scene();
+    std::unordered_set<Node*> removed;
+
+    removed.reserve(count);
+    for (int i = 0; i < count; ++i)
+    {
+        Node* child = children[i];
+
+        if (child->parent_ != this)
+        {
+            continue;
+        }
+        if (scene != NULL)
+        {
+            if (onRemoveChild(child, scene->getRoot()))
+            {
+                child->onRemovedFromScene(scene);
+            }
+        }
+        else
+        {
+            onRemoveChild(child, NULL);
+        }
+        removed.insert(child);
+    }
+    if (removed.empty())
+    {
+        return;
+    }
+    {
+        std::lock_guard < std::mutex > lock(children_mutex_);
+        children_.erase(std::remove_if(children_.begin(), children_.end(),
+                                       [&removed](Node* n) { return removed.count(n) > 0; }),
+                        children_.end());
+    }
+    for (auto it = removed.begin(); it != removed.end(); ++it)
+    {
+        (*it)->parent_ = NULL;
+        (*it)->onTransformChanged();
+    }
+}
+
 void Node::onTransformChanged()
 {
     Transform* t = transform();
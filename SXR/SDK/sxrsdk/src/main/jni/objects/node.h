@@ -128,6 +128,8 @@ public:
 
     void addChildObject(Node* self, Node* child);
     void removeChildObject(Node* child);
+    void addChildObjects(Node* self, Node* const* children, int count);
+    void removeChildObjects(Node* const* children, int count);
     void getDescendants(std::vector<Node*>& descendants);
     void clear();
     int getChildrenCount() const;
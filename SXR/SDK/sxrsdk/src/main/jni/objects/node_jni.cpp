@@ -55,6 +55,11 @@ extern "C" {
     Java_com_samsungxr_NativeNode_removeChildObject(
             JNIEnv * env, jobject obj, jlong jnode, jlong jchild);
 
+    JNIEXPORT void JNICALL
+    Java_com_samsungxr_NativeNode_updateChildren(
+            JNIEnv * env, jobject obj, jlongArray jremovals, jint removalLength,
+            jlongArray jadditions, jint additionLength);
+
     JNIEXPORT bool JNICALL
     Java_com_samsungxr_NativeNode_isColliding(
             JNIEnv * env, jobject obj, jlong jnode, jlong jother_object);
@@ -155,6 +160,56 @@ Java_com_samsungxr_NativeNode_removeChildObject(
     node->removeChildObject(child);
 }
 
+/*
+ * Each list is a sequence of groups: the parent, the number of children
+ * and the children.
+ */
+static void updateChildGroups(JNIEnv* env, jlongArray jgroups, jint length, bool add)
+{
+    if (length <= 0)
+    {
+        return;
+    }
+    jlong* groups = env->GetLongArrayElements(jgroups, 0);
+    std::vector<Node*> children;
+    int i = 0;
+
+    while (i + 1 < length)
+    {
+        Node* parent = reinterpret_cast<Node*>(groups[i]);
+        int count = static_cast<int>(groups[i + 1]);
+
+        i += 2;
+        if ((count <= 0) || (i + count > length))
+        {
+            break;
+        }
+        children.resize(count);
+        for (int c = 0; c < count; ++c)
+        {
+            children[c] = reinterpret_cast<Node*>(groups[i + c]);
+        }
+        i += count;
+        if (add)
+        {
+            parent->addChildObjects(parent, children.data(), count);
+        }
+        else
+        {
+            parent->removeChildObjects(children.data(), count);
+        }
+    }
+    env->ReleaseLongArrayElements(jgroups, groups, JNI_ABORT);
+}
+
+JNIEXPORT void JNICALL
+Java_com_samsungxr_NativeNode_updateChildren(
+        JNIEnv * env, jobject obj, jlongArray jremovals, jint removalLength,
+        jlongArray jadditions, jint additionLength) {
+    updateChildGroups(env, jremovals, removalLength, false);
+    updateChildGroups(env, jadditions, additionLength, true);
+}
+
 JNIEXPORT bool JNICALL
 Java_com_samsungxr_NativeNode_isColliding(
         JNIEnv * env, jobject obj, jlong jnode, jlong jother_object) {
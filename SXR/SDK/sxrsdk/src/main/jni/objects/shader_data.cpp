@@ -203,6 +203,25 @@ bool  ShaderData::getMat4(const char* name, glm::mat4& m) const
     return uniforms().getMat4(name, m);
 }
 
+int ShaderData::getUniformSlot(const char* name) const
+{
+    std::lock_guard<std::mutex> lock(mLock);
+    return uniforms().findSlot(name);
+}
+
+bool  ShaderData::setFloatVecAt(int slot, const float* val, int n)
+{
+    std::lock_guard<std::mutex> lock(mLock);
+    makeDirty(MAT_DATA);
+    return uniforms().setFloatVecAt(slot, val, n);
+}
+
+bool  ShaderData::getFloatVecAt(int slot, float* val, int n) const
+{
+    std::lock_guard<std::mutex> lock(mLock);
+    return uniforms().getFloatVecAt(slot, val, n);
+}
+
 void ShaderData::makeDirty(DIRTY_BITS bits)
 {
     int temp = mDirty;
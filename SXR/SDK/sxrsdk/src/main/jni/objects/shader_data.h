@@ -73,6 +73,9 @@ public:
     bool    setVec4(const char* name, const glm::vec4& v);
     bool    getMat4(const char* name, glm::mat4& m) const;
     bool    setMat4(const char* name, const glm::mat4& m);
+    int     getUniformSlot(const char* name) const;
+    bool    setFloatVecAt(int slot, const float* val, int n);
+    bool    getFloatVecAt(int slot, float* val, int n) const;
     void    makeDirty(DIRTY_BITS bits);
     void    clearDirty();
     bool    isDirty(DIRTY_BITS bits) const;
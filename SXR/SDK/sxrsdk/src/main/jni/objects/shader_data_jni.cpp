@@ -118,6 +118,41 @@ JNIEXPORT jboolean JNICALL
 Java_com_samsungxr_NativeShaderData_copyUniforms(JNIEnv* env,
                                              jobject obj, jlong jdest, jlong jsrc);
 
+JNIEXPORT jint JNICALL
+Java_com_samsungxr_NativeShaderData_getUniformSlot(JNIEnv* env,
+                                                 jobject obj, jlong jshader_data, jstring key);
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setFloatAt(JNIEnv* env,
+                                             jobject obj, jlong jshader_data, jint slot,
+                                             jfloat value);
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setVec3At(JNIEnv* env,
+                                            jobject obj, jlong jshader_data, jint slot,
+                                            jfloat x, jfloat y, jfloat z);
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setVec4At(JNIEnv* env,
+                                            jobject obj, jlong jshader_data, jint slot,
+                                            jfloat x, jfloat y, jfloat z, jfloat w);
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setFloatVecAt(JNIEnv* env,
+                                                jobject obj, jlong jshader_data, jint slot,
+                                                jfloatArray jvec, jint size);
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_getFloatVecAt(JNIEnv* env,
+                                                jobject obj, jlong jshader_data, jint slot,
+                                                jfloatArray jvec, jint size);
+
+JNIEXPORT jint JNICALL
+Java_com_samsungxr_NativeShaderData_setFloatsAt(JNIEnv* env,
+                                              jobject obj, jlongArray jshader_datas,
+                                              jintArray jslots, jintArray jsizes,
+                                              jobject jvalues, jint count);
+
 };
 
 
@@ -375,6 +410,108 @@ Java_com_samsungxr_NativeShaderData_copyUniforms(JNIEnv* env,
     return dest->copyUniforms(src);
 }
 
+JNIEXPORT jint JNICALL
+Java_com_samsungxr_NativeShaderData_getUniformSlot(JNIEnv* env,
+                                                 jobject obj, jlong jshader_data, jstring key)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    const char* char_key = env->GetStringUTFChars(key, 0);
+    int slot = shader_data->getUniformSlot(char_key);
+    env->ReleaseStringUTFChars(key, char_key);
+    return slot;
+}
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setFloatAt(JNIEnv* env,
+                                             jobject obj, jlong jshader_data, jint slot,
+                                             jfloat value)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    return shader_data->setFloatVecAt(slot, &value, 1);
+}
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setVec3At(JNIEnv* env,
+                                            jobject obj, jlong jshader_data, jint slot,
+                                            jfloat x, jfloat y, jfloat z)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    float v[3] = { x, y, z };
+    return shader_data->setFloatVecAt(slot, v, 3);
+}
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setVec4At(JNIEnv* env,
+                                            jobject obj, jlong jshader_data, jint slot,
+                                            jfloat x, jfloat y, jfloat z, jfloat w)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    float v[4] = { x, y, z, w };
+    return shader_data->setFloatVecAt(slot, v, 4);
+}
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setFloatVecAt(JNIEnv* env,
+                                                jobject obj, jlong jshader_data, jint slot,
+                                                jfloatArray jvec, jint size)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    float* elems = env->GetFloatArrayElements(jvec, 0);
+    bool rc = shader_data->setFloatVecAt(slot, elems, size);
+    env->ReleaseFloatArrayElements(jvec, elems, JNI_ABORT);
+    return rc;
+}
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_getFloatVecAt(JNIEnv* env,
+                                                jobject obj, jlong jshader_data, jint slot,
+                                                jfloatArray jvec, jint size)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    float* elems = env->GetFloatArrayElements(jvec, 0);
+    bool rc = shader_data->getFloatVecAt(slot, elems, size);
+    env->ReleaseFloatArrayElements(jvec, elems, rc ? 0 : JNI_ABORT);
+    return rc;
+}
+
+/*
+ * Applies the writes recorded by SXRUniformBatch: write i stores
+ * sizes[i] floats, taken in order from the values buffer, into
+ * slot slots[i] of shader data shader_datas[i].
+ * Returns the number of writes which failed.
+ */
+JNIEXPORT jint JNICALL
+Java_com_samsungxr_NativeShaderData_setFloatsAt(JNIEnv* env,
+                                              jobject obj, jlongArray jshader_datas,
+                                              jintArray jslots, jintArray jsizes,
+                                              jobject jvalues, jint count)
+{
+    const float* values = static_cast<const float*>(env->GetDirectBufferAddress(jvalues));
+    if (values == nullptr)
+    {
+        LOGE("NativeShaderData::setFloatsAt values must be a direct buffer");
+        return count;
+    }
+    jlong* shader_datas = env->GetLongArrayElements(jshader_datas, 0);
+    jint* slots = env->GetIntArrayElements(jslots, 0);
+    jint* sizes = env->GetIntArrayElements(jsizes, 0);
+    int failed = 0;
+
+    for (int i = 0; i < count; ++i)
+    {
+        ShaderData* shader_data = reinterpret_cast<ShaderData*>(shader_datas[i]);
+        if (!shader_data->setFloatVecAt(slots[i], values, sizes[i]))
+        {
+            ++failed;
+        }
+        values += sizes[i];
+    }
+    env->ReleaseIntArrayElements(jsizes, sizes, JNI_ABORT);
+    env->ReleaseIntArrayElements(jslots, slots, JNI_ABORT);
+    env->ReleaseLongArrayElements(jshader_datas, shader_datas, JNI_ABORT);
+    return failed;
+}
+
 
 
 }
@@ -20,7 +20,8 @@
 namespace sxr {
 BitmapImage::BitmapImage(int format) :
             Image(Image::BITMAP, format),mData(NULL),
-            mBitmap(NULL), mJava(NULL), mHasTransparency(false)
+            mBitmap(NULL), mJava(NULL), mHasTransparency(false),
+            mBufferWidth(0), mBufferHeight(0)
 {
 }
 
@@ -80,8 +81,14 @@ void BitmapImage::update(JNIEnv* env, int xoffset, int yoffset, int width, int h
     {
         mXOffset = xoffset;
         mYOffset = yoffset;
-        mWidth = width;
-        mHeight = height;
+        mBufferWidth = width;
+        mBufferHeight = height;
+        // A sub-region does not change the size of the image
+        if ((xoffset == 0) && (yoffset == 0) && (width >= mWidth) && (height >= mHeight))
+        {
+            mWidth = width;
+            mHeight = height;
+        }
         mFormat = format;
         mType = type;
         mBitmap = env->NewGlobalRef(buffer);
@@ -50,6 +50,10 @@ namespace sxr {
             return mHasTransparency;
         }
 
+        bool isUpdatePending() const {
+            return updatePending();
+        }
+
     protected:
         void clearData(JNIEnv* env);
 
@@ -65,6 +69,8 @@ namespace sxr {
         jbyteArray mData;
         jobject mBitmap;
         bool mIsBuffer;
+        int mBufferWidth;
+        int mBufferHeight;
         bool mHasTransparency;
         jbyte* mPixels;
     };
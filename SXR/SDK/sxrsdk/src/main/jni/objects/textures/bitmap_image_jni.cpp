@@ -52,6 +52,10 @@ namespace sxr
     Java_com_samsungxr_NativeBitmapImage_updateFromBitmap(JNIEnv *env, jobject obj,
                                                         jlong jtexture, jobject jbitmap,
                                                         jboolean hasAlpha, jstring format);
+
+    JNIEXPORT jboolean JNICALL
+    Java_com_samsungxr_NativeBitmapImage_isUpdatePending(JNIEnv *env, jobject obj,
+                                                       jlong jtexture);
     }
 
     JNIEXPORT jlong JNICALL
@@ -110,6 +114,14 @@ namespace sxr
         texture->update(env, xoffset, yoffset, width, height, format, type, jbuffer);
     }
 
+    JNIEXPORT jboolean JNICALL
+    Java_com_samsungxr_NativeBitmapImage_isUpdatePending(JNIEnv *env, jobject obj,
+                                                       jlong jtexture)
+    {
+        BitmapImage *texture = reinterpret_cast<BitmapImage *>(jtexture);
+        return static_cast<jboolean>(texture->isUpdatePending());
+    }
+
     JNIEXPORT void JNICALL
     Java_com_samsungxr_NativeBitmapImage_updateCompressed(JNIEnv *env, jobject obj,
                                                         jlong jtexture, jint width, jint height, jint imageSize,
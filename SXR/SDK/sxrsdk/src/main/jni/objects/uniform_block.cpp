@@ -243,6 +243,41 @@ namespace sxr
     }
 
 
+    bool UniformBlock::setFloatVecAt(int slot, const float *val, int n)
+    {
+        int bytesize = n * sizeof(float);
+        if ((slot < 0) || (slot >= (int) mLayout.size()) || (mUniformData == NULL))
+        {
+            return false;
+        }
+        DataEntry& u = mLayout[slot];
+        if (bytesize > u.Size)
+        {
+            LOGE("ERROR: UniformBlock element %s is smaller than %d floats\n", u.Name, n);
+            return false;
+        }
+        memcpy(mUniformData + u.Offset, val, bytesize);
+        u.IsSet = true;
+        markDirty();
+        return true;
+    }
+
+    bool UniformBlock::getFloatVecAt(int slot, float *val, int n) const
+    {
+        int bytesize = n * sizeof(float);
+        if ((slot < 0) || (slot >= (int) mLayout.size()) || (mUniformData == NULL))
+        {
+            return false;
+        }
+        const DataEntry& u = mLayout[slot];
+        if (!u.IsSet || (bytesize > u.Size))
+        {
+            return false;
+        }
+        memcpy((char *) val, mUniformData + u.Offset, bytesize);
+        return true;
+    }
+
     const char* UniformBlock::getData(const char* name, int &bytesize) const
     {
         const DataEntry* u = find(name);
@@ -296,6 +296,29 @@ namespace sxr
          */
         virtual bool getIntVec(const char *name, int *val, int n) const;
 
+        /**
+         * Set the value of a float uniform by slot.
+         * Skips the name lookup, the slot comes from findSlot.
+         * @param slot index of the uniform in the descriptor.
+         * @param val pointer to float vector.
+         * @param n number of floats in the vector.
+         * @returns true if successfully set, false if the slot is
+         *          out of range or the uniform is too small.
+         * @see findSlot
+         */
+        virtual bool setFloatVecAt(int slot, const float *val, int n);
+
+        /**
+         * Get the value of a float uniform by slot.
+         * @param slot index of the uniform in the descriptor.
+         * @param val pointer to float array to get value.
+         * @param n number of floats in the array.
+         * @return true if vector retrieved, false if the slot is
+         *         out of range, not set or the size is wrong.
+         * @see findSlot
+         */
+        bool getFloatVecAt(int slot, float *val, int n) const;
+
         /**
          * Copy a range of data from the CPU into the GPU.
          * If useGPUBuffer is enabled, the data is copied into a uniform
@@ -188,6 +188,21 @@ namespace sxr {
         return false;
     }
 
+    bool VulkanUniformBlock::setFloatVecAt(int slot, const float *val, int n) {
+        if ((slot < 0) || (slot >= (int) mLayout.size())) {
+            return false;
+        }
+        const DataEntry& u = mLayout[slot];
+
+        // arrays of vec3 are padded, setFloatVec takes care of that
+        if ((u.Type[u.Type.length() - 1] == '3') &&
+            (u.Count > 1))
+        {
+            return setFloatVec(u.Name, val, n);
+        }
+        return UniformBlock::setFloatVecAt(slot, val, n);
+    }
+
     bool VulkanUniformBlock::setIntVec(const char* name, const int *val, int n) {
         DataEntry *u = find(name);
 
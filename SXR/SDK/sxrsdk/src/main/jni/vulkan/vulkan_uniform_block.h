@@ -74,6 +74,7 @@ namespace sxr {
         char * getUniformData() { return mUniformData; }
         virtual bool setFloatVec(const char *name, const float *val, int n);
         virtual bool setIntVec(const char *name, const int *val, int n);
+        virtual bool setFloatVecAt(int slot, const float *val, int n);
     protected:
         void createBuffer(VulkanCore*);
         void updateBuffer(VulkanCore* vk, int start, int len);